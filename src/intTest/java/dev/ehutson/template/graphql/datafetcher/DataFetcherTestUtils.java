@@ -4,8 +4,10 @@ import dev.ehutson.template.domain.RoleModel;
 import dev.ehutson.template.domain.UserModel;
 import dev.ehutson.template.repository.RoleRepository;
 import dev.ehutson.template.repository.UserRepository;
-import dev.ehutson.template.security.service.AuthorizationService;
 import dev.ehutson.template.security.service.UserDetailsImpl;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -17,17 +19,15 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Arrays;
 
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 @Component
 public class DataFetcherTestUtils {
 
-    @Autowired
-    private UserDataFetcher userDataFetcher;
-
     @Autowired
     private UserRepository userRepository;
 
@@ -79,7 +79,6 @@ public class DataFetcherTestUtils {
 
     /**
      * Authenticates the given user by setting up the security context.
-     * Mocks the AuthorizationService to return the test user.
      *
      * @param user the user to authenticate
      */
@@ -105,38 +104,27 @@ public class DataFetcherTestUtils {
         Authentication authentication = new UsernamePasswordAuthenticationToken(
                 userDetails, null, userDetails.getAuthorities());
         when(securityContext.getAuthentication()).thenReturn(authentication);
+    }
 
-        // Mock the AuthorizationService to return our test user
-        AuthorizationService authorizationService = mock(AuthorizationService.class);
-        when(authorizationService.getCurrentUser()).thenReturn(Optional.of(user));
-        when(authorizationService.isResourceOwner(user.getId())).thenReturn(true);
-
-        // For admin user, mock admin role check
-        if (user.getRoles().stream().anyMatch(role -> role.getName().equals("ROLE_ADMIN"))) {
-            when(authorizationService.hasRole("ROLE_ADMIN")).thenReturn(true);
-        } else {
-            when(authorizationService.hasRole("ROLE_ADMIN")).thenReturn(false);
-        }
-
-        // Setup role assignment methods
-        when(authorizationService.assignRoleToUser(testUser.getId(), adminRole.getId())).thenAnswer(invocation -> {
-            testUser.getRoles().add(adminRole);
-            return testUser;
-        });
-
-        when(authorizationService.removeRoleFromUser(testUser.getId(), adminRole.getId())).thenAnswer(invocation -> {
-            testUser.getRoles().remove(adminRole);
-            return testUser;
-        });
-
-        // Use reflection to set the mocked AuthorizationService
-        try {
-            java.lang.reflect.Field field = UserDataFetcher.class.getDeclaredField("authorizationService");
-            field.setAccessible(true);
-            field.set(userDataFetcher, authorizationService);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to mock AuthorizationService", e);
-        }
+    /**
+     * Creates a data fetching environment whose selection set contains the given fields.
+     *
+     * @param fields the selected field names
+     * @return the data fetching environment
+     */
+    DataFetchingEnvironment selecting(String... fields) {
+        List<SelectedField> selectedFields = Arrays.stream(fields)
+                .map(name -> {
+                    SelectedField field = mock(SelectedField.class);
+                    when(field.getName()).thenReturn(name);
+                    return field;
+                })
+                .toList();
+        DataFetchingFieldSelectionSet selectionSet = mock(DataFetchingFieldSelectionSet.class);
+        when(selectionSet.getFields(anyString())).thenReturn(selectedFields);
+        DataFetchingEnvironment environment = mock(DataFetchingEnvironment.class);
+        when(environment.getSelectionSet()).thenReturn(selectionSet);
+        return environment;
     }
 
     /**
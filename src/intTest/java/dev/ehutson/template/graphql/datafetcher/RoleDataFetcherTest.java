@@ -7,7 +7,6 @@ import dev.ehutson.template.config.TestContainersConfig;
 import dev.ehutson.template.domain.UserModel;
 import dev.ehutson.template.repository.RoleRepository;
 import dev.ehutson.template.repository.UserRepository;
-import dev.ehutson.template.security.service.AuthorizationService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -48,14 +47,13 @@ class RoleDataFetcherTest {
     private DataFetcherTestUtils utils;
 
     private SecurityContext originalSecurityContext;
-    private AuthorizationService originalAuthorizationService;
 
     private static final String ACCESS_DENIED = "Access Denied";
 
     /**
      * Sets up the test environment before each test.
      * Saves the original security context, clears previous test data,
-     * creates test roles and users, and retrieves the original AuthorizationService.
+     * and creates test roles and users.
      */
     @BeforeEach
     void setUp() {
@@ -63,38 +61,17 @@ class RoleDataFetcherTest {
         originalSecurityContext = SecurityContextHolder.getContext();
 
         utils.initializeTestData();
-
-        // Get original authorization service
-        try {
-            java.lang.reflect.Field field = UserDataFetcher.class.getDeclaredField("authorizationService");
-            field.setAccessible(true);
-            originalAuthorizationService = (AuthorizationService) field.get(roleDataFetcher);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to get AuthorizationService", e);
-        }
     }
 
     /**
      * Cleans up the test environment after each test.
-     * Restores the original security context and AuthorizationService,
-     * and clears the test data.
+     * Restores the original security context and clears the test data.
      */
     @AfterEach
     void tearDown() {
         // Restore original security context
         SecurityContextHolder.setContext(originalSecurityContext);
 
-        // Restore original AuthorizationService if it was replaced
-        if (originalAuthorizationService != null) {
-            try {
-                java.lang.reflect.Field field = UserDataFetcher.class.getDeclaredField("authorizationService");
-                field.setAccessible(true);
-                field.set(roleDataFetcher, originalAuthorizationService);
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to restore AuthorizationService", e);
-            }
-        }
-
         utils.resetTestData();
     }
 
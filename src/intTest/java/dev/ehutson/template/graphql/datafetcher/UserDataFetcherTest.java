@@ -6,7 +6,6 @@ import dev.ehutson.template.domain.RoleModel;
 import dev.ehutson.template.domain.UserModel;
 import dev.ehutson.template.exception.InsufficientPrivilegesException;
 import dev.ehutson.template.repository.UserRepository;
-import dev.ehutson.template.security.service.AuthorizationService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -45,7 +44,6 @@ class UserDataFetcherTest {
     private DataFetcherTestUtils utils;
 
     private SecurityContext originalSecurityContext;
-    private AuthorizationService originalAuthorizationService;
 
     private static final String ACCESS_DENIED = "Access Denied";
 
@@ -56,7 +54,7 @@ class UserDataFetcherTest {
     /**
      * Sets up the test environment before each test.
      * Saves the original security context, clears previous test data,
-     * creates test roles and users, and retrieves the original AuthorizationService.
+     * and creates test roles and users.
      */
     @BeforeEach
     void setUp() {
@@ -67,38 +65,17 @@ class UserDataFetcherTest {
         testUser = utils.getTestUser();
         adminUser = utils.getAdminUser();
         userRole = utils.getUserRole();
-
-        // Get original authorization service
-        try {
-            java.lang.reflect.Field field = UserDataFetcher.class.getDeclaredField("authorizationService");
-            field.setAccessible(true);
-            originalAuthorizationService = (AuthorizationService) field.get(userDataFetcher);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to get AuthorizationService", e);
-        }
     }
 
     /**
      * Cleans up the test environment after each test.
-     * Restores the original security context and AuthorizationService,
-     * and clears the test data.
+     * Restores the original security context and clears the test data.
      */
     @AfterEach
     void tearDown() {
         // Restore original security context
         SecurityContextHolder.setContext(originalSecurityContext);
 
-        // Restore original AuthorizationService if it was replaced
-        if (originalAuthorizationService != null) {
-            try {
-                java.lang.reflect.Field field = UserDataFetcher.class.getDeclaredField("authorizationService");
-                field.setAccessible(true);
-                field.set(userDataFetcher, originalAuthorizationService);
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to restore AuthorizationService", e);
-            }
-        }
-
         utils.resetTestData();
         testUser = null;
         adminUser = null;
@@ -115,7 +92,7 @@ class UserDataFetcherTest {
         authenticateAsUser(testUser);
 
         // Test the GraphQL operation
-        User currentUser = userDataFetcher.getCurrentUser();
+        User currentUser = userDataFetcher.getCurrentUser(utils.selecting("id", "username", "email", "firstName", "lastName", "roles"));
 
         // Verify the returned user
         assertNotNull(currentUser);
@@ -139,7 +116,7 @@ class UserDataFetcherTest {
 
         // Test the GraphQL operation - should throw AccessDeniedException
         Exception exception = assertThrows(InsufficientPrivilegesException.class, () -> {
-            userDataFetcher.getCurrentUser();
+            userDataFetcher.getCurrentUser(utils.selecting("id", "username", "email", "firstName", "lastName", "roles"));
         });
 
         assertEquals("You do not have sufficient privileges to access this resource", exception.getMessage());
@@ -155,7 +132,7 @@ class UserDataFetcherTest {
         authenticateAsUser(adminUser);
 
         // Test the GraphQL operation
-        User user = userDataFetcher.getUser(testUser.getId());
+        User user = userDataFetcher.getUser(testUser.getId(), utils.selecting("id", "username"));
 
         // Verify the returned user
         assertNotNull(user);
@@ -163,6 +140,22 @@ class UserDataFetcherTest {
         assertEquals(testUser.getUsername(), user.getUsername());
     }
 
+    /**
+     * Tests that the getUser GraphQL operation only loads the selected fields.
+     * Verifies that unselected fields are left unset.
+     */
+    @Test
+    void testGetUserLoadsOnlySelectedFields() {
+        authenticateAsUser(adminUser);
+
+        User user = userDataFetcher.getUser(testUser.getId(), utils.selecting("id", "username"));
+
+        assertEquals(testUser.getUsername(), user.getUsername());
+        assertNull(user.getEmail());
+        assertNull(user.getFirstName());
+        assertTrue(user.getRoles() == null || user.getRoles().isEmpty());
+    }
+
     /**
      * Tests the getUser GraphQL operation as the user themselves.
      * Verifies that the user details are returned correctly.
@@ -173,7 +166,7 @@ class UserDataFetcherTest {
         authenticateAsUser(testUser);
 
         // Test the GraphQL operation - accessing own profile should work
-        User user = userDataFetcher.getUser(testUser.getId());
+        User user = userDataFetcher.getUser(testUser.getId(), utils.selecting("id", "username"));
 
         // Verify the returned user
         assertNotNull(user);
@@ -194,7 +187,7 @@ class UserDataFetcherTest {
 
         // Test the GraphQL operation - accessing another user should fail
         Exception exception = assertThrows(AccessDeniedException.class,
-                () -> userDataFetcher.getUser(userId)
+                () -> userDataFetcher.getUser(userId, utils.selecting("id"))
         );
 
         assertTrue(exception.getMessage().contains(ACCESS_DENIED));
@@ -211,7 +204,7 @@ class UserDataFetcherTest {
 
         // Test the GraphQL operation
         //UserConnection userConnection = userDataFetcher.getAllUsers(10, null, null, null);
-        UserConnection userConnection = userDataFetcher.getAllUsers(PaginationInput.newBuilder().first(10).build());
+        UserConnection userConnection = userDataFetcher.getAllUsers(PaginationInput.newBuilder().first(10).build(), utils.selecting("id", "username"));
 
         // Verify the returned connection
         assertNotNull(userConnection);
@@ -230,7 +223,7 @@ class UserDataFetcherTest {
 
         // Test the GraphQL operation - should fail due to authorization
         Exception exception = assertThrows(AccessDeniedException.class, () -> {
-            userDataFetcher.getAllUsers(PaginationInput.newBuilder().first(10).build());
+            userDataFetcher.getAllUsers(PaginationInput.newBuilder().first(10).build(), utils.selecting("id", "username"));
             //userDataFetcher.getAllUsers(10, null, null, null);
         });
 
@@ -1,7 +1,10 @@
 package dev.ehutson.template.security;
 
 import dev.ehutson.template.config.TestContainersConfig;
+import dev.ehutson.template.security.claims.AccessTokenClaims;
 import dev.ehutson.template.security.service.UserDetailsImpl;
+import dev.ehutson.template.security.service.refreshtoken.RefreshTokenCodec;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,7 +32,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * The tests focus on:
  * 1. Generation of access tokens with correct claims and expiration
  * 2. Verification that tokens can be decoded with the configured JwtDecoder
- * 3. Generation of refresh tokens with correct format (UUID)
+ * 3. Generation of refresh tokens that decode back to their session
  * <p>
  * These tests ensure that the JWT token generation and validation work properly
  * with the actual Spring Security JWT implementation rather than using mocks.
@@ -46,6 +49,9 @@ class JwtTokenProviderTest {
     @Autowired
     private JwtDecoder jwtDecoder;
 
+    @Autowired
+    private RefreshTokenCodec refreshTokenCodec;
+
     private Authentication authentication;
 
     /**
@@ -79,13 +85,13 @@ class JwtTokenProviderTest {
      * This test verifies that:
      * 1. The token is successfully generated and not empty
      * 2. The token can be decoded with the configured JwtDecoder
-     * 3. The token contains the correct claims (subject, userId, scope)
+     * 3. The token contains the correct claims (subject, user id, roles)
      * 4. The token has an expiration date set in the future
      */
     @Test
     void testGenerateAccessToken() {
         // Generate the token
-        String token = jwtTokenProvider.generateAccessToken(authentication);
+        String token = jwtTokenProvider.generateAccessToken(authentication, "testSessionId");
 
         // Token should not be null or empty
         assertNotNull(token);
@@ -96,9 +102,8 @@ class JwtTokenProviderTest {
 
         // Check claims
         assertEquals("testUsername", jwt.getSubject());
-        assertEquals("testId", jwt.getClaim("userId"));
-        List<String> scope = jwt.getClaim("scope");
-        assertEquals("ROLE_USER", scope.getFirst());
+        assertEquals("testId", AccessTokenClaims.userId(jwt));
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")), List.copyOf(AccessTokenClaims.authorities(jwt)));
 
         // Check expiration
         Instant exp = jwt.getExpiresAt();
@@ -113,20 +118,23 @@ class JwtTokenProviderTest {
      * <p>
      * This test verifies that:
      * 1. The refresh token is successfully generated and not empty
-     * 2. The token has the correct format (UUID format)
-     * 3. The token has the expected length of 36 characters
+     * 2. The token is unpadded base64url of the expected length of 71 characters
+     * 3. The token decodes back to the session it was issued for
      */
     @Test
     void testGenerateRefreshToken() {
+        String sessionId = new ObjectId().toHexString();
+
         // Generate token
-        String token = jwtTokenProvider.generateRefreshToken();
+        String token = jwtTokenProvider.generateRefreshToken(sessionId, Instant.now().plusSeconds(300));
 
         // Token should not be null or empty
         assertNotNull(token);
         assertFalse(token.isEmpty());
 
-        //  Should be a UUID
-        assertEquals(36, token.length());
-        assertTrue(token.matches("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$"));
+        // Should be unpadded base64url naming the session
+        assertEquals(71, token.length());
+        assertTrue(token.matches("^[A-Za-z0-9_-]+$"));
+        assertEquals(sessionId, refreshTokenCodec.decode(token).map(RefreshTokenCodec.Session::id).orElse(null));
     }
-}
\ No newline at end of file
+}
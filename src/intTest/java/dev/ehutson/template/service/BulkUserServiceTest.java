@@ -0,0 +1,139 @@
+package dev.ehutson.template.service;
+
+import dev.ehutson.template.codegen.types.CreateUserInput;
+import dev.ehutson.template.codegen.types.UpdateUserInput;
+import dev.ehutson.template.config.TestContainersConfig;
+import dev.ehutson.template.domain.RoleModel;
+import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.exception.ErrorCode;
+import dev.ehutson.template.repository.RoleRepository;
+import dev.ehutson.template.repository.UserRepository;
+import dev.ehutson.template.service.user.BulkUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest
+@Import(TestContainersConfig.class)
+@ActiveProfiles("test")
+class BulkUserServiceTest {
+
+    @Autowired
+    private BulkUserService bulkUserService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private RoleModel userRole;
+    private RoleModel adminRole;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        userRole = roleRepository.save(RoleModel.builder().name("ROLE_USER").description("User").build());
+        adminRole = roleRepository.save(RoleModel.builder().name("ROLE_ADMIN").description("Admin").build());
+    }
+
+    @Test
+    void createUsers_shouldInsertValidItemsAndReportTheOthers() {
+        userRepository.save(UserModel.builder()
+                .username("existing")
+                .email("existing@example.com")
+                .password(passwordEncoder.encode("password"))
+                .build());
+
+        BulkUserService.BulkOutcome outcome = bulkUserService.createUsers(List.of(
+                input("alice", "alice@example.com", List.of()),
+                input("existing", "new@example.com", List.of()),
+                input("bob", "bob@example.com", List.of("ROLE_ADMIN")),
+                input("alice", "alice2@example.com", List.of()),
+                input("carol", "carol@example.com", List.of("ROLE_MISSING"))));
+
+        assertThat(outcome.users()).extracting(UserModel::getUsername).containsExactly("alice", "bob");
+        assertThat(outcome.errors()).extracting(BulkUserService.ItemError::index).containsExactly(1, 3, 4);
+        assertThat(outcome.errors()).extracting(BulkUserService.ItemError::code).containsExactly(
+                ErrorCode.RESOURCE_ALREADY_EXISTS, ErrorCode.RESOURCE_ALREADY_EXISTS, ErrorCode.RESOURCE_NOT_FOUND);
+
+        UserModel alice = userRepository.findOneByUsername("alice").orElseThrow();
+        assertThat(passwordEncoder.matches("password", alice.getPassword())).isTrue();
+        assertThat(alice.hasRole("ROLE_USER")).isTrue();
+        assertThat(userRepository.findOneByUsername("bob").orElseThrow().isAdmin()).isTrue();
+        assertThat(userRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void updateUsers_shouldApplyOnlyProvidedFields() {
+        BulkUserService.BulkOutcome created = bulkUserService.createUsers(List.of(
+                input("alice", "alice@example.com", List.of()),
+                input("bob", "bob@example.com", List.of())));
+        String aliceId = created.users().get(0).getId();
+        String bobId = created.users().get(1).getId();
+
+        UpdateUserInput rename = new UpdateUserInput();
+        rename.setFirstName("Alicia");
+        UpdateUserInput conflicting = new UpdateUserInput();
+        conflicting.setEmail("alice@example.com");
+
+        BulkUserService.BulkOutcome outcome = bulkUserService.updateUsers(List.of(
+                new BulkUserService.BulkUpdate(aliceId, rename),
+                new BulkUserService.BulkUpdate(bobId, conflicting),
+                new BulkUserService.BulkUpdate("missing", rename)));
+
+        assertThat(outcome.users()).extracting(UserModel::getFirstName).containsExactly("Alicia");
+        assertThat(outcome.users().getFirst().getEmail()).isEqualTo("alice@example.com");
+        assertThat(outcome.errors()).extracting(BulkUserService.ItemError::code)
+                .containsExactly(ErrorCode.RESOURCE_ALREADY_EXISTS, ErrorCode.RESOURCE_NOT_FOUND);
+        assertThat(userRepository.findById(bobId).orElseThrow().getEmail()).isEqualTo("bob@example.com");
+    }
+
+    @Test
+    void assignAndRemoveRole_shouldUpdateAllUsersAtOnce() {
+        BulkUserService.BulkOutcome created = bulkUserService.createUsers(List.of(
+                input("alice", "alice@example.com", List.of("ROLE_USER", "ROLE_ADMIN")),
+                input("bob", "bob@example.com", List.of())));
+        List<String> ids = created.users().stream().map(UserModel::getId).toList();
+
+        BulkUserService.RoleOutcome assigned = bulkUserService.assignRoleToUsers(
+                List.of(ids.get(0), ids.get(1), "missing"), adminRole.getId());
+
+        assertThat(assigned.matched()).isEqualTo(2);
+        assertThat(assigned.modified()).isEqualTo(1);
+        assertThat(assigned.errors()).extracting(BulkUserService.ItemError::index).containsExactly(2);
+        assertThat(userRepository.findById(ids.get(0)).orElseThrow().getRoles()).hasSize(2);
+        assertThat(userRepository.findById(ids.get(1)).orElseThrow().isAdmin()).isTrue();
+
+        BulkUserService.RoleOutcome removed = bulkUserService.removeRoleFromUsers(ids, adminRole.getId());
+
+        assertThat(removed.modified()).isEqualTo(2);
+        assertThat(userRepository.findAll()).noneMatch(UserModel::isAdmin);
+        assertThat(userRepository.findById(ids.get(0)).orElseThrow().hasRole(userRole.getName())).isTrue();
+    }
+
+    private static CreateUserInput input(String username, String email, List<String> roles) {
+        return CreateUserInput.newBuilder()
+                .username(username)
+                .email(email)
+                .firstName("First")
+                .lastName("Last")
+                .password("password")
+                .roles(roles)
+                .build();
+    }
+}
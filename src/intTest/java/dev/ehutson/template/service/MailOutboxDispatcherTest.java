@@ -0,0 +1,118 @@
+package dev.ehutson.template.service;
+
+import dev.ehutson.template.config.TestContainersConfig;
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.MailOutboxModel;
+import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.repository.MailOutboxRepository;
+import dev.ehutson.template.repository.UserRepository;
+import dev.ehutson.template.service.mail.outbox.MailOutboxDispatcher;
+import dev.ehutson.template.service.mail.outbox.MailOutboxService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+@Testcontainers
+@SpringBootTest
+@Import(TestContainersConfig.class)
+@ActiveProfiles("test")
+class MailOutboxDispatcherTest {
+
+    @Autowired
+    private MailOutboxService mailOutboxService;
+
+    @Autowired
+    private MailOutboxDispatcher mailOutboxDispatcher;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    GenericContainer<?> mailhogContainer;
+
+    private MailhogClient mailhogClient;
+
+    @BeforeEach
+    void setUp() {
+        mailhogClient = new MailhogClient(String.format("http://%s:%d", mailhogContainer.getHost(),
+                mailhogContainer.getMappedPort(8025)));
+        mailhogClient.deleteAllEmails();
+        mailOutboxRepository.deleteAll();
+
+        applicationProperties.getMail().setEnabled(true);
+        applicationProperties.getMail().setFrom("test@example.com");
+        applicationProperties.getMail().setBaseUrl("http://localhost:8080");
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void dispatch_shouldDeliverQueuedEmail() {
+        UserModel user = createTestUser("outbox-user", "outbox@example.com");
+        MailOutboxModel entry = mailOutboxService.enqueueActivationEmail(user);
+
+        mailOutboxDispatcher.dispatch();
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            Optional<MailhogClient.Email> email = mailhogClient.findEmailToRecipient(user.getEmail());
+            assertThat(email).isPresent();
+            assertThat(email.get().getSubject()).isEqualTo("Activate your account");
+            assertThat(email.get().getBody()).contains(user.getActivationKey());
+        });
+
+        MailOutboxModel sent = mailOutboxRepository.findById(entry.getId()).orElseThrow();
+        assertThat(sent.getStatus()).isEqualTo(MailOutboxModel.Status.SENT);
+        assertThat(sent.getSentAt()).isNotNull();
+        assertThat(sent.getClaimId()).isNull();
+    }
+
+    @Test
+    void dispatch_shouldMarkEntryDeadWhenUserIsMissing() {
+        UserModel user = new UserModel();
+        user.setId(UUID.randomUUID().toString());
+        user.setUsername("ghost");
+        user.setEmail("ghost@example.com");
+        MailOutboxModel entry = mailOutboxService.enqueueActivationEmail(user);
+
+        mailOutboxDispatcher.dispatch();
+
+        MailOutboxModel dead = mailOutboxRepository.findById(entry.getId()).orElseThrow();
+        assertThat(dead.getStatus()).isEqualTo(MailOutboxModel.Status.DEAD);
+    }
+
+    private UserModel createTestUser(String username, String email) {
+        userRepository.findOneByEmailIgnoreCase(email).ifPresent(userRepository::delete);
+
+        UserModel user = new UserModel();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setLangKey("en");
+        user.setFirstName("Booboo");
+        user.setLastName("Hutsnuffer");
+        user.setActivationKey(UUID.randomUUID().toString());
+        return userRepository.save(user);
+    }
+}
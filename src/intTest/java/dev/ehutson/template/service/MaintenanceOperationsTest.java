@@ -0,0 +1,86 @@
+package dev.ehutson.template.service;
+
+import dev.ehutson.template.config.TestContainersConfig;
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.RefreshTokenModel;
+import dev.ehutson.template.repository.RefreshTokenRepository;
+import dev.ehutson.template.service.maintenance.ChunkedMongoOperations;
+import dev.ehutson.template.service.maintenance.SchedulerLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Testcontainers
+@SpringBootTest
+@Import(TestContainersConfig.class)
+@ActiveProfiles("test")
+class MaintenanceOperationsTest {
+
+    @Autowired
+    private ChunkedMongoOperations chunkedOperations;
+
+    @Autowired
+    private SchedulerLock schedulerLock;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository.deleteAll();
+        mongoTemplate.dropCollection("scheduler_locks");
+        applicationProperties.getMaintenance().setChunkSize(7);
+        applicationProperties.getMaintenance().setChunkPause(Duration.ZERO);
+    }
+
+    @Test
+    void delete_shouldRemoveAllMatchingDocumentsAcrossChunks() {
+        Instant past = Instant.now().minus(Duration.ofDays(1));
+        Instant future = Instant.now().plus(Duration.ofDays(1));
+        IntStream.range(0, 30).forEach(i -> refreshTokenRepository.save(token(past)));
+        IntStream.range(0, 5).forEach(i -> refreshTokenRepository.save(token(future)));
+
+        long deleted = chunkedOperations.delete(Query.query(where("expiresAt").lt(Instant.now())), RefreshTokenModel.class);
+
+        assertThat(deleted).isEqualTo(30);
+        assertThat(refreshTokenRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void tryAcquire_shouldOnlySucceedOnceUntilReleased() {
+        assertThat(schedulerLock.tryAcquire("test-job", Duration.ofMinutes(5))).isTrue();
+        assertThat(schedulerLock.tryAcquire("test-job", Duration.ofMinutes(5))).isFalse();
+
+        schedulerLock.release("test-job", Duration.ZERO);
+
+        assertThat(schedulerLock.tryAcquire("test-job", Duration.ofMinutes(5))).isTrue();
+    }
+
+    private static RefreshTokenModel token(Instant expiresAt) {
+        return RefreshTokenModel.builder()
+                .token(UUID.randomUUID().toString())
+                .userId("user")
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
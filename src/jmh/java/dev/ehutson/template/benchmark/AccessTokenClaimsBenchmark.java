@@ -0,0 +1,80 @@
+package dev.ehutson.template.benchmark;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import dev.ehutson.template.security.claims.AccessTokenClaims;
+import dev.ehutson.template.security.jwk.JwtKeys;
+import dev.ehutson.template.security.jwk.KeyIdJwtProcessor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.*;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares access tokens carrying the roles as a {@code scope} list and the user id as a hex string with the
+ * compact {@link AccessTokenClaims} encoding: decoding a token and reading its user id and authorities.
+ * The encoded token length for each encoding is printed during setup.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhInclude=AccessTokenClaimsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AccessTokenClaimsBenchmark {
+
+    private static final String USER_ID = "65f1c0ffee0123456789abcd";
+
+    @Param({"legacy", "compact"})
+    public String encoding;
+
+    @Param({"1", "2"})
+    public int roleCount;
+
+    private JwtDecoder decoder;
+    private String token;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        JwtKeys keys = JwtKeys.of(List.of(new ECKeyGenerator(Curve.P_256).keyID("bench").generate()), "bench");
+        JwtEncoder encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(keys.signingKey())));
+        decoder = new NimbusJwtDecoder(new KeyIdJwtProcessor(keys));
+
+        List<GrantedAuthority> authorities = List.<GrantedAuthority>of(
+                new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")).subList(0, roleCount);
+        Instant now = Instant.now();
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .subject("jane.doe")
+                .id(UUID.randomUUID().toString());
+        if (encoding.equals("legacy")) {
+            claims.claim("scope", authorities.stream().map(GrantedAuthority::getAuthority).toList())
+                    .claim("userId", USER_ID);
+        } else {
+            AccessTokenClaims.write(claims, USER_ID, authorities);
+        }
+
+        JwsHeader header = JwsHeader.with(keys.signingAlgorithm()).keyId("bench").build();
+        token = encoder.encode(JwtEncoderParameters.from(header, claims.build())).getTokenValue();
+        System.out.printf("%n%s token with %d roles: %d characters%n", encoding, roleCount, token.length());
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> decode() {
+        Jwt jwt = decoder.decode(token);
+        if (AccessTokenClaims.userId(jwt) == null) {
+            throw new IllegalStateException("Token has no user id");
+        }
+        return AccessTokenClaims.authorities(jwt);
+    }
+}
@@ -0,0 +1,112 @@
+package dev.ehutson.template.benchmark;
+
+import dev.ehutson.template.exception.ApplicationException;
+import dev.ehutson.template.exception.ErrorCode;
+import dev.ehutson.template.exception.graphql.handler.GlobalExceptionHandlerConfig;
+import dev.ehutson.template.exception.graphql.handler.GlobalExceptionHandlerProperties;
+import dev.ehutson.template.exception.graphql.handler.strategy.*;
+import dev.ehutson.template.service.locale.DefaultLocaleResolverStrategy;
+import dev.ehutson.template.service.locale.LocaleResolutionService;
+import dev.ehutson.template.service.message.MessageCatalog;
+import dev.ehutson.template.service.message.MessageService;
+import graphql.Scalars;
+import graphql.execution.DataFetcherExceptionHandlerParameters;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.MergedField;
+import graphql.execution.ResultPath;
+import graphql.language.Field;
+import graphql.language.SourceLocation;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the errors of a response with hundreds of field errors, such as a bulk mutation whose
+ * items all fail validation.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhInclude=ExceptionResolutionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExceptionResolutionBenchmark {
+
+    @Param({"500"})
+    public int errors;
+
+    @Param({"false", "true"})
+    public boolean stackTraceEnabled;
+
+    private ExceptionStrategyResolver resolver;
+    private List<ExceptionHandlerStrategy> strategies;
+    private List<DataFetcherExceptionHandlerParameters> parameters;
+
+    @Setup
+    public void setUp() {
+        GlobalExceptionHandlerProperties properties = new GlobalExceptionHandlerProperties();
+        properties.setStackTraceEnabled(stackTraceEnabled);
+
+        strategies = List.of(
+                new FallbackExceptionStrategy(),
+                new DgsExceptionStrategy(),
+                new ValidationExceptionStrategy(),
+                new ApplicationExceptionStrategy());
+        MessageService messageService = new MessageService(
+                new MessageCatalog(),
+                new LocaleResolutionService(List.of(new DefaultLocaleResolverStrategy())));
+        resolver = new ExceptionStrategyResolver(strategies, messageService, new GlobalExceptionHandlerConfig(properties));
+
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        Field field = Field.newField("createUsers").sourceLocation(new SourceLocation(1, 1)).build();
+        parameters = new ArrayList<>(errors);
+        for (int i = 0; i < errors; i++) {
+            Throwable exception = i % 2 == 0
+                    ? new ConstraintViolationException(validator.validate(new Input("", "not-an-email")))
+                    : ApplicationException.of(ErrorCode.RESOURCE_ALREADY_EXISTS, "User exists", "User", "username", "user" + i);
+            parameters.add(DataFetcherExceptionHandlerParameters.newExceptionParameters()
+                    .exception(exception)
+                    .dataFetchingEnvironment(DataFetchingEnvironmentImpl.newDataFetchingEnvironment()
+                            .mergedField(MergedField.newMergedField(field).build())
+                            .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
+                                    .type(Scalars.GraphQLString)
+                                    .path(ResultPath.rootPath().segment("createUsers").segment(i))
+                                    .build())
+                            .build())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public void resolveErrors(Blackhole blackhole) {
+        for (DataFetcherExceptionHandlerParameters parameter : parameters) {
+            blackhole.consume(resolver.resolve(parameter.getException(), parameter));
+        }
+    }
+
+    /**
+     * The previous lookup: sort all strategies and probe them linearly for every error.
+     */
+    @Benchmark
+    public void sortedLinearLookup(Blackhole blackhole) {
+        for (DataFetcherExceptionHandlerParameters parameter : parameters) {
+            Throwable exception = parameter.getException();
+            blackhole.consume(strategies.stream()
+                    .sorted((a, b) -> Integer.compare(a.getPriority(), b.getPriority()))
+                    .filter(strategy -> strategy.canHandle(exception))
+                    .findFirst()
+                    .orElseThrow());
+        }
+    }
+
+    public record Input(@NotBlank String username, @Email String email) {
+    }
+}
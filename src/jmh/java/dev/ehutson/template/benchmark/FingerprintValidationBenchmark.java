@@ -0,0 +1,84 @@
+package dev.ehutson.template.benchmark;
+
+import dev.ehutson.template.security.fingerprint.SessionFingerprint;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the refresh token fingerprint check as it was, normalizing both user agents with regular expressions
+ * and parsing both addresses with {@link InetAddress}, against comparing the request with the hash and prefix
+ * stored when the session was created.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhInclude=FingerprintValidationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FingerprintValidationBenchmark {
+
+    private static final String USER_AGENT =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/122.0.6261.94 Safari/537.36";
+
+    @Param({"203.0.113.42", "2001:db8:85a3::8a2e:370:7334"})
+    public String address;
+
+    private String storedAddress;
+    private long storedUserAgentHash;
+    private String storedIpPrefix;
+
+    @Setup
+    public void setUp() {
+        storedAddress = address;
+        storedUserAgentHash = SessionFingerprint.userAgentHash(USER_AGENT);
+        storedIpPrefix = SessionFingerprint.ipPrefix(storedAddress, 24, 64);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        return normalizeUserAgent(USER_AGENT).equals(normalizeUserAgent(USER_AGENT))
+                && isIpAddressMatch(storedAddress, address);
+    }
+
+    @Benchmark
+    public boolean precomputed() {
+        return SessionFingerprint.userAgentHash(USER_AGENT) == storedUserAgentHash
+                && SessionFingerprint.matchesPrefix(storedIpPrefix, address);
+    }
+
+    private static String normalizeUserAgent(String userAgent) {
+        return userAgent
+                .replaceAll("\\d+\\.\\d+(\\.\\d+)?", "X.X")
+                .replaceAll("\\s+", " ")
+                .toLowerCase();
+    }
+
+    private static boolean isIpAddressMatch(String storedIp, String currentIp) {
+        try {
+            InetAddress stored = InetAddress.getByName(storedIp);
+            InetAddress current = InetAddress.getByName(currentIp);
+            byte[] storedBytes = stored.getAddress();
+            byte[] currentBytes = current.getAddress();
+            int prefixBytes;
+            if (stored instanceof Inet4Address && current instanceof Inet4Address) {
+                prefixBytes = 3;
+            } else if (stored instanceof Inet6Address && current instanceof Inet6Address) {
+                prefixBytes = 8;
+            } else {
+                return stored.equals(current);
+            }
+            for (int i = 0; i < prefixBytes; i++) {
+                if (storedBytes[i] != currentBytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package dev.ehutson.template.benchmark;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import dev.ehutson.template.security.jwk.JwtKeys;
+import dev.ehutson.template.security.jwk.KeyIdJwtProcessor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signs and verifies an access token, with the claims {@code JwtTokenProvider} issues, using RSA-2048, P-256
+ * and Ed25519 keys. The encoded token length for each algorithm is printed during setup.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhInclude=JwtSigningBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtSigningBenchmark {
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private JwtEncoder encoder;
+    private JwtDecoder decoder;
+    private JwtEncoderParameters parameters;
+    private String token;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        JWK key = switch (algorithm) {
+            case "RS256" -> new RSAKeyGenerator(2048).keyID("bench").generate();
+            case "ES256" -> new ECKeyGenerator(Curve.P_256).keyID("bench").generate();
+            case "EdDSA" -> new OctetKeyPairGenerator(Curve.Ed25519).keyID("bench").generate();
+            default -> throw new IllegalArgumentException(algorithm);
+        };
+        JwtKeys keys = JwtKeys.of(List.of(key), "bench");
+
+        encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(keys.signingKey())));
+        decoder = new NimbusJwtDecoder(new KeyIdJwtProcessor(keys));
+
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .subject("jane.doe")
+                .claim("scope", List.of("ROLE_USER", "ROLE_ADMIN"))
+                .claim("userId", "65f1c0ffee0123456789abcd")
+                .id(UUID.randomUUID().toString())
+                .build();
+        parameters = JwtEncoderParameters.from(JwsHeader.with(keys.signingAlgorithm()).keyId("bench").build(), claims);
+        token = encoder.encode(parameters).getTokenValue();
+        System.out.printf("%n%s token length: %d characters%n", algorithm, token.length());
+    }
+
+    @Benchmark
+    public String sign() {
+        return encoder.encode(parameters).getTokenValue();
+    }
+
+    @Benchmark
+    public Jwt verify() {
+        return decoder.decode(token);
+    }
+}
@@ -0,0 +1,100 @@
+package dev.ehutson.template.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.Layout;
+import ch.qos.logback.core.joran.spi.JoranException;
+import ch.qos.logback.core.pattern.CompositeConverter;
+import dev.ehutson.template.config.CRLFLogConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats one log event through a pattern layout, as the console appender does, with the message either
+ * written as is, sanitized by the former regex replacement, or sanitized by {@link CRLFLogConverter}.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhInclude=LogSanitizationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LogSanitizationBenchmark {
+
+    private static final Map<String, String> MESSAGE_CONVERSIONS = Map.of(
+            "none", "%m",
+            "regex", "%regexcrlf(%m)",
+            "singlePass", "%crlf(%m)");
+
+    @Param({"none", "regex", "singlePass"})
+    public String sanitizer;
+
+    @Param({"clean", "injected"})
+    public String message;
+
+    private Logger logger;
+    private String username;
+
+    @Setup
+    public void setUp() throws JoranException {
+        String pattern = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%t] %-40.40logger{39} : " + MESSAGE_CONVERSIONS.get(sanitizer) + "%n";
+        String configuration = """
+                <configuration>
+                    <conversionRule conversionWord="crlf" converterClass="%s"/>
+                    <conversionRule conversionWord="regexcrlf" converterClass="%s"/>
+                    <appender name="DISCARD" class="%s">
+                        <layout class="ch.qos.logback.classic.PatternLayout">
+                            <pattern>%s</pattern>
+                        </layout>
+                    </appender>
+                    <root level="INFO">
+                        <appender-ref ref="DISCARD"/>
+                    </root>
+                </configuration>
+                """.formatted(CRLFLogConverter.class.getName(), RegexCRLFConverter.class.getName(),
+                DiscardingAppender.class.getName(), pattern);
+
+        LoggerContext context = new LoggerContext();
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(new ByteArrayInputStream(configuration.getBytes(StandardCharsets.UTF_8)));
+        logger = context.getLogger("dev.ehutson.template.security.service.AuthenticationService");
+        username = message.equals("clean") ? "jane.doe@example.com" : "jane.doe\r\n2024-01-01 INFO forged entry\tadmin";
+    }
+
+    @Benchmark
+    public void logEvent() {
+        logger.info("Authentication succeeded for user {} from {}", username, "203.0.113.42");
+    }
+
+    /**
+     * The converter as it was, compiling its pattern on every event.
+     */
+    public static class RegexCRLFConverter extends CompositeConverter<ILoggingEvent> {
+        @Override
+        protected String transform(ILoggingEvent event, String in) {
+            return in.replaceAll("[\n\r\t]", "_");
+        }
+    }
+
+    public static class DiscardingAppender extends AppenderBase<ILoggingEvent> {
+        private Layout<ILoggingEvent> layout;
+        private long characters;
+
+        public void setLayout(Layout<ILoggingEvent> layout) {
+            this.layout = layout;
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            // keep the formatted line alive so the layout work cannot be optimized away
+            characters += layout.doLayout(event).length();
+        }
+    }
+}
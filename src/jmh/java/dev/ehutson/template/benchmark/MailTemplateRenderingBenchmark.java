@@ -0,0 +1,90 @@
+package dev.ehutson.template.benchmark;
+
+import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.service.mail.MailTemplateRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rendering mail through {@link MailTemplateRenderer} with the previous per-send
+ * {@code templateEngine.process} + {@code messageSource.getMessage} path.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhInclude=MailTemplateRenderingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MailTemplateRenderingBenchmark {
+
+    private static final String BASE_URL = "http://localhost:8080";
+
+    @Param({"mail/activationEmail", "mail/creationEmail", "mail/passwordResetEmail"})
+    public String template;
+
+    @Param({"", "en", "de", "es", "fr", "pl", "zh"})
+    public String langKey;
+
+    private SpringTemplateEngine templateEngine;
+    private ReloadableResourceBundleMessageSource messageSource;
+    private MailTemplateRenderer renderer;
+    private UserModel user;
+    private Locale locale;
+    private String titleKey;
+
+    @Setup
+    public void setUp() {
+        messageSource = new ReloadableResourceBundleMessageSource();
+        messageSource.setBasename("classpath:i18n/messages");
+        messageSource.setDefaultEncoding(StandardCharsets.UTF_8.name());
+        messageSource.setCacheSeconds(3600);
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+
+        renderer = new MailTemplateRenderer(templateEngine, messageSource);
+        renderer.warmUp();
+
+        user = new UserModel();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setFirstName("Booboo");
+        user.setLastName("Hutsnuffer");
+        user.setActivationKey("activation-key");
+        user.setResetKey("reset-key");
+
+        locale = Locale.forLanguageTag(langKey);
+        titleKey = template.endsWith("passwordResetEmail") ? "email.reset.title" : "email.activation.title";
+    }
+
+    @Benchmark
+    public void perSend(Blackhole blackhole) {
+        Context context = new Context(locale);
+        context.setVariable("user", user);
+        context.setVariable("baseUrl", BASE_URL);
+        blackhole.consume(templateEngine.process(template, context));
+        blackhole.consume(messageSource.getMessage(titleKey, null, locale));
+    }
+
+    @Benchmark
+    public void renderer(Blackhole blackhole) {
+        blackhole.consume(renderer.render(template, locale, user, BASE_URL));
+        blackhole.consume(renderer.subject(titleKey, locale));
+    }
+}
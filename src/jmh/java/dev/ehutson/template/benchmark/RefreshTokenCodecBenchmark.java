@@ -0,0 +1,57 @@
+package dev.ehutson.template.benchmark;
+
+import dev.ehutson.template.security.config.properties.JwtProperties;
+import dev.ehutson.template.security.service.refreshtoken.RefreshTokenCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a valid refresh token, a tampered one and a random UUID as sent by clients holding a pre-HMAC token or
+ * by bots. Each is what a refresh costs before the session is looked up, or instead of looking it up.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhInclude=RefreshTokenCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RefreshTokenCodecBenchmark {
+
+    private RefreshTokenCodec codec;
+    private String valid;
+    private String tampered;
+    private String garbage;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setRefreshTokenSecret(Base64.getEncoder().encodeToString(new byte[32]));
+        codec = new RefreshTokenCodec(properties);
+
+        valid = codec.encode(new ObjectId().toHexString(), Instant.now().plusSeconds(86400));
+        char[] chars = valid.toCharArray();
+        chars[chars.length - 1] = chars[chars.length - 1] == 'A' ? 'B' : 'A';
+        tampered = new String(chars);
+        garbage = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public Optional<RefreshTokenCodec.Session> decodeValid() {
+        return codec.decode(valid);
+    }
+
+    @Benchmark
+    public Optional<RefreshTokenCodec.Session> decodeTampered() {
+        return codec.decode(tampered);
+    }
+
+    @Benchmark
+    public Optional<RefreshTokenCodec.Session> decodeGarbage() {
+        return codec.decode(garbage);
+    }
+}
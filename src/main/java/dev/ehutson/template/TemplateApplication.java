@@ -3,6 +3,7 @@ package dev.ehutson.template;
 import jakarta.annotation.PostConstruct;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 import java.util.Collections;
@@ -12,6 +13,9 @@ import java.util.TimeZone;
 @ConfigurationPropertiesScan("dev.ehutson.template")
 public class TemplateApplication {
 
+    // enough for every startup step of this application; later steps are dropped
+    private static final int STARTUP_STEP_CAPACITY = 8192;
+
     public static void main(String[] args) {
         SpringApplication app = new SpringApplication(TemplateApplication.class);
 
@@ -21,6 +25,9 @@ public class TemplateApplication {
             app.setDefaultProperties(Collections.singletonMap("spring.profiles.active", "dev"));
         }
 
+        // the startup timeline is served by /actuator/startup
+        app.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+
         app.run(args);
     }
 
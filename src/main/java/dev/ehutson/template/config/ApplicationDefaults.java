@@ -1,5 +1,8 @@
 package dev.ehutson.template.config;
 
+import java.time.Duration;
+import java.util.List;
+
 public final class ApplicationDefaults {
     private ApplicationDefaults() {
     }
@@ -18,4 +21,104 @@ public final class ApplicationDefaults {
         private Mail() {
         }
     }
+
+    public static class MailOutbox {
+        public static final int BATCH_SIZE = 100;
+        public static final int CONCURRENCY = 4;
+        public static final int MAX_ATTEMPTS = 8;
+        public static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+        public static final Duration MAX_BACKOFF = Duration.ofHours(1);
+        public static final Duration LEASE = Duration.ofMinutes(5);
+        public static final Duration POLL_INTERVAL = Duration.ofSeconds(5);
+        private MailOutbox() {
+        }
+    }
+
+    public static class MailBulk {
+        public static final int CONCURRENCY = 4;
+        public static final double RATE_LIMIT = 50.0;
+        public static final int CHECKPOINT_INTERVAL = 500;
+        public static final Duration LEASE = Duration.ofMinutes(5);
+        public static final Duration RESUME_INTERVAL = Duration.ofMinutes(1);
+        private MailBulk() {
+        }
+    }
+
+    public static class Maintenance {
+        public static final int CHUNK_SIZE = 5_000;
+        public static final Duration CHUNK_PAUSE = Duration.ofMillis(200);
+        public static final Duration LOCK_LEASE = Duration.ofMinutes(30);
+        public static final Duration LOCK_AT_LEAST = Duration.ofMinutes(1);
+        public static final String ACTIVATION_CLEANUP_CRON = "0 30 1 * * ?";
+        public static final Duration ACTIVATION_KEY_TTL = Duration.ofDays(3);
+        public static final String RESET_KEY_CLEANUP_CRON = "0 45 1 * * ?";
+        public static final Duration RESET_KEY_TTL = Duration.ofDays(1);
+        public static final String ACTIVATION_MAIL_REPAIR_CRON = "0 */5 * * * ?";
+        public static final Duration ACTIVATION_MAIL_GRACE = Duration.ofMinutes(5);
+        private Maintenance() {
+        }
+    }
+
+    public static class QueryCost {
+        public static final boolean ENABLED = true;
+        public static final int DEFAULT_FIELD_COST = 1;
+        public static final int SCALAR_FIELD_COST = 0;
+        public static final int LIST_MULTIPLIER = 10;
+        public static final int MAX_DEPTH = 12;
+        public static final long ADMIN_BUDGET = 20_000;
+        public static final long USER_BUDGET = 2_000;
+        public static final long ANONYMOUS_BUDGET = 200;
+        private QueryCost() {
+        }
+    }
+
+    public static class Graphql {
+        public static final int DOCUMENT_CACHE_SIZE = 1_000;
+        public static final boolean PERSISTED_QUERIES_ENABLED = true;
+        public static final Duration PERSISTED_QUERY_TTL = Duration.ofDays(7);
+        public static final int ETAG_CACHE_SIZE = 10_000;
+        public static final int SUBSCRIPTION_BUFFER_SIZE = 64;
+        private Graphql() {
+        }
+    }
+
+    public static class GraphqlMetrics {
+        public static final boolean ENABLED = true;
+        public static final double TRIVIAL_FIELD_SAMPLE_RATE = 0.01;
+        public static final Duration SLOW_QUERY_THRESHOLD = Duration.ofMillis(500);
+        private GraphqlMetrics() {
+        }
+    }
+
+    public static class UserBulk {
+        public static final int MAX_BATCH_SIZE = 1_000;
+        public static final int PASSWORD_HASH_CONCURRENCY = 4;
+        private UserBulk() {
+        }
+    }
+
+    public static class Search {
+        public static final boolean ENABLED = false;
+        public static final int BULK_SIZE = 500;
+        public static final Duration FLUSH_INTERVAL = Duration.ofSeconds(1);
+        public static final int REINDEX_BATCH_SIZE = 1_000;
+        private Search() {
+        }
+    }
+
+    public static class Client {
+        // loopback and private networks, where reverse proxies and ingress controllers usually live
+        public static final List<String> TRUSTED_PROXIES = List.of(
+                "127.0.0.0/8", "::1/128", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "fc00::/7");
+        private Client() {
+        }
+    }
+
+    public static class Logging {
+        public static final double PERMITS_PER_SECOND = 1.0;
+        public static final int BURST = 10;
+        public static final double SAMPLE_RATE = 1.0;
+        private Logging() {
+        }
+    }
 }
@@ -38,19 +38,63 @@ public class CRLFLogConverter extends CompositeConverter<ILoggingEvent> {
 
     @Override
     protected String transform(ILoggingEvent event, String in) {
-        AnsiElement element = ELEMENTS.get(getFirstOption());
-        List<Marker> markers = event.getMarkerList();
-        if ((markers != null && !markers.isEmpty() && markers.getFirst().contains(CRLF_SAFE_MARKER)) || isSafe(event)) {
+        // nearly every message is clean, so scan first and leave the other checks for the rare dirty one
+        int first = indexOfUnsafe(in);
+        if (first < 0 || hasSafeMarker(event) || isSafe(event)) {
             return in;
         }
 
+        String option = getFirstOption();
+        AnsiElement element = option == null ? null : ELEMENTS.get(option);
         String replacement = element == null ? "_" : toAnsiString("_", element);
-        return in.replaceAll("[\n\r\t]", replacement);
+        return sanitize(in, first, replacement);
+    }
+
+    /**
+     * Replaces every line feed, carriage return and tab with the replacement in a single pass, returning the
+     * input itself when there is nothing to replace.
+     */
+    public static String sanitize(String in, String replacement) {
+        int first = indexOfUnsafe(in);
+        return first < 0 ? in : sanitize(in, first, replacement);
+    }
+
+    private static String sanitize(String in, int first, String replacement) {
+        StringBuilder out = new StringBuilder(in.length() + 8 * replacement.length());
+        out.append(in, 0, first);
+        for (int i = first; i < in.length(); i++) {
+            char c = in.charAt(i);
+            if (isUnsafe(c)) {
+                out.append(replacement);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static int indexOfUnsafe(String in) {
+        for (int i = 0; i < in.length(); i++) {
+            if (isUnsafe(in.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isUnsafe(char c) {
+        return c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private static boolean hasSafeMarker(ILoggingEvent event) {
+        List<Marker> markers = event.getMarkerList();
+        return markers != null && !markers.isEmpty() && markers.getFirst().contains(CRLF_SAFE_MARKER);
     }
 
     protected boolean isSafe(ILoggingEvent event) {
+        String loggerName = event.getLoggerName();
         for (String safe : SAFE_LOGS) {
-            if (event.getMessage().contains(safe)) {
+            if (loggerName.startsWith(safe)) {
                 return true;
             }
         }
@@ -0,0 +1,46 @@
+package dev.ehutson.template.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.graphql.document.CachingPreparsedDocumentProvider;
+import dev.ehutson.template.graphql.document.RedisPersistedQueryCache;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Parsed document cache and automatic persisted queries for the GraphQL endpoint. DGS picks up the
+ * {@link PreparsedDocumentProvider} bean; hit rates are published as {@code cache.gets{cache=graphql.documents}}.
+ */
+@Configuration
+public class GraphQLDocumentCacheConfig {
+
+    static final String DOCUMENT_CACHE_NAME = "graphql.documents";
+
+    @Bean
+    public Cache<String, PreparsedDocumentEntry> graphqlDocumentCache(ApplicationProperties applicationProperties,
+                                                                      MeterRegistry meterRegistry) {
+        Cache<String, PreparsedDocumentEntry> cache = Caffeine.newBuilder()
+                .maximumSize(applicationProperties.getGraphql().getDocumentCacheSize())
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, DOCUMENT_CACHE_NAME);
+    }
+
+    @Bean
+    public PreparsedDocumentProvider preparsedDocumentProvider(Cache<String, PreparsedDocumentEntry> graphqlDocumentCache,
+                                                               ApplicationProperties applicationProperties,
+                                                               StringRedisTemplate redisTemplate) {
+        ApplicationProperties.Graphql graphql = applicationProperties.getGraphql();
+        ApolloPersistedQuerySupport persistedQuerySupport = graphql.isPersistedQueriesEnabled()
+                ? new ApolloPersistedQuerySupport(new RedisPersistedQueryCache(redisTemplate, graphqlDocumentCache, graphql.getPersistedQueryTtl()))
+                : null;
+        return new CachingPreparsedDocumentProvider(graphqlDocumentCache, persistedQuerySupport);
+    }
+}
@@ -0,0 +1,32 @@
+package dev.ehutson.template.config;
+
+import dev.ehutson.template.graphql.http.GraphQLGetHandler;
+import org.springframework.boot.autoconfigure.graphql.GraphQlProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.RequestPredicates;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * Accepts GET requests on the GraphQL endpoint. The default router only allows POST, so this route is
+ * ordered ahead of it.
+ */
+@Configuration
+public class GraphQLHttpConfig {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public RouterFunction<ServerResponse> graphqlGetRouterFunction(GraphQlProperties graphQlProperties,
+                                                                  GraphQLGetHandler handler) {
+        return RouterFunctions.route()
+                .GET(graphQlProperties.getPath(),
+                        RequestPredicates.accept(MediaType.APPLICATION_GRAPHQL_RESPONSE, MediaType.APPLICATION_JSON),
+                        handler::handle)
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package dev.ehutson.template.config;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.security.config.properties.JwtProperties;
+import dev.ehutson.template.service.maintenance.ActivationMailRepairJob;
+import dev.ehutson.template.service.maintenance.ExpiredRefreshTokenPurgeJob;
+import dev.ehutson.template.service.maintenance.StaleActivationCleanupJob;
+import dev.ehutson.template.service.maintenance.StaleResetKeyCleanupJob;
+import org.quartz.*;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the maintenance jobs with Quartz. Each node schedules them; the jobs coordinate through
+ * {@link dev.ehutson.template.service.maintenance.SchedulerLock} so only one node runs each firing.
+ */
+@Configuration
+public class MaintenanceJobConfig {
+
+    private static final String GROUP = "maintenance";
+
+    @Bean
+    public JobDetail expiredRefreshTokenPurgeJobDetail() {
+        return job(ExpiredRefreshTokenPurgeJob.class, ExpiredRefreshTokenPurgeJob.NAME);
+    }
+
+    @Bean
+    public Trigger expiredRefreshTokenPurgeTrigger(JobDetail expiredRefreshTokenPurgeJobDetail, JwtProperties jwtProperties) {
+        return cronTrigger(expiredRefreshTokenPurgeJobDetail, jwtProperties.getSecurity().getTokenCleanupCron());
+    }
+
+    @Bean
+    public JobDetail staleActivationCleanupJobDetail() {
+        return job(StaleActivationCleanupJob.class, StaleActivationCleanupJob.NAME);
+    }
+
+    @Bean
+    public Trigger staleActivationCleanupTrigger(JobDetail staleActivationCleanupJobDetail, ApplicationProperties properties) {
+        return cronTrigger(staleActivationCleanupJobDetail, properties.getMaintenance().getActivationCleanupCron());
+    }
+
+    @Bean
+    public JobDetail staleResetKeyCleanupJobDetail() {
+        return job(StaleResetKeyCleanupJob.class, StaleResetKeyCleanupJob.NAME);
+    }
+
+    @Bean
+    public Trigger staleResetKeyCleanupTrigger(JobDetail staleResetKeyCleanupJobDetail, ApplicationProperties properties) {
+        return cronTrigger(staleResetKeyCleanupJobDetail, properties.getMaintenance().getResetKeyCleanupCron());
+    }
+
+    @Bean
+    public JobDetail activationMailRepairJobDetail() {
+        return job(ActivationMailRepairJob.class, ActivationMailRepairJob.NAME);
+    }
+
+    @Bean
+    public Trigger activationMailRepairTrigger(JobDetail activationMailRepairJobDetail, ApplicationProperties properties) {
+        return cronTrigger(activationMailRepairJobDetail, properties.getMaintenance().getActivationMailRepairCron());
+    }
+
+    private static JobDetail job(Class<? extends Job> jobClass, String name) {
+        return JobBuilder.newJob(jobClass)
+                .withIdentity(name, GROUP)
+                .storeDurably()
+                .build();
+    }
+
+    private static Trigger cronTrigger(JobDetail job, String cron) {
+        return TriggerBuilder.newTrigger()
+                .forJob(job)
+                .withIdentity(job.getKey().getName(), GROUP)
+                .withSchedule(CronScheduleBuilder.cronSchedule(cron).withMisfireHandlingInstructionDoNothing())
+                .build();
+    }
+}
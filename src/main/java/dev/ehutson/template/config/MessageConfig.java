@@ -7,11 +7,25 @@ import org.springframework.context.support.ReloadableResourceBundleMessageSource
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.i18n.AcceptHeaderLocaleResolver;
 
+import java.util.List;
 import java.util.Locale;
 
 @Configuration
 public class MessageConfig {
 
+    /**
+     * Locales with a bundled {@code i18n/messages_*.properties} file; {@link Locale#ROOT} is the default bundle.
+     */
+    public static final List<Locale> SUPPORTED_LOCALES = List.of(
+            Locale.ROOT,
+            Locale.ENGLISH,
+            Locale.GERMAN,
+            Locale.forLanguageTag("es"),
+            Locale.FRENCH,
+            Locale.forLanguageTag("pl"),
+            Locale.CHINESE
+    );
+
     @Bean
     public MessageSource messageSource() {
         ReloadableResourceBundleMessageSource messageSource = new ReloadableResourceBundleMessageSource();
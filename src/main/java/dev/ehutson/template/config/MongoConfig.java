@@ -5,6 +5,5 @@ import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @EnableMongock
-//EnableElasticsearchRepositories("dev.ehutson.template.repository.search")
 public class MongoConfig {
 }
@@ -0,0 +1,54 @@
+package dev.ehutson.template.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.config.ConfigDataEnvironmentPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Leaves out the auto-configuration of optional subsystems a deployment has switched off, so their clients,
+ * connection pools and health indicators are never created. Elasticsearch is only needed by the user search,
+ * so it is excluded unless {@code app.search.enabled} is set. Exclusions already configured are kept.
+ */
+public class OptionalSubsystemsEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    static final String PROPERTY_SOURCE_NAME = "optionalSubsystems";
+    static final String EXCLUDE_PROPERTY = "spring.autoconfigure.exclude";
+
+    static final List<String> ELASTICSEARCH_AUTO_CONFIGURATIONS = List.of(
+            "org.springframework.boot.autoconfigure.elasticsearch.ElasticsearchClientAutoConfiguration",
+            "org.springframework.boot.autoconfigure.elasticsearch.ElasticsearchRestClientAutoConfiguration",
+            "org.springframework.boot.autoconfigure.elasticsearch.ReactiveElasticsearchClientAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchDataAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchRepositoriesAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.elasticsearch.ReactiveElasticsearchRepositoriesAutoConfiguration");
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        Binder binder = Binder.get(environment);
+        if (binder.bind("app.search.enabled", Boolean.class).orElse(ApplicationDefaults.Search.ENABLED)) {
+            return;
+        }
+
+        // the highest precedence list wins as a whole, so the configured exclusions are merged in
+        Set<String> excludes = new LinkedHashSet<>(binder.bind(EXCLUDE_PROPERTY, Bindable.listOf(String.class)).orElse(List.of()));
+        excludes.addAll(ELASTICSEARCH_AUTO_CONFIGURATIONS);
+        environment.getPropertySources().addFirst(
+                new MapPropertySource(PROPERTY_SOURCE_NAME, Map.of(EXCLUDE_PROPERTY, String.join(",", excludes))));
+    }
+
+    @Override
+    public int getOrder() {
+        // after the config data, so profile-specific files are taken into account
+        return ConfigDataEnvironmentPostProcessor.ORDER + 1;
+    }
+}
@@ -0,0 +1,22 @@
+package dev.ehutson.template.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+
+/**
+ * Infrastructure for the Elasticsearch user search, only present with {@code app.search.enabled=true}.
+ * Change streams need MongoDB to run as a replica set.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.search", name = "enabled", havingValue = "true")
+public class SearchConfig {
+
+    @Bean
+    public MessageListenerContainer searchMessageListenerContainer(MongoTemplate mongoTemplate) {
+        return new DefaultMessageListenerContainer(mongoTemplate);
+    }
+}
@@ -0,0 +1,21 @@
+package dev.ehutson.template.config;
+
+import dev.ehutson.template.graphql.subscription.SessionEventRelay;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class SubscriptionConfig {
+
+    @Bean
+    public RedisMessageListenerContainer sessionEventListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       SessionEventRelay sessionEventRelay) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(sessionEventRelay, new ChannelTopic(SessionEventRelay.CHANNEL));
+        return container;
+    }
+}
@@ -3,10 +3,22 @@ package dev.ehutson.template.config.properties;
 import dev.ehutson.template.config.ApplicationDefaults;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @ConfigurationProperties(prefix = "app", ignoreUnknownFields = false)
 public class ApplicationProperties {
     private final Mail mail = new Mail();
     private final Pagination pagination = new Pagination();
+    private final Maintenance maintenance = new Maintenance();
+    private final Graphql graphql = new Graphql();
+    private final Users users = new Users();
+    private final Search search = new Search();
+    private final Client client = new Client();
+    private final Logging logging = new Logging();
 
     public Mail getMail() {
         return mail;
@@ -16,11 +28,37 @@ public class ApplicationProperties {
         return pagination;
     }
 
+    public Maintenance getMaintenance() {
+        return maintenance;
+    }
+
+    public Graphql getGraphql() {
+        return graphql;
+    }
+
+    public Users getUsers() {
+        return users;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Client getClient() {
+        return client;
+    }
+
+    public Logging getLogging() {
+        return logging;
+    }
+
     public static class Mail {
 
         private boolean enabled = ApplicationDefaults.Mail.ENABLED;
         private String from = ApplicationDefaults.Mail.FROM;
         private String baseUrl = ApplicationDefaults.Mail.BASE_URL;
+        private final Outbox outbox = new Outbox();
+        private final Bulk bulk = new Bulk();
 
         public boolean isEnabled() {
             return enabled;
@@ -45,6 +83,554 @@ public class ApplicationProperties {
         public void setBaseUrl(String baseUrl) {
             this.baseUrl = baseUrl;
         }
+
+        public Outbox getOutbox() {
+            return outbox;
+        }
+
+        public Bulk getBulk() {
+            return bulk;
+        }
+    }
+
+    public static class Outbox {
+        private int batchSize = ApplicationDefaults.MailOutbox.BATCH_SIZE;
+        private int concurrency = ApplicationDefaults.MailOutbox.CONCURRENCY;
+        private int maxAttempts = ApplicationDefaults.MailOutbox.MAX_ATTEMPTS;
+        private Duration initialBackoff = ApplicationDefaults.MailOutbox.INITIAL_BACKOFF;
+        private Duration maxBackoff = ApplicationDefaults.MailOutbox.MAX_BACKOFF;
+        private Duration lease = ApplicationDefaults.MailOutbox.LEASE;
+        private Duration pollInterval = ApplicationDefaults.MailOutbox.POLL_INTERVAL;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+    }
+
+    public static class Bulk {
+        private int concurrency = ApplicationDefaults.MailBulk.CONCURRENCY;
+        private double rateLimit = ApplicationDefaults.MailBulk.RATE_LIMIT;
+        private int checkpointInterval = ApplicationDefaults.MailBulk.CHECKPOINT_INTERVAL;
+        private Duration lease = ApplicationDefaults.MailBulk.LEASE;
+        private Duration resumeInterval = ApplicationDefaults.MailBulk.RESUME_INTERVAL;
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        /**
+         * @return the maximum number of emails sent per second across all workers
+         */
+        public double getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(double rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public int getCheckpointInterval() {
+            return checkpointInterval;
+        }
+
+        public void setCheckpointInterval(int checkpointInterval) {
+            this.checkpointInterval = checkpointInterval;
+        }
+
+        /**
+         * @return how long a node owns a run without renewing it before another node may take it over; renewed at
+         * every checkpoint and every third of the lease while a window is being sent
+         */
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        /**
+         * @return how often each node offers runs that are still running to its scheduler
+         */
+        public Duration getResumeInterval() {
+            return resumeInterval;
+        }
+
+        public void setResumeInterval(Duration resumeInterval) {
+            this.resumeInterval = resumeInterval;
+        }
+    }
+
+    public static class Maintenance {
+        private int chunkSize = ApplicationDefaults.Maintenance.CHUNK_SIZE;
+        private Duration chunkPause = ApplicationDefaults.Maintenance.CHUNK_PAUSE;
+        private Duration lockLease = ApplicationDefaults.Maintenance.LOCK_LEASE;
+        private Duration lockAtLeast = ApplicationDefaults.Maintenance.LOCK_AT_LEAST;
+        private String activationCleanupCron = ApplicationDefaults.Maintenance.ACTIVATION_CLEANUP_CRON;
+        private Duration activationKeyTtl = ApplicationDefaults.Maintenance.ACTIVATION_KEY_TTL;
+        private String resetKeyCleanupCron = ApplicationDefaults.Maintenance.RESET_KEY_CLEANUP_CRON;
+        private Duration resetKeyTtl = ApplicationDefaults.Maintenance.RESET_KEY_TTL;
+        private String activationMailRepairCron = ApplicationDefaults.Maintenance.ACTIVATION_MAIL_REPAIR_CRON;
+        private Duration activationMailGrace = ApplicationDefaults.Maintenance.ACTIVATION_MAIL_GRACE;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public Duration getChunkPause() {
+            return chunkPause;
+        }
+
+        public void setChunkPause(Duration chunkPause) {
+            this.chunkPause = chunkPause;
+        }
+
+        public Duration getLockLease() {
+            return lockLease;
+        }
+
+        public void setLockLease(Duration lockLease) {
+            this.lockLease = lockLease;
+        }
+
+        public Duration getLockAtLeast() {
+            return lockAtLeast;
+        }
+
+        public void setLockAtLeast(Duration lockAtLeast) {
+            this.lockAtLeast = lockAtLeast;
+        }
+
+        public String getActivationCleanupCron() {
+            return activationCleanupCron;
+        }
+
+        public void setActivationCleanupCron(String activationCleanupCron) {
+            this.activationCleanupCron = activationCleanupCron;
+        }
+
+        public Duration getActivationKeyTtl() {
+            return activationKeyTtl;
+        }
+
+        public void setActivationKeyTtl(Duration activationKeyTtl) {
+            this.activationKeyTtl = activationKeyTtl;
+        }
+
+        public String getResetKeyCleanupCron() {
+            return resetKeyCleanupCron;
+        }
+
+        public void setResetKeyCleanupCron(String resetKeyCleanupCron) {
+            this.resetKeyCleanupCron = resetKeyCleanupCron;
+        }
+
+        public Duration getResetKeyTtl() {
+            return resetKeyTtl;
+        }
+
+        public void setResetKeyTtl(Duration resetKeyTtl) {
+            this.resetKeyTtl = resetKeyTtl;
+        }
+
+        public String getActivationMailRepairCron() {
+            return activationMailRepairCron;
+        }
+
+        public void setActivationMailRepairCron(String activationMailRepairCron) {
+            this.activationMailRepairCron = activationMailRepairCron;
+        }
+
+        /**
+         * @return how long after registration a user without an activation email is considered missed
+         */
+        public Duration getActivationMailGrace() {
+            return activationMailGrace;
+        }
+
+        public void setActivationMailGrace(Duration activationMailGrace) {
+            this.activationMailGrace = activationMailGrace;
+        }
+    }
+
+    public static class Users {
+        private int bulkMaxBatchSize = ApplicationDefaults.UserBulk.MAX_BATCH_SIZE;
+        private int passwordHashConcurrency = ApplicationDefaults.UserBulk.PASSWORD_HASH_CONCURRENCY;
+
+        /**
+         * @return the maximum number of users a single bulk mutation may touch
+         */
+        public int getBulkMaxBatchSize() {
+            return bulkMaxBatchSize;
+        }
+
+        public void setBulkMaxBatchSize(int bulkMaxBatchSize) {
+            this.bulkMaxBatchSize = bulkMaxBatchSize;
+        }
+
+        /**
+         * @return the number of threads hashing passwords for bulk mutations
+         */
+        public int getPasswordHashConcurrency() {
+            return passwordHashConcurrency;
+        }
+
+        public void setPasswordHashConcurrency(int passwordHashConcurrency) {
+            this.passwordHashConcurrency = passwordHashConcurrency;
+        }
+    }
+
+    public static class Search {
+        private boolean enabled = ApplicationDefaults.Search.ENABLED;
+        private int bulkSize = ApplicationDefaults.Search.BULK_SIZE;
+        private Duration flushInterval = ApplicationDefaults.Search.FLUSH_INTERVAL;
+        private int reindexBatchSize = ApplicationDefaults.Search.REINDEX_BATCH_SIZE;
+
+        /**
+         * @return whether users are indexed in and searched through Elasticsearch
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * @return the maximum number of change stream events sent to Elasticsearch in one bulk request
+         */
+        public int getBulkSize() {
+            return bulkSize;
+        }
+
+        public void setBulkSize(int bulkSize) {
+            this.bulkSize = bulkSize;
+        }
+
+        /**
+         * @return how long change stream events may wait before a partial bulk request is sent
+         */
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getReindexBatchSize() {
+            return reindexBatchSize;
+        }
+
+        public void setReindexBatchSize(int reindexBatchSize) {
+            this.reindexBatchSize = reindexBatchSize;
+        }
+    }
+
+    public static class Client {
+        private List<String> trustedProxies = new ArrayList<>(ApplicationDefaults.Client.TRUSTED_PROXIES);
+
+        /**
+         * @return the networks, in CIDR notation, whose forwarding headers are believed
+         */
+        public List<String> getTrustedProxies() {
+            return trustedProxies;
+        }
+
+        public void setTrustedProxies(List<String> trustedProxies) {
+            this.trustedProxies = trustedProxies;
+        }
+    }
+
+    public static class Logging {
+        private double permitsPerSecond = ApplicationDefaults.Logging.PERMITS_PER_SECOND;
+        private int burst = ApplicationDefaults.Logging.BURST;
+        private Map<String, Double> sampleRates = new HashMap<>();
+
+        /**
+         * @return the sustained number of messages per second a rate-limited call site may write
+         */
+        public double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        public void setPermitsPerSecond(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+        }
+
+        /**
+         * @return the number of messages a rate-limited call site may write in a burst
+         */
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        /**
+         * @return the fraction of messages written per call site; sites not listed write all of them
+         */
+        public Map<String, Double> getSampleRates() {
+            return sampleRates;
+        }
+
+        public void setSampleRates(Map<String, Double> sampleRates) {
+            this.sampleRates = sampleRates;
+        }
+    }
+
+    public static class Graphql {
+        private final Cost cost = new Cost();
+        private final Metrics metrics = new Metrics();
+        private int documentCacheSize = ApplicationDefaults.Graphql.DOCUMENT_CACHE_SIZE;
+        private boolean persistedQueriesEnabled = ApplicationDefaults.Graphql.PERSISTED_QUERIES_ENABLED;
+        private Duration persistedQueryTtl = ApplicationDefaults.Graphql.PERSISTED_QUERY_TTL;
+        private int etagCacheSize = ApplicationDefaults.Graphql.ETAG_CACHE_SIZE;
+        private int subscriptionBufferSize = ApplicationDefaults.Graphql.SUBSCRIPTION_BUFFER_SIZE;
+
+        public Cost getCost() {
+            return cost;
+        }
+
+        public Metrics getMetrics() {
+            return metrics;
+        }
+
+        /**
+         * @return the maximum number of parsed and validated documents kept in memory
+         */
+        public int getDocumentCacheSize() {
+            return documentCacheSize;
+        }
+
+        public void setDocumentCacheSize(int documentCacheSize) {
+            this.documentCacheSize = documentCacheSize;
+        }
+
+        public boolean isPersistedQueriesEnabled() {
+            return persistedQueriesEnabled;
+        }
+
+        public void setPersistedQueriesEnabled(boolean persistedQueriesEnabled) {
+            this.persistedQueriesEnabled = persistedQueriesEnabled;
+        }
+
+        /**
+         * @return how long the text of an automatic persisted query is kept in Redis
+         */
+        public Duration getPersistedQueryTtl() {
+            return persistedQueryTtl;
+        }
+
+        public void setPersistedQueryTtl(Duration persistedQueryTtl) {
+            this.persistedQueryTtl = persistedQueryTtl;
+        }
+
+        /**
+         * @return the maximum number of GET responses whose ETag is remembered, letting a matching
+         * {@code If-None-Match} be answered without executing the query
+         */
+        public int getEtagCacheSize() {
+            return etagCacheSize;
+        }
+
+        public void setEtagCacheSize(int etagCacheSize) {
+            this.etagCacheSize = etagCacheSize;
+        }
+
+        /**
+         * @return how many events a subscription may have pending before the oldest are dropped
+         */
+        public int getSubscriptionBufferSize() {
+            return subscriptionBufferSize;
+        }
+
+        public void setSubscriptionBufferSize(int subscriptionBufferSize) {
+            this.subscriptionBufferSize = subscriptionBufferSize;
+        }
+    }
+
+    public static class Metrics {
+        private boolean enabled = ApplicationDefaults.GraphqlMetrics.ENABLED;
+        private double trivialFieldSampleRate = ApplicationDefaults.GraphqlMetrics.TRIVIAL_FIELD_SAMPLE_RATE;
+        private Duration slowQueryThreshold = ApplicationDefaults.GraphqlMetrics.SLOW_QUERY_THRESHOLD;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * @return the fraction of property-backed field fetches that are timed, between 0 and 1
+         */
+        public double getTrivialFieldSampleRate() {
+            return trivialFieldSampleRate;
+        }
+
+        public void setTrivialFieldSampleRate(double trivialFieldSampleRate) {
+            this.trivialFieldSampleRate = trivialFieldSampleRate;
+        }
+
+        public Duration getSlowQueryThreshold() {
+            return slowQueryThreshold;
+        }
+
+        public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+            this.slowQueryThreshold = slowQueryThreshold;
+        }
+    }
+
+    public static class Cost {
+        private boolean enabled = ApplicationDefaults.QueryCost.ENABLED;
+        private int defaultFieldCost = ApplicationDefaults.QueryCost.DEFAULT_FIELD_COST;
+        private int scalarFieldCost = ApplicationDefaults.QueryCost.SCALAR_FIELD_COST;
+        private int listMultiplier = ApplicationDefaults.QueryCost.LIST_MULTIPLIER;
+        private int maxDepth = ApplicationDefaults.QueryCost.MAX_DEPTH;
+        private long adminBudget = ApplicationDefaults.QueryCost.ADMIN_BUDGET;
+        private long userBudget = ApplicationDefaults.QueryCost.USER_BUDGET;
+        private long anonymousBudget = ApplicationDefaults.QueryCost.ANONYMOUS_BUDGET;
+        private Map<String, Integer> fieldCosts = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getDefaultFieldCost() {
+            return defaultFieldCost;
+        }
+
+        public void setDefaultFieldCost(int defaultFieldCost) {
+            this.defaultFieldCost = defaultFieldCost;
+        }
+
+        public int getScalarFieldCost() {
+            return scalarFieldCost;
+        }
+
+        public void setScalarFieldCost(int scalarFieldCost) {
+            this.scalarFieldCost = scalarFieldCost;
+        }
+
+        public int getListMultiplier() {
+            return listMultiplier;
+        }
+
+        public void setListMultiplier(int listMultiplier) {
+            this.listMultiplier = listMultiplier;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public long getAdminBudget() {
+            return adminBudget;
+        }
+
+        public void setAdminBudget(long adminBudget) {
+            this.adminBudget = adminBudget;
+        }
+
+        public long getUserBudget() {
+            return userBudget;
+        }
+
+        public void setUserBudget(long userBudget) {
+            this.userBudget = userBudget;
+        }
+
+        public long getAnonymousBudget() {
+            return anonymousBudget;
+        }
+
+        public void setAnonymousBudget(long anonymousBudget) {
+            this.anonymousBudget = anonymousBudget;
+        }
+
+        /**
+         * @return cost overrides keyed by {@code Type.field}, e.g. {@code app.graphql.cost.field-costs[Query.users]=5}
+         */
+        public Map<String, Integer> getFieldCosts() {
+            return fieldCosts;
+        }
+
+        public void setFieldCosts(Map<String, Integer> fieldCosts) {
+            this.fieldCosts = fieldCosts;
+        }
     }
 
     public static class Pagination {
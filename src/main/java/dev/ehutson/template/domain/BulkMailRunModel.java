@@ -0,0 +1,91 @@
+package dev.ehutson.template.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * An admin-triggered mass email and its progress. {@code lastUserId} is the checkpoint a
+ * restarted run resumes after.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "bulk_mail_runs")
+public class BulkMailRunModel implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    private Segment segment;
+
+    private Template template;
+
+    @Field("created_before")
+    private Instant createdBefore;
+
+    @Indexed
+    @Builder.Default
+    private Status status = Status.RUNNING;
+
+    @Field("last_user_id")
+    private String lastUserId;
+
+    @Builder.Default
+    private long sent = 0;
+
+    @Builder.Default
+    private long failed = 0;
+
+    @Field("requested_by")
+    private String requestedBy;
+
+    @Field("started_at")
+    private Instant startedAt;
+
+    @Field("updated_at")
+    private Instant updatedAt;
+
+    @Field("finished_at")
+    private Instant finishedAt;
+
+    @Field("last_error")
+    private String lastError;
+
+    public enum Segment {
+        /**
+         * Users that never activated their account and registered before {@code createdBefore}.
+         */
+        UNACTIVATED,
+        /**
+         * Users with an activated account.
+         */
+        ACTIVE
+    }
+
+    public enum Template {
+        ACTIVATION,
+        CREATION,
+        PASSWORD_RESET
+    }
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+}
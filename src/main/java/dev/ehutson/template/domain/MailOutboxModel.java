@@ -0,0 +1,75 @@
+package dev.ehutson.template.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A pending email, written alongside the change that triggered it and delivered
+ * asynchronously by the outbox dispatcher.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "mail_outbox")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'next_attempt_at': 1}")
+public class MailOutboxModel implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    @Indexed(sparse = true)
+    @Field("user_id")
+    private String userId;
+
+    private String recipient;
+
+    @Field("template_name")
+    private String templateName;
+
+    @Field("title_key")
+    private String titleKey;
+
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    @Field("next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Indexed(sparse = true)
+    @Field("claim_id")
+    private String claimId;
+
+    @Field("locked_until")
+    private Instant lockedUntil;
+
+    @Field("last_error")
+    private String lastError;
+
+    @Field("created_at")
+    private Instant createdAt;
+
+    @Field("sent_at")
+    private Instant sentAt;
+
+    public enum Status {
+        PENDING, SENDING, SENT, DEAD
+    }
+}
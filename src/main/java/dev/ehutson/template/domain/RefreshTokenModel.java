@@ -32,10 +32,26 @@ public class RefreshTokenModel implements Serializable {
     @Indexed
     private String userId;
 
+    /**
+     * Id of the first session in this rotation chain; every token rotated from it shares the family.
+     */
+    @Indexed
+    private String familyId;
+
     private String userAgent;
 
     private String ipAddress;
 
+    /**
+     * Hash of the normalized user agent, computed once when the session is created.
+     */
+    private Long userAgentHash;
+
+    /**
+     * Network prefix of the client address, computed once when the session is created.
+     */
+    private String ipPrefix;
+
     @Indexed(expireAfter = "7d") // 7 days TTL index
     private Instant expiresAt;
 
@@ -0,0 +1,38 @@
+package dev.ehutson.template.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A named, time-limited lock that lets exactly one node run a scheduled job.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "scheduler_locks")
+public class SchedulerLockModel implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String name;
+
+    private String owner;
+
+    @Field("locked_at")
+    private Instant lockedAt;
+
+    @Field("locked_until")
+    private Instant lockedUntil;
+}
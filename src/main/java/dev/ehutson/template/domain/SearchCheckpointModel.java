@@ -0,0 +1,53 @@
+package dev.ehutson.template.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Progress of a search indexing process, so it can continue where it stopped after a restart.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "search_checkpoints")
+public class SearchCheckpointModel implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String name;
+
+    /**
+     * Change stream resume token as extended JSON.
+     */
+    @Field("resume_token")
+    private String resumeToken;
+
+    /**
+     * Id of the last document a reindex has processed.
+     */
+    @Field("last_id")
+    private String lastId;
+
+    /**
+     * Cluster time a change stream was first opened at, used until it has a resume token.
+     */
+    @Field("opened_at")
+    private Instant openedAt;
+
+    private boolean running;
+
+    @Field("updated_at")
+    private Instant updatedAt;
+}
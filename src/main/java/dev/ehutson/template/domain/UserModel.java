@@ -8,7 +8,7 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -28,14 +28,12 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "users")
-//@org.springframework.data.elasticsearch.annotations.Document(indexName = "user")
 public class UserModel extends AbstractTrackingModel<String> implements Serializable {
 
     @Serial
     private static final long serialVersionUID = 1L;
 
     @Id
-    @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Keyword)
     private String id;
 
     @NotNull(message = "Username is required")
@@ -108,6 +106,10 @@ public class UserModel extends AbstractTrackingModel<String> implements Serializ
     @DBRef(lazy = true)
     private List<RoleModel> roles = new ArrayList<>();
 
+    @Version
+    @JsonIgnore
+    private Long version;
+
     @Override
     public String getId() {
         return id;
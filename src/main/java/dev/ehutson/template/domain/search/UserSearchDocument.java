@@ -0,0 +1,56 @@
+package dev.ehutson.template.domain.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.DateFormat;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The searchable part of a user. Text fields are {@code search_as_you_type} so partial input matches;
+ * role names and the activation flag are keywords used as filters.
+ * <p>
+ * Documents are written with the user's {@code version} as an external version, so a write based on an
+ * older read of the user, such as a reindex batch, never replaces a newer one.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(indexName = UserSearchDocument.INDEX, createIndex = false, versionType = Document.VersionType.EXTERNAL_GTE)
+public class UserSearchDocument {
+
+    public static final String INDEX = "users";
+
+    @Id
+    @Field(type = FieldType.Keyword)
+    private String id;
+
+    @Field(type = FieldType.Search_As_You_Type)
+    private String username;
+
+    @Field(type = FieldType.Search_As_You_Type)
+    private String email;
+
+    @Field(type = FieldType.Search_As_You_Type)
+    private String firstName;
+
+    @Field(type = FieldType.Search_As_You_Type)
+    private String lastName;
+
+    @Field(type = FieldType.Keyword)
+    private List<String> roles;
+
+    @Field(type = FieldType.Boolean)
+    private boolean activated;
+
+    @Field(type = FieldType.Date, format = DateFormat.date_time)
+    private Instant createdAt;
+}
@@ -19,6 +19,11 @@ public enum ErrorCode {
             ErrorType.ValidationError,
             "Resource already exists"
     ),
+    RESOURCE_CONFLICT(
+            "errors.resource.conflict",
+            ErrorType.ValidationError,
+            "Resource was modified concurrently"
+    ),
 
     // Authentication errors (2xx)
     AUTHENTICATION_FAILED(
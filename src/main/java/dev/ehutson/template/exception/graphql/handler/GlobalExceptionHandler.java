@@ -1,11 +1,14 @@
 package dev.ehutson.template.exception.graphql.handler;
 
 import com.netflix.graphql.dgs.exceptions.DefaultDataFetcherExceptionHandler;
+import dev.ehutson.template.exception.ApplicationException;
 import dev.ehutson.template.exception.graphql.handler.strategy.ExceptionStrategyResolver;
+import dev.ehutson.template.monitoring.logging.RateLimitedLogger;
+import dev.ehutson.template.monitoring.logging.RateLimitedLogging;
+import graphql.ErrorType;
 import graphql.GraphQLError;
 import graphql.execution.DataFetcherExceptionHandlerParameters;
 import graphql.execution.DataFetcherExceptionHandlerResult;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Component;
@@ -18,10 +21,17 @@ import java.util.concurrent.CompletableFuture;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class GlobalExceptionHandler extends DefaultDataFetcherExceptionHandler {
 
     private final ExceptionStrategyResolver strategyResolver;
+    private final RateLimitedLogger clientErrorLog;
+    private final RateLimitedLogger serverErrorLog;
+
+    public GlobalExceptionHandler(ExceptionStrategyResolver strategyResolver, RateLimitedLogging rateLimitedLogging) {
+        this.strategyResolver = strategyResolver;
+        this.clientErrorLog = rateLimitedLogging.logger(GlobalExceptionHandler.class, "graphql.client-error");
+        this.serverErrorLog = rateLimitedLogging.logger(GlobalExceptionHandler.class, "graphql.server-error");
+    }
 
     @NotNull
     @Override
@@ -35,7 +45,12 @@ public class GlobalExceptionHandler extends DefaultDataFetcherExceptionHandler {
 
         try {
             GraphQLError graphqlError = strategyResolver.resolve(exception, handlerParameters);
-            log.error("GraphQL exception at path {}: {}", handlerParameters.getPath(), graphqlError.getMessage(), exception);
+            if (exception instanceof ApplicationException appEx && appEx.getErrorType() == ErrorType.ValidationError) {
+                // the caller's mistake; the stack trace tells nothing the error code does not
+                clientErrorLog.debug("GraphQL exception at path {}: {}", handlerParameters.getPath(), graphqlError.getMessage());
+            } else {
+                serverErrorLog.error("GraphQL exception at path {}: {}", handlerParameters.getPath(), graphqlError.getMessage(), exception);
+            }
 
             return CompletableFuture.completedFuture(
                     DataFetcherExceptionHandlerResult.newResult()
@@ -11,4 +11,12 @@ public class GlobalExceptionHandlerConfig {
     public boolean isStackTraceEnabled() {
         return properties.isStackTraceEnabled();
     }
+
+    public int getMaxStackTraceFrames() {
+        return properties.getMaxStackTraceFrames();
+    }
+
+    public int getMaxStackTraceCauses() {
+        return properties.getMaxStackTraceCauses();
+    }
 }
@@ -13,4 +13,6 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "app.exception")
 public class GlobalExceptionHandlerProperties {
     private boolean stackTraceEnabled = false;
+    private int maxStackTraceFrames = 20;
+    private int maxStackTraceCauses = 5;
 }
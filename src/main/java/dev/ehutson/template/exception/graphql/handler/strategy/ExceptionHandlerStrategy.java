@@ -10,6 +10,7 @@ public interface ExceptionHandlerStrategy {
 
     /**
      * Checks if this strategy can handle the given exception.
+     * The result is cached per exception class, so it must depend only on the exception type.
      */
     boolean canHandle(Throwable exception);
 
@@ -21,6 +22,7 @@ public interface ExceptionHandlerStrategy {
 
     /**
      * Returns the priority of this strategy. Lower values have higher priority.
+     * Strategies are sorted once at startup, so the value must not change.
      */
     default int getPriority() {
         return 100;
@@ -7,30 +7,39 @@ import dev.ehutson.template.exception.graphql.handler.GlobalExceptionHandlerConf
 import dev.ehutson.template.service.message.MessageService;
 import graphql.GraphQLError;
 import graphql.execution.DataFetcherExceptionHandlerParameters;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Simple resolver that handles all the common GraphQL error creation logic.
  * Strategies just need to identify exceptions and provide error codes.
+ * <p>
+ * The strategy for an exception class is looked up once and then served from a dispatch table,
+ * which relies on {@link ExceptionHandlerStrategy#canHandle} depending only on the exception type.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class ExceptionStrategyResolver {
 
     private final List<ExceptionHandlerStrategy> strategies;
+    private final ConcurrentMap<Class<?>, ExceptionHandlerStrategy> strategiesByType = new ConcurrentHashMap<>();
     private final MessageService messageService;
     private final GlobalExceptionHandlerConfig config;
 
+    public ExceptionStrategyResolver(List<ExceptionHandlerStrategy> strategies,
+                                     MessageService messageService,
+                                     GlobalExceptionHandlerConfig config) {
+        this.strategies = strategies.stream()
+                .sorted(Comparator.comparingInt(ExceptionHandlerStrategy::getPriority))
+                .toList();
+        this.messageService = messageService;
+        this.config = config;
+    }
+
     /**
      * Resolves exception to GraphQLError using the strategy pattern.
      * Handles all the boilerplate so strategies can stay simple.
@@ -56,11 +65,14 @@ public class ExceptionStrategyResolver {
     }
 
     private ExceptionHandlerStrategy findStrategy(Throwable exception) {
-        return strategies.stream()
-                .sorted(Comparator.comparingInt(ExceptionHandlerStrategy::getPriority))
-                .filter(strategy -> strategy.canHandle(exception))
+        ExceptionHandlerStrategy strategy = strategiesByType.get(exception.getClass());
+        if (strategy != null) {
+            return strategy;
+        }
+        return strategiesByType.computeIfAbsent(exception.getClass(), type -> strategies.stream()
+                .filter(candidate -> candidate.canHandle(exception))
                 .findFirst()
-                .orElseThrow(() -> new IllegalStateException("No strategy found for: " + exception.getClass().getName()));
+                .orElseThrow(() -> new IllegalStateException("No strategy found for: " + type.getName())));
     }
 
     private String getErrorMessage(ExceptionHandlerStrategy strategy, Throwable exception, ErrorCode errorCode) {
@@ -93,6 +105,8 @@ public class ExceptionStrategyResolver {
         Map<String, Object> extensions = new HashMap<>();
         extensions.put("code", errorCode.toString());
 
+        // Rendered eagerly: every resolved error is serialized into the response, so deferring would not
+        // save the work, and extensions must stay plain values for the serializer
         if (config.isStackTraceEnabled()) {
             extensions.put("stackTrace", getStackTrace(exception));
         }
@@ -100,12 +114,33 @@ public class ExceptionStrategyResolver {
         return extensions;
     }
 
+    /**
+     * Renders the stack trace like {@link Throwable#printStackTrace()}, but with at most
+     * {@code maxStackTraceFrames} frames per throwable and {@code maxStackTraceCauses} causes.
+     */
     private String getStackTrace(Throwable exception) {
-        try (StringWriter sw = new StringWriter(); PrintWriter pw = new PrintWriter(sw)) {
-            exception.printStackTrace(pw);
-            return sw.toString();
-        } catch (Exception e) {
-            return "Could not generate stack trace";
+        int maxFrames = config.getMaxStackTraceFrames();
+        int maxCauses = config.getMaxStackTraceCauses();
+        StringBuilder trace = new StringBuilder(256);
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        Throwable current = exception;
+        for (int depth = 0; current != null && depth <= maxCauses && seen.add(current); depth++) {
+            if (depth > 0) {
+                trace.append("Caused by: ");
+            }
+            trace.append(current).append('\n');
+
+            StackTraceElement[] frames = current.getStackTrace();
+            int shown = Math.min(frames.length, maxFrames);
+            for (int i = 0; i < shown; i++) {
+                trace.append("\tat ").append(frames[i]).append('\n');
+            }
+            if (frames.length > shown) {
+                trace.append("\t... ").append(frames.length - shown).append(" more\n");
+            }
+            current = current.getCause();
         }
+        return trace.toString();
     }
 }
\ No newline at end of file
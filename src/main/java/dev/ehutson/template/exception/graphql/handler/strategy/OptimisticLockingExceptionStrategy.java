@@ -0,0 +1,27 @@
+package dev.ehutson.template.exception.graphql.handler.strategy;
+
+import dev.ehutson.template.exception.ErrorCode;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Handles saves rejected because the document's {@code @Version} changed since it was read.
+ */
+@Component
+public class OptimisticLockingExceptionStrategy implements ExceptionHandlerStrategy {
+
+    @Override
+    public boolean canHandle(Throwable exception) {
+        return exception instanceof OptimisticLockingFailureException;
+    }
+
+    @Override
+    public ErrorCode getErrorCode(Throwable exception) {
+        return ErrorCode.RESOURCE_CONFLICT;
+    }
+
+    @Override
+    public int getPriority() {
+        return 20; // Medium priority
+    }
+}
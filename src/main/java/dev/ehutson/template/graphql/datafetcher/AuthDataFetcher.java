@@ -8,14 +8,16 @@ import dev.ehutson.template.domain.UserModel;
 import dev.ehutson.template.exception.ApplicationException;
 import dev.ehutson.template.exception.ErrorCode;
 import dev.ehutson.template.mapper.UserMapper;
+import dev.ehutson.template.monitoring.logging.RateLimitedLogger;
+import dev.ehutson.template.monitoring.logging.RateLimitedLogging;
 import dev.ehutson.template.repository.UserRepository;
 import dev.ehutson.template.security.service.AuthenticationService;
 import dev.ehutson.template.service.message.MessageService;
 import dev.ehutson.template.service.user.UserService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import static dev.ehutson.template.util.ServletRequestUtil.getRequest;
@@ -23,7 +25,6 @@ import static dev.ehutson.template.util.ServletRequestUtil.getResponse;
 
 @Slf4j
 @DgsComponent
-@RequiredArgsConstructor
 public class AuthDataFetcher {
     private static final String USER_NOT_FOUND = "User not found";
     private final UserMapper userMapper;
@@ -31,6 +32,21 @@ public class AuthDataFetcher {
     private final AuthenticationService authenticationService;
     private final UserService userService;
     private final MessageService messageService;
+    // failed logins and refreshes are what credential stuffing and forged tokens produce, so they are rate limited
+    private final RateLimitedLogger loginFailureLog;
+    private final RateLimitedLogger refreshFailureLog;
+
+    public AuthDataFetcher(UserMapper userMapper, UserRepository userRepository,
+                           AuthenticationService authenticationService, UserService userService,
+                           MessageService messageService, RateLimitedLogging rateLimitedLogging) {
+        this.userMapper = userMapper;
+        this.userRepository = userRepository;
+        this.authenticationService = authenticationService;
+        this.userService = userService;
+        this.messageService = messageService;
+        this.loginFailureLog = rateLimitedLogging.logger(AuthDataFetcher.class, "auth.login-failure");
+        this.refreshFailureLog = rateLimitedLogging.logger(AuthDataFetcher.class, "auth.refresh-failure");
+    }
 
     @DgsMutation
     public UserRegistrationResponse register(@InputArgument RegisterInput input) {
@@ -65,7 +81,7 @@ public class AuthDataFetcher {
 
     @DgsMutation
     public AuthPayload login(@InputArgument LoginInput input) {
-        log.info("Logging user {}", input.getUsername());
+        log.debug("Logging user {}", input.getUsername());
 
         try {
             authenticationService.authenticate(input.getUsername(), input.getPassword(), getRequest(), getResponse());
@@ -79,17 +95,23 @@ public class AuthDataFetcher {
                     .message("Authentication successful")
                     .build();
         } catch (ApplicationException e) {
-            log.error("Authentication error", e);
+            loginFailureLog.warn("Login failed for user {}: {}", input.getUsername(), e.getMessage());
             return AuthPayload.newBuilder()
                     .success(false)
                     .message(messageService.getMessage(e))
                     .build();
         } catch (BadCredentialsException bce) {
-            log.error("Bad credentials", bce);
+            loginFailureLog.warn("Login failed for user {}: bad credentials", input.getUsername());
             return AuthPayload.newBuilder()
                     .success(false)
                     .message(messageService.getMessage(ErrorCode.INVALID_CREDENTIALS))
                     .build();
+        } catch (AuthenticationException e) {
+            loginFailureLog.warn("Login failed for user {}: {}", input.getUsername(), e.getMessage());
+            return AuthPayload.newBuilder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build();
         } catch (Exception e) {
             log.error("Authentication error", e);
             return AuthPayload.newBuilder()
@@ -114,7 +136,7 @@ public class AuthDataFetcher {
                     .message("Token refreshed successfully")
                     .build();
         } catch (ApplicationException e) {
-            log.error("Refresh token error", e);
+            refreshFailureLog.warn("Token refresh failed: {}", e.getMessage());
             return AuthPayload.newBuilder()
                     .success(false)
                     .message(messageService.getMessage(e))
@@ -0,0 +1,53 @@
+package dev.ehutson.template.graphql.datafetcher;
+
+import com.netflix.graphql.dgs.DgsComponent;
+import com.netflix.graphql.dgs.DgsMutation;
+import com.netflix.graphql.dgs.DgsQuery;
+import com.netflix.graphql.dgs.InputArgument;
+import dev.ehutson.template.codegen.types.BulkMailRun;
+import dev.ehutson.template.codegen.types.StartBulkMailInput;
+import dev.ehutson.template.domain.BulkMailRunModel;
+import dev.ehutson.template.mapper.BulkMailRunMapper;
+import dev.ehutson.template.service.mail.bulk.BulkMailService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+@DgsComponent
+@RequiredArgsConstructor
+public class BulkMailDataFetcher {
+
+    private final BulkMailService bulkMailService;
+    private final BulkMailRunMapper bulkMailRunMapper;
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DgsQuery(field = "bulkMailRun")
+    public BulkMailRun getBulkMailRun(@InputArgument String id) {
+        return bulkMailRunMapper.toBulkMailRun(bulkMailService.getRun(id));
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DgsQuery(field = "bulkMailRuns")
+    public List<BulkMailRun> getBulkMailRuns() {
+        return bulkMailRunMapper.toBulkMailRuns(bulkMailService.getRuns());
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DgsMutation
+    public BulkMailRun startBulkMail(@InputArgument("input") StartBulkMailInput input) {
+        BulkMailRunModel run = bulkMailService.start(
+                BulkMailRunModel.Segment.valueOf(input.getSegment().name()),
+                BulkMailRunModel.Template.valueOf(input.getTemplate().name()),
+                input.getCreatedBefore() != null ? input.getCreatedBefore().toInstant() : null,
+                SecurityContextHolder.getContext().getAuthentication().getName());
+        return bulkMailRunMapper.toBulkMailRun(run);
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DgsMutation
+    public BulkMailRun cancelBulkMail(@InputArgument String id) {
+        return bulkMailRunMapper.toBulkMailRun(bulkMailService.cancel(id));
+    }
+}
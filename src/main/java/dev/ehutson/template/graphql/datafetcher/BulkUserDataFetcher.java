@@ -0,0 +1,77 @@
+package dev.ehutson.template.graphql.datafetcher;
+
+import com.netflix.graphql.dgs.DgsComponent;
+import com.netflix.graphql.dgs.DgsMutation;
+import com.netflix.graphql.dgs.InputArgument;
+import dev.ehutson.template.codegen.types.BulkItemError;
+import dev.ehutson.template.codegen.types.BulkRoleResult;
+import dev.ehutson.template.codegen.types.BulkUpdateUserInput;
+import dev.ehutson.template.codegen.types.BulkUserResult;
+import dev.ehutson.template.codegen.types.CreateUserInput;
+import dev.ehutson.template.mapper.UserMapper;
+import dev.ehutson.template.service.message.MessageService;
+import dev.ehutson.template.service.user.BulkUserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+
+import java.util.List;
+
+@DgsComponent
+@RequiredArgsConstructor
+public class BulkUserDataFetcher {
+
+    private final BulkUserService bulkUserService;
+    private final UserMapper userMapper;
+    private final MessageService messageService;
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DgsMutation
+    public BulkUserResult createUsers(@InputArgument("input") List<CreateUserInput> input) {
+        return toResult(bulkUserService.createUsers(input));
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DgsMutation
+    public BulkUserResult updateUsers(@InputArgument("input") List<BulkUpdateUserInput> input) {
+        return toResult(bulkUserService.updateUsers(input.stream()
+                .map(update -> new BulkUserService.BulkUpdate(update.getId(), update.getInput()))
+                .toList()));
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DgsMutation
+    public BulkRoleResult assignRoleToUsers(@InputArgument List<String> userIds, @InputArgument String roleId) {
+        return toResult(bulkUserService.assignRoleToUsers(userIds, roleId));
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DgsMutation
+    public BulkRoleResult removeRoleFromUsers(@InputArgument List<String> userIds, @InputArgument String roleId) {
+        return toResult(bulkUserService.removeRoleFromUsers(userIds, roleId));
+    }
+
+    private BulkUserResult toResult(BulkUserService.BulkOutcome outcome) {
+        return BulkUserResult.newBuilder()
+                .users(outcome.users().stream().map(userMapper::toUser).toList())
+                .errors(toErrors(outcome.errors()))
+                .build();
+    }
+
+    private BulkRoleResult toResult(BulkUserService.RoleOutcome outcome) {
+        return BulkRoleResult.newBuilder()
+                .matched((int) outcome.matched())
+                .modified((int) outcome.modified())
+                .errors(toErrors(outcome.errors()))
+                .build();
+    }
+
+    private List<BulkItemError> toErrors(List<BulkUserService.ItemError> errors) {
+        return errors.stream()
+                .map(error -> BulkItemError.newBuilder()
+                        .index(error.index())
+                        .code(error.code().name())
+                        .message(messageService.getMessage(error.code(), error.args()))
+                        .build())
+                .toList();
+    }
+}
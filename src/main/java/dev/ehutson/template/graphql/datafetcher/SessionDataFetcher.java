@@ -2,16 +2,26 @@ package dev.ehutson.template.graphql.datafetcher;
 
 import com.netflix.graphql.dgs.DgsComponent;
 import com.netflix.graphql.dgs.DgsQuery;
+import com.netflix.graphql.dgs.DgsSubscription;
 import dev.ehutson.template.codegen.types.Session;
+import dev.ehutson.template.codegen.types.SessionEvent;
 import dev.ehutson.template.domain.RefreshTokenModel;
 import dev.ehutson.template.exception.ApplicationException;
 import dev.ehutson.template.exception.ErrorCode;
+import dev.ehutson.template.graphql.subscription.SessionEventBroker;
 import dev.ehutson.template.mapper.RefreshTokenMapper;
+import dev.ehutson.template.security.SessionAuthenticationDetails;
 import dev.ehutson.template.security.service.AuthorizationService;
+import dev.ehutson.template.security.service.UserDetailsImpl;
 import dev.ehutson.template.security.service.refreshtoken.RefreshTokenService;
+import dev.ehutson.template.security.service.refreshtoken.SessionChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -23,6 +33,7 @@ public class SessionDataFetcher {
     private final RefreshTokenService refreshTokenService;
     private final AuthorizationService authorizationService;
     private final RefreshTokenMapper refreshTokenMapper;
+    private final SessionEventBroker sessionEventBroker;
 
     @DgsQuery(field = "activeSessions")
     @PreAuthorize("isAuthenticated()")
@@ -36,4 +47,40 @@ public class SessionDataFetcher {
                 })
                 .orElseThrow(() -> ApplicationException.of(ErrorCode.INVALID_TOKEN));
     }
+
+    @DgsSubscription(field = "sessionRevoked")
+    @PreAuthorize("isAuthenticated()")
+    public Publisher<SessionEvent> sessionRevoked() {
+        return sessionEvents().filter(event -> event.type() == SessionChangedEvent.Type.REVOKED)
+                .map(refreshTokenMapper::toSessionEvent);
+    }
+
+    @DgsSubscription(field = "newLogin")
+    @PreAuthorize("isAuthenticated()")
+    public Publisher<SessionEvent> newLogin() {
+        return sessionEvents().filter(event -> event.type() == SessionChangedEvent.Type.LOGIN)
+                .map(refreshTokenMapper::toSessionEvent);
+    }
+
+    @DgsSubscription(field = "sessionsChanged")
+    @PreAuthorize("isAuthenticated()")
+    public Publisher<SessionEvent> sessionsChanged() {
+        return sessionEvents().map(refreshTokenMapper::toSessionEvent);
+    }
+
+    /**
+     * Reads the user from the principal set up during the WebSocket handshake rather than loading it,
+     * since a subscription may stay open for hours. The stream ends when the session that opened it is
+     * revoked or its access token expires.
+     */
+    private Flux<SessionChangedEvent> sessionEvents() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null
+                || !(authentication.getPrincipal() instanceof UserDetailsImpl principal)
+                || !(authentication.getDetails() instanceof SessionAuthenticationDetails session)
+                || session.getExpiresAt() == null) {
+            throw ApplicationException.of(ErrorCode.INVALID_TOKEN);
+        }
+        return sessionEventBroker.subscribe(principal.getId(), session.getSessionId(), session.getExpiresAt());
+    }
 }
@@ -12,16 +12,25 @@ import dev.ehutson.template.exception.ErrorCode;
 import dev.ehutson.template.mapper.UserMapper;
 import dev.ehutson.template.repository.RoleRepository;
 import dev.ehutson.template.repository.UserRepository;
-import dev.ehutson.template.security.service.AuthorizationService;
+import dev.ehutson.template.security.service.AccessTokenRevocationService;
+import dev.ehutson.template.security.service.UserDetailsImpl;
 import dev.ehutson.template.service.pagination.PaginationService;
+import dev.ehutson.template.service.user.UserCacheService;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @DgsComponent
@@ -33,28 +42,36 @@ public class UserDataFetcher {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
-    private final AuthorizationService authorizationService;
     private final PaginationService paginationService;
+    private final UserCacheService userCacheService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
 
     @DgsQuery(field = "me")
-    public User getCurrentUser() {
-        return authorizationService.getCurrentUser().map(userMapper::toUser)
+    public User getCurrentUser(DataFetchingEnvironment dfe) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl principal)) {
+            throw ApplicationException.of(ErrorCode.INSUFFICIENT_PRIVILEGES);
+        }
+        return userRepository.findProjectedById(principal.getId(), selectedProperties(dfe.getSelectionSet(), "*"))
+                .map(userMapper::toUser)
                 .orElseThrow(() -> ApplicationException.of(ErrorCode.INSUFFICIENT_PRIVILEGES));
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN') or @authorizationService.isResourceOwner(#id)")
     @DgsQuery(field = "user")
-    public User getUser(@InputArgument String id) {
-        return userRepository.findById(id).map(userMapper::toUser)
+    public User getUser(@InputArgument String id, DataFetchingEnvironment dfe) {
+        return userRepository.findProjectedById(id, selectedProperties(dfe.getSelectionSet(), "*"))
+                .map(userMapper::toUser)
                 .orElseThrow(() -> ApplicationException.of(ErrorCode.RESOURCE_NOT_FOUND, USER_NOT_FOUND, "User", id));
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DgsQuery(field = "users")
-    public UserConnection getAllUsers(@InputArgument PaginationInput input) {
+    public UserConnection getAllUsers(@InputArgument PaginationInput input, DataFetchingEnvironment dfe) {
+        Set<String> properties = selectedProperties(dfe.getSelectionSet(), "edges/node/*");
         Page<UserModel> userPage = paginationService.getPage(
                 input,
-                userRepository::findAll
+                pageable -> userRepository.findAllProjected(pageable, properties)
         );
 
         List<UserEdge> edges = userPage.getContent().stream()
@@ -75,6 +92,16 @@ public class UserDataFetcher {
                 .build();
     }
 
+    /**
+     * Names of the User fields selected under {@code glob}. Only these are loaded from Mongo; the others
+     * stay unset on the model, so lazy references such as roles are only resolved when asked for.
+     */
+    private static Set<String> selectedProperties(DataFetchingFieldSelectionSet selectionSet, String glob) {
+        return selectionSet.getFields(glob).stream()
+                .map(SelectedField::getName)
+                .collect(Collectors.toSet());
+    }
+
     private UserEdge getUserEdge(UserModel user, Page<UserModel> userPage) {
         int index = userPage.getContent().indexOf(user);
         long offset = (long) userPage.getNumber() * userPage.getSize() + index;
@@ -138,6 +165,9 @@ public class UserDataFetcher {
                     "Email already exists", "User", "Email Address", input.getEmail());
         }
 
+        // save only evicts the keys the user is stored under afterwards
+        userCacheService.evict(userModel.getUsername(), userModel.getEmail());
+
         if (input.getUsername() != null) {
             userModel.setUsername(input.getUsername());
         }
@@ -175,6 +205,7 @@ public class UserDataFetcher {
             throw ApplicationException.of(ErrorCode.RESOURCE_NOT_FOUND, USER_NOT_FOUND, "User", id);
         }
         userRepository.deleteById(id);
+        accessTokenRevocationService.revokeAccessTokens(id);
         return true;
     }
 }
@@ -0,0 +1,89 @@
+package dev.ehutson.template.graphql.datafetcher;
+
+import com.netflix.graphql.dgs.DgsComponent;
+import com.netflix.graphql.dgs.DgsMutation;
+import com.netflix.graphql.dgs.DgsQuery;
+import com.netflix.graphql.dgs.InputArgument;
+import dev.ehutson.template.codegen.types.PageInfo;
+import dev.ehutson.template.codegen.types.UserConnection;
+import dev.ehutson.template.codegen.types.UserEdge;
+import dev.ehutson.template.codegen.types.UserSearchFilter;
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.exception.ApplicationException;
+import dev.ehutson.template.exception.ErrorCode;
+import dev.ehutson.template.mapper.UserMapper;
+import dev.ehutson.template.repository.UserRepository;
+import dev.ehutson.template.service.search.UserReindexer;
+import dev.ehutson.template.service.search.UserSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.access.prepost.PreAuthorize;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@DgsComponent
+@RequiredArgsConstructor
+public class UserSearchDataFetcher {
+
+    private static final String SEARCH_DISABLED = "User search is disabled";
+    private final ObjectProvider<UserSearchService> userSearchService;
+    private final ObjectProvider<UserReindexer> userReindexer;
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final ApplicationProperties applicationProperties;
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DgsQuery(field = "searchUsers")
+    public UserConnection searchUsers(@InputArgument String query, @InputArgument UserSearchFilter filters,
+                                      @InputArgument Integer first, @InputArgument String after) {
+        UserSearchService searchService = userSearchService.getIfAvailable();
+        if (searchService == null) {
+            throw ApplicationException.of(ErrorCode.SERVICE_ERROR, SEARCH_DISABLED);
+        }
+
+        ApplicationProperties.Pagination pagination = applicationProperties.getPagination();
+        int size = first != null && first > 0 ? Math.min(first, pagination.getMaxPageSize()) : pagination.getPageSize();
+        UserSearchService.SearchPage page = searchService.search(query,
+                filters != null ? filters.getRoles() : null,
+                filters != null ? filters.getActivated() : null,
+                size, after);
+
+        // the index only decides which users match; they are returned as stored
+        Map<String, UserModel> users = new HashMap<>();
+        userRepository.findAllById(page.hits().stream().map(UserSearchService.Hit::id).toList())
+                .forEach(user -> users.put(user.getId(), user));
+        List<UserEdge> edges = page.hits().stream()
+                .filter(hit -> users.containsKey(hit.id()))
+                .map(hit -> UserEdge.newBuilder()
+                        .cursor(hit.cursor())
+                        .node(userMapper.toUser(users.get(hit.id())))
+                        .build())
+                .toList();
+
+        PageInfo pageInfo = PageInfo.newBuilder()
+                .hasNextPage(page.hasNextPage())
+                .hasPreviousPage(after != null)
+                .startCursor(edges.isEmpty() ? null : edges.getFirst().getCursor())
+                .endCursor(edges.isEmpty() ? null : edges.getLast().getCursor())
+                .build();
+
+        return UserConnection.newBuilder()
+                .edges(edges)
+                .pageInfo(pageInfo)
+                .totalCount((int) page.totalCount())
+                .build();
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DgsMutation
+    public boolean reindexUsers() {
+        UserReindexer reindexer = userReindexer.getIfAvailable();
+        if (reindexer == null) {
+            throw ApplicationException.of(ErrorCode.SERVICE_ERROR, SEARCH_DISABLED);
+        }
+        return reindexer.start();
+    }
+}
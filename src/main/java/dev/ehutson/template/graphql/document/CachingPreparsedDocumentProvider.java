@@ -0,0 +1,60 @@
+package dev.ehutson.template.graphql.document;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Skips parsing and validation for documents that have been seen before.
+ * <p>
+ * Requests carrying an {@code extensions.persistedQuery} entry go through Apollo's automatic persisted
+ * query protocol; everything else is looked up by the SHA-256 of its text. Both paths share the same
+ * bounded document cache. Documents that failed to parse or validate are never cached.
+ */
+public class CachingPreparsedDocumentProvider implements PreparsedDocumentProvider {
+
+    private static final String PERSISTED_QUERY_EXTENSION = "persistedQuery";
+
+    private final Cache<String, PreparsedDocumentEntry> documents;
+    private final ApolloPersistedQuerySupport persistedQuerySupport;
+
+    /**
+     * @param persistedQuerySupport APQ handling, or {@code null} when persisted queries are disabled
+     */
+    public CachingPreparsedDocumentProvider(Cache<String, PreparsedDocumentEntry> documents,
+                                            ApolloPersistedQuerySupport persistedQuerySupport) {
+        this.documents = documents;
+        this.persistedQuerySupport = persistedQuerySupport;
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        if (persistedQuerySupport != null && isPersistedQuery(executionInput)) {
+            return persistedQuerySupport.getDocumentAsync(executionInput, parseAndValidateFunction);
+        }
+
+        String hash = DocumentHash.of(executionInput.getQuery());
+        PreparsedDocumentEntry cached = documents.getIfPresent(hash);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        PreparsedDocumentEntry entry = parseAndValidateFunction.apply(executionInput);
+        if (!entry.hasErrors()) {
+            documents.put(hash, entry);
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    private static boolean isPersistedQuery(ExecutionInput executionInput) {
+        Map<String, Object> extensions = executionInput.getExtensions();
+        return extensions != null && extensions.get(PERSISTED_QUERY_EXTENSION) instanceof Map<?, ?>;
+    }
+}
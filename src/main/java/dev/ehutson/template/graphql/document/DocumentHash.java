@@ -0,0 +1,25 @@
+package dev.ehutson.template.graphql.document;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 of a GraphQL document, hex encoded. This is the same hash clients send as
+ * {@code extensions.persistedQuery.sha256Hash}, so both caches share one key space.
+ */
+public final class DocumentHash {
+
+    private DocumentHash() {
+    }
+
+    public static String of(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
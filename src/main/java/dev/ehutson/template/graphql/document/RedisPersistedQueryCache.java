@@ -0,0 +1,99 @@
+package dev.ehutson.template.graphql.document;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persisted query store for automatic persisted queries.
+ * <p>
+ * The query text is kept in Redis so every node can resolve a hash registered on any other node; the
+ * parsed and validated document is kept in the local document cache. Redis being unavailable degrades to
+ * a {@link PersistedQueryNotFound}, which makes the client resend the full query.
+ */
+@Slf4j
+public class RedisPersistedQueryCache implements PersistedQueryCache {
+
+    static final String KEY_PREFIX = "graphql:apq:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, PreparsedDocumentEntry> documents;
+    private final Duration ttl;
+
+    public RedisPersistedQueryCache(StringRedisTemplate redisTemplate,
+                                    Cache<String, PreparsedDocumentEntry> documents,
+                                    Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.documents = documents;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(Object persistedQueryId,
+                                                                                   ExecutionInput executionInput,
+                                                                                   PersistedQueryCacheMiss onCacheMiss) {
+        String hash = persistedQueryId.toString();
+        PreparsedDocumentEntry cached = documents.getIfPresent(hash);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        String queryText = executionInput.getQuery();
+        boolean registering = !isMissing(queryText);
+        if (!registering) {
+            queryText = lookup(hash);
+            if (queryText == null) {
+                // thrown rather than returned as a failed future, matching graphql-java's own caches
+                throw new PersistedQueryNotFound(persistedQueryId);
+            }
+        }
+
+        // onCacheMiss verifies the hash against the text before parsing, so a mismatch never gets stored
+        PreparsedDocumentEntry entry = onCacheMiss.apply(queryText);
+        if (!entry.hasErrors()) {
+            documents.put(hash, entry);
+            if (registering) {
+                store(hash, queryText);
+            }
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public PreparsedDocumentEntry getPersistedQueryDocument(Object persistedQueryId,
+                                                            ExecutionInput executionInput,
+                                                            PersistedQueryCacheMiss onCacheMiss) throws PersistedQueryNotFound {
+        return getPersistedQueryDocumentAsync(persistedQueryId, executionInput, onCacheMiss).join();
+    }
+
+    private static boolean isMissing(String queryText) {
+        return queryText == null || queryText.isBlank() || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(queryText);
+    }
+
+    private String lookup(String hash) {
+        try {
+            return redisTemplate.opsForValue().get(KEY_PREFIX + hash);
+        } catch (RuntimeException e) {
+            log.warn("Persisted query lookup failed for {}: {}", hash, e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String hash, String queryText) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + hash, queryText, ttl);
+        } catch (RuntimeException e) {
+            log.warn("Could not register persisted query {}: {}", hash, e.getMessage());
+        }
+    }
+}
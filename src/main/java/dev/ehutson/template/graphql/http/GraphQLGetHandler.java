@@ -0,0 +1,200 @@
+package dev.ehutson.template.graphql.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.graphql.instrumentation.CacheControlInstrumentation;
+import dev.ehutson.template.graphql.instrumentation.CachePolicyAnalyzer.CachePolicy;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import jakarta.servlet.http.Cookie;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.http.*;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves GraphQL queries, typically automatic persisted queries, over HTTP GET so they can be cached.
+ * <p>
+ * Successful responses carry a strong ETag computed over the serialized result and a {@code Cache-Control}
+ * header derived from the {@code @cacheControl} schema directives. A matching {@code If-None-Match} gets a
+ * 304. While a response is within its max-age its ETag is remembered per caller, so a client revalidating it
+ * is answered without executing the query at all.
+ */
+@Component
+public class GraphQLGetHandler {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final WebGraphQlHandler graphQlHandler;
+    private final ObjectMapper objectMapper;
+    private final Cache<ValidatorKey, Validator> validators;
+    private final Clock clock;
+
+    public GraphQLGetHandler(WebGraphQlHandler graphQlHandler, ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this(graphQlHandler, objectMapper, applicationProperties, Clock.systemUTC());
+    }
+
+    GraphQLGetHandler(WebGraphQlHandler graphQlHandler, ObjectMapper objectMapper, ApplicationProperties applicationProperties, Clock clock) {
+        this.graphQlHandler = graphQlHandler;
+        this.objectMapper = objectMapper;
+        this.validators = Caffeine.newBuilder()
+                .maximumSize(applicationProperties.getGraphql().getEtagCacheSize())
+                .build();
+        this.clock = clock;
+    }
+
+    public ServerResponse handle(ServerRequest request) {
+        Map<String, Object> body;
+        try {
+            body = readBody(request);
+        } catch (JsonProcessingException e) {
+            return ServerResponse.badRequest().build();
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean authenticated = authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+        Locale locale = request.servletRequest().getLocale();
+        ValidatorKey key = new ValidatorKey(authenticated ? authentication.getName() : "", locale, request.uri().getRawQuery());
+        String ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+
+        if (ifNoneMatch != null) {
+            Validator validator = validators.getIfPresent(key);
+            if (validator != null && validator.expiresAt().isAfter(clock.instant()) && matches(ifNoneMatch, validator.etag())) {
+                return ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(validator.etag())
+                        .cacheControl(validator.cacheControl())
+                        .build();
+            }
+        }
+
+        WebGraphQlRequest graphQlRequest = new WebGraphQlRequest(request.uri(), request.headers().asHttpHeaders(),
+                cookies(request), request.remoteAddress().orElse(null), request.attributes(), body,
+                UUID.randomUUID().toString(), locale);
+        graphQlRequest.configureExecutionInput((input, builder) ->
+                builder.graphQLContext(Map.of(CacheControlInstrumentation.HTTP_GET, true)).build());
+
+        Mono<ServerResponse> response = graphQlHandler.handleRequest(graphQlRequest)
+                .map(graphQlResponse -> toServerResponse(graphQlResponse, key, ifNoneMatch, authenticated));
+        return ServerResponse.async(response);
+    }
+
+    private ServerResponse toServerResponse(WebGraphQlResponse response, ValidatorKey key, String ifNoneMatch,
+                                            boolean authenticated) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(response.toMap());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize GraphQL response", e);
+        }
+
+        ServerResponse.BodyBuilder builder = ServerResponse.ok()
+                .headers(headers -> headers.putAll(response.getResponseHeaders()))
+                .contentType(MediaType.APPLICATION_GRAPHQL_RESPONSE);
+
+        CachePolicy policy = response.getExecutionInput().getGraphQLContext().get(CachePolicy.class);
+        if (!response.isValid() || !response.getErrors().isEmpty() || policy == null) {
+            return builder.cacheControl(CacheControl.noStore()).body(json);
+        }
+
+        String etag = etag(json);
+        CacheControl cacheControl = cacheControl(policy, authenticated);
+        if (policy.maxAge() > 0) {
+            validators.put(key, new Validator(etag, clock.instant().plusSeconds(policy.maxAge()), cacheControl));
+        }
+
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return builder.eTag(etag).cacheControl(cacheControl).body(json);
+    }
+
+    private Map<String, Object> readBody(ServerRequest request) throws JsonProcessingException {
+        Map<String, Object> body = new HashMap<>();
+        // WebGraphQlRequest requires a query; the persisted query support treats the marker as absent
+        body.put("query", request.param("query").orElse(PersistedQuerySupport.PERSISTED_QUERY_MARKER));
+        request.param("operationName").ifPresent(operationName -> body.put("operationName", operationName));
+        Optional<String> variables = request.param("variables");
+        if (variables.isPresent()) {
+            body.put("variables", objectMapper.readValue(variables.get(), MAP_TYPE));
+        }
+        Optional<String> extensions = request.param("extensions");
+        if (extensions.isPresent()) {
+            body.put("extensions", objectMapper.readValue(extensions.get(), MAP_TYPE));
+        }
+        return body;
+    }
+
+    private static MultiValueMap<String, HttpCookie> cookies(ServerRequest request) {
+        MultiValueMap<String, HttpCookie> cookies = new LinkedMultiValueMap<>();
+        request.cookies().forEach((name, values) -> {
+            for (Cookie cookie : values) {
+                cookies.add(name, new HttpCookie(name, cookie.getValue()));
+            }
+        });
+        return cookies;
+    }
+
+    static CacheControl cacheControl(CachePolicy policy, boolean authenticated) {
+        if (policy.maxAge() == 0) {
+            return CacheControl.noCache();
+        }
+        CacheControl cacheControl = CacheControl.maxAge(policy.maxAge(), TimeUnit.SECONDS);
+        // anything fetched with credentials is private, whatever the schema says
+        return policy.isPrivate() || authenticated ? cacheControl.cachePrivate() : cacheControl.cachePublic();
+    }
+
+    static String etag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return "\"" + HexFormat.of().formatHex(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Weak comparison as required for {@code If-None-Match}: a {@code W/} prefix is ignored.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*")) {
+                return true;
+            }
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record ValidatorKey(String principal, Locale locale, String query) {
+    }
+
+    private record Validator(String etag, Instant expiresAt, CacheControl cacheControl) {
+    }
+}
@@ -0,0 +1,50 @@
+package dev.ehutson.template.graphql.instrumentation;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLContext;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.language.OperationDefinition;
+import org.springframework.stereotype.Component;
+
+/**
+ * Works out the cache policy of operations received over HTTP GET and stores it in the GraphQL context
+ * under {@link CachePolicyAnalyzer.CachePolicy CachePolicy.class}. Only queries may be sent with GET; other
+ * operations are rejected before execution.
+ */
+@Component
+public class CacheControlInstrumentation extends SimplePerformantInstrumentation {
+
+    /**
+     * GraphQL context key set by the GET transport.
+     */
+    public static final String HTTP_GET = CacheControlInstrumentation.class.getName() + ".httpGet";
+
+    private final CachePolicyAnalyzer analyzer;
+
+    public CacheControlInstrumentation(CachePolicyAnalyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ExecutionContext context = parameters.getExecutionContext();
+        GraphQLContext graphQLContext = context.getGraphQLContext();
+        if (!Boolean.TRUE.equals(graphQLContext.get(HTTP_GET))) {
+            return super.beginExecuteOperation(parameters, state);
+        }
+
+        if (context.getOperationDefinition().getOperation() != OperationDefinition.Operation.QUERY) {
+            throw new AbortExecutionException("Only queries can be sent with HTTP GET");
+        }
+
+        graphQLContext.put(CachePolicyAnalyzer.CachePolicy.class, analyzer.analyze(context.getGraphQLSchema(),
+                context.getDocument(), context.getExecutionInput().getOperationName(), context.getCoercedVariables()));
+        return super.beginExecuteOperation(parameters, state);
+    }
+}
@@ -0,0 +1,81 @@
+package dev.ehutson.template.graphql.instrumentation;
+
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.CoercedVariables;
+import graphql.language.Document;
+import graphql.schema.*;
+import org.springframework.stereotype.Component;
+
+/**
+ * Derives the HTTP cache policy of an operation from the {@code @cacheControl} directives in the schema.
+ * <p>
+ * A field's hint comes from the directive on the field definition, or else from the directive on the
+ * type it returns. The operation's max-age is the lowest max-age among hinted fields, and it is private if
+ * any hint is private. Root fields without a hint make the operation uncacheable; nested fields without a
+ * hint inherit from their parent.
+ */
+@Component
+public class CachePolicyAnalyzer {
+
+    static final String DIRECTIVE = "cacheControl";
+    private static final String PRIVATE = "PRIVATE";
+
+    public CachePolicy analyze(GraphQLSchema schema, Document document, String operationName, CoercedVariables variables) {
+        QueryTraverser traverser = QueryTraverser.newQueryTraverser()
+                .schema(schema)
+                .document(document)
+                .operationName(operationName)
+                .coercedVariables(variables)
+                .build();
+
+        int[] maxAge = {Integer.MAX_VALUE};
+        boolean[] isPrivate = {false};
+
+        traverser.visitPreOrder(new QueryVisitorStub() {
+            @Override
+            public void visitField(QueryVisitorFieldEnvironment env) {
+                if (env.isTypeNameIntrospectionField()) {
+                    return;
+                }
+                GraphQLAppliedDirective hint = hint(env.getFieldDefinition());
+                if (hint == null) {
+                    if (env.getParentEnvironment() == null) {
+                        maxAge[0] = 0;
+                    }
+                    return;
+                }
+                Object hintedMaxAge = argument(hint, "maxAge");
+                if (hintedMaxAge instanceof Number number) {
+                    maxAge[0] = Math.min(maxAge[0], Math.max(0, number.intValue()));
+                }
+                if (PRIVATE.equals(String.valueOf(argument(hint, "scope")))) {
+                    isPrivate[0] = true;
+                }
+            }
+        });
+
+        return new CachePolicy(maxAge[0] == Integer.MAX_VALUE ? 0 : maxAge[0], isPrivate[0]);
+    }
+
+    private static GraphQLAppliedDirective hint(GraphQLFieldDefinition definition) {
+        GraphQLAppliedDirective hint = definition.getAppliedDirective(DIRECTIVE);
+        if (hint == null && GraphQLTypeUtil.unwrapAll(definition.getType()) instanceof GraphQLDirectiveContainer type) {
+            hint = type.getAppliedDirective(DIRECTIVE);
+        }
+        return hint;
+    }
+
+    private static Object argument(GraphQLAppliedDirective directive, String name) {
+        GraphQLAppliedDirectiveArgument argument = directive.getArgument(name);
+        return argument == null ? null : argument.getValue();
+    }
+
+    /**
+     * @param maxAge    seconds the response may be reused for; 0 means it must be revalidated every time
+     * @param isPrivate whether the response may only be stored by the requesting client
+     */
+    public record CachePolicy(int maxAge, boolean isPrivate) {
+    }
+}
@@ -0,0 +1,113 @@
+package dev.ehutson.template.graphql.instrumentation;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every data fetcher in the {@code graphql.field.fetch} timer, tagged with the parent type, the field
+ * and whether it succeeded, and logs operations slower than {@code slow-query-threshold}.
+ * <p>
+ * Fields resolved by a plain property lookup are only sampled ({@code trivial-field-sample-rate}), so their
+ * counts are a fraction of the real ones while their latencies stay representative. For fields that return a
+ * future, for example through a DataLoader, the time includes waiting for the batch to be dispatched.
+ */
+@Slf4j
+@Component
+public class FieldMetricsInstrumentation extends SimplePerformantInstrumentation {
+
+    static final String FIELD_TIMER = "graphql.field.fetch";
+    private static final int MAX_OPERATION_NAME_LENGTH = 64;
+
+    private final ApplicationProperties.Metrics properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public FieldMetricsInstrumentation(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.properties = applicationProperties.getGraphql().getMetrics();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        if (!properties.isEnabled()) {
+            return super.beginExecution(parameters, state);
+        }
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (elapsedMillis >= properties.getSlowQueryThreshold().toMillis()) {
+                log.warn("Slow GraphQL operation '{}' took {} ms with {} error(s)",
+                        sanitizeOperationName(parameters.getOperation()), elapsedMillis,
+                        result != null ? result.getErrors().size() : 1);
+            }
+        });
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters,
+                                                          InstrumentationState state) {
+        if (!properties.isEnabled() || parameters.getField().getName().startsWith("__")) {
+            return super.beginFieldFetch(parameters, state);
+        }
+        if (parameters.isTrivialDataFetcher()
+                && ThreadLocalRandom.current().nextDouble() >= properties.getTrivialFieldSampleRate()) {
+            return super.beginFieldFetch(parameters, state);
+        }
+
+        String parentType = parameters.getExecutionStepInfo().getObjectType().getName();
+        String field = parameters.getField().getName();
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) ->
+                timer(new TimerKey(parentType, field, throwable == null ? "success" : "error"))
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    private Timer timer(TimerKey key) {
+        return timers.computeIfAbsent(key, k -> Timer.builder(FIELD_TIMER)
+                .description("Time spent resolving GraphQL fields")
+                .tag("parentType", k.parentType())
+                .tag("field", k.field())
+                .tag("outcome", k.outcome())
+                .register(meterRegistry));
+    }
+
+    /**
+     * Operation names come from the client; only characters valid in a GraphQL name are kept so the log line
+     * cannot be forged or flooded.
+     */
+    static String sanitizeOperationName(String operationName) {
+        if (operationName == null || operationName.isEmpty()) {
+            return "anonymous";
+        }
+        int length = Math.min(operationName.length(), MAX_OPERATION_NAME_LENGTH);
+        StringBuilder sanitized = new StringBuilder(length + 3);
+        for (int i = 0; i < length; i++) {
+            char c = operationName.charAt(i);
+            boolean valid = c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+            sanitized.append(valid ? c : '?');
+        }
+        if (operationName.length() > MAX_OPERATION_NAME_LENGTH) {
+            sanitized.append("...");
+        }
+        return sanitized.toString();
+    }
+
+    private record TimerKey(String parentType, String field, String outcome) {
+    }
+}
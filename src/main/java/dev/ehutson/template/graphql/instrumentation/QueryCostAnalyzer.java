@@ -0,0 +1,152 @@
+package dev.ehutson.template.graphql.instrumentation;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.CoercedVariables;
+import graphql.language.Document;
+import graphql.schema.*;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Scores a GraphQL operation before it is executed.
+ * <p>
+ * The cost of a field is its own cost plus the cost of its selection multiplied by the number of items
+ * the field can return:
+ * <ul>
+ *     <li>fields with a {@code PaginationInput} argument multiply by {@code first}/{@code last}
+ *     (default page size when absent, capped at the maximum page size), like {@code PaginationService};</li>
+ *     <li>other list fields multiply by {@code list-multiplier}, except lists inside a {@code *Connection}
+ *     type, whose size is already covered by the paginated field;</li>
+ *     <li>scalar and enum fields cost {@code scalar-field-cost}, other fields {@code default-field-cost},
+ *     unless overridden in {@code field-costs}.</li>
+ * </ul>
+ * Introspection fields are free and do not count towards depth.
+ */
+@Component
+public class QueryCostAnalyzer {
+
+    private static final String CONNECTION_SUFFIX = "Connection";
+
+    private final ApplicationProperties.Cost costProperties;
+    private final ApplicationProperties.Pagination paginationProperties;
+
+    public QueryCostAnalyzer(ApplicationProperties properties) {
+        this.costProperties = properties.getGraphql().getCost();
+        this.paginationProperties = properties.getPagination();
+    }
+
+    public QueryCost analyze(GraphQLSchema schema, Document document, String operationName, CoercedVariables variables) {
+        QueryTraverser traverser = QueryTraverser.newQueryTraverser()
+                .schema(schema)
+                .document(document)
+                .operationName(operationName)
+                .coercedVariables(variables)
+                .build();
+
+        Map<QueryVisitorFieldEnvironment, Long> costByParent = new HashMap<>();
+        int[] maxDepth = {0};
+
+        traverser.visitPostOrder(new QueryVisitorStub() {
+            @Override
+            public void visitField(QueryVisitorFieldEnvironment env) {
+                if (env.isTypeNameIntrospectionField() || env.getField().getName().startsWith("__")) {
+                    return;
+                }
+                int depth = depth(env);
+                if (depth < 0) {
+                    return;
+                }
+                maxDepth[0] = Math.max(maxDepth[0], depth);
+
+                long childCost = costByParent.getOrDefault(env, 0L);
+                long cost = Math.addExact(fieldCost(env), Math.multiplyExact(multiplier(env), childCost));
+                costByParent.merge(env.getParentEnvironment(), cost, Math::addExact);
+            }
+        });
+
+        return new QueryCost(costByParent.getOrDefault(null, 0L), maxDepth[0]);
+    }
+
+    /**
+     * @return the depth of the field, or -1 if it is nested in an introspection field
+     */
+    private static int depth(QueryVisitorFieldEnvironment env) {
+        int depth = 0;
+        for (QueryVisitorFieldEnvironment current = env; current != null; current = current.getParentEnvironment()) {
+            if (current.getField().getName().startsWith("__")) {
+                return -1;
+            }
+            depth++;
+        }
+        return depth;
+    }
+
+    private long fieldCost(QueryVisitorFieldEnvironment env) {
+        Integer override = costProperties.getFieldCosts().get(coordinates(env));
+        if (override != null) {
+            return override;
+        }
+        GraphQLType type = GraphQLTypeUtil.unwrapAll(env.getFieldDefinition().getType());
+        return type instanceof GraphQLScalarType || type instanceof GraphQLEnumType
+                ? costProperties.getScalarFieldCost()
+                : costProperties.getDefaultFieldCost();
+    }
+
+    private long multiplier(QueryVisitorFieldEnvironment env) {
+        Integer pageSize = requestedPageSize(env.getArguments());
+        if (pageSize != null) {
+            return Math.max(1, Math.min(pageSize, paginationProperties.getMaxPageSize()));
+        }
+        if (hasPaginationArgument(env.getFieldDefinition())) {
+            return paginationProperties.getPageSize();
+        }
+        if (GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()))
+                && !isConnection(env.getFieldsContainer())) {
+            return costProperties.getListMultiplier();
+        }
+        return 1;
+    }
+
+    private static Integer requestedPageSize(Map<String, Object> arguments) {
+        for (Object value : arguments.values()) {
+            if (value instanceof Map<?, ?> input) {
+                Object size = input.get("first") != null ? input.get("first") : input.get("last");
+                if (size instanceof Number number) {
+                    return number.intValue();
+                }
+            }
+        }
+        Object size = arguments.get("first") != null ? arguments.get("first") : arguments.get("last");
+        return size instanceof Number number ? number.intValue() : null;
+    }
+
+    private static boolean hasPaginationArgument(GraphQLFieldDefinition definition) {
+        for (GraphQLArgument argument : definition.getArguments()) {
+            if (GraphQLTypeUtil.unwrapAll(argument.getType()) instanceof GraphQLInputObjectType input
+                    && input.getField("first") != null) {
+                return true;
+            }
+        }
+        return definition.getArgument("first") != null || definition.getArgument("last") != null;
+    }
+
+    private static boolean isConnection(GraphQLFieldsContainer container) {
+        return container.getName().endsWith(CONNECTION_SUFFIX);
+    }
+
+    private static String coordinates(QueryVisitorFieldEnvironment env) {
+        return env.getFieldsContainer().getName() + "." + env.getFieldDefinition().getName();
+    }
+
+    /**
+     * @param cost  the total cost of the operation
+     * @param depth the deepest field selection
+     */
+    public record QueryCost(long cost, int depth) {
+    }
+}
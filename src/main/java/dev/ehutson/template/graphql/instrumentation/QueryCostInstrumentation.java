@@ -0,0 +1,119 @@
+package dev.ehutson.template.graphql.instrumentation;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import graphql.ExecutionResult;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Rejects operations whose cost or depth exceeds the caller's budget before any data fetcher runs.
+ * <p>
+ * Budgets are per role ({@code admin-budget}, {@code user-budget}, {@code anonymous-budget}). The cost of
+ * every operation is recorded in the {@code graphql.operation.cost} distribution, tagged with the operation
+ * type, role and whether it was accepted.
+ */
+@Slf4j
+@Component
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+
+    static final String ROLE_ADMIN = "ROLE_ADMIN";
+
+    private final QueryCostAnalyzer analyzer;
+    private final ApplicationProperties.Cost properties;
+    private final MeterRegistry meterRegistry;
+    private final ContextSnapshotFactory snapshotFactory = ContextSnapshotFactory.builder().build();
+
+    public QueryCostInstrumentation(QueryCostAnalyzer analyzer, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.analyzer = analyzer;
+        this.properties = applicationProperties.getGraphql().getCost();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        if (!properties.isEnabled()) {
+            return super.beginExecuteOperation(parameters, state);
+        }
+
+        ExecutionContext context = parameters.getExecutionContext();
+        String role = currentRole(context);
+        String operation = context.getOperationDefinition().getOperation().name().toLowerCase(Locale.ROOT);
+
+        QueryCostAnalyzer.QueryCost queryCost;
+        try {
+            queryCost = analyzer.analyze(context.getGraphQLSchema(), context.getDocument(),
+                    context.getExecutionInput().getOperationName(), context.getCoercedVariables());
+        } catch (ArithmeticException e) {
+            queryCost = new QueryCostAnalyzer.QueryCost(Long.MAX_VALUE, 0);
+        }
+
+        long budget = budget(role);
+        boolean overBudget = queryCost.cost() > budget;
+        boolean tooDeep = queryCost.depth() > properties.getMaxDepth();
+
+        DistributionSummary.builder("graphql.operation.cost")
+                .description("Estimated cost of GraphQL operations")
+                .tag("operation", operation)
+                .tag("role", role)
+                .tag("outcome", overBudget || tooDeep ? "rejected" : "accepted")
+                .register(meterRegistry)
+                .record(queryCost.cost());
+
+        if (tooDeep) {
+            log.debug("Rejected {} '{}' with depth {} (max {})", operation,
+                    context.getExecutionInput().getOperationName(), queryCost.depth(), properties.getMaxDepth());
+            throw new AbortExecutionException("Query depth " + queryCost.depth() + " exceeds the maximum of " + properties.getMaxDepth());
+        }
+        if (overBudget) {
+            log.debug("Rejected {} '{}' with cost {} (budget {} for {})", operation,
+                    context.getExecutionInput().getOperationName(), queryCost.cost(), budget, role);
+            throw new AbortExecutionException("Query cost " + queryCost.cost() + " exceeds the budget of " + budget);
+        }
+
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    private long budget(String role) {
+        return switch (role) {
+            case "admin" -> properties.getAdminBudget();
+            case "user" -> properties.getUserBudget();
+            default -> properties.getAnonymousBudget();
+        };
+    }
+
+    /**
+     * Reads the caller from the security context captured in the GraphQL context, since the operation is
+     * not guaranteed to run on the request thread.
+     */
+    private String currentRole(ExecutionContext context) {
+        try (ContextSnapshot.Scope ignored = snapshotFactory.captureFrom(context.getGraphQLContext()).setThreadLocals()) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+                return "anonymous";
+            }
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                if (ROLE_ADMIN.equals(authority.getAuthority())) {
+                    return "admin";
+                }
+            }
+            return "user";
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package dev.ehutson.template.graphql.subscription;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.security.service.refreshtoken.SessionChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Delivers session events to the subscriptions open on this node.
+ * <p>
+ * There is one sink per user with at least one open subscription, so dispatching an event costs a map
+ * lookup regardless of how many users are connected. Every subscription gets its own bounded buffer; a
+ * client that falls behind loses its oldest pending events instead of holding up the others.
+ */
+@Slf4j
+@Component
+public class SessionEventBroker {
+
+    private final ConcurrentMap<String, Channel> channels = new ConcurrentHashMap<>();
+    private final int bufferSize;
+
+    public SessionEventBroker(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.bufferSize = applicationProperties.getGraphql().getSubscriptionBufferSize();
+        Gauge.builder("graphql.subscriptions.users", channels, ConcurrentMap::size)
+                .description("Users with at least one open session subscription on this node")
+                .register(meterRegistry);
+    }
+
+    public Flux<SessionChangedEvent> subscribe(String userId) {
+        return Flux.defer(() -> {
+            Channel channel = channels.compute(userId, (id, existing) -> {
+                Channel current = existing != null ? existing : new Channel();
+                current.subscribers++;
+                return current;
+            });
+            return channel.sink.asFlux()
+                    .onBackpressureBuffer(bufferSize,
+                            dropped -> log.debug("Dropped {} session event for slow subscriber of user {}", dropped.type(), userId),
+                            BufferOverflowStrategy.DROP_OLDEST)
+                    .doFinally(signal -> channels.computeIfPresent(userId, (id, current) -> --current.subscribers == 0 ? null : current));
+        });
+    }
+
+    /**
+     * Subscribes a connection authenticated by a session. The stream completes after delivering the
+     * revocation of that session, or when the access token that opened it expires.
+     */
+    public Flux<SessionChangedEvent> subscribe(String userId, String sessionId, Instant expiresAt) {
+        return Flux.defer(() -> subscribe(userId)
+                .takeUntil(event -> event.type() == SessionChangedEvent.Type.REVOKED && event.sessionId().equals(sessionId))
+                .take(remaining(expiresAt)));
+    }
+
+    private static Duration remaining(Instant expiresAt) {
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    public void dispatch(SessionChangedEvent event) {
+        Channel channel = channels.get(event.userId());
+        if (channel == null) {
+            return;
+        }
+        // the sink does not allow concurrent emissions and listener threads may overlap
+        synchronized (channel) {
+            channel.sink.tryEmitNext(event);
+        }
+    }
+
+    private static final class Channel {
+        private final Sinks.Many<SessionChangedEvent> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+    }
+}
@@ -0,0 +1,50 @@
+package dev.ehutson.template.graphql.subscription;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ehutson.template.security.service.refreshtoken.SessionChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+
+/**
+ * Fans session events out to every node through Redis pub/sub. Events are published once the surrounding
+ * transaction commits; each node, including the publisher, hands what it receives to its
+ * {@link SessionEventBroker}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionEventRelay implements MessageListener {
+
+    public static final String CHANNEL = "session-events";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final SessionEventBroker broker;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(SessionChangedEvent event) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not publish session event for user {}, delivering locally: {}", event.userId(), e.getMessage());
+            broker.dispatch(event);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            broker.dispatch(objectMapper.readValue(message.getBody(), SessionChangedEvent.class));
+        } catch (IOException e) {
+            log.warn("Ignoring malformed session event: {}", e.getMessage());
+        }
+    }
+}
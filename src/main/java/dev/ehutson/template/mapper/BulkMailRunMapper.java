@@ -0,0 +1,20 @@
+package dev.ehutson.template.mapper;
+
+import dev.ehutson.template.codegen.types.BulkMailRun;
+import dev.ehutson.template.domain.BulkMailRunModel;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", uses = DateTimeMapper.class)
+public interface BulkMailRunMapper {
+
+    @Mapping(target = "createdBefore", source = "createdBefore", qualifiedByName = "instantToOffsetDateTime")
+    @Mapping(target = "startedAt", source = "startedAt", qualifiedByName = "instantToOffsetDateTime")
+    @Mapping(target = "updatedAt", source = "updatedAt", qualifiedByName = "instantToOffsetDateTime")
+    @Mapping(target = "finishedAt", source = "finishedAt", qualifiedByName = "instantToOffsetDateTime")
+    BulkMailRun toBulkMailRun(BulkMailRunModel run);
+
+    List<BulkMailRun> toBulkMailRuns(List<BulkMailRunModel> runs);
+}
@@ -1,7 +1,9 @@
 package dev.ehutson.template.mapper;
 
 import dev.ehutson.template.codegen.types.Session;
+import dev.ehutson.template.codegen.types.SessionEvent;
 import dev.ehutson.template.domain.RefreshTokenModel;
+import dev.ehutson.template.security.service.refreshtoken.SessionChangedEvent;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -11,4 +13,7 @@ public interface RefreshTokenMapper {
     @Mapping(target = "lastUsed", source = "createdAt", qualifiedByName = "instantToOffsetDateTime")
     @Mapping(target = "createdAt", source = "createdAt", qualifiedByName = "instantToOffsetDateTime")
     Session toSession(RefreshTokenModel refreshToken);
-}
\ No newline at end of file
+
+    @Mapping(target = "occurredAt", source = "occurredAt", qualifiedByName = "instantToOffsetDateTime")
+    SessionEvent toSessionEvent(SessionChangedEvent event);
+}
@@ -39,6 +39,7 @@ public interface UserMapper {
     @Mapping(target = "activationDate", ignore = true)
     @Mapping(target = "activated", ignore = true)
     @Mapping(target = "roles", ignore = true)
+    @Mapping(target = "version", ignore = true)
     UserModel toUserModel(CreateUserInput user);
 
 }
\ No newline at end of file
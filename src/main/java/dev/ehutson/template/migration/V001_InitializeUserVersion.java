@@ -0,0 +1,36 @@
+package dev.ehutson.template.migration;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Gives existing users a {@code version}. Spring Data treats a versioned entity whose version is null as
+ * new, so without this the first save of a pre-existing user would be attempted as an insert.
+ */
+@ChangeUnit(id = "initialize-user-version", order = "001", author = "ehutson")
+public class V001_InitializeUserVersion {
+
+    private static final String USERS = "users";
+
+    private final MongoTemplate mongoTemplate;
+
+    public V001_InitializeUserVersion(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Execution
+    public void execute() {
+        mongoTemplate.updateMulti(Query.query(where("version").exists(false)), new Update().set("version", 0L), USERS);
+    }
+
+    @RollbackExecution
+    public void rollback() {
+        mongoTemplate.updateMulti(new Query(), new Update().unset("version"), USERS);
+    }
+}
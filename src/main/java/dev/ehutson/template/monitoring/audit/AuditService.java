@@ -1,5 +1,7 @@
 package dev.ehutson.template.monitoring.audit;
 
+import dev.ehutson.template.security.client.ClientContext;
+import dev.ehutson.template.security.client.ClientContextResolver;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,16 +16,18 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AuditService {
     private final MongoTemplate mongoTemplate;
+    private final ClientContextResolver clientContextResolver;
 
     public void logEvent(String principal, String type, Map<String, String> data, HttpServletRequest request) {
         try {
+            ClientContext client = clientContextResolver.resolve(request);
             AuditEvent event = AuditEvent.builder()
                     .principal(principal)
                     .type(type)
                     .data(data)
                     .timestamp(Instant.now())
-                    .ipAddress(getClientIp(request))
-                    .userAgent(request.getHeader("User-Agent"))
+                    .ipAddress(client.ipAddress())
+                    .userAgent(client.userAgent())
                     .build();
 
             mongoTemplate.save(event);
@@ -32,12 +36,4 @@ public class AuditService {
             log.error("Failed to log audit event", e);
         }
     }
-
-    private String getClientIp(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null) {
-            return request.getRemoteAddr();
-        }
-        return xfHeader.split(",")[0];
-    }
 }
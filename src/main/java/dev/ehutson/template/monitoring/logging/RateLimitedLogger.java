@@ -0,0 +1,103 @@
+package dev.ehutson.template.monitoring.logging;
+
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Logger for a single call site that writes at most a configured rate of messages, optionally sampled.
+ * <p>
+ * Messages over the limit are dropped and counted; the next message that gets through reports how many were
+ * dropped since the previous one. A trailing {@link Throwable} argument is logged as the cause, as with SLF4J.
+ * Nothing is counted or consumed when the level is disabled.
+ */
+public final class RateLimitedLogger {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Logger logger;
+    private final double sampleRate;
+    private final double permitsPerNano;
+    private final double burst;
+    private final Counter suppressedCounter;
+    private final LongSupplier nanoTime;
+    private final AtomicLong suppressed = new AtomicLong();
+
+    private double permits;
+    private long refilledAt;
+
+    RateLimitedLogger(Logger logger, double sampleRate, double permitsPerSecond, int burst,
+                      Counter suppressedCounter, LongSupplier nanoTime) {
+        this.logger = logger;
+        this.sampleRate = sampleRate;
+        this.permitsPerNano = permitsPerSecond / NANOS_PER_SECOND;
+        this.burst = Math.max(1, burst);
+        this.suppressedCounter = suppressedCounter;
+        this.nanoTime = nanoTime;
+        this.permits = this.burst;
+        this.refilledAt = nanoTime.getAsLong();
+    }
+
+    public void error(String format, Object... arguments) {
+        log(Level.ERROR, format, arguments);
+    }
+
+    public void warn(String format, Object... arguments) {
+        log(Level.WARN, format, arguments);
+    }
+
+    public void info(String format, Object... arguments) {
+        log(Level.INFO, format, arguments);
+    }
+
+    public void debug(String format, Object... arguments) {
+        log(Level.DEBUG, format, arguments);
+    }
+
+    private void log(Level level, String format, Object[] arguments) {
+        if (!logger.isEnabledForLevel(level)) {
+            return;
+        }
+        if (!sampled() || !tryAcquire()) {
+            suppressed.incrementAndGet();
+            suppressedCounter.increment();
+            return;
+        }
+
+        LoggingEventBuilder event = logger.atLevel(level);
+        int count = arguments.length;
+        if (count > 0 && arguments[count - 1] instanceof Throwable cause) {
+            event = event.setCause(cause);
+            count--;
+        }
+        for (int i = 0; i < count; i++) {
+            event = event.addArgument(arguments[i]);
+        }
+        long dropped = suppressed.getAndSet(0);
+        if (dropped > 0) {
+            event.addArgument(dropped).log(format + " ({} similar messages suppressed)");
+        } else {
+            event.log(format);
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private synchronized boolean tryAcquire() {
+        long now = nanoTime.getAsLong();
+        permits = Math.min(burst, permits + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+        if (permits < 1) {
+            return false;
+        }
+        permits--;
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package dev.ehutson.template.monitoring.logging;
+
+import dev.ehutson.template.config.ApplicationDefaults;
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Creates {@link RateLimitedLogger}s for log statements on hot paths, such as per-request authentication
+ * failures, that would otherwise turn a traffic spike or an attack into a logging bottleneck.
+ * <p>
+ * Every call site gets its own token bucket, refilled at {@code app.logging.permits-per-second} up to
+ * {@code app.logging.burst}, and may additionally be sampled through {@code app.logging.sample-rates}.
+ * Suppressed messages are counted in {@code logging.suppressed}, tagged with the site.
+ */
+@Component
+public class RateLimitedLogging {
+
+    static final String SUPPRESSED_COUNTER = "logging.suppressed";
+
+    private final ApplicationProperties.Logging properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoTime;
+
+    public RateLimitedLogging(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this(applicationProperties, meterRegistry, System::nanoTime);
+    }
+
+    RateLimitedLogging(ApplicationProperties applicationProperties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.properties = applicationProperties.getLogging();
+        this.meterRegistry = meterRegistry;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Creates the logger for one call site. Call once and keep the result in a field.
+     *
+     * @param owner the class whose logger the messages are written to
+     * @param site  the call site name, used for the sample rate and the metric tag
+     */
+    public RateLimitedLogger logger(Class<?> owner, String site) {
+        Counter suppressed = Counter.builder(SUPPRESSED_COUNTER)
+                .description("Log messages dropped by rate limiting or sampling")
+                .tag("site", site)
+                .register(meterRegistry);
+        return new RateLimitedLogger(
+                LoggerFactory.getLogger(owner),
+                properties.getSampleRates().getOrDefault(site, ApplicationDefaults.Logging.SAMPLE_RATE),
+                properties.getPermitsPerSecond(),
+                properties.getBurst(),
+                suppressed,
+                nanoTime);
+    }
+}
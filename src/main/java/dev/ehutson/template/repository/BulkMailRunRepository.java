@@ -0,0 +1,12 @@
+package dev.ehutson.template.repository;
+
+import dev.ehutson.template.domain.BulkMailRunModel;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BulkMailRunRepository extends MongoRepository<BulkMailRunModel, String> {
+    List<BulkMailRunModel> findAllByStatus(BulkMailRunModel.Status status);
+}
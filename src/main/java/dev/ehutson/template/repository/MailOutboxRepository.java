@@ -0,0 +1,17 @@
+package dev.ehutson.template.repository;
+
+import dev.ehutson.template.domain.MailOutboxModel;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends MongoRepository<MailOutboxModel, String> {
+    long countByStatus(MailOutboxModel.Status status);
+
+    List<MailOutboxModel> findByClaimId(String claimId);
+
+    boolean existsByUserIdAndTemplateNameIn(String userId, Collection<String> templateNames);
+}
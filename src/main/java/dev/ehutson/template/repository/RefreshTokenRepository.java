@@ -2,6 +2,8 @@ package dev.ehutson.template.repository;
 
 import dev.ehutson.template.domain.RefreshTokenModel;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -16,7 +18,19 @@ public interface RefreshTokenRepository extends MongoRepository<RefreshTokenMode
 
     List<RefreshTokenModel> findByUserIdAndRevokedFalse(String userId);
 
-    void deleteByExpiresAtBefore(Instant now);
-
     Optional<RefreshTokenModel> findByTokenAndRevokedFalse(String token);
+
+    List<RefreshTokenModel> findByFamilyIdAndRevokedFalse(String familyId);
+
+    @Query("{ 'familyId': ?0, 'revoked': false }")
+    @Update("{ '$set': { 'revoked': true } }")
+    long revokeByFamilyId(String familyId);
+
+    @Query("{ '_id': ?0, 'revoked': false, 'lastAccessedAt': { '$not': { '$gte': ?2 } } }")
+    @Update("{ '$set': { 'lastAccessedAt': ?1 } }")
+    long updateLastAccessedAt(String id, Instant lastAccessedAt, Instant touchedBefore);
+
+    @Query("{ '_id': ?0, 'revoked': false }")
+    @Update("{ '$set': { 'revoked': true, 'replacedByToken': ?1 } }")
+    long revokeIfActive(String id, String replacedByToken);
 }
@@ -4,9 +4,13 @@ import dev.ehutson.template.domain.RoleModel;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends MongoRepository<RoleModel, String> {
     Optional<RoleModel> findByName(String name);
+
+    List<RoleModel> findByNameIn(Collection<String> names);
 }
@@ -0,0 +1,9 @@
+package dev.ehutson.template.repository;
+
+import dev.ehutson.template.domain.SearchCheckpointModel;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SearchCheckpointRepository extends MongoRepository<SearchCheckpointModel, String> {
+}
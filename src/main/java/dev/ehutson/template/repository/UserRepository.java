@@ -5,22 +5,23 @@ import dev.ehutson.template.domain.UserModel;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
-import java.time.Instant;
-import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends MongoRepository<UserModel, String> {
+public interface UserRepository extends MongoRepository<UserModel, String>, UserRepositoryCustom {
     String USERS_BY_USERNAME_CACHE = "usersByUsername";
     String USERS_BY_EMAIL_CACHE = "usersByEmail";
 
     boolean existsByRolesContaining(RoleModel role);
 
+    // Cached users lack their @JsonIgnore properties, including password and version, so they must never be saved
+
     @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, unless = "#result == null")
     Optional<UserModel> findOneByEmailIgnoreCase(String email);
 
@@ -37,13 +38,12 @@ public interface UserRepository extends MongoRepository<UserModel, String> {
 
     Optional<UserModel> findOneByActivationKey(String activationKey);
 
-    List<UserModel> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedAtBefore(Instant dateTime);
-
     Optional<UserModel> findOneByResetKey(String resetKey);
 
-    List<UserModel> findAllByResetKeyIsFalseAndResetKeyIsNotNullAndCreatedAtBefore(Instant dateTime);
-
     @NotNull
-    @CacheEvict(cacheNames = {USERS_BY_USERNAME_CACHE, USERS_BY_EMAIL_CACHE}, key = "#entity.username")
+    @Caching(evict = {
+            @CacheEvict(cacheNames = USERS_BY_USERNAME_CACHE, key = "#entity.username"),
+            @CacheEvict(cacheNames = USERS_BY_EMAIL_CACHE, key = "#entity.email")
+    })
     <S extends UserModel> S save(@NotNull S entity);
 }
@@ -0,0 +1,27 @@
+package dev.ehutson.template.repository;
+
+import dev.ehutson.template.domain.UserModel;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Reads of users that load only some of their properties. Properties that are not requested are left
+ * unset on the returned models, so they must never be saved back.
+ */
+public interface UserRepositoryCustom {
+
+    Optional<UserModel> findProjectedById(String id, Collection<String> properties);
+
+    Page<UserModel> findAllProjected(Pageable pageable, Collection<String> properties);
+
+    /**
+     * Sets the reset key and date of the user with the email, ignoring case, in a single update.
+     *
+     * @return the updated user, or empty if no user has the email
+     */
+    Optional<UserModel> startPasswordReset(String email, String resetKey, Instant resetDate);
+}
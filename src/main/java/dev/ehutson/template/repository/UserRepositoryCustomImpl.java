@@ -0,0 +1,70 @@
+package dev.ehutson.template.repository;
+
+import dev.ehutson.template.domain.UserModel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String ID = "id";
+    private static final String PASSWORD = "password";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<UserModel> findProjectedById(String id, Collection<String> properties) {
+        Query query = project(Query.query(Criteria.where(ID).is(id)), properties);
+        return Optional.ofNullable(mongoTemplate.findOne(query, UserModel.class));
+    }
+
+    @Override
+    public Page<UserModel> findAllProjected(Pageable pageable, Collection<String> properties) {
+        Query query = project(new Query().with(pageable), properties);
+        List<UserModel> users = mongoTemplate.find(query, UserModel.class);
+        return PageableExecutionUtils.getPage(users, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), UserModel.class));
+    }
+
+    @Override
+    public Optional<UserModel> startPasswordReset(String email, String resetKey, Instant resetDate) {
+        Query query = Query.query(Criteria.where("email").regex("^" + Pattern.quote(email) + "$", "i"));
+        Update update = new Update()
+                .set("resetKey", resetKey)
+                .set("resetDate", resetDate)
+                .inc("version", 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), UserModel.class));
+    }
+
+    /**
+     * Includes the id and every requested name that is a persistent property of the user, except the
+     * password. Property names are mapped to their {@code @Field} names by the template.
+     */
+    private Query project(Query query, Collection<String> properties) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(UserModel.class);
+        Field fields = query.fields().include(ID);
+        for (String property : properties) {
+            if (!PASSWORD.equals(property) && entity.getPersistentProperty(property) != null) {
+                fields.include(property);
+            }
+        }
+        return query;
+    }
+}
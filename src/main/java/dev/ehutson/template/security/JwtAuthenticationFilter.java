@@ -1,38 +1,46 @@
 package dev.ehutson.template.security;
 
-import dev.ehutson.template.security.service.refreshtoken.RefreshTokenService;
+import dev.ehutson.template.monitoring.logging.RateLimitedLogger;
+import dev.ehutson.template.monitoring.logging.RateLimitedLogging;
+import dev.ehutson.template.security.claims.AccessTokenClaims;
+import dev.ehutson.template.security.service.AccessTokenRevocationService;
+import dev.ehutson.template.security.service.UserDetailsImpl;
+import dev.ehutson.template.security.service.refreshtoken.SessionAccessRecorder;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.dao.DataAccessException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtDecoder jwtDecoder;
     private final UserDetailsService userDetailsService;
     private final JwtCookieManager cookieManager;
-    private final RefreshTokenService refreshTokenService;
+    private final SessionAccessRecorder sessionAccessRecorder;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+    private final RateLimitedLogger missingTokenLog;
+    private final RateLimitedLogger authenticationFailureLog;
+    private final RateLimitedLogger userNotFoundLog;
+    private final RateLimitedLogger revocationCheckFailureLog;
 
     // Paths that should skip session updates for performance
     private static final String[] SKIP_SESSION_UPDATE_PATHS = {
@@ -42,6 +50,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             "/static/"
     };
 
+    public JwtAuthenticationFilter(JwtDecoder jwtDecoder, UserDetailsService userDetailsService,
+                                   JwtCookieManager cookieManager, SessionAccessRecorder sessionAccessRecorder,
+                                   AccessTokenRevocationService accessTokenRevocationService,
+                                   RateLimitedLogging rateLimitedLogging) {
+        this.jwtDecoder = jwtDecoder;
+        this.userDetailsService = userDetailsService;
+        this.cookieManager = cookieManager;
+        this.sessionAccessRecorder = sessionAccessRecorder;
+        this.accessTokenRevocationService = accessTokenRevocationService;
+        this.missingTokenLog = rateLimitedLogging.logger(JwtAuthenticationFilter.class, "jwt.missing-token");
+        this.authenticationFailureLog = rateLimitedLogging.logger(JwtAuthenticationFilter.class, "jwt.authentication-failure");
+        this.userNotFoundLog = rateLimitedLogging.logger(JwtAuthenticationFilter.class, "jwt.user-not-found");
+        this.revocationCheckFailureLog = rateLimitedLogging.logger(JwtAuthenticationFilter.class, "jwt.revocation-check-failure");
+    }
+
     @Override
     protected void doFilterInternal(
             @NotNull HttpServletRequest request,
@@ -53,7 +76,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (jwtToken.isPresent()) {
             processJwtToken(jwtToken.get(), request, response);
         } else {
-            log.error("No JWT token found in the request cookie, proceeding without authentication from cookie");
+            // every anonymous request and health probe ends up here, so this is not worth more than debug
+            missingTokenLog.debug("No JWT token found in the request cookie, proceeding without authentication from cookie");
         }
 
         filterChain.doFilter(request, response);
@@ -65,11 +89,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String username = jwt.getSubject();
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                authenticateUser(username, request);
+                authenticateUser(username, jwt, request);
 
-                // Update the session asynchronously if it is not a static resource
+                // Record the session access in the background if it is not a static resource
                 if (shouldUpdateSession(request)) {
-                    updateSessionAsync(jwt.getId());
+                    sessionAccessRecorder.recordAccess(jwt.getId());
                 }
             }
         } catch (JwtException e) {
@@ -78,13 +102,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             handleUserNotFoundException(response);
         } catch (Exception e) {
             // Log only the essential information, never full stack traces in production
-            log.error("Authentication failed for request: {} - Error: {}", request.getRequestURI(), e.getMessage());
+            authenticationFailureLog.error("Authentication failed for request: {} - Error: {}", request.getRequestURI(), e.getMessage());
             cookieManager.clearAccessTokenCookie(response);
         }
     }
 
-    private void authenticateUser(String username, HttpServletRequest request) {
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+    private void authenticateUser(String username, Jwt jwt, HttpServletRequest request) {
+        UserDetails userDetails = principalOf(username, jwt);
 
         // Create the authentication token
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
@@ -92,22 +116,43 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 null,
                 userDetails.getAuthorities()
         );
-        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        authentication.setDetails(new SessionAuthenticationDetails(request, jwt.getId(), jwt.getExpiresAt()));
 
         // Set authentication in SecurityContext
         SecurityContextHolder.getContext().setAuthentication(authentication);
         log.debug("User {} authenticated successfully", username);
     }
 
-    private void updateSessionAsync(String sessionId) {
-        // Update session access time asynchronously to avoid blocking the request
-        CompletableFuture.runAsync(() -> {
-            try {
-                refreshTokenService.updateLastAccessed(sessionId);
-            } catch (Exception e) {
-                log.warn("Failed to update session last accessed time: {}", e.getMessage());
-            }
-        });
+    /**
+     * Builds the principal from the access token claims, so authenticating a request needs no user lookup, only a
+     * check that the user's tokens were not revoked since it was issued. Deleting a user, removing one of their roles
+     * and revoking their sessions revoke them. Tokens without a user id, whose roles were written against a newer role
+     * table, or whose revocation cannot be checked are resolved through the user store instead.
+     */
+    private UserDetails principalOf(String username, Jwt jwt) {
+        String userId = AccessTokenClaims.userId(jwt);
+        if (userId == null || !AccessTokenClaims.hasKnownRoleTable(jwt)) {
+            return userDetailsService.loadUserByUsername(username);
+        }
+
+        boolean revoked;
+        try {
+            revoked = accessTokenRevocationService.isRevoked(userId, AccessTokenClaims.issuedAtMillis(jwt));
+        } catch (DataAccessException e) {
+            revocationCheckFailureLog.warn("Could not check access token revocation, loading the user instead: {}", e.getMessage());
+            return userDetailsService.loadUserByUsername(username);
+        }
+        if (revoked) {
+            throw new BadJwtException("Access token revoked");
+        }
+
+        return UserDetailsImpl.builder()
+                .id(userId)
+                .username(username)
+                .enabled(true)
+                .authorities(AccessTokenClaims.authorities(jwt))
+                .langKey(AccessTokenClaims.langKey(jwt))
+                .build();
     }
 
     private boolean shouldUpdateSession(HttpServletRequest request) {
@@ -131,7 +176,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     private void handleUserNotFoundException(HttpServletResponse response) {
-        log.warn("User not found during authentication");
+        userNotFoundLog.warn("User not found during authentication");
         cookieManager.clearAccessTokenCookie(response);
     }
 }
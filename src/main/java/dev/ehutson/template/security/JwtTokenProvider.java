@@ -1,17 +1,17 @@
 package dev.ehutson.template.security;
 
+import dev.ehutson.template.security.claims.AccessTokenClaims;
 import dev.ehutson.template.security.config.properties.JwtProperties;
 import dev.ehutson.template.security.service.UserDetailsImpl;
+import dev.ehutson.template.security.service.refreshtoken.RefreshTokenCodec;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
-import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -19,32 +19,34 @@ public class JwtTokenProvider {
 
     private final JwtEncoder jwtEncoder;
     private final JwtProperties properties;
+    private final RefreshTokenCodec refreshTokenCodec;
 
-    public String generateAccessToken(Authentication authentication) {
+    /**
+     * @param sessionId the id of the refresh token session the access token is issued for, written as {@code jti}
+     */
+    public String generateAccessToken(Authentication authentication, String sessionId) {
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
         Instant now = Instant.now();
         Instant expiry = now.plusSeconds(properties.getAccessTokenExpirationSeconds());
-        String sessionId = UUID.randomUUID().toString();
 
-        var roles = userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .toList();
-
-        JwtClaimsSet claims = JwtClaimsSet.builder()
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
                 .issuer(properties.getIssuer())
                 .issuedAt(now)
                 .expiresAt(expiry)
                 .subject(userDetails.getUsername())
-                .claim("scope", roles)
-                .claim("userId", userDetails.getId())
                 .id(sessionId)
-                .build();
-
-        return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+                .claim(AccessTokenClaims.ISSUED_AT_MILLIS, now.toEpochMilli());
+        // the token travels in a cookie on every request, so user id and roles are written compactly
+        AccessTokenClaims.write(claims, userDetails.getId(), userDetails.getAuthorities());
+        if (userDetails.getLangKey() != null) {
+            claims.claim(AccessTokenClaims.LANG_KEY, userDetails.getLangKey());
+        }
+
+        return jwtEncoder.encode(JwtEncoderParameters.from(claims.build())).getTokenValue();
     }
 
-    public String generateRefreshToken() {
-        return UUID.randomUUID().toString();
+    public String generateRefreshToken(String sessionId, Instant expiresAt) {
+        return refreshTokenCodec.encode(sessionId, expiresAt);
     }
 }
@@ -0,0 +1,28 @@
+package dev.ehutson.template.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.io.Serial;
+import java.time.Instant;
+
+/**
+ * Request details of an authentication made from an access token, with the session the token was issued for
+ * and when the token expires. Long-lived connections such as subscriptions use them to end with the session.
+ */
+@Getter
+public class SessionAuthenticationDetails extends WebAuthenticationDetails {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String sessionId;
+    private final Instant expiresAt;
+
+    public SessionAuthenticationDetails(HttpServletRequest request, String sessionId, Instant expiresAt) {
+        super(request);
+        this.sessionId = sessionId;
+        this.expiresAt = expiresAt;
+    }
+}
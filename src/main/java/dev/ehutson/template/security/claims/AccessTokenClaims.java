@@ -0,0 +1,190 @@
+package dev.ehutson.template.security.claims;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Compact encoding of the access token claims, which travel in a cookie on every request.
+ * <p>
+ * Roles listed in {@link RoleCode} are a bitmask in {@code rl}, written with the table version {@code rv};
+ * any other role is named in {@code rx}. A user id that is an ObjectId is written as the 16 character base64url
+ * encoding of its 12 bytes in {@code uid}, any other id as is in {@code userId}. Decoding the roles of a token
+ * without unlisted roles returns a shared, precomputed authority list. The user's language travels in {@code lk},
+ * so a request can be authenticated from the token alone. The issue time in milliseconds travels in {@code iam},
+ * since {@code iat} is whole seconds and a revocation must not catch the tokens issued in the same second after it.
+ */
+public final class AccessTokenClaims {
+
+    public static final String USER_ID = "uid";
+    public static final String ROLES = "rl";
+    public static final String ROLE_TABLE_VERSION = "rv";
+    public static final String EXTRA_ROLES = "rx";
+    public static final String LANG_KEY = "lk";
+    public static final String ISSUED_AT_MILLIS = "iam";
+
+    // ids that are not ObjectIds, and tokens issued before the compact encoding
+    private static final String PLAIN_USER_ID = "userId";
+    // tokens issued before the compact encoding
+    private static final String LEGACY_SCOPE = "scope";
+
+    private static final int OBJECT_ID_HEX_LENGTH = 24;
+    private static final int OBJECT_ID_BASE64_LENGTH = 16;
+    private static final HexFormat HEX = HexFormat.of();
+    private static final List<List<GrantedAuthority>> AUTHORITIES_BY_MASK = authoritiesByMask();
+
+    private AccessTokenClaims() {
+    }
+
+    /**
+     * Adds the user id and roles to the claims of a new access token.
+     */
+    public static JwtClaimsSet.Builder write(JwtClaimsSet.Builder claims, String userId,
+                                             Collection<? extends GrantedAuthority> authorities) {
+        long mask = 0;
+        List<String> extraRoles = null;
+        for (GrantedAuthority authority : authorities) {
+            RoleCode code = RoleCode.byName(authority.getAuthority());
+            if (code != null) {
+                mask |= 1L << code.ordinal();
+            } else {
+                if (extraRoles == null) {
+                    extraRoles = new ArrayList<>();
+                }
+                extraRoles.add(authority.getAuthority());
+            }
+        }
+
+        String compactId = encodeId(userId);
+        if (compactId != null) {
+            claims.claim(USER_ID, compactId);
+        } else {
+            claims.claim(PLAIN_USER_ID, userId);
+        }
+        claims.claim(ROLES, mask)
+                .claim(ROLE_TABLE_VERSION, RoleCode.VERSION);
+        if (extraRoles != null) {
+            claims.claim(EXTRA_ROLES, extraRoles);
+        }
+        return claims;
+    }
+
+    /**
+     * @return the user id of an access token, or null if it has none
+     */
+    public static String userId(Jwt jwt) {
+        String encoded = jwt.getClaimAsString(USER_ID);
+        return encoded != null ? decodeId(encoded) : jwt.getClaimAsString(PLAIN_USER_ID);
+    }
+
+    /**
+     * @return the language of the user an access token was issued to, or null if it has none
+     */
+    public static String langKey(Jwt jwt) {
+        return jwt.getClaimAsString(LANG_KEY);
+    }
+
+    /**
+     * @return the issue time of an access token in epoch milliseconds, from {@code iat} for tokens issued without
+     * {@code iam}, or 0 if it has neither
+     */
+    public static long issuedAtMillis(Jwt jwt) {
+        if (jwt.getClaim(ISSUED_AT_MILLIS) instanceof Number millis) {
+            return millis.longValue();
+        }
+        return jwt.getIssuedAt() != null ? jwt.getIssuedAt().toEpochMilli() : 0;
+    }
+
+    /**
+     * @return whether this node knows every role the token can name, i.e. its roles were not written against a
+     * newer role table; tokens that name their roles instead of using the table always qualify
+     */
+    public static boolean hasKnownRoleTable(Jwt jwt) {
+        Object version = jwt.getClaim(ROLE_TABLE_VERSION);
+        return !(version instanceof Number number) || number.intValue() <= RoleCode.VERSION;
+    }
+
+    /**
+     * @return the authorities of an access token
+     */
+    public static Collection<GrantedAuthority> authorities(Jwt jwt) {
+        Object roles = jwt.getClaim(ROLES);
+        if (!(roles instanceof Number number)) {
+            List<String> scope = jwt.getClaimAsStringList(LEGACY_SCOPE);
+            return scope != null ? scope.stream().map(name -> (GrantedAuthority) new SimpleGrantedAuthority(name)).toList() : List.of();
+        }
+
+        long mask = number.longValue();
+        List<String> extraRoles = jwt.getClaimAsStringList(EXTRA_ROLES);
+        if (mask < AUTHORITIES_BY_MASK.size() && extraRoles == null) {
+            return AUTHORITIES_BY_MASK.get((int) mask);
+        }
+
+        // bits from a newer role table than this node knows, or unlisted roles
+        List<GrantedAuthority> authorities = new ArrayList<>(Long.bitCount(mask) + (extraRoles != null ? extraRoles.size() : 0));
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            RoleCode code = RoleCode.byBit(Long.numberOfTrailingZeros(remaining));
+            if (code != null) {
+                authorities.add(new SimpleGrantedAuthority(code.name()));
+            }
+        }
+        if (extraRoles != null) {
+            for (String role : extraRoles) {
+                authorities.add(new SimpleGrantedAuthority(role));
+            }
+        }
+        return authorities;
+    }
+
+    /**
+     * @return the compact form of an ObjectId, or null if the id is not one
+     */
+    static String encodeId(String id) {
+        if (id == null || id.length() != OBJECT_ID_HEX_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            // upper case digits would not survive the round trip
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return null;
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(HEX.parseHex(id));
+    }
+
+    static String decodeId(String encoded) {
+        if (encoded.length() != OBJECT_ID_BASE64_LENGTH) {
+            return null;
+        }
+        try {
+            return HEX.formatHex(Base64.getUrlDecoder().decode(encoded));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static List<List<GrantedAuthority>> authoritiesByMask() {
+        RoleCode[] codes = RoleCode.values();
+        // one precomputed list per combination while the table is small enough
+        int combinations = codes.length <= 8 ? 1 << codes.length : 0;
+        List<List<GrantedAuthority>> byMask = new ArrayList<>(combinations);
+        for (int mask = 0; mask < combinations; mask++) {
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            for (RoleCode code : codes) {
+                if ((mask & 1 << code.ordinal()) != 0) {
+                    authorities.add(new SimpleGrantedAuthority(code.name()));
+                }
+            }
+            byMask.add(List.copyOf(authorities));
+        }
+        return List.copyOf(byMask);
+    }
+}
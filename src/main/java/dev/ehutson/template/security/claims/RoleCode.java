@@ -0,0 +1,32 @@
+package dev.ehutson.template.security.claims;
+
+/**
+ * The role table access tokens encode roles against: a role's bit in the {@code rl} claim is its ordinal.
+ * <p>
+ * Tokens outlive deployments, so this table may only ever be appended to. Never reorder or remove a
+ * constant. Roles that are not listed travel by name instead.
+ */
+public enum RoleCode {
+    ROLE_USER,
+    ROLE_ADMIN;
+
+    /**
+     * Written into every token as {@code rv}, so a node running an older table recognizes bits it does not know.
+     */
+    public static final int VERSION = values().length;
+
+    private static final RoleCode[] CODES = values();
+
+    static RoleCode byBit(int bit) {
+        return bit < CODES.length ? CODES[bit] : null;
+    }
+
+    static RoleCode byName(String name) {
+        for (RoleCode code : CODES) {
+            if (code.name().equals(name)) {
+                return code;
+            }
+        }
+        return null;
+    }
+}
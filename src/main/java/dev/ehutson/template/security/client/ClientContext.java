@@ -0,0 +1,13 @@
+package dev.ehutson.template.security.client;
+
+import java.util.List;
+
+/**
+ * What is known about the client of the current request, extracted once by {@link ClientContextResolver}.
+ *
+ * @param ipAddress    the client address, taking trusted proxies into account
+ * @param userAgent    the {@code User-Agent} header, or null if absent
+ * @param forwardedFor the {@code X-Forwarded-For} chain, client first, if the request came through a trusted proxy
+ */
+public record ClientContext(String ipAddress, String userAgent, List<String> forwardedFor) {
+}
@@ -0,0 +1,146 @@
+package dev.ehutson.template.security.client;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.security.fingerprint.IpAddressParser;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Extracts the {@link ClientContext} of a request once and keeps it as a request attribute, so the session,
+ * fingerprint and audit code all see the same client.
+ * <p>
+ * Forwarding headers are only believed when the connection comes from a trusted proxy. The
+ * {@code X-Forwarded-For} chain is then walked from the right, skipping trusted proxies, and the first address
+ * that is not one is the client. {@code X-Real-IP} is used when a trusted proxy sends no chain.
+ */
+@Component
+public class ClientContextResolver {
+
+    static final String ATTRIBUTE = ClientContext.class.getName();
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+    private static final String X_REAL_IP = "X-Real-IP";
+
+    private final List<Network> trustedProxies;
+
+    public ClientContextResolver(ApplicationProperties applicationProperties) {
+        this.trustedProxies = applicationProperties.getClient().getTrustedProxies().stream()
+                .map(Network::parse)
+                .toList();
+    }
+
+    public ClientContext resolve(HttpServletRequest request) {
+        if (request.getAttribute(ATTRIBUTE) instanceof ClientContext context) {
+            return context;
+        }
+        ClientContext context = extract(request);
+        request.setAttribute(ATTRIBUTE, context);
+        return context;
+    }
+
+    private ClientContext extract(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        String userAgent = request.getHeader(HttpHeaders.USER_AGENT);
+        byte[] buffer = new byte[IpAddressParser.IPV6_LENGTH];
+        if (!isTrusted(remoteAddress, buffer)) {
+            return new ClientContext(remoteAddress, userAgent, List.of());
+        }
+
+        List<String> forwardedFor = forwardedFor(request);
+        String clientAddress = remoteAddress;
+        for (int i = forwardedFor.size() - 1; i >= 0; i--) {
+            String hop = forwardedFor.get(i);
+            if (IpAddressParser.parse(hop, buffer) < 0) {
+                // anything left of a garbled hop is not trustworthy
+                break;
+            }
+            clientAddress = hop;
+            if (!isTrusted(hop, buffer)) {
+                break;
+            }
+        }
+
+        if (forwardedFor.isEmpty()) {
+            String realIp = request.getHeader(X_REAL_IP);
+            if (realIp != null && IpAddressParser.parse(realIp, buffer) >= 0) {
+                clientAddress = realIp.trim();
+            }
+        }
+        return new ClientContext(clientAddress, userAgent, forwardedFor);
+    }
+
+    private static List<String> forwardedFor(HttpServletRequest request) {
+        Enumeration<String> headers = request.getHeaders(X_FORWARDED_FOR);
+        if (headers == null || !headers.hasMoreElements()) {
+            return List.of();
+        }
+        List<String> hops = new ArrayList<>();
+        for (String header : Collections.list(headers)) {
+            int start = 0;
+            while (start <= header.length()) {
+                int comma = header.indexOf(',', start);
+                int end = comma < 0 ? header.length() : comma;
+                String hop = header.substring(start, end).trim();
+                if (!hop.isEmpty()) {
+                    hops.add(hop);
+                }
+                start = end + 1;
+            }
+        }
+        return List.copyOf(hops);
+    }
+
+    private boolean isTrusted(String address, byte[] buffer) {
+        int length = IpAddressParser.parse(address, buffer);
+        if (length < 0) {
+            return false;
+        }
+        for (Network network : trustedProxies) {
+            if (network.contains(buffer, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Network(byte[] address, int length, int prefixLength) {
+
+        static Network parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            byte[] address = new byte[IpAddressParser.IPV6_LENGTH];
+            int length = IpAddressParser.parse(slash < 0 ? cidr : cidr.substring(0, slash), address);
+            if (length < 0) {
+                throw new IllegalArgumentException("Invalid trusted proxy: " + cidr);
+            }
+            int prefixLength;
+            try {
+                prefixLength = slash < 0 ? length * 8 : Integer.parseInt(cidr.substring(slash + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid trusted proxy: " + cidr, e);
+            }
+            if (prefixLength < 0 || prefixLength > length * 8) {
+                throw new IllegalArgumentException("Invalid trusted proxy prefix length: " + cidr);
+            }
+            return new Network(address, length, prefixLength);
+        }
+
+        boolean contains(byte[] candidate, int candidateLength) {
+            if (candidateLength != length) {
+                return false;
+            }
+            int bits = prefixLength;
+            for (int i = 0; bits > 0; i++, bits -= 8) {
+                int mask = bits >= 8 ? 0xff : 0xff << (8 - bits) & 0xff;
+                if ((candidate[i] & mask) != (address[i] & mask)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
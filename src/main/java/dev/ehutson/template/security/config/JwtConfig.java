@@ -1,35 +1,59 @@
 package dev.ehutson.template.security.config;
 
-import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.proc.SecurityContext;
 import dev.ehutson.template.security.config.properties.JwtProperties;
+import dev.ehutson.template.security.jwk.JwtKeys;
+import dev.ehutson.template.security.jwk.KeyIdJwtProcessor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.*;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.util.concurrent.TimeUnit;
 
 @RequiredArgsConstructor
 @Configuration
 public class JwtConfig {
 
+    public static final String JWKS_PATH = "/.well-known/jwks.json";
+
     private final JwtProperties jwtProperties;
 
     @Bean
-    JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(jwtProperties.getPublicKey()).build();
+    JwtKeys jwtKeys() {
+        return JwtKeys.load(jwtProperties);
+    }
+
+    @Bean
+    JwtDecoder jwtDecoder(JwtKeys jwtKeys) {
+        return new NimbusJwtDecoder(new KeyIdJwtProcessor(jwtKeys));
+    }
+
+    @Bean
+    JwtEncoder jwtEncoder(JwtKeys jwtKeys) {
+        NimbusJwtEncoder encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwtKeys.signingKey())));
+        JwsHeader header = JwsHeader.with(jwtKeys.signingAlgorithm())
+                .keyId(jwtKeys.signingKey().getKeyID())
+                .build();
+        // callers only pass claims; the header names the signing key so decoders can find it by kid
+        return parameters -> encoder.encode(parameters.getJwsHeader() != null
+                ? parameters
+                : JwtEncoderParameters.from(header, parameters.getClaims()));
     }
 
     @Bean
-    JwtEncoder jwtEncoder() {
-        JWK jwk = new RSAKey.Builder(jwtProperties.getPublicKey()).privateKey(jwtProperties.getPrivateKey()).build();
-        JWKSource<SecurityContext> jwkSource = new ImmutableJWKSet<>(new JWKSet(jwk));
-        return new NimbusJwtEncoder(jwkSource);
+    RouterFunction<ServerResponse> jwksRouterFunction(JwtKeys jwtKeys) {
+        return RouterFunctions.route()
+                .GET(JWKS_PATH, request -> ServerResponse.ok()
+                        .contentType(MediaType.parseMediaType(JWKSet.MIME_TYPE))
+                        .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                        .body(jwtKeys.publicJwkSetJson()))
+                .build();
     }
 }
@@ -35,9 +35,11 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/graphql/schema").permitAll()
                         .requestMatchers("/graphql").permitAll()
+                        .requestMatchers("/subscriptions").permitAll()
                         .requestMatchers("/actuator/health").permitAll()
                         .requestMatchers("/actuator/info").permitAll()
                         .requestMatchers("/actuator/prometheus").permitAll()
+                        .requestMatchers(JwtConfig.JWKS_PATH).permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
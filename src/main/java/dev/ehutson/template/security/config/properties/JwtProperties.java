@@ -1,14 +1,17 @@
 package dev.ehutson.template.security.config.properties;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
 import org.springframework.validation.annotation.Validated;
 
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.List;
 
 
 @Getter
@@ -18,12 +21,22 @@ import java.security.interfaces.RSAPublicKey;
 @Validated
 @ConfigurationProperties(prefix = "jwt")
 public class JwtProperties {
-    @NotNull(message = "JWT public key must be configured")
+    // RSA key pair used when no signing key id is configured; tokens without a kid are verified with it
     private RSAPublicKey publicKey;
-
-    @NotNull(message = "JWT private key must be configured")
     private RSAPrivateKey privateKey;
 
+    // Further keys as JWK files (RSA, EC or Ed25519), looked up by kid; public-only keys just verify
+    private List<Resource> jwks = new ArrayList<>();
+
+    // kid of the key new tokens are signed with
+    private String signingKeyId;
+
+    // Base64 HMAC-SHA256 key of at least 32 bytes authenticating refresh tokens; random per instance when unset
+    private String refreshTokenSecret;
+
+    // Refuse to start without refreshTokenSecret instead of using a random one; set by the prod profile
+    private boolean refreshTokenSecretRequired = false;
+
     private boolean secure = true;
     private boolean httpOnly = true;
 
@@ -46,6 +59,15 @@ public class JwtProperties {
     private boolean fingerprintUserAgent = false;
     private boolean fingerprintIpAddress = false;
 
+    // Leading address bits that must match for the IP fingerprint
+    @Min(value = 0, message = "IPv4 fingerprint prefix length must be between 0 and 32")
+    @Max(value = 32, message = "IPv4 fingerprint prefix length must be between 0 and 32")
+    private int fingerprintIpv4PrefixLength = 24;
+
+    @Min(value = 0, message = "IPv6 fingerprint prefix length must be between 0 and 128")
+    @Max(value = 128, message = "IPv6 fingerprint prefix length must be between 0 and 128")
+    private int fingerprintIpv6PrefixLength = 64;
+
     @NotBlank(message = "Token issuer must be specified")
     private String issuer = "self";
 
@@ -66,6 +88,9 @@ public class JwtProperties {
         // Token reuse window in seconds (how long to track old tokens)
         private long tokenReuseWindowSeconds = 3600;
 
+        // How often a session's last access time is written while it is in use
+        private long sessionTouchIntervalSeconds = 300;
+
         // Rate limiting for authentication attempts
         private RateLimitConfig rateLimit = new RateLimitConfig();
     }
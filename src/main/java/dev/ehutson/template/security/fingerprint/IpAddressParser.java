@@ -0,0 +1,173 @@
+package dev.ehutson.template.security.fingerprint;
+
+/**
+ * Parses literal IPv4 and IPv6 addresses without allocating and without ever resolving a host name, unlike
+ * {@link java.net.InetAddress#getByName}.
+ */
+public final class IpAddressParser {
+
+    public static final int IPV4_LENGTH = 4;
+    public static final int IPV6_LENGTH = 16;
+    private IpAddressParser() {
+    }
+
+    /**
+     * Parses an address such as {@code 192.0.2.1}, {@code 2001:db8::1}, {@code [::1]} or {@code fe80::1%eth0}.
+     * IPv4-mapped IPv6 addresses ({@code ::ffff:192.0.2.1}) are returned as IPv4.
+     *
+     * @param address the address literal
+     * @param out     receives the address bytes; must hold at least 16 bytes
+     * @return the number of address bytes, 4 or 16, or -1 if the input is not an address literal
+     */
+    public static int parse(CharSequence address, byte[] out) {
+        if (address == null) {
+            return -1;
+        }
+        int start = 0;
+        int end = address.length();
+        while (start < end && address.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && address.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start >= 2 && address.charAt(start) == '[' && address.charAt(end - 1) == ']') {
+            start++;
+            end--;
+        }
+        if (start == end) {
+            return -1;
+        }
+
+        for (int i = start; i < end; i++) {
+            if (address.charAt(i) == ':') {
+                return parseIpv6(address, start, end, out);
+            }
+        }
+        return parseIpv4(address, start, end, out, 0) ? IPV4_LENGTH : -1;
+    }
+
+    private static boolean parseIpv4(CharSequence address, int start, int end, byte[] out, int offset) {
+        int index = 0;
+        int octet = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = address.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // leading zeros are rejected, some parsers read them as octal
+                if (digits > 0 && octet == 0) {
+                    return false;
+                }
+                octet = octet * 10 + (c - '0');
+                if (octet > 255) {
+                    return false;
+                }
+                digits++;
+            } else if (c == '.' && digits > 0 && index < 3) {
+                out[offset + index++] = (byte) octet;
+                octet = 0;
+                digits = 0;
+            } else {
+                return false;
+            }
+        }
+        if (digits == 0 || index != 3) {
+            return false;
+        }
+        out[offset + 3] = (byte) octet;
+        return true;
+    }
+
+    private static int parseIpv6(CharSequence address, int start, int end, byte[] out) {
+        for (int i = start; i < end; i++) {
+            if (address.charAt(i) == '%') {
+                end = i;
+                break;
+            }
+        }
+
+        int index = 0;
+        int compressAt = -1;
+        int i = start;
+        if (address.charAt(i) == ':') {
+            if (i + 1 >= end || address.charAt(i + 1) != ':') {
+                return -1;
+            }
+            compressAt = 0;
+            i += 2;
+        }
+
+        while (i < end) {
+            if (index == IPV6_LENGTH) {
+                return -1;
+            }
+            int groupStart = i;
+            int group = 0;
+            int digits = 0;
+            int digit;
+            while (i < end && (digit = Character.digit(address.charAt(i), 16)) >= 0) {
+                if (++digits > 4) {
+                    return -1;
+                }
+                group = group << 4 | digit;
+                i++;
+            }
+
+            if (i < end && address.charAt(i) == '.') {
+                // dotted IPv4 tail, as in ::ffff:192.0.2.1
+                if (index > IPV6_LENGTH - IPV4_LENGTH || !parseIpv4(address, groupStart, end, out, index)) {
+                    return -1;
+                }
+                index += IPV4_LENGTH;
+                break;
+            }
+            if (digits == 0) {
+                return -1;
+            }
+            out[index++] = (byte) (group >> 8);
+            out[index++] = (byte) group;
+
+            if (i == end) {
+                break;
+            }
+            if (address.charAt(i++) != ':' || i == end) {
+                return -1;
+            }
+            if (address.charAt(i) == ':') {
+                if (compressAt >= 0) {
+                    return -1;
+                }
+                compressAt = index;
+                i++;
+            }
+        }
+
+        if (compressAt >= 0) {
+            if (index == IPV6_LENGTH) {
+                return -1;
+            }
+            int tail = index - compressAt;
+            System.arraycopy(out, compressAt, out, IPV6_LENGTH - tail, tail);
+            for (int zero = compressAt; zero < IPV6_LENGTH - tail; zero++) {
+                out[zero] = 0;
+            }
+        } else if (index != IPV6_LENGTH) {
+            return -1;
+        }
+
+        if (isIpv4Mapped(out)) {
+            System.arraycopy(out, 12, out, 0, IPV4_LENGTH);
+            return IPV4_LENGTH;
+        }
+        return IPV6_LENGTH;
+    }
+
+    private static boolean isIpv4Mapped(byte[] address) {
+        for (int i = 0; i < 10; i++) {
+            if (address[i] != 0) {
+                return false;
+            }
+        }
+        return address[10] == (byte) 0xff && address[11] == (byte) 0xff;
+    }
+}
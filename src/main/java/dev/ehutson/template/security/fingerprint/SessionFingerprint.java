@@ -0,0 +1,145 @@
+package dev.ehutson.template.security.fingerprint;
+
+import java.util.HexFormat;
+
+/**
+ * Computes the fingerprint stored with a session and compares requests against it.
+ * <p>
+ * The user agent is reduced to a 64-bit FNV-1a hash of its normalized form: version numbers become
+ * {@code x.x}, whitespace runs a single space, and letters lower case. The client address is reduced to its
+ * network prefix, written as the hex of the masked address followed by the prefix length, for example
+ * {@code c0000200/24}. Both comparisons run in a single pass over the request value without allocating.
+ */
+public final class SessionFingerprint {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final ThreadLocal<byte[]> ADDRESS_BUFFER =
+            ThreadLocal.withInitial(() -> new byte[IpAddressParser.IPV6_LENGTH]);
+    private SessionFingerprint() {
+    }
+
+    /**
+     * Hashes the normalized user agent.
+     */
+    public static long userAgentHash(CharSequence userAgent) {
+        long hash = FNV_OFFSET_BASIS;
+        int length = userAgent.length();
+        int i = 0;
+        while (i < length) {
+            char c = userAgent.charAt(i);
+            if (isDigit(c)) {
+                int end = skipDigits(userAgent, i);
+                if (isDottedDigits(userAgent, end)) {
+                    // major.minor with an optional patch number collapses to "x.x"
+                    end = skipDigits(userAgent, end + 1);
+                    if (isDottedDigits(userAgent, end)) {
+                        end = skipDigits(userAgent, end + 1);
+                    }
+                    hash = mix(mix(mix(hash, 'x'), '.'), 'x');
+                } else {
+                    for (int digit = i; digit < end; digit++) {
+                        hash = mix(hash, userAgent.charAt(digit));
+                    }
+                }
+                i = end;
+            } else if (isWhitespace(c)) {
+                hash = mix(hash, ' ');
+                while (i < length && isWhitespace(userAgent.charAt(i))) {
+                    i++;
+                }
+            } else {
+                hash = mix(hash, Character.toLowerCase(c));
+                i++;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Computes the network prefix of an address.
+     *
+     * @return the prefix, or null if the address is not an IP literal
+     */
+    public static String ipPrefix(String address, int ipv4PrefixLength, int ipv6PrefixLength) {
+        byte[] bytes = new byte[IpAddressParser.IPV6_LENGTH];
+        int length = IpAddressParser.parse(address, bytes);
+        if (length < 0) {
+            return null;
+        }
+        int prefixLength = Math.clamp(length == IpAddressParser.IPV4_LENGTH ? ipv4PrefixLength : ipv6PrefixLength, 0, length * 8);
+        for (int i = 0; i < length; i++) {
+            bytes[i] &= (byte) mask(prefixLength - i * 8);
+        }
+        return HexFormat.of().formatHex(bytes, 0, length) + "/" + prefixLength;
+    }
+
+    /**
+     * Checks whether an address lies within a prefix computed by {@link #ipPrefix}.
+     */
+    public static boolean matchesPrefix(String prefix, CharSequence address) {
+        byte[] bytes = ADDRESS_BUFFER.get();
+        int length = IpAddressParser.parse(address, bytes);
+        int slash = prefix.indexOf('/');
+        if (length < 0 || slash != length * 2) {
+            return false;
+        }
+
+        int prefixLength = 0;
+        for (int i = slash + 1; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (!isDigit(c)) {
+                return false;
+            }
+            prefixLength = prefixLength * 10 + (c - '0');
+        }
+        if (prefixLength > length * 8) {
+            return false;
+        }
+
+        for (int i = 0; i < length && i * 8 < prefixLength; i++) {
+            int expected = Character.digit(prefix.charAt(i * 2), 16) << 4 | Character.digit(prefix.charAt(i * 2 + 1), 16);
+            if ((bytes[i] & mask(prefixLength - i * 8)) != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mask for one byte of which {@code bits} leading bits are part of the prefix.
+     */
+    private static int mask(int bits) {
+        if (bits <= 0) {
+            return 0;
+        }
+        return bits >= 8 ? 0xff : 0xff << (8 - bits) & 0xff;
+    }
+
+    private static long mix(long hash, char c) {
+        return (hash ^ c) * FNV_PRIME;
+    }
+
+    private static boolean isDottedDigits(CharSequence value, int dot) {
+        return dot + 1 < value.length() && value.charAt(dot) == '.' && isDigit(value.charAt(dot + 1));
+    }
+
+    private static int skipDigits(CharSequence value, int from) {
+        int i = from;
+        while (i < value.length() && isDigit(value.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * The characters of the regex class {@code \s}.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
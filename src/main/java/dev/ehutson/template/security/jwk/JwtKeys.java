@@ -0,0 +1,201 @@
+package dev.ehutson.template.security.jwk;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.*;
+import dev.ehutson.template.security.config.properties.JwtProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The keys tokens are signed and verified with, indexed by key id.
+ * <p>
+ * One key signs; every configured key verifies, so a new key can be rolled out to all nodes before it starts
+ * signing and an old one kept, possibly as its public half only, until the tokens it signed have expired.
+ * Tokens without a {@code kid} header, issued before keys had ids, are verified with the legacy RSA key.
+ */
+public final class JwtKeys {
+
+    private final JWK signingKey;
+    private final JwsAlgorithm signingAlgorithm;
+    private final Map<String, Verification> verifications;
+    private final Verification legacyVerification;
+    private final String publicJwkSetJson;
+
+    private JwtKeys(List<JWK> keys, String signingKeyId, String legacyKeyId) {
+        Map<String, Verification> byKeyId = new HashMap<>();
+        JWK signing = null;
+        for (JWK key : keys) {
+            if (byKeyId.containsKey(key.getKeyID())) {
+                throw new IllegalStateException("Duplicate JWT key id: " + key.getKeyID());
+            }
+            byKeyId.put(key.getKeyID(), new Verification(algorithmOf(key), verifierOf(key)));
+            if (key.getKeyID().equals(signingKeyId)) {
+                signing = key;
+            }
+        }
+        if (signing == null) {
+            throw new IllegalStateException("No JWT signing key with id " + signingKeyId + " is configured");
+        }
+        if (!signing.isPrivate()) {
+            throw new IllegalStateException("JWT signing key " + signingKeyId + " has no private key");
+        }
+
+        this.signingKey = signing;
+        this.signingAlgorithm = toJwsAlgorithm(algorithmOf(signing));
+        this.verifications = Map.copyOf(byKeyId);
+        this.legacyVerification = legacyKeyId != null ? byKeyId.get(legacyKeyId) : null;
+        this.publicJwkSetJson = new JWKSet(keys).toPublicJWKSet().toString();
+    }
+
+    /**
+     * Loads the legacy RSA key pair and the JWK files configured in the JWT properties.
+     */
+    public static JwtKeys load(JwtProperties properties) {
+        List<JWK> keys = new ArrayList<>();
+        String legacyKeyId = null;
+        if (properties.getPublicKey() != null) {
+            RSAKey.Builder legacy = new RSAKey.Builder(properties.getPublicKey()).keyUse(KeyUse.SIGNATURE);
+            if (properties.getPrivateKey() != null) {
+                legacy.privateKey(properties.getPrivateKey());
+            }
+            RSAKey legacyKey = withThumbprintId(legacy.build());
+            legacyKeyId = legacyKey.getKeyID();
+            keys.add(legacyKey);
+        }
+        for (Resource resource : properties.getJwks()) {
+            keys.add(withThumbprintId(read(resource)));
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("No JWT keys are configured; set jwt.public-key and jwt.private-key or jwt.jwks");
+        }
+
+        String signingKeyId = properties.getSigningKeyId() != null ? properties.getSigningKeyId() : legacyKeyId;
+        return new JwtKeys(keys, signingKeyId, legacyKeyId);
+    }
+
+    /**
+     * Creates a key set directly, for tests and benchmarks.
+     */
+    public static JwtKeys of(List<JWK> keys, String signingKeyId) {
+        return new JwtKeys(keys.stream().map(JwtKeys::withThumbprintId).toList(), signingKeyId, null);
+    }
+
+    public JWK signingKey() {
+        return signingKey;
+    }
+
+    public JwsAlgorithm signingAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    /**
+     * @param keyId the {@code kid} header of a token, or null if it has none
+     * @return the verification for the key, or null if the key is unknown
+     */
+    public Verification verification(String keyId) {
+        return keyId != null ? verifications.get(keyId) : legacyVerification;
+    }
+
+    /**
+     * @return the public halves of all keys as a JWK set document
+     */
+    public String publicJwkSetJson() {
+        return publicJwkSetJson;
+    }
+
+    /**
+     * A verifier together with the only algorithm it may be used for, so a token cannot pick a weaker one.
+     */
+    public record Verification(JWSAlgorithm algorithm, JWSVerifier verifier) {
+    }
+
+    static JWSAlgorithm algorithmOf(JWK key) {
+        if (key.getAlgorithm() != null) {
+            return JWSAlgorithm.parse(key.getAlgorithm().getName());
+        }
+        if (key instanceof RSAKey) {
+            return JWSAlgorithm.RS256;
+        }
+        if (key instanceof ECKey ecKey) {
+            Curve curve = ecKey.getCurve();
+            if (Curve.P_256.equals(curve)) {
+                return JWSAlgorithm.ES256;
+            }
+            if (Curve.P_384.equals(curve)) {
+                return JWSAlgorithm.ES384;
+            }
+            if (Curve.P_521.equals(curve)) {
+                return JWSAlgorithm.ES512;
+            }
+        }
+        if (key instanceof OctetKeyPair okp && Curve.Ed25519.equals(okp.getCurve())) {
+            return JWSAlgorithm.EdDSA;
+        }
+        throw new IllegalStateException("Unsupported JWT key " + key.getKeyID() + " of type " + key.getKeyType());
+    }
+
+    private static JWSVerifier verifierOf(JWK key) {
+        try {
+            return switch (key) {
+                case RSAKey rsaKey -> new RSASSAVerifier(rsaKey.toPublicJWK());
+                case ECKey ecKey -> new ECDSAVerifier(ecKey.toPublicJWK());
+                case OctetKeyPair okp -> new Ed25519Verifier(okp.toPublicJWK());
+                default -> throw new IllegalStateException("Unsupported JWT key type " + key.getKeyType());
+            };
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Invalid JWT key " + key.getKeyID(), e);
+        }
+    }
+
+    private static JwsAlgorithm toJwsAlgorithm(JWSAlgorithm algorithm) {
+        SignatureAlgorithm known = SignatureAlgorithm.from(algorithm.getName());
+        if (known != null) {
+            return known;
+        }
+        // Spring Security has no constant for EdDSA, but only the name is passed on to Nimbus
+        String name = algorithm.getName();
+        return () -> name;
+    }
+
+    private static JWK read(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            return JWK.parse(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Could not read JWT key from " + resource.getDescription(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends JWK> T withThumbprintId(T key) {
+        if (key.getKeyID() != null) {
+            return key;
+        }
+        try {
+            // the RFC 7638 thumbprint is stable for a key, so every node derives the same id
+            String keyId = key.computeThumbprint().toString();
+            return (T) switch (key) {
+                case RSAKey rsaKey -> new RSAKey.Builder(rsaKey).keyID(keyId).build();
+                case ECKey ecKey -> new ECKey.Builder(ecKey).keyID(keyId).build();
+                case OctetKeyPair okp -> new OctetKeyPair.Builder(okp).keyID(keyId).build();
+                default -> throw new IllegalStateException("Unsupported JWT key type " + key.getKeyType());
+            };
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not compute the JWT key thumbprint", e);
+        }
+    }
+}
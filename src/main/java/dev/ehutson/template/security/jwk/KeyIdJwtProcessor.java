@@ -0,0 +1,66 @@
+package dev.ehutson.template.security.jwk;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.*;
+import com.nimbusds.jwt.proc.BadJWTException;
+import com.nimbusds.jwt.proc.JWTProcessor;
+
+import java.text.ParseException;
+
+/**
+ * Verifies signed tokens with the verifier registered for their {@code kid}, a single map lookup, instead of
+ * matching the header against every configured key. Claims are validated afterwards by the decoder.
+ */
+public class KeyIdJwtProcessor implements JWTProcessor<SecurityContext> {
+
+    private final JwtKeys keys;
+
+    public KeyIdJwtProcessor(JwtKeys keys) {
+        this.keys = keys;
+    }
+
+    @Override
+    public JWTClaimsSet process(String jwtString, SecurityContext context) throws ParseException, BadJOSEException, JOSEException {
+        return process(JWTParser.parse(jwtString), context);
+    }
+
+    @Override
+    public JWTClaimsSet process(JWT jwt, SecurityContext context) throws BadJOSEException, JOSEException {
+        if (jwt instanceof SignedJWT signedJWT) {
+            return process(signedJWT, context);
+        }
+        throw new BadJOSEException("Only signed tokens are accepted");
+    }
+
+    @Override
+    public JWTClaimsSet process(PlainJWT plainJWT, SecurityContext context) throws BadJOSEException {
+        throw new BadJOSEException("Unsigned tokens are not accepted");
+    }
+
+    @Override
+    public JWTClaimsSet process(SignedJWT signedJWT, SecurityContext context) throws BadJOSEException, JOSEException {
+        JwtKeys.Verification verification = keys.verification(signedJWT.getHeader().getKeyID());
+        if (verification == null) {
+            throw new BadJOSEException("Unknown signing key");
+        }
+        if (!verification.algorithm().equals(signedJWT.getHeader().getAlgorithm())) {
+            throw new BadJOSEException("Unexpected signing algorithm");
+        }
+        if (!signedJWT.verify(verification.verifier())) {
+            throw new BadJWSException("Invalid signature");
+        }
+        try {
+            return signedJWT.getJWTClaimsSet();
+        } catch (ParseException e) {
+            throw new BadJWTException("Invalid claims", e);
+        }
+    }
+
+    @Override
+    public JWTClaimsSet process(EncryptedJWT encryptedJWT, SecurityContext context) throws BadJOSEException {
+        throw new BadJOSEException("Encrypted tokens are not accepted");
+    }
+}
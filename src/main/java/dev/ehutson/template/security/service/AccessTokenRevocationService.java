@@ -0,0 +1,54 @@
+package dev.ehutson.template.security.service;
+
+import dev.ehutson.template.security.config.properties.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Per-user cut-off for access tokens, which are authenticated from their claims without a user lookup.
+ * <p>
+ * Revoking the access tokens of a user records the current time in Redis, so every node sees it; a token of that
+ * user issued at or before it is refused from then on. The entry lives as long as an access token, after which
+ * every token it could refuse has expired anyway. Revoke only after the change that prompted it is written, so a
+ * token refreshed in between cannot carry the old state past the cut-off.
+ */
+@Slf4j
+@Service
+public class AccessTokenRevocationService {
+
+    static final String KEY_PREFIX = "auth:revoked-before:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public AccessTokenRevocationService(StringRedisTemplate redisTemplate, JwtProperties jwtProperties) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofSeconds(jwtProperties.getAccessTokenExpirationSeconds());
+    }
+
+    /**
+     * Refuses every access token issued to the user so far. Failures are logged rather than thrown, since the
+     * change that prompted the revocation has already been made.
+     */
+    public void revokeAccessTokens(String userId) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + userId, Long.toString(Instant.now().toEpochMilli()), ttl);
+        } catch (RuntimeException e) {
+            log.error("Could not revoke the access tokens of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * @param issuedAtMillis the issue time of the token in epoch milliseconds
+     * @return whether the token was issued at or before the last revocation of its user's access tokens
+     * @throws org.springframework.dao.DataAccessException if Redis cannot be reached
+     */
+    public boolean isRevoked(String userId, long issuedAtMillis) {
+        String revokedAt = redisTemplate.opsForValue().get(KEY_PREFIX + userId);
+        return revokedAt != null && issuedAtMillis <= Long.parseLong(revokedAt);
+    }
+}
@@ -39,6 +39,7 @@ public class AuthenticationService {
     private final UserRepository userRepository;
     private final RefreshTokenService refreshTokenService;
     private final AuditService auditService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
 
     @Transactional
     public void authenticate(String username, String password, HttpServletRequest request, HttpServletResponse response) {
@@ -52,12 +53,12 @@ public class AuthenticationService {
             // Get user details
             UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-            // Generate tokens
-            String accessToken = tokenProvider.generateAccessToken(authentication);
-
             // Create a refresh token and save it to the database
             RefreshTokenModel refreshToken = refreshTokenService.createRefreshToken(userDetails.getId(), request);
 
+            // Generate the access token for the new session
+            String accessToken = tokenProvider.generateAccessToken(authentication, refreshToken.getId());
+
             // Add cookies to the response
             cookieManager.addAccessTokenCookie(response, accessToken);
             cookieManager.addRefreshTokenCookie(response, refreshToken.getToken());
@@ -94,7 +95,7 @@ public class AuthenticationService {
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
             // Generate new access token
-            String newAccessToken = tokenProvider.generateAccessToken(authentication);
+            String newAccessToken = tokenProvider.generateAccessToken(authentication, refreshToken.getId());
 
             // Add cookies to the response
             cookieManager.addAccessTokenCookie(response, newAccessToken);
@@ -102,7 +103,8 @@ public class AuthenticationService {
 
             log.debug("Token refreshed successfully for user ID: {}", refreshToken.getUserId());
         } catch (Exception e) {
-            log.warn("Token refresh failed: {}", e.getMessage());
+            // logged, rate limited, by the caller
+            log.debug("Token refresh failed: {}", e.getMessage());
 
             // If you can extract user info, handle suspicious activity
             refreshTokenService.handleSuspiciousActivity(refreshTokenString, request);
@@ -141,6 +143,8 @@ public class AuthenticationService {
     public void revokeAllSessions(String userId, HttpServletResponse response) {
         try {
             refreshTokenService.revokeAllUserTokens(userId);
+            // access tokens are authenticated from their claims, so they would otherwise outlive their sessions
+            accessTokenRevocationService.revokeAccessTokens(userId);
             performLogout(response);
             log.debug("Revoked all sessions for user ID: {}", userId);
         } catch (Exception e) {
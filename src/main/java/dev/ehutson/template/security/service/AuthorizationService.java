@@ -6,8 +6,14 @@ import dev.ehutson.template.exception.ApplicationException;
 import dev.ehutson.template.exception.ErrorCode;
 import dev.ehutson.template.repository.RoleRepository;
 import dev.ehutson.template.repository.UserRepository;
+import dev.ehutson.template.service.user.UserCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -15,14 +21,20 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Optional;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthorizationService {
 
     private static final String USER_NOT_FOUND = "User not found";
+    private static final String ROLES = "roles";
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final MongoTemplate mongoTemplate;
+    private final UserCacheService userCacheService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
 
     public boolean hasRole(String roleName) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -31,26 +43,50 @@ public class AuthorizationService {
                         .anyMatch(authority -> authority.getAuthority().equals(roleName));
     }
 
+    /**
+     * Adds the role with a single atomic {@code $addToSet}, so it is never added twice and concurrent
+     * edits of other fields are not overwritten.
+     *
+     * @return the user as it is after the update
+     */
     public UserModel assignRoleToUser(String userId, String roleId) {
-        UserModel userModel = userRepository.findById(userId)
-                .orElseThrow(() -> ApplicationException.of(ErrorCode.RESOURCE_NOT_FOUND, USER_NOT_FOUND, "User", userId));
-
-        RoleModel roleModel = roleRepository.findById(roleId)
-                .orElseThrow(() -> ApplicationException.of(ErrorCode.RESOURCE_NOT_FOUND, "Role not found", "Role", roleId));
-
-        userModel.getRoles().add(roleModel);
-        return userRepository.save(userModel);
+        RoleModel roleModel = findRole(roleId);
+        return updateRoles(userId, where(ROLES).ne(roleModel), new Update().addToSet(ROLES, roleModel), false);
     }
 
+    /**
+     * Removes the role with a single atomic {@code $pull}. The user's access tokens still name the role, so they
+     * are revoked and the next refresh issues one without it.
+     *
+     * @return the user as it is after the update
+     */
     public UserModel removeRoleFromUser(String userId, String roleId) {
-        UserModel userModel = userRepository.findById(userId)
-                .orElseThrow(() -> ApplicationException.of(ErrorCode.RESOURCE_NOT_FOUND, USER_NOT_FOUND, "User", userId));
+        RoleModel roleModel = findRole(roleId);
+        return updateRoles(userId, where(ROLES).is(roleModel), new Update().pull(ROLES, roleModel), true);
+    }
 
-        RoleModel roleModel = roleRepository.findById(roleId)
+    private RoleModel findRole(String roleId) {
+        return roleRepository.findById(roleId)
                 .orElseThrow(() -> ApplicationException.of(ErrorCode.RESOURCE_NOT_FOUND, "Role not found", "Role", roleId));
+    }
 
-        userModel.getRoles().remove(roleModel);
-        return userRepository.save(userModel);
+    /**
+     * Applies the update only if {@code needsChange} holds, so a no-op leaves the version alone. The version
+     * is bumped otherwise, which makes a save based on an earlier read fail instead of restoring the old roles.
+     */
+    private UserModel updateRoles(String userId, Criteria needsChange, Update update, boolean revokesAccess) {
+        Query query = Query.query(new Criteria().andOperator(where("id").is(userId), needsChange));
+        UserModel userModel = mongoTemplate.findAndModify(query, update.inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true), UserModel.class);
+        if (userModel == null) {
+            return userRepository.findById(userId)
+                    .orElseThrow(() -> ApplicationException.of(ErrorCode.RESOURCE_NOT_FOUND, USER_NOT_FOUND, "User", userId));
+        }
+        userCacheService.evict(userModel.getUsername(), userModel.getEmail());
+        if (revokesAccess) {
+            accessTokenRevocationService.revokeAccessTokens(userModel.getId());
+        }
+        return userModel;
     }
 
     public List<String> getUserRoles(String username) {
@@ -0,0 +1,143 @@
+package dev.ehutson.template.security.service.refreshtoken;
+
+import dev.ehutson.template.security.config.properties.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Self-validating refresh tokens: the session id and expiry, authenticated with HMAC-SHA256.
+ * <p>
+ * A token is the base64url encoding of a version byte, the 12 byte ObjectId of the session, the expiry in epoch
+ * seconds and the MAC over all of them. Malformed, tampered and expired tokens are rejected here without a
+ * database lookup; valid ones name the session by its primary key.
+ */
+@Slf4j
+@Component
+public class RefreshTokenCodec {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte VERSION = 1;
+    private static final int MIN_SECRET_LENGTH = 32;
+    private static final int PAYLOAD_LENGTH = 1 + 12 + Long.BYTES;
+    private static final int MAC_LENGTH = 32;
+    // unpadded base64 uses one character per six bits
+    private static final int TOKEN_LENGTH = ((PAYLOAD_LENGTH + MAC_LENGTH) * 8 + 5) / 6;
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final Clock clock;
+
+    public RefreshTokenCodec(JwtProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    RefreshTokenCodec(JwtProperties properties, Clock clock) {
+        this.key = new SecretKeySpec(secret(properties.getRefreshTokenSecret(), properties.isRefreshTokenSecretRequired()), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.clock = clock;
+    }
+
+    /**
+     * @return a refresh token for the session, valid until the given instant
+     */
+    public String encode(String sessionId, Instant expiresAt) {
+        ByteBuffer token = ByteBuffer.allocate(PAYLOAD_LENGTH + MAC_LENGTH)
+                .put(VERSION)
+                .put(new ObjectId(sessionId).toByteArray())
+                .putLong(expiresAt.getEpochSecond());
+        Mac mac = macs.get();
+        mac.update(token.array(), 0, PAYLOAD_LENGTH);
+        token.put(mac.doFinal());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.array());
+    }
+
+    /**
+     * @return the session a well-formed, authentic and unexpired token was issued for, or empty otherwise
+     */
+    public Optional<Session> decode(String token) {
+        if (token == null || token.length() != TOKEN_LENGTH) {
+            return Optional.empty();
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (bytes[0] != VERSION) {
+            return Optional.empty();
+        }
+
+        Mac mac = macs.get();
+        mac.update(bytes, 0, PAYLOAD_LENGTH);
+        byte[] expected = mac.doFinal();
+        byte[] actual = new byte[MAC_LENGTH];
+        System.arraycopy(bytes, PAYLOAD_LENGTH, actual, 0, MAC_LENGTH);
+        // constant time, so the MAC cannot be guessed byte by byte
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return Optional.empty();
+        }
+
+        ByteBuffer payload = ByteBuffer.wrap(bytes, 1, PAYLOAD_LENGTH - 1);
+        byte[] id = new byte[12];
+        payload.get(id);
+        Instant expiresAt = Instant.ofEpochSecond(payload.getLong());
+        if (!expiresAt.isAfter(clock.instant())) {
+            return Optional.empty();
+        }
+        return Optional.of(new Session(new ObjectId(id).toHexString(), expiresAt));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static byte[] secret(String configured, boolean required) {
+        if (configured == null || configured.isBlank()) {
+            if (required) {
+                throw new IllegalStateException("jwt.refresh-token-secret is required in this environment; "
+                        + "set JWT_REFRESH_TOKEN_SECRET to at least " + MIN_SECRET_LENGTH + " random bytes in base64");
+            }
+            log.warn("No jwt.refresh-token-secret configured, using a random one: refresh tokens will not survive "
+                    + "a restart or be accepted by other instances");
+            byte[] secret = new byte[MIN_SECRET_LENGTH];
+            new SecureRandom().nextBytes(secret);
+            return secret;
+        }
+        byte[] secret;
+        try {
+            secret = Base64.getDecoder().decode(configured);
+        } catch (IllegalArgumentException e) {
+            // don't echo the value, it is a secret
+            throw new IllegalArgumentException("jwt.refresh-token-secret must be base64 encoded");
+        }
+        if (secret.length < MIN_SECRET_LENGTH) {
+            throw new IllegalArgumentException("jwt.refresh-token-secret must be at least " + MIN_SECRET_LENGTH + " bytes");
+        }
+        return secret;
+    }
+
+    /**
+     * The session a refresh token was issued for.
+     */
+    public record Session(String id, Instant expiresAt) {
+    }
+}
@@ -3,13 +3,19 @@ package dev.ehutson.template.security.service.refreshtoken;
 import dev.ehutson.template.domain.RefreshTokenModel;
 import dev.ehutson.template.repository.RefreshTokenRepository;
 import dev.ehutson.template.security.JwtTokenProvider;
+import dev.ehutson.template.security.client.ClientContext;
+import dev.ehutson.template.security.client.ClientContextResolver;
 import dev.ehutson.template.security.config.properties.JwtProperties;
+import dev.ehutson.template.security.fingerprint.SessionFingerprint;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 
@@ -25,23 +31,57 @@ public class RefreshTokenManager {
 
     private final RefreshTokenRepository refreshTokenRepository;
     private final JwtTokenProvider tokenProvider;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClientContextResolver clientContextResolver;
 
     @Transactional
     public RefreshTokenModel createRefreshToken(String userId, HttpServletRequest request, JwtProperties properties) {
-        String tokenString = tokenProvider.generateRefreshToken();
+        return createRefreshToken(userId, null, request, properties);
+    }
+
+    /**
+     * Creates a session in the given token family, or starts a new family when it is null.
+     */
+    @Transactional
+    public RefreshTokenModel createRefreshToken(String userId, String familyId, HttpServletRequest request,
+                                                JwtProperties properties) {
+        return saveRefreshToken(newRefreshToken(userId, familyId, request, properties));
+    }
 
-        RefreshTokenModel refreshToken = RefreshTokenModel.builder()
+    /**
+     * Builds a session in the given token family without saving it, so a rotation can name it before it exists.
+     */
+    public RefreshTokenModel newRefreshToken(String userId, String familyId, HttpServletRequest request,
+                                             JwtProperties properties) {
+        // the id is chosen up front because the token carries it
+        String sessionId = new ObjectId().toHexString();
+        Instant expiresAt = Instant.now().plusSeconds(properties.getRefreshTokenExpirationSeconds());
+        String tokenString = tokenProvider.generateRefreshToken(sessionId, expiresAt);
+        ClientContext client = clientContextResolver.resolve(request);
+        String userAgent = client.userAgent();
+        String ipAddress = client.ipAddress();
+
+        return RefreshTokenModel.builder()
+                .id(sessionId)
                 .token(tokenString)
                 .userId(userId)
-                .userAgent(request.getHeader("User-Agent"))
-                .ipAddress(getClientIP(request))
-                .expiresAt(Instant.now().plusSeconds(properties.getRefreshTokenExpirationSeconds()))
+                .familyId(familyId != null ? familyId : sessionId)
+                .userAgent(userAgent)
+                .ipAddress(ipAddress)
+                // the fingerprint is computed once here instead of on every refresh
+                .userAgentHash(userAgent != null ? SessionFingerprint.userAgentHash(userAgent) : null)
+                .ipPrefix(SessionFingerprint.ipPrefix(ipAddress,
+                        properties.getFingerprintIpv4PrefixLength(), properties.getFingerprintIpv6PrefixLength()))
+                .expiresAt(expiresAt)
                 .createdAt(Instant.now())
                 .revoked(false)
                 .build();
+    }
 
+    @Transactional
+    public RefreshTokenModel saveRefreshToken(RefreshTokenModel refreshToken) {
         RefreshTokenModel saved = refreshTokenRepository.save(refreshToken);
-        log.debug("Created refresh token for user: {}", userId);
+        log.debug("Created refresh token for user: {}", refreshToken.getUserId());
         return saved;
     }
 
@@ -51,6 +91,7 @@ public class RefreshTokenManager {
                 .ifPresent(refreshToken -> {
                     refreshToken.setRevoked(true);
                     refreshTokenRepository.save(refreshToken);
+                    eventPublisher.publishEvent(SessionChangedEvent.of(refreshToken, SessionChangedEvent.Type.REVOKED));
                     log.debug("Revoked refresh token for user: {}", refreshToken.getUserId());
                 });
     }
@@ -62,17 +103,19 @@ public class RefreshTokenManager {
         if (!userTokens.isEmpty()) {
             userTokens.forEach(token -> token.setRevoked(true));
             refreshTokenRepository.saveAll(userTokens);
+            userTokens.forEach(token -> eventPublisher.publishEvent(SessionChangedEvent.of(token, SessionChangedEvent.Type.REVOKED)));
             log.info("Revoked {} tokens for user: {}", userTokens.size(), userId);
         }
     }
 
+    /**
+     * Touches a live session with a targeted update, so it cannot undo a concurrent rotation or revocation.
+     * A session touched within the interval, or never touched since, is left alone.
+     */
     @Transactional
-    public void updateLastAccessed(String sessionId) {
-        refreshTokenRepository.findByToken(sessionId)
-                .ifPresent(token -> {
-                    token.setLastAccessedAt(Instant.now());
-                    refreshTokenRepository.save(token);
-                });
+    public void updateLastAccessed(String sessionId, Duration interval) {
+        Instant now = Instant.now();
+        refreshTokenRepository.updateLastAccessedAt(sessionId, now, now.minus(interval));
     }
 
     @Transactional(readOnly = true)
@@ -80,48 +123,25 @@ public class RefreshTokenManager {
         return refreshTokenRepository.findByUserIdAndRevokedFalse(userId);
     }
 
+    /**
+     * Revokes every live session of a token family with a single update.
+     */
     @Transactional
-    public void purgeExpiredTokens() {
-        refreshTokenRepository.deleteByExpiresAtBefore(Instant.now());
-        log.debug("Purged expired refresh tokens");
+    public void revokeTokenFamily(String familyId) {
+        List<RefreshTokenModel> family = refreshTokenRepository.findByFamilyIdAndRevokedFalse(familyId);
+        long revoked = refreshTokenRepository.revokeByFamilyId(familyId);
+        family.forEach(token -> eventPublisher.publishEvent(SessionChangedEvent.of(token, SessionChangedEvent.Type.REVOKED)));
+        log.info("Revoked {} tokens of token family: {}", revoked, familyId);
     }
 
+    /**
+     * Revokes a session being rotated and links it to its successor, in one update that only applies while the
+     * session is still live.
+     *
+     * @return false if the session was rotated or revoked by someone else first
+     */
     @Transactional
-    public void linkReplacementToken(String oldToken, String newToken) {
-        refreshTokenRepository.findByToken(oldToken)
-                .ifPresent(token -> {
-                    token.setReplacedByToken(newToken);
-                    refreshTokenRepository.save(token);
-                });
-    }
-
-    private String getClientIP(HttpServletRequest request) {
-        // Check for common proxy headers in order of preference
-        String[] headers = {
-                "X-Real-IP",
-                "X-Forwarded-For",
-                "Proxy-Client-IP",
-                "WL-Proxy-Client-IP",
-                "HTTP_X_FORWARDED_FOR",
-                "HTTP_X_FORWARDED",
-                "HTTP_X_CLUSTER_CLIENT_IP",
-                "HTTP_CLIENT_IP",
-                "HTTP_FORWARDED_FOR",
-                "HTTP_FORWARDED"
-        };
-
-        for (String header : headers) {
-            String ip = request.getHeader(header);
-            if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
-                // Handle comma-separated list of IPs
-                int commaIdx = ip.indexOf(',');
-                if (commaIdx > 0) {
-                    return ip.substring(0, commaIdx).trim();
-                }
-                return ip.trim();
-            }
-        }
-
-        return request.getRemoteAddr();
+    public boolean claimForRotation(RefreshTokenModel rotated, String newToken) {
+        return refreshTokenRepository.revokeIfActive(rotated.getId(), newToken) > 0;
     }
 }
\ No newline at end of file
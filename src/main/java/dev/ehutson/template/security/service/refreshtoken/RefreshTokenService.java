@@ -1,15 +1,18 @@
 package dev.ehutson.template.security.service.refreshtoken;
 
 import dev.ehutson.template.domain.RefreshTokenModel;
+import dev.ehutson.template.exception.ApplicationException;
+import dev.ehutson.template.exception.ErrorCode;
 import dev.ehutson.template.security.config.properties.JwtProperties;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -19,19 +22,20 @@ public class RefreshTokenService {
     private final RefreshTokenValidator validator;
     private final RefreshTokenManager manager;
     private final JwtProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RefreshTokenCodec refreshTokenCodec;
+    private final RotatedTokenIndex rotatedTokenIndex;
 
     public RefreshTokenModel createRefreshToken(String userId, HttpServletRequest request) {
-        return manager.createRefreshToken(userId, request, properties);
+        RefreshTokenModel refreshToken = manager.createRefreshToken(userId, request, properties);
+        eventPublisher.publishEvent(SessionChangedEvent.of(refreshToken, SessionChangedEvent.Type.LOGIN));
+        return refreshToken;
     }
 
     public RefreshTokenModel validateRefreshToken(String token, HttpServletRequest request) {
         return validator.validateRefreshToken(token, request, properties);
     }
 
-    public void updateLastAccessed(String sessionId) {
-        manager.updateLastAccessed(sessionId);
-    }
-
     public void revokeRefreshToken(String token) {
         manager.revokeRefreshToken(token);
     }
@@ -44,45 +48,70 @@ public class RefreshTokenService {
         return manager.getUserActiveSessions(userId);
     }
 
+    /**
+     * Replaces a session with a successor in the same token family. The old session is claimed with a
+     * conditional update before the successor is saved, so of two requests presenting the same token only one
+     * gets a successor. The other one is a replay: its family is revoked and the refresh fails.
+     */
     @Transactional
     public RefreshTokenModel rotateRefreshToken(String oldToken, HttpServletRequest request) {
         RefreshTokenModel existingToken = validateRefreshToken(oldToken, request);
 
-        // Revoke the existing token
-        existingToken.setRevoked(true);
+        // The new token stays in the family of the one it replaces
+        String familyId = existingToken.getFamilyId() != null ? existingToken.getFamilyId() : existingToken.getId();
+        RefreshTokenModel newToken = manager.newRefreshToken(existingToken.getUserId(), familyId, request, properties);
 
-        // Create a new token
-        RefreshTokenModel newToken = createRefreshToken(existingToken.getUserId(), request);
+        // Revoke the existing token and link it to the new one, unless another request got there first
+        if (!manager.claimForRotation(existingToken, newToken.getToken())) {
+            log.warn("Refresh token rotated concurrently, revoking token family: {}", familyId);
+            manager.revokeTokenFamily(familyId);
+            throw ApplicationException.of(ErrorCode.INVALID_TOKEN, "Refresh token already used");
+        }
+        if (properties.getSecurity().isEnableTokenReuseDetection()) {
+            rotatedTokenIndex.recordRotation(existingToken.getId(), familyId);
+        }
 
-        // Link the old token to the new one (separate transaction)
-        manager.linkReplacementToken(oldToken, newToken.getToken());
+        newToken = manager.saveRefreshToken(newToken);
+        eventPublisher.publishEvent(SessionChangedEvent.of(newToken, SessionChangedEvent.Type.ROTATED));
 
         log.debug("Rotated refresh token for user: {}", existingToken.getUserId());
         return newToken;
     }
 
-
-    @Scheduled(cron = "${app.security.token-cleanup-cron:0 0 0 * * ?}")
-    public void purgeExpiredTokens() {
-        manager.purgeExpiredTokens();
-    }
-
+    /**
+     * Called when a refresh fails. A token rotated within the reuse window has been replayed, so whoever holds
+     * the rotation chain is not the only one with it: the whole token family is revoked. A live session that
+     * failed validation, e.g. on its fingerprint, has its family revoked too.
+     */
     public void handleSuspiciousActivity(String tokenString, HttpServletRequest request) {
-        try {
-            RefreshTokenModel token = this.validateRefreshToken(tokenString, request);
+        Optional<RefreshTokenCodec.Session> session = refreshTokenCodec.decode(tokenString);
+        if (session.isPresent() && properties.getSecurity().isEnableTokenReuseDetection()) {
+            String familyId = rotatedTokenIndex.familyOf(session.get().id());
+            if (familyId != null) {
+                log.warn("Rotated refresh token replayed, revoking token family: {}", familyId);
+                manager.revokeTokenFamily(familyId);
+                return;
+            }
+        }
+        if (validator.isMalformedOrExpired(tokenString)) {
+            // names no session, so there is nothing to revoke
+            log.debug("Rejected a malformed, tampered or expired refresh token");
+            return;
+        }
 
+        Optional<RefreshTokenModel> token = validator.findActive(tokenString);
+        if (token.isEmpty()) {
             // Log security event without exposing token details
-            log.warn("Suspicious token activity detected for userId: {}", token.getUserId());
-
-            // Optionally implement additional security measures:
-            // - Send security alert to user
-            // - Log to security monitoring system
-            // - Increment failed attempt counter
+            log.warn("Suspicious token activity detected with unknown user or invalid token");
+            return;
+        }
 
-            manager.revokeAllUserTokens(token.getUserId());
-        } catch (Exception e) {
-            // Log security event without exposing token details
-            log.warn("Suspicious token activity detected with unknown user or invalid token: {}", tokenString);
+        log.warn("Suspicious token activity detected for userId: {}", token.get().getUserId());
+        if (token.get().getFamilyId() != null) {
+            manager.revokeTokenFamily(token.get().getFamilyId());
+        } else {
+            // sessions created before token families
+            manager.revokeAllUserTokens(token.get().getUserId());
         }
     }
 }
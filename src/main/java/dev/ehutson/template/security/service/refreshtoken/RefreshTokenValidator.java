@@ -4,6 +4,7 @@ import dev.ehutson.template.domain.RefreshTokenModel;
 import dev.ehutson.template.exception.ApplicationException;
 import dev.ehutson.template.exception.ErrorCode;
 import dev.ehutson.template.repository.RefreshTokenRepository;
+import dev.ehutson.template.security.client.ClientContextResolver;
 import dev.ehutson.template.security.config.properties.JwtProperties;
 import dev.ehutson.template.security.fingerprint.FingerprintValidator;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +14,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
 /**
  * Service responsible for validating refresh tokens.
@@ -23,12 +26,17 @@ import java.time.Instant;
 @RequiredArgsConstructor
 public class RefreshTokenValidator {
 
+    // issued before tokens carried their session id, looked up by value until they have expired
+    private static final Pattern LEGACY_TOKEN = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
     private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenCodec refreshTokenCodec;
     private final FingerprintValidator fingerprintValidator;
+    private final ClientContextResolver clientContextResolver;
 
     @Transactional(readOnly = true)
     public RefreshTokenModel validateRefreshToken(String token, HttpServletRequest request, JwtProperties properties) {
-        RefreshTokenModel storedToken = refreshTokenRepository.findByTokenAndRevokedFalse(token)
+        RefreshTokenModel storedToken = findActive(token)
                 .filter(t -> t.getExpiresAt().isAfter(Instant.now()))
                 .orElseThrow(() -> {
                     log.warn("Invalid or expired refresh token attempted.");
@@ -36,10 +44,34 @@ public class RefreshTokenValidator {
                 });
 
         // Fingerprint validation
-        if (!fingerprintValidator.validateFingerprint(storedToken, request, properties)) {
+        if (!fingerprintValidator.validateFingerprint(storedToken, clientContextResolver.resolve(request), properties)) {
             throw ApplicationException.of(ErrorCode.VALIDATION_FAILED, "Token validation failed");
         }
 
         return storedToken;
     }
+
+    /**
+     * @return whether the token is malformed, tampered with or expired, which takes no database lookup to tell
+     */
+    public boolean isMalformedOrExpired(String token) {
+        return refreshTokenCodec.decode(token).isEmpty() && !isLegacy(token);
+    }
+
+    /**
+     * @return the unrevoked session a token names, regardless of its expiry and fingerprint
+     */
+    public Optional<RefreshTokenModel> findActive(String token) {
+        if (isLegacy(token)) {
+            return refreshTokenRepository.findByTokenAndRevokedFalse(token);
+        }
+        // the session id is only trusted once the MAC has been checked, and the stored token must be this one
+        return refreshTokenCodec.decode(token)
+                .flatMap(session -> refreshTokenRepository.findById(session.id()))
+                .filter(stored -> !stored.isRevoked() && token.equals(stored.getToken()));
+    }
+
+    private static boolean isLegacy(String token) {
+        return token != null && token.length() == 36 && LEGACY_TOKEN.matcher(token).matches();
+    }
 }
\ No newline at end of file
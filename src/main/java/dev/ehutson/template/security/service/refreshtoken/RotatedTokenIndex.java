@@ -0,0 +1,50 @@
+package dev.ehutson.template.security.service.refreshtoken;
+
+import dev.ehutson.template.security.config.properties.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Sessions rotated within the reuse window, mapped to their token family.
+ * <p>
+ * Kept in Redis with a TTL of {@code jwt.security.token-reuse-window-seconds}, so every node sees a rotation
+ * done on any other and a replayed token is recognized with a single lookup. Redis being unavailable degrades
+ * to no reuse detection; the replayed token is still rejected because its session is revoked.
+ */
+@Slf4j
+@Component
+public class RotatedTokenIndex {
+
+    static final String KEY_PREFIX = "auth:rotated:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration window;
+
+    public RotatedTokenIndex(StringRedisTemplate redisTemplate, JwtProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.window = Duration.ofSeconds(properties.getSecurity().getTokenReuseWindowSeconds());
+    }
+
+    public void recordRotation(String sessionId, String familyId) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + sessionId, familyId, window);
+        } catch (RuntimeException e) {
+            log.warn("Could not record rotated session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the family of a session rotated within the window, or null if it was not
+     */
+    public String familyOf(String sessionId) {
+        try {
+            return redisTemplate.opsForValue().get(KEY_PREFIX + sessionId);
+        } catch (RuntimeException e) {
+            log.warn("Rotated session lookup failed for {}: {}", sessionId, e.getMessage());
+            return null;
+        }
+    }
+}
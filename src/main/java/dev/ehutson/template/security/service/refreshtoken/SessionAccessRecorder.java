@@ -0,0 +1,67 @@
+package dev.ehutson.template.security.service.refreshtoken;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.ehutson.template.security.config.properties.JwtProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records when a session was last used, at most once per {@code jwt.security.session-touch-interval-seconds}.
+ * <p>
+ * A session touched by this node within the interval is skipped in memory, and the update itself only matches a
+ * session not touched by any node within it, so polling clients cost no database writes between touches. Touches
+ * run on one background thread with a bounded queue; when the queue is full they are dropped, since the session's
+ * next request touches it again.
+ */
+@Slf4j
+@Component
+public class SessionAccessRecorder {
+
+    private static final int QUEUE_CAPACITY = 1_000;
+    private static final int MAX_TRACKED_SESSIONS = 100_000;
+
+    private final RefreshTokenManager manager;
+    private final Duration interval;
+    private final Cache<String, Boolean> recentlyTouched;
+    private final ThreadPoolExecutor executor;
+
+    public SessionAccessRecorder(RefreshTokenManager manager, JwtProperties properties) {
+        this.manager = manager;
+        this.interval = Duration.ofSeconds(properties.getSecurity().getSessionTouchIntervalSeconds());
+        this.recentlyTouched = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_SESSIONS)
+                .expireAfterWrite(interval)
+                .build();
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "session-touch");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public void recordAccess(String sessionId) {
+        if (sessionId == null || recentlyTouched.asMap().putIfAbsent(sessionId, Boolean.TRUE) != null) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                manager.updateLastAccessed(sessionId, interval);
+            } catch (RuntimeException e) {
+                log.warn("Failed to update session last accessed time: {}", e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package dev.ehutson.template.security.service.refreshtoken;
+
+import dev.ehutson.template.domain.RefreshTokenModel;
+
+import java.time.Instant;
+
+/**
+ * Published when a session (refresh token) of a user is created, rotated or revoked.
+ *
+ * @param sessionId the id of the refresh token document, never the token itself
+ */
+public record SessionChangedEvent(String userId, String sessionId, Type type, String userAgent, String ipAddress,
+                                  Instant occurredAt) {
+
+    public enum Type {
+        LOGIN,
+        ROTATED,
+        REVOKED
+    }
+
+    public static SessionChangedEvent of(RefreshTokenModel refreshToken, Type type) {
+        return new SessionChangedEvent(refreshToken.getUserId(), refreshToken.getId(), type,
+                refreshToken.getUserAgent(), refreshToken.getIpAddress(), Instant.now());
+    }
+}
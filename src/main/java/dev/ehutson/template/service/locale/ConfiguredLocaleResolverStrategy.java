@@ -7,7 +7,7 @@ import java.util.Optional;
 
 /**
  * Configurable locale resolver for testing or forcing specific locales.
- * When configured, has very high priority.
+ * Has very high priority, but only resolves a locale while a language tag is configured.
  */
 @Component
 public class ConfiguredLocaleResolverStrategy implements LocaleResolverStrategy {
@@ -44,7 +44,7 @@ public class ConfiguredLocaleResolverStrategy implements LocaleResolverStrategy
 
     @Override
     public int getPriority() {
-        return configuredLanguageTag != null ? 5 : 1001; // Very high when configured, very low when not
+        return 5; // Very high - only applies when configured
     }
 
     @Override
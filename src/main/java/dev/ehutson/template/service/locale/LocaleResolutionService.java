@@ -1,8 +1,11 @@
 package dev.ehutson.template.service.locale;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.Comparator;
 import java.util.List;
@@ -12,26 +15,54 @@ import java.util.Optional;
 /**
  * Simple service that resolves locales using strategy pattern.
  * Handles all the complex logic so strategies can stay simple.
+ * <p>
+ * Strategies are sorted once at startup, so their priorities must be constant. Within a request the
+ * resolved locale is memoized as a request attribute together with the authentication it was resolved
+ * for, and is resolved again only if the authentication changes (e.g. after login).
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class LocaleResolutionService {
 
+    static final String LOCALE_ATTRIBUTE = LocaleResolutionService.class.getName() + ".LOCALE";
+
     private final List<LocaleResolverStrategy> strategies;
 
+    public LocaleResolutionService(List<LocaleResolverStrategy> strategies) {
+        this.strategies = strategies.stream()
+                .sorted(Comparator.comparingInt(LocaleResolverStrategy::getPriority))
+                .toList();
+    }
+
     /**
      * Resolves the best locale by trying strategies in priority order.
      * Always returns a locale (fallback to English if all fail).
      */
     public Locale resolveLocale() {
-        return strategies.stream()
-                .sorted(Comparator.comparingInt(LocaleResolverStrategy::getPriority))
-                .map(this::tryResolve)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .findFirst()
-                .orElse(Locale.ENGLISH); // Final fallback
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return resolveUncached();
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (attributes.getAttribute(LOCALE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof ResolvedLocale resolved
+                && resolved.authentication() == authentication) {
+            return resolved.locale();
+        }
+
+        Locale locale = resolveUncached();
+        attributes.setAttribute(LOCALE_ATTRIBUTE, new ResolvedLocale(authentication, locale), RequestAttributes.SCOPE_REQUEST);
+        return locale;
+    }
+
+    private Locale resolveUncached() {
+        for (LocaleResolverStrategy strategy : strategies) {
+            Optional<Locale> locale = tryResolve(strategy);
+            if (locale.isPresent()) {
+                return locale.get();
+            }
+        }
+        return Locale.ENGLISH; // Final fallback
     }
 
     private Optional<Locale> tryResolve(LocaleResolverStrategy strategy) {
@@ -44,4 +75,7 @@ public class LocaleResolutionService {
             return Optional.empty();
         }
     }
-}
\ No newline at end of file
+
+    private record ResolvedLocale(Authentication authentication, Locale locale) {
+    }
+}
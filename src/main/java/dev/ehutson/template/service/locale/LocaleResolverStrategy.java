@@ -16,6 +16,7 @@ public interface LocaleResolverStrategy {
 
     /**
      * Returns the priority of this resolver. Lower values have higher priority.
+     * Strategies are sorted once at startup, so the value must not change.
      */
     default int getPriority() {
         return 100;
@@ -1,8 +1,8 @@
 package dev.ehutson.template.service.locale;
 
-import dev.ehutson.template.domain.UserModel;
-import dev.ehutson.template.security.service.AuthorizationService;
-import lombok.RequiredArgsConstructor;
+import dev.ehutson.template.security.service.UserDetailsImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.util.Locale;
@@ -11,17 +11,19 @@ import java.util.Optional;
 /**
  * Resolves locale from the authenticated user's language preference.
  * Highest priority as it represents explicit user choice.
+ * The preference is read from the authenticated principal, so no database lookup is needed.
  */
 @Component
-@RequiredArgsConstructor
 public class UserLocaleResolverStrategy implements LocaleResolverStrategy {
 
-    private final AuthorizationService authorizationService;
-
     @Override
     public Optional<Locale> resolveLocale() {
-        return authorizationService.getCurrentUser()
-                .map(UserModel::getLangKey)
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl principal)) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(principal.getLangKey())
                 .filter(langKey -> !langKey.trim().isEmpty())
                 .map(Locale::forLanguageTag);
     }
@@ -35,4 +37,4 @@ public class UserLocaleResolverStrategy implements LocaleResolverStrategy {
     public String getDescription() {
         return "User preference locale resolver";
     }
-}
\ No newline at end of file
+}
@@ -7,29 +7,30 @@ import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.MessageSource;
 import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Locale;
+import java.util.Optional;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class MailService {
 
-    private static final String USER = "user";
-    private static final String BASE_URL = "baseUrl";
+    public static final String ACTIVATION_TEMPLATE = "mail/activationEmail";
+    public static final String CREATION_TEMPLATE = "mail/creationEmail";
+    public static final String PASSWORD_RESET_TEMPLATE = "mail/passwordResetEmail";
+    public static final String ACTIVATION_TITLE_KEY = "email.activation.title";
+    public static final String PASSWORD_RESET_TITLE_KEY = "email.reset.title";
+
     private final ApplicationProperties applicationProperties;
     private final JavaMailSender mailSender;
-    private final MessageSource messageSource;
-    private final SpringTemplateEngine templateEngine;
+    private final MailTemplateRenderer templateRenderer;
 
     @Async
     public void sendMail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
@@ -37,6 +38,29 @@ public class MailService {
     }
 
     private void sendEmailSync(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
+        try {
+            mailSender.send(createMessage(to, subject, content, isMultipart, isHtml));
+            log.debug("Email sent to user '{}'", to);
+        } catch (MailException e) {
+            log.warn("Failed to send email to user '{}'", to, e);
+            throw new EmailSendFailedException("Failed to send email", e);
+        }
+    }
+
+    /**
+     * Sends several prepared messages over a single SMTP connection.
+     *
+     * @param messages the messages to send
+     * @throws MailException if any message could not be delivered; a
+     *                       {@link org.springframework.mail.MailSendException} carries the failed messages
+     */
+    public void sendAll(MimeMessage... messages) {
+        if (messages.length > 0) {
+            mailSender.send(messages);
+        }
+    }
+
+    private MimeMessage createMessage(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         log.debug(
                 "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
                 isMultipart,
@@ -53,10 +77,9 @@ public class MailService {
             message.setFrom(applicationProperties.getMail().getFrom());
             message.setSubject(subject);
             message.setText(content, isHtml);
-            mailSender.send(mimeMessage);
-            log.debug("Email sent to user '{}'", to);
-        } catch (MailException | MessagingException e) {
-            log.warn("Failed to send email to user '{}'", to, e);
+            return mimeMessage;
+        } catch (MessagingException e) {
+            log.warn("Failed to build email to user '{}'", to, e);
             throw new EmailSendFailedException("Failed to send email", e);
         }
     }
@@ -67,35 +90,52 @@ public class MailService {
     }
 
     private void sendEmailFromTemplateSync(UserModel user, String templateName, String titleKey) {
+        prepareTemplateMessage(user, templateName, titleKey).ifPresent(message -> {
+            try {
+                mailSender.send(message);
+                log.debug("Email sent to user '{}'", user.getEmail());
+            } catch (MailException e) {
+                log.warn("Failed to send email to user '{}'", user.getEmail(), e);
+                throw new EmailSendFailedException("Failed to send email", e);
+            }
+        });
+    }
+
+    /**
+     * Renders a template for the user and builds the message without sending it.
+     *
+     * @param user         the recipient
+     * @param templateName the Thymeleaf template, e.g. {@code mail/activationEmail}
+     * @param titleKey     the message key of the subject
+     * @return the message, or empty if the user has no email address
+     */
+    public Optional<MimeMessage> prepareTemplateMessage(UserModel user, String templateName, String titleKey) {
         if (user.getEmail() == null) {
             log.debug("Email doesn't exist for user '{}'", user.getUsername());
-            return;
+            return Optional.empty();
         }
 
         Locale locale = Locale.forLanguageTag(user.getLangKey());
-        Context context = new Context(locale);
-        context.setVariable(USER, user);
-        context.setVariable(BASE_URL, applicationProperties.getMail().getBaseUrl());
-        String content = templateEngine.process(templateName, context);
-        String subject = messageSource.getMessage(titleKey, null, locale);
-        sendEmailSync(user.getEmail(), subject, content, false, true);
+        String content = templateRenderer.render(templateName, locale, user, applicationProperties.getMail().getBaseUrl());
+        String subject = templateRenderer.subject(titleKey, locale);
+        return Optional.of(createMessage(user.getEmail(), subject, content, false, true));
     }
 
     @Async
     public void sendActivationEmail(UserModel user) {
         log.debug("Sending activation email to '{}'", user.getEmail());
-        sendEmailFromTemplateSync(user, "mail/activationEmail", "email.activation.title");
+        sendEmailFromTemplateSync(user, ACTIVATION_TEMPLATE, ACTIVATION_TITLE_KEY);
     }
 
     @Async
     public void sendCreationEmail(UserModel user) {
         log.debug("Sending creation email to '{}'", user.getEmail());
-        sendEmailFromTemplateSync(user, "mail/creationEmail", "email.activation.title");
+        sendEmailFromTemplateSync(user, CREATION_TEMPLATE, ACTIVATION_TITLE_KEY);
     }
 
     @Async
     public void sendPasswordResetMail(UserModel user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
-        sendEmailFromTemplateSync(user, "mail/passwordResetEmail", "email.reset.title");
+        sendEmailFromTemplateSync(user, PASSWORD_RESET_TEMPLATE, PASSWORD_RESET_TITLE_KEY);
     }
 }
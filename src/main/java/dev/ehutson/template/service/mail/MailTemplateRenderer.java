@@ -0,0 +1,151 @@
+package dev.ehutson.template.service.mail;
+
+import dev.ehutson.template.config.MessageConfig;
+import dev.ehutson.template.domain.UserModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.MessageSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Renders mail templates and subjects.
+ * <p>
+ * Every {@code templates/mail/*.html} template is rendered once per supported locale on startup, so the
+ * parsed templates and message bundles are in cache before the first real email goes out. Subjects are
+ * cached per (key, locale) and bodies are rendered into a per-thread buffer that is reused between sends.
+ */
+@Slf4j
+@Component
+public class MailTemplateRenderer {
+
+    static final String TEMPLATE_LOCATION = "classpath:templates/mail/*.html";
+
+    private static final String TEMPLATE_PREFIX = "mail/";
+    private static final String USER = "user";
+    private static final String BASE_URL = "baseUrl";
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+    private static final List<String> SUBJECT_KEYS = List.of(
+            MailService.ACTIVATION_TITLE_KEY,
+            MailService.PASSWORD_RESET_TITLE_KEY
+    );
+
+    private final SpringTemplateEngine templateEngine;
+    private final MessageSource messageSource;
+    private final Set<Locale> cacheableLocales = Set.copyOf(MessageConfig.SUPPORTED_LOCALES);
+    private final ConcurrentMap<SubjectKey, String> subjects = new ConcurrentHashMap<>();
+    private final ThreadLocal<StringWriter> buffers = ThreadLocal.withInitial(() -> new StringWriter(INITIAL_BUFFER_SIZE));
+
+    public MailTemplateRenderer(SpringTemplateEngine templateEngine, MessageSource messageSource) {
+        this.templateEngine = templateEngine;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Renders every mail template and subject once for each supported locale.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<String> templates = discoverTemplates();
+        UserModel sample = sampleUser();
+        long start = System.nanoTime();
+
+        for (Locale locale : MessageConfig.SUPPORTED_LOCALES) {
+            for (String template : templates) {
+                try {
+                    render(template, locale, sample, "");
+                } catch (RuntimeException e) {
+                    log.warn("Failed to precompile mail template '{}' for locale '{}': {}", template, locale, e.getMessage());
+                }
+            }
+            SUBJECT_KEYS.forEach(key -> subject(key, locale));
+        }
+
+        log.debug("Precompiled {} mail templates for {} locales in {} ms", templates.size(),
+                MessageConfig.SUPPORTED_LOCALES.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Renders a mail template for a user.
+     *
+     * @param templateName the Thymeleaf template, e.g. {@code mail/activationEmail}
+     * @param locale       the locale to render in
+     * @param user         the recipient, exposed to the template as {@code user}
+     * @param baseUrl      the application URL, exposed to the template as {@code baseUrl}
+     * @return the rendered content
+     */
+    public String render(String templateName, Locale locale, UserModel user, String baseUrl) {
+        Context context = new Context(locale);
+        context.setVariable(USER, user);
+        context.setVariable(BASE_URL, baseUrl);
+
+        StringWriter writer = buffers.get();
+        writer.getBuffer().setLength(0);
+        try {
+            templateEngine.process(templateName, context, writer);
+            return writer.toString();
+        } finally {
+            if (writer.getBuffer().capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                buffers.remove();
+            } else {
+                writer.getBuffer().setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Resolves a mail subject. Subjects for supported locales are cached.
+     *
+     * @param key    the message key
+     * @param locale the locale to resolve in
+     * @return the subject
+     */
+    public String subject(String key, Locale locale) {
+        if (!cacheableLocales.contains(locale)) {
+            return messageSource.getMessage(key, null, locale);
+        }
+        return subjects.computeIfAbsent(new SubjectKey(key, locale), k -> messageSource.getMessage(k.key(), null, k.locale()));
+    }
+
+    private List<String> discoverTemplates() {
+        ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        try {
+            List<String> templates = new ArrayList<>();
+            for (Resource resource : resolver.getResources(TEMPLATE_LOCATION)) {
+                String filename = resource.getFilename();
+                if (filename != null) {
+                    templates.add(TEMPLATE_PREFIX + filename.substring(0, filename.length() - ".html".length()));
+                }
+            }
+            return templates;
+        } catch (IOException e) {
+            log.warn("Failed to discover mail templates: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static UserModel sampleUser() {
+        UserModel user = new UserModel();
+        user.setUsername("warmup");
+        user.setFirstName("");
+        user.setLastName("");
+        user.setActivationKey("");
+        user.setResetKey("");
+        return user;
+    }
+
+    private record SubjectKey(String key, Locale locale) {
+    }
+}
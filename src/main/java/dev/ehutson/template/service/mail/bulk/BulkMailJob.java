@@ -0,0 +1,29 @@
+package dev.ehutson.template.service.mail.bulk;
+
+import lombok.Setter;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * Quartz entry point for a bulk mail run. The run id is bound from the job data map.
+ */
+@DisallowConcurrentExecution
+public class BulkMailJob extends QuartzJobBean {
+
+    public static final String RUN_ID = "runId";
+
+    private final BulkMailSender bulkMailSender;
+
+    @Setter
+    private String runId;
+
+    public BulkMailJob(BulkMailSender bulkMailSender) {
+        this.bulkMailSender = bulkMailSender;
+    }
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        bulkMailSender.run(runId);
+    }
+}
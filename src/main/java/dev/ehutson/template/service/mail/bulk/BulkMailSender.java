@@ -0,0 +1,376 @@
+package dev.ehutson.template.service.mail.bulk;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.BulkMailRunModel;
+import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.repository.BulkMailRunRepository;
+import dev.ehutson.template.service.mail.MailService;
+import dev.ehutson.template.service.maintenance.SchedulerLock;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Streams the users of a bulk mail segment from a Mongo cursor and mails them in checkpointed windows.
+ * <p>
+ * Users are read in {@code _id} order. After every window of {@code checkpointInterval} users the last
+ * id is stored on the run, so a run interrupted by a crash resumes after the last completed window and
+ * re-sends at most one window. Within a window, users are split across {@code concurrency} workers that
+ * send in batches of about one second of their share of the rate cap; each batch waits for the pacer
+ * slot of its last message, so the SMTP server never sees more than the cap plus one batch per worker.
+ * <p>
+ * A run is sent by one node at a time: the sender holds a {@link SchedulerLock} lease on the run and
+ * renews it at every checkpoint, and every third of the lease while a window is being sent. A node that
+ * stops renewing loses the run to the next node that resumes it, and one that finds its lease taken stops
+ * before its next batch.
+ */
+@Slf4j
+@Component
+public class BulkMailSender {
+
+    private final MongoTemplate mongoTemplate;
+    private final BulkMailRunRepository runRepository;
+    private final MailService mailService;
+    private final SchedulerLock schedulerLock;
+    private final ApplicationProperties.Bulk properties;
+    private final MeterRegistry meterRegistry;
+
+    public BulkMailSender(MongoTemplate mongoTemplate,
+                          BulkMailRunRepository runRepository,
+                          MailService mailService,
+                          SchedulerLock schedulerLock,
+                          ApplicationProperties applicationProperties,
+                          MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.runRepository = runRepository;
+        this.mailService = mailService;
+        this.schedulerLock = schedulerLock;
+        this.properties = applicationProperties.getMail().getBulk();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void run(String runId) {
+        String lockName = lockName(runId);
+        if (!schedulerLock.tryAcquire(lockName, properties.getLease())) {
+            log.debug("Bulk mail run '{}' is being sent by another node", runId);
+            return;
+        }
+        try {
+            send(runId, lockName);
+        } finally {
+            schedulerLock.release(lockName, Duration.ZERO);
+        }
+    }
+
+    static String lockName(String runId) {
+        return BulkMailService.JOB_GROUP + ":" + runId;
+    }
+
+    private void send(String runId, String lockName) {
+        // read under the lease, so the checkpoint is the one the previous owner left
+        BulkMailRunModel run = runRepository.findById(runId).orElse(null);
+        if (run == null || run.getStatus() != BulkMailRunModel.Status.RUNNING) {
+            log.debug("Bulk mail run '{}' is not runnable", runId);
+            return;
+        }
+
+        int concurrency = Math.max(1, properties.getConcurrency());
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        RatePacer pacer = new RatePacer(properties.getRateLimit());
+        int batchSize = batchSize(properties.getRateLimit(), concurrency);
+        Progress progress = new Progress(run);
+
+        log.info("Bulk mail run '{}' ({} / {}) starting after '{}'",
+                runId, run.getSegment(), run.getTemplate(), run.getLastUserId());
+
+        try (Stream<UserModel> users = mongoTemplate.stream(segmentQuery(run), UserModel.class)) {
+            Iterator<UserModel> iterator = users.iterator();
+            List<UserModel> window = new ArrayList<>(properties.getCheckpointInterval());
+
+            while (iterator.hasNext()) {
+                window.add(iterator.next());
+                if (window.size() == properties.getCheckpointInterval() || !iterator.hasNext()) {
+                    WindowResult result = sendWindow(run, window, concurrency, executor, pacer, batchSize, lockName);
+                    if (result == null) {
+                        log.warn("Bulk mail run '{}' lost its lease mid-window, leaving it to the node that took it over", runId);
+                        return;
+                    }
+                    if (!checkpoint(run, window.get(window.size() - 1).getId(), result, progress)) {
+                        log.info("Bulk mail run '{}' was cancelled", runId);
+                        return;
+                    }
+                    if (!schedulerLock.renew(lockName, properties.getLease())) {
+                        log.warn("Bulk mail run '{}' lost its lease, leaving it to the node that took it over", runId);
+                        return;
+                    }
+                    window.clear();
+                }
+            }
+
+            finish(run, BulkMailRunModel.Status.COMPLETED, null);
+            log.info("Bulk mail run '{}' completed: {} sent, {} failed, {} msg/s",
+                    runId, progress.sent, progress.failed, String.format("%.1f", progress.throughput()));
+        } catch (RuntimeException e) {
+            log.warn("Bulk mail run '{}' failed: {}", runId, e.getMessage());
+            finish(run, BulkMailRunModel.Status.FAILED, e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Query segmentQuery(BulkMailRunModel run) {
+        Query query = switch (run.getSegment()) {
+            case UNACTIVATED -> Query.query(where("activated").is(false)
+                    .and("activationKey").ne(null)
+                    .and("createdAt").lt(run.getCreatedBefore()));
+            case ACTIVE -> Query.query(where("activated").is(true));
+        };
+
+        if (BulkMailService.requiresResetKey(run.getTemplate())) {
+            query.addCriteria(where("resetKey").ne(null));
+        }
+
+        if (run.getLastUserId() != null) {
+            query.addCriteria(where("id").gt(run.getLastUserId()));
+        }
+
+        query.fields().exclude("password");
+        return query.with(Sort.by(Sort.Direction.ASC, "id"))
+                .cursorBatchSize(properties.getCheckpointInterval())
+                .noCursorTimeout();
+    }
+
+    /**
+     * @return the number of messages a worker sends per batch: about one second of its share of the rate cap,
+     * or its whole chunk when sending is not rate limited
+     */
+    static int batchSize(double rateLimit, int concurrency) {
+        return rateLimit > 0 ? Math.max(1, (int) (rateLimit / concurrency)) : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Sends a window across the workers, renewing the lease every third of it until they are done.
+     *
+     * @return the outcome of the window, or null if the lease was lost while sending it
+     */
+    private WindowResult sendWindow(BulkMailRunModel run, List<UserModel> window, int concurrency,
+                                    ExecutorService executor, RatePacer pacer, int batchSize, String lockName) {
+        String templateName = BulkMailService.templateName(run.getTemplate());
+        String titleKey = BulkMailService.titleKey(run.getTemplate());
+        int chunkSize = (window.size() + concurrency - 1) / concurrency;
+        AtomicBoolean leaseLost = new AtomicBoolean();
+
+        List<CompletableFuture<WindowResult>> workers = new ArrayList<>();
+        for (int i = 0; i < window.size(); i += chunkSize) {
+            List<UserModel> chunk = List.copyOf(window.subList(i, Math.min(i + chunkSize, window.size())));
+            workers.add(CompletableFuture.supplyAsync(
+                    () -> sendChunk(chunk, templateName, titleKey, pacer, batchSize, leaseLost), executor));
+        }
+
+        CompletableFuture<Void> done = CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new));
+        Duration renewEvery = Duration.ofMillis(Math.max(1, properties.getLease().toMillis() / 3));
+        while (!await(done, renewEvery)) {
+            if (!schedulerLock.renew(lockName, properties.getLease())) {
+                // workers stop before their next batch; the executor is shut down once the run returns
+                leaseLost.set(true);
+                return null;
+            }
+        }
+
+        return workers.stream()
+                .map(CompletableFuture::join)
+                .reduce(new WindowResult(0, 0), WindowResult::plus);
+    }
+
+    /**
+     * @return whether the future completed within the timeout
+     */
+    private static boolean await(CompletableFuture<?> future, Duration timeout) {
+        try {
+            future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private WindowResult sendChunk(List<UserModel> chunk, String templateName, String titleKey, RatePacer pacer,
+                                   int batchSize, AtomicBoolean stop) {
+        WindowResult result = new WindowResult(0, 0);
+        List<MimeMessage> batch = new ArrayList<>(Math.min(batchSize, chunk.size()));
+        int failed = 0;
+        for (int i = 0; i < chunk.size() && !stop.get(); i++) {
+            UserModel user = chunk.get(i);
+            try {
+                mailService.prepareTemplateMessage(user, templateName, titleKey).ifPresent(batch::add);
+            } catch (RuntimeException e) {
+                log.debug("Failed to render bulk email for user '{}': {}", user.getId(), e.getMessage());
+                failed++;
+            }
+
+            if (!batch.isEmpty() && (batch.size() == batchSize || i == chunk.size() - 1)) {
+                // paced by what is sent, not by what is rendered
+                pacer.acquire(batch.size());
+                if (stop.get()) {
+                    break;
+                }
+                result = result.plus(sendBatch(batch));
+                batch.clear();
+            }
+        }
+        return result.plus(new WindowResult(0, failed));
+    }
+
+    private WindowResult sendBatch(List<MimeMessage> messages) {
+        try {
+            mailService.sendAll(messages.toArray(MimeMessage[]::new));
+            return new WindowResult(messages.size(), 0);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failures = e.getFailedMessages();
+            int undelivered = failures.isEmpty() ? messages.size() : failures.size();
+            return new WindowResult(messages.size() - undelivered, undelivered);
+        } catch (MailException e) {
+            log.debug("Failed to send bulk email batch: {}", e.getMessage());
+            return new WindowResult(0, messages.size());
+        }
+    }
+
+    /**
+     * Records a completed window. Returns {@code false} if the run is no longer running, i.e. it was cancelled.
+     */
+    private boolean checkpoint(BulkMailRunModel run, String lastUserId, WindowResult result, Progress progress) {
+        boolean running = mongoTemplate.updateFirst(
+                Query.query(where("id").is(run.getId()).and("status").is(BulkMailRunModel.Status.RUNNING)),
+                new Update()
+                        .set("lastUserId", lastUserId)
+                        .inc("sent", result.sent())
+                        .inc("failed", result.failed())
+                        .set("updatedAt", Instant.now()),
+                BulkMailRunModel.class).getMatchedCount() > 0;
+
+        String segment = run.getSegment().name();
+        meterRegistry.counter("mail.bulk.sent", "segment", segment).increment(result.sent());
+        meterRegistry.counter("mail.bulk.failed", "segment", segment).increment(result.failed());
+
+        progress.add(result);
+        log.info("Bulk mail run '{}': {} sent, {} failed, {} msg/s", run.getId(),
+                progress.sent, progress.failed, String.format("%.1f", progress.throughput()));
+        return running;
+    }
+
+    private void finish(BulkMailRunModel run, BulkMailRunModel.Status status, String error) {
+        Update update = new Update()
+                .set("status", status)
+                .set("finishedAt", Instant.now())
+                .set("updatedAt", Instant.now());
+        if (error != null) {
+            update.set("lastError", error);
+        }
+        mongoTemplate.updateFirst(
+                Query.query(where("id").is(run.getId()).and("status").is(BulkMailRunModel.Status.RUNNING)),
+                update,
+                BulkMailRunModel.class);
+    }
+
+    private record WindowResult(long sent, long failed) {
+        WindowResult plus(WindowResult other) {
+            return new WindowResult(sent + other.sent, failed + other.failed);
+        }
+    }
+
+    /**
+     * Progress of the current execution, used for throughput reporting.
+     */
+    private static final class Progress {
+        private final long startNanos = System.nanoTime();
+        private long sent;
+        private long failed;
+        private long processed;
+
+        Progress(BulkMailRunModel run) {
+            this.sent = run.getSent();
+            this.failed = run.getFailed();
+        }
+
+        void add(WindowResult result) {
+            sent += result.sent();
+            failed += result.failed();
+            processed += result.sent() + result.failed();
+        }
+
+        /**
+         * @return emails processed per second since this execution started
+         */
+        double throughput() {
+            double seconds = Math.max(Duration.ofNanos(System.nanoTime() - startNanos).toMillis() / 1000.0, 0.001);
+            return processed / seconds;
+        }
+    }
+
+    /**
+     * Spaces out permits evenly to stay under a messages-per-second cap shared by all workers.
+     */
+    static final class RatePacer {
+        private final long intervalNanos;
+        private long next = System.nanoTime();
+
+        RatePacer(double permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        }
+
+        void acquire() {
+            acquire(1);
+        }
+
+        /**
+         * Reserves consecutive slots for {@code permits} messages and waits for the last one, so a batch sent
+         * afterwards does not run ahead of the cap.
+         */
+        void acquire(int permits) {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long last = Math.max(next, now) + (permits - 1) * intervalNanos;
+                next = last + intervalNanos;
+                wait = last - now;
+            }
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package dev.ehutson.template.service.mail.bulk;
+
+import dev.ehutson.template.domain.BulkMailRunModel;
+import dev.ehutson.template.exception.ApplicationException;
+import dev.ehutson.template.exception.ErrorCode;
+import dev.ehutson.template.repository.BulkMailRunRepository;
+import dev.ehutson.template.service.mail.MailService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.*;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Starts, tracks and cancels admin-triggered bulk mail runs. Each run executes as a one-shot Quartz job.
+ * <p>
+ * Every node periodically offers the runs that are still running to its scheduler; {@link BulkMailSender}
+ * holds a per-run lease, so only one node sends a run and a run whose node died is taken over once the
+ * lease expires.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkMailService {
+
+    static final String JOB_GROUP = "bulk-mail";
+
+    private final BulkMailRunRepository runRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Scheduler scheduler;
+
+    public BulkMailRunModel start(BulkMailRunModel.Segment segment,
+                                  BulkMailRunModel.Template template,
+                                  Instant createdBefore,
+                                  String requestedBy) {
+        if (!isCompatible(segment, template)) {
+            throw ApplicationException.of(ErrorCode.VALIDATION_FAILED,
+                    "Template " + template + " cannot be sent to segment " + segment, "template", template);
+        }
+
+        Instant now = Instant.now();
+        BulkMailRunModel run = runRepository.save(BulkMailRunModel.builder()
+                .segment(segment)
+                .template(template)
+                .createdBefore(createdBefore != null ? createdBefore : now)
+                .requestedBy(requestedBy)
+                .startedAt(now)
+                .updatedAt(now)
+                .build());
+
+        schedule(run.getId());
+        log.info("Bulk mail run '{}' ({} / {}) requested by '{}'", run.getId(), segment, template, requestedBy);
+        return run;
+    }
+
+    public BulkMailRunModel cancel(String id) {
+        // conditional, so the sender's checkpoints are not overwritten and a finished run stays finished
+        Instant now = Instant.now();
+        mongoTemplate.updateFirst(
+                Query.query(where("id").is(id).and("status").is(BulkMailRunModel.Status.RUNNING)),
+                new Update()
+                        .set("status", BulkMailRunModel.Status.CANCELLED)
+                        .set("finishedAt", now)
+                        .set("updatedAt", now),
+                BulkMailRunModel.class);
+        return getRun(id);
+    }
+
+    public BulkMailRunModel getRun(String id) {
+        return runRepository.findById(id)
+                .orElseThrow(() -> ApplicationException.of(ErrorCode.RESOURCE_NOT_FOUND, "Bulk mail run not found", "BulkMailRun", id));
+    }
+
+    public List<BulkMailRunModel> getRuns() {
+        return runRepository.findAll(Sort.by(Sort.Direction.DESC, "startedAt"));
+    }
+
+    /**
+     * Reschedules runs that are still running, e.g. because the application stopped or the node sending them
+     * died. They continue after their checkpoint; a run another node is sending is skipped by the sender.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.mail.bulk.resume-interval:PT1M}",
+            fixedDelayString = "${app.mail.bulk.resume-interval:PT1M}")
+    public void resumeInterruptedRuns() {
+        for (BulkMailRunModel run : runRepository.findAllByStatus(BulkMailRunModel.Status.RUNNING)) {
+            log.debug("Offering bulk mail run '{}' after '{}'", run.getId(), run.getLastUserId());
+            try {
+                schedule(run.getId());
+            } catch (ApplicationException e) {
+                log.warn("Failed to resume bulk mail run '{}': {}", run.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void schedule(String runId) {
+        JobKey jobKey = JobKey.jobKey(runId, JOB_GROUP);
+        JobDetail job = JobBuilder.newJob(BulkMailJob.class)
+                .withIdentity(jobKey)
+                .usingJobData(BulkMailJob.RUN_ID, runId)
+                .build();
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .withIdentity(runId, JOB_GROUP)
+                .forJob(jobKey)
+                .startNow()
+                .build();
+        try {
+            if (!scheduler.checkExists(jobKey)) {
+                scheduler.scheduleJob(job, trigger);
+            }
+        } catch (SchedulerException e) {
+            throw ApplicationException.of(ErrorCode.SERVICE_ERROR, "Failed to schedule bulk mail run", e, runId);
+        }
+    }
+
+    /**
+     * Whether every user of the segment has the key the template links to: activation mails need the
+     * activation key of an unactivated user, creation and password reset mails a reset key, which the
+     * sender additionally requires of each user.
+     */
+    static boolean isCompatible(BulkMailRunModel.Segment segment, BulkMailRunModel.Template template) {
+        return switch (template) {
+            case ACTIVATION, CREATION -> segment == BulkMailRunModel.Segment.UNACTIVATED;
+            case PASSWORD_RESET -> segment == BulkMailRunModel.Segment.ACTIVE;
+        };
+    }
+
+    static boolean requiresResetKey(BulkMailRunModel.Template template) {
+        return template != BulkMailRunModel.Template.ACTIVATION;
+    }
+
+    static String templateName(BulkMailRunModel.Template template) {
+        return switch (template) {
+            case ACTIVATION -> MailService.ACTIVATION_TEMPLATE;
+            case CREATION -> MailService.CREATION_TEMPLATE;
+            case PASSWORD_RESET -> MailService.PASSWORD_RESET_TEMPLATE;
+        };
+    }
+
+    static String titleKey(BulkMailRunModel.Template template) {
+        return switch (template) {
+            case ACTIVATION, CREATION -> MailService.ACTIVATION_TITLE_KEY;
+            case PASSWORD_RESET -> MailService.PASSWORD_RESET_TITLE_KEY;
+        };
+    }
+}
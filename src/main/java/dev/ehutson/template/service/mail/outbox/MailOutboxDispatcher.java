@@ -0,0 +1,310 @@
+package dev.ehutson.template.service.mail.outbox;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.MailOutboxModel;
+import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.repository.MailOutboxRepository;
+import dev.ehutson.template.repository.UserRepository;
+import dev.ehutson.template.service.mail.MailService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Delivers queued outbox emails.
+ * <p>
+ * Each run claims a batch with a conditional multi-update, so several nodes can poll the same
+ * collection without sending an email twice. The batch is split into {@code concurrency} chunks and
+ * every chunk is sent over its own SMTP connection. Failed emails are retried with exponential
+ * backoff and moved to {@link MailOutboxModel.Status#DEAD} after {@code maxAttempts}.
+ */
+@Slf4j
+@Component
+public class MailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final MailOutboxRepository outboxRepository;
+    private final UserRepository userRepository;
+    private final MailService mailService;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationProperties.Outbox properties;
+    private final ExecutorService executor;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final Timer sendTimer;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter deadCounter;
+
+    public MailOutboxDispatcher(MailOutboxRepository outboxRepository,
+                                UserRepository userRepository,
+                                MailService mailService,
+                                MongoTemplate mongoTemplate,
+                                ApplicationProperties applicationProperties,
+                                MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.userRepository = userRepository;
+        this.mailService = mailService;
+        this.mongoTemplate = mongoTemplate;
+        this.properties = applicationProperties.getMail().getOutbox();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, properties.getConcurrency()), namedThreadFactory());
+
+        Gauge.builder("mail.outbox.backlog", backlog, AtomicLong::get)
+                .description("Emails waiting to be delivered")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.outbox.send")
+                .description("Time taken to deliver a chunk of emails over one SMTP connection")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("mail.outbox.sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.outbox.failed").register(meterRegistry);
+        this.deadCounter = Counter.builder("mail.outbox.dead").register(meterRegistry);
+    }
+
+    /**
+     * Claims and delivers due outbox entries until nothing is left or a batch comes back short.
+     *
+     * @return the number of emails delivered
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval:PT5S}")
+    public int dispatch() {
+        int delivered = 0;
+        try {
+            List<MailOutboxModel> batch;
+            do {
+                batch = claimBatch();
+                delivered += deliver(batch);
+            } while (batch.size() == properties.getBatchSize());
+        } catch (Exception e) {
+            log.warn("Mail outbox dispatch failed: {}", e.getMessage());
+        } finally {
+            backlog.set(outboxRepository.countByStatus(MailOutboxModel.Status.PENDING));
+        }
+        return delivered;
+    }
+
+    private List<MailOutboxModel> claimBatch() {
+        Instant now = Instant.now();
+        Criteria due = new Criteria().orOperator(
+                where("status").is(MailOutboxModel.Status.PENDING).and("nextAttemptAt").lte(now),
+                where("status").is(MailOutboxModel.Status.SENDING).and("lockedUntil").lt(now)
+        );
+
+        Query candidates = Query.query(due)
+                .with(Sort.by("nextAttemptAt"))
+                .limit(properties.getBatchSize());
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, MailOutboxModel.class).stream()
+                .map(MailOutboxModel::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Re-apply the due criteria so entries claimed concurrently by another node are skipped
+        String claimId = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(where("_id").in(ids), due)),
+                new Update()
+                        .set("status", MailOutboxModel.Status.SENDING)
+                        .set("claimId", claimId)
+                        .set("lockedUntil", now.plus(properties.getLease())),
+                MailOutboxModel.class);
+
+        return outboxRepository.findByClaimId(claimId);
+    }
+
+    private int deliver(List<MailOutboxModel> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, UserModel> users = userRepository.findAllById(
+                        batch.stream().map(MailOutboxModel::getUserId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(UserModel::getId, Function.identity()));
+
+        int chunkSize = Math.max(1, (batch.size() + properties.getConcurrency() - 1) / properties.getConcurrency());
+        List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i += chunkSize) {
+            List<MailOutboxModel> chunk = batch.subList(i, Math.min(i + chunkSize, batch.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> deliverChunk(chunk, users), executor));
+        }
+
+        return chunks.stream().mapToInt(CompletableFuture::join).sum();
+    }
+
+    private int deliverChunk(List<MailOutboxModel> chunk, Map<String, UserModel> users) {
+        Map<MimeMessage, MailOutboxModel> messages = new LinkedHashMap<>();
+        List<String> skipped = new ArrayList<>();
+
+        for (MailOutboxModel entry : chunk) {
+            UserModel user = users.get(entry.getUserId());
+            if (user == null) {
+                markDead(entry, "User no longer exists");
+                continue;
+            }
+            try {
+                mailService.prepareTemplateMessage(user, entry.getTemplateName(), entry.getTitleKey())
+                        .ifPresentOrElse(message -> messages.put(message, entry), () -> skipped.add(entry.getId()));
+            } catch (Exception e) {
+                markFailed(entry, e);
+            }
+        }
+        markSent(skipped);
+
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        long start = System.nanoTime();
+        try {
+            mailService.sendAll(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                // Connection-level failure: nothing in this chunk was delivered
+                failures = allFailed(messages.keySet(), e);
+            }
+        } catch (MailException e) {
+            failures = allFailed(messages.keySet(), e);
+        } finally {
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        List<String> sent = new ArrayList<>();
+        for (Map.Entry<MimeMessage, MailOutboxModel> message : messages.entrySet()) {
+            Exception failure = failures.get(message.getKey());
+            if (failure == null) {
+                sent.add(message.getValue().getId());
+            } else {
+                markFailed(message.getValue(), failure);
+            }
+        }
+        markSent(sent);
+        sentCounter.increment(sent.size());
+        return sent.size();
+    }
+
+    private void markSent(List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(
+                Query.query(where("_id").in(ids)),
+                new Update()
+                        .set("status", MailOutboxModel.Status.SENT)
+                        .set("sentAt", Instant.now())
+                        .unset("claimId")
+                        .unset("lockedUntil"),
+                MailOutboxModel.class);
+    }
+
+    private void markFailed(MailOutboxModel entry, Exception e) {
+        int attempts = entry.getAttempts() + 1;
+        if (attempts >= properties.getMaxAttempts()) {
+            log.warn("Giving up on email '{}' to '{}' after {} attempts: {}",
+                    entry.getTemplateName(), entry.getRecipient(), attempts, e.getMessage());
+            markDead(entry, e.getMessage());
+            return;
+        }
+
+        failedCounter.increment();
+        Duration delay = backoff(attempts, properties.getInitialBackoff(), properties.getMaxBackoff());
+        log.debug("Email '{}' to '{}' failed (attempt {}), retrying in {}",
+                entry.getTemplateName(), entry.getRecipient(), attempts, delay);
+
+        mongoTemplate.updateFirst(
+                Query.query(where("_id").is(entry.getId())),
+                new Update()
+                        .set("status", MailOutboxModel.Status.PENDING)
+                        .set("attempts", attempts)
+                        .set("nextAttemptAt", Instant.now().plus(delay))
+                        .set("lastError", truncate(e.getMessage()))
+                        .unset("claimId")
+                        .unset("lockedUntil"),
+                MailOutboxModel.class);
+    }
+
+    private void markDead(MailOutboxModel entry, String reason) {
+        deadCounter.increment();
+        mongoTemplate.updateFirst(
+                Query.query(where("_id").is(entry.getId())),
+                new Update()
+                        .set("status", MailOutboxModel.Status.DEAD)
+                        .inc("attempts", 1)
+                        .set("lastError", truncate(reason))
+                        .unset("claimId")
+                        .unset("lockedUntil"),
+                MailOutboxModel.class);
+    }
+
+    /**
+     * Calculates the delay before the given retry attempt: {@code initial * 2^(attempt - 1)}, capped at {@code max}.
+     *
+     * @param attempt the number of failed attempts so far (1-based)
+     * @param initial the delay after the first failure
+     * @param max     the upper bound for the delay
+     * @return the delay before the next attempt
+     */
+    static Duration backoff(int attempt, Duration initial, Duration max) {
+        int exponent = Math.min(Math.max(attempt - 1, 0), 30);
+        Duration delay = initial.multipliedBy(1L << exponent);
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    private static Map<Object, Exception> allFailed(Set<MimeMessage> messages, Exception e) {
+        Map<Object, Exception> failures = new HashMap<>();
+        messages.forEach(message -> failures.put(message, e));
+        return failures;
+    }
+
+    private static String truncate(String value) {
+        if (value == null || value.length() <= MAX_ERROR_LENGTH) {
+            return value;
+        }
+        return value.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static ThreadFactory namedThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "mail-outbox-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
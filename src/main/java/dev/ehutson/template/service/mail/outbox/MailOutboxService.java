@@ -0,0 +1,52 @@
+package dev.ehutson.template.service.mail.outbox;
+
+import dev.ehutson.template.domain.MailOutboxModel;
+import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.repository.MailOutboxRepository;
+import dev.ehutson.template.service.mail.MailService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Records emails in the outbox so they survive SMTP outages and restarts.
+ * Delivery is handled by {@link MailOutboxDispatcher}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MailOutboxService {
+
+    private final MailOutboxRepository outboxRepository;
+
+    public MailOutboxModel enqueueActivationEmail(UserModel user) {
+        return enqueue(user, MailService.ACTIVATION_TEMPLATE, MailService.ACTIVATION_TITLE_KEY);
+    }
+
+    public MailOutboxModel enqueueCreationEmail(UserModel user) {
+        return enqueue(user, MailService.CREATION_TEMPLATE, MailService.ACTIVATION_TITLE_KEY);
+    }
+
+    public MailOutboxModel enqueuePasswordResetMail(UserModel user) {
+        return enqueue(user, MailService.PASSWORD_RESET_TEMPLATE, MailService.PASSWORD_RESET_TITLE_KEY);
+    }
+
+    public MailOutboxModel enqueue(UserModel user, String templateName, String titleKey) {
+        Instant now = Instant.now();
+        MailOutboxModel entry = MailOutboxModel.builder()
+                .userId(user.getId())
+                .recipient(user.getEmail())
+                .templateName(templateName)
+                .titleKey(titleKey)
+                .status(MailOutboxModel.Status.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+
+        MailOutboxModel saved = outboxRepository.save(entry);
+        log.debug("Queued email '{}' for user '{}'", templateName, user.getUsername());
+        return saved;
+    }
+}
@@ -0,0 +1,69 @@
+package dev.ehutson.template.service.maintenance;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.repository.MailOutboxRepository;
+import dev.ehutson.template.service.mail.MailService;
+import dev.ehutson.template.service.mail.outbox.MailOutboxService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Queues the activation email of users that registered more than {@code activation-mail-grace} ago, are not yet
+ * activated and have no activation email in the outbox. The user and its outbox entry are separate writes, so a
+ * crash between them would otherwise leave a user who never receives the email.
+ */
+public class ActivationMailRepairJob extends MaintenanceJob {
+
+    public static final String NAME = "enqueue-missing-activation-mail";
+
+    private static final List<String> ACTIVATION_TEMPLATES = List.of(MailService.ACTIVATION_TEMPLATE, MailService.CREATION_TEMPLATE);
+
+    private final MongoTemplate mongoTemplate;
+    private final MailOutboxRepository outboxRepository;
+    private final MailOutboxService outboxService;
+    private final ApplicationProperties.Maintenance properties;
+
+    public ActivationMailRepairJob(MongoTemplate mongoTemplate,
+                                   MailOutboxRepository outboxRepository,
+                                   MailOutboxService outboxService,
+                                   SchedulerLock schedulerLock,
+                                   ApplicationProperties applicationProperties,
+                                   MeterRegistry meterRegistry) {
+        super(schedulerLock, applicationProperties, meterRegistry);
+        this.mongoTemplate = mongoTemplate;
+        this.outboxRepository = outboxRepository;
+        this.outboxService = outboxService;
+        this.properties = applicationProperties.getMaintenance();
+    }
+
+    @Override
+    protected String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected long runMaintenance() {
+        Instant now = Instant.now();
+        // users past the activation key ttl are removed by StaleActivationCleanupJob
+        Query query = Query.query(where("activated").is(false)
+                .and("activationKey").ne(null)
+                .and("createdAt").gte(now.minus(properties.getActivationKeyTtl())).lt(now.minus(properties.getActivationMailGrace())));
+        query.fields().include("id", "username", "email");
+
+        long enqueued = 0;
+        for (UserModel user : mongoTemplate.find(query, UserModel.class)) {
+            if (!outboxRepository.existsByUserIdAndTemplateNameIn(user.getId(), ACTIVATION_TEMPLATES)) {
+                outboxService.enqueueActivationEmail(user);
+                enqueued++;
+            }
+        }
+        return enqueued;
+    }
+}
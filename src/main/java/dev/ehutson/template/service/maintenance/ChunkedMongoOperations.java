@@ -0,0 +1,97 @@
+package dev.ehutson.template.service.maintenance;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Applies large deletes and updates in fixed-size id batches with a pause in between, so maintenance
+ * does not flood the oplog and cause replication lag.
+ */
+@Slf4j
+@Component
+public class ChunkedMongoOperations {
+
+    private static final String ID = "_id";
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationProperties.Maintenance properties;
+
+    public ChunkedMongoOperations(MongoTemplate mongoTemplate, ApplicationProperties applicationProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = applicationProperties.getMaintenance();
+    }
+
+    /**
+     * Deletes every document matching the query.
+     *
+     * @return the number of documents deleted
+     */
+    public long delete(Query query, Class<?> entityClass) {
+        return inChunks(query, entityClass, ids ->
+                mongoTemplate.remove(Query.query(where(ID).in(ids)), entityClass).getDeletedCount());
+    }
+
+    /**
+     * Applies the update to every document matching the query. The update must make the documents stop
+     * matching the query, otherwise the same documents are selected again.
+     *
+     * @return the number of documents modified
+     */
+    public long update(Query query, Update update, Class<?> entityClass) {
+        return inChunks(query, entityClass, ids ->
+                mongoTemplate.updateMulti(Query.query(where(ID).in(ids)), update, entityClass).getModifiedCount());
+    }
+
+    private <T> long inChunks(Query query, Class<T> entityClass, ChunkOperation operation) {
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityClass);
+        long affected = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            Query chunkQuery = Query.of(query).limit(chunkSize);
+            chunkQuery.fields().include(ID);
+            List<Object> ids = mongoTemplate.find(chunkQuery, entityClass).stream()
+                    .map(document -> entity.getIdentifierAccessor(document).getIdentifier())
+                    .toList();
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            affected += operation.apply(ids);
+            log.debug("Processed {} documents in '{}' ({} total)", ids.size(), collection, affected);
+
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            pause(properties.getChunkPause());
+        }
+        return affected;
+    }
+
+    private static void pause(Duration pause) {
+        if (pause.isZero() || pause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkOperation {
+        long apply(List<Object> ids);
+    }
+}
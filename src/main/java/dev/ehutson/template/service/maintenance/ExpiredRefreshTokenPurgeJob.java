@@ -0,0 +1,40 @@
+package dev.ehutson.template.service.maintenance;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.RefreshTokenModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Deletes refresh tokens that have expired.
+ */
+public class ExpiredRefreshTokenPurgeJob extends MaintenanceJob {
+
+    public static final String NAME = "purge-expired-refresh-tokens";
+
+    private final ChunkedMongoOperations chunkedOperations;
+
+    public ExpiredRefreshTokenPurgeJob(ChunkedMongoOperations chunkedOperations,
+                                       SchedulerLock schedulerLock,
+                                       ApplicationProperties applicationProperties,
+                                       MeterRegistry meterRegistry) {
+        super(schedulerLock, applicationProperties, meterRegistry);
+        this.chunkedOperations = chunkedOperations;
+    }
+
+    @Override
+    protected String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected long runMaintenance() {
+        return chunkedOperations.delete(
+                Query.query(where("expiresAt").lt(Instant.now())),
+                RefreshTokenModel.class);
+    }
+}
@@ -0,0 +1,66 @@
+package dev.ehutson.template.service.maintenance;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * Base class for scheduled maintenance jobs.
+ * <p>
+ * Every node schedules the job, but only the node that takes the {@link SchedulerLock} runs it.
+ * Duration is recorded in {@code maintenance.job.duration} and the number of documents touched in
+ * {@code maintenance.job.affected}, both tagged with the job name.
+ */
+@Slf4j
+@DisallowConcurrentExecution
+public abstract class MaintenanceJob extends QuartzJobBean {
+
+    private final SchedulerLock schedulerLock;
+    private final ApplicationProperties.Maintenance properties;
+    private final MeterRegistry meterRegistry;
+
+    protected MaintenanceJob(SchedulerLock schedulerLock, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.schedulerLock = schedulerLock;
+        this.properties = applicationProperties.getMaintenance();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return the job name, used as lock name and metric tag
+     */
+    protected abstract String getName();
+
+    /**
+     * Performs the maintenance.
+     *
+     * @return the number of documents affected
+     */
+    protected abstract long runMaintenance();
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        String name = getName();
+        if (!schedulerLock.tryAcquire(name, properties.getLockLease())) {
+            log.debug("Skipping maintenance job '{}', it is running on another node", name);
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            long affected = runMaintenance();
+            meterRegistry.counter("maintenance.job.affected", "job", name).increment(affected);
+            log.info("Maintenance job '{}' affected {} documents", name, affected);
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            log.warn("Maintenance job '{}' failed: {}", name, e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("maintenance.job.duration", "job", name, "outcome", outcome));
+            schedulerLock.release(name, properties.getLockAtLeast());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package dev.ehutson.template.service.maintenance;
+
+import dev.ehutson.template.domain.SchedulerLockModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Cluster-wide lock backed by the {@code scheduler_locks} collection.
+ * <p>
+ * Acquiring is a single upsert that only matches an expired lock; when another node holds the lock the
+ * upsert collides with the existing document and fails with a duplicate key. Locks expire on their own
+ * after {@code lease}, so a node that dies mid-job does not block the others forever.
+ */
+@Slf4j
+@Component
+public class SchedulerLock {
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner;
+
+    public SchedulerLock(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.owner = hostname() + ":" + UUID.randomUUID();
+    }
+
+    /**
+     * Tries to take the lock.
+     *
+     * @param name  the lock name
+     * @param lease how long the lock is held if never released
+     * @return whether this node now holds the lock
+     */
+    public boolean tryAcquire(String name, Duration lease) {
+        Instant now = Instant.now();
+        Query query = Query.query(where("name").is(name).and("lockedUntil").lte(now));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("lockedAt", now)
+                .set("lockedUntil", now.plus(lease));
+        try {
+            mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true), SchedulerLockModel.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.debug("Lock '{}' is held by another node", name);
+            return false;
+        }
+    }
+
+    /**
+     * Extends a lock this node holds.
+     *
+     * @param name  the lock name
+     * @param lease how long from now the lock is held if never released
+     * @return whether this node still held the lock
+     */
+    public boolean renew(String name, Duration lease) {
+        return mongoTemplate.updateFirst(
+                Query.query(where("name").is(name).and("owner").is(owner)),
+                Update.update("lockedUntil", Instant.now().plus(lease)),
+                SchedulerLockModel.class).getMatchedCount() > 0;
+    }
+
+    /**
+     * Releases the lock, keeping it until at least {@code lockedAt + atLeast} so nodes whose triggers fire
+     * slightly later do not run the same job again.
+     *
+     * @param name    the lock name
+     * @param atLeast the minimum time the lock is held after it was acquired
+     */
+    public void release(String name, Duration atLeast) {
+        Query query = Query.query(where("name").is(name).and("owner").is(owner));
+        SchedulerLockModel lock = mongoTemplate.findOne(query, SchedulerLockModel.class);
+        if (lock == null) {
+            return;
+        }
+
+        Instant earliest = lock.getLockedAt().plus(atLeast);
+        Instant now = Instant.now();
+        mongoTemplate.updateFirst(
+                Query.query(new Criteria().andOperator(where("name").is(name), where("owner").is(owner))),
+                Update.update("lockedUntil", earliest.isAfter(now) ? earliest : now),
+                SchedulerLockModel.class);
+    }
+
+    private static String hostname() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package dev.ehutson.template.service.maintenance;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.UserModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Deletes users that registered but never activated their account within {@code activation-key-ttl}.
+ */
+public class StaleActivationCleanupJob extends MaintenanceJob {
+
+    public static final String NAME = "remove-stale-unactivated-users";
+
+    private final ChunkedMongoOperations chunkedOperations;
+    private final ApplicationProperties.Maintenance properties;
+
+    public StaleActivationCleanupJob(ChunkedMongoOperations chunkedOperations,
+                                     SchedulerLock schedulerLock,
+                                     ApplicationProperties applicationProperties,
+                                     MeterRegistry meterRegistry) {
+        super(schedulerLock, applicationProperties, meterRegistry);
+        this.chunkedOperations = chunkedOperations;
+        this.properties = applicationProperties.getMaintenance();
+    }
+
+    @Override
+    protected String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected long runMaintenance() {
+        Instant cutoff = Instant.now().minus(properties.getActivationKeyTtl());
+        return chunkedOperations.delete(
+                Query.query(where("activated").is(false)
+                        .and("activationKey").ne(null)
+                        .and("createdAt").lt(cutoff)),
+                UserModel.class);
+    }
+}
@@ -0,0 +1,45 @@
+package dev.ehutson.template.service.maintenance;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.UserModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Clears password reset keys that were issued more than {@code reset-key-ttl} ago.
+ */
+public class StaleResetKeyCleanupJob extends MaintenanceJob {
+
+    public static final String NAME = "clear-stale-reset-keys";
+
+    private final ChunkedMongoOperations chunkedOperations;
+    private final ApplicationProperties.Maintenance properties;
+
+    public StaleResetKeyCleanupJob(ChunkedMongoOperations chunkedOperations,
+                                   SchedulerLock schedulerLock,
+                                   ApplicationProperties applicationProperties,
+                                   MeterRegistry meterRegistry) {
+        super(schedulerLock, applicationProperties, meterRegistry);
+        this.chunkedOperations = chunkedOperations;
+        this.properties = applicationProperties.getMaintenance();
+    }
+
+    @Override
+    protected String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected long runMaintenance() {
+        Instant cutoff = Instant.now().minus(properties.getResetKeyTtl());
+        return chunkedOperations.update(
+                Query.query(where("resetKey").ne(null).and("resetDate").lt(cutoff)),
+                new Update().unset("resetKey").unset("resetDate"),
+                UserModel.class);
+    }
+}
@@ -0,0 +1,115 @@
+package dev.ehutson.template.service.message;
+
+import dev.ehutson.template.config.MessageConfig;
+import dev.ehutson.template.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.*;
+
+/**
+ * Immutable catalog of every {@link ErrorCode} message in every bundled locale.
+ * <p>
+ * The {@code i18n/messages*.properties} bundles are read once at startup into arrays indexed by
+ * {@code [ErrorCode.ordinal()][locale index]}, with patterns that take arguments pre-parsed into
+ * {@link MessageFormat}s. A lookup is two array reads; formats are only cloned and applied when arguments
+ * are passed, matching {@code MessageSource} semantics where messages without arguments are returned as-is.
+ * Keys missing from the bundles are reported once at startup.
+ */
+@Slf4j
+@Component
+public class MessageCatalog {
+
+    private static final String BASENAME = "i18n/messages";
+    private static final int ROOT = 0;
+
+    private final List<Locale> locales;
+    private final Map<String, Integer> localeIndexByLanguage;
+    private final String[][] messages;
+    private final MessageFormat[][] formats;
+
+    public MessageCatalog() {
+        this.locales = MessageConfig.SUPPORTED_LOCALES;
+        this.localeIndexByLanguage = new HashMap<>();
+        for (int i = 0; i < locales.size(); i++) {
+            localeIndexByLanguage.putIfAbsent(locales.get(i).getLanguage(), i);
+        }
+
+        Properties[] bundles = locales.stream().map(MessageCatalog::loadBundle).toArray(Properties[]::new);
+        ErrorCode[] codes = ErrorCode.values();
+        this.messages = new String[codes.length][locales.size()];
+        this.formats = new MessageFormat[codes.length][locales.size()];
+
+        List<String> missing = new ArrayList<>();
+        for (ErrorCode code : codes) {
+            for (int i = 0; i < locales.size(); i++) {
+                String message = bundles[i].getProperty(code.getMessageKey(), bundles[ROOT].getProperty(code.getMessageKey()));
+                if (message == null) {
+                    missing.add(code.getMessageKey() + " [" + describe(locales.get(i)) + "]");
+                    continue;
+                }
+                messages[code.ordinal()][i] = message;
+                formats[code.ordinal()][i] = new MessageFormat(message, locales.get(i));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            log.warn("Missing error messages, falling back to the error code name: {}", missing);
+        }
+        log.debug("Loaded {} error messages for {} locales", codes.length, locales.size());
+    }
+
+    /**
+     * Gets the message for an error code.
+     *
+     * @param code   the error code
+     * @param args   the message arguments, may be null
+     * @param locale the locale; locales without a bundle use the default bundle
+     * @return the message, or the error code name if the bundles have no message for it
+     */
+    public String getMessage(ErrorCode code, Object[] args, Locale locale) {
+        int index = indexOf(locale);
+        String message = messages[code.ordinal()][index];
+        if (message == null) {
+            return code.toString();
+        }
+        if (args == null || args.length == 0) {
+            return message;
+        }
+        return ((MessageFormat) formats[code.ordinal()][index].clone()).format(args);
+    }
+
+    int indexOf(Locale locale) {
+        if (locale == null) {
+            return ROOT;
+        }
+        return localeIndexByLanguage.getOrDefault(locale.getLanguage(), ROOT);
+    }
+
+    private static Properties loadBundle(Locale locale) {
+        String suffix = locale.getLanguage().isEmpty() ? "" : "_" + locale.getLanguage();
+        Resource resource = new ClassPathResource(BASENAME + suffix + ".properties");
+        Properties properties = new Properties();
+        if (!resource.exists()) {
+            log.warn("Message bundle {} not found", resource.getDescription());
+            return properties;
+        }
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load message bundle " + resource.getDescription(), e);
+        }
+        return properties;
+    }
+
+    private static String describe(Locale locale) {
+        return locale.getLanguage().isEmpty() ? "default" : locale.getLanguage();
+    }
+}
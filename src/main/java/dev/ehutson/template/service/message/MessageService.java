@@ -6,8 +6,6 @@ import dev.ehutson.template.exception.ErrorCode;
 import dev.ehutson.template.service.locale.LocaleResolutionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.MessageSource;
-import org.springframework.context.NoSuchMessageException;
 import org.springframework.stereotype.Service;
 
 import java.util.Locale;
@@ -16,7 +14,7 @@ import java.util.Locale;
 @RequiredArgsConstructor
 @Service
 public class MessageService {
-    private final MessageSource messageSource;
+    private final MessageCatalog messageCatalog;
     private final LocaleResolutionService localeResolutionService;
 
     /**
@@ -76,16 +74,7 @@ public class MessageService {
      * @return the translated message
      */
     public String getMessage(LocalizedMessage message) {
-        try {
-            return messageSource.getMessage(
-                    message.getCode().toString(),
-                    message.getArgs(),
-                    message.getLocale()
-            );
-        } catch (NoSuchMessageException e) {
-            log.warn("No message found for code: {}", message.getCode());
-            return message.getCode().toString(); // Return the code as a fallback
-        }
+        return messageCatalog.getMessage(message.getCode(), message.getArgs(), message.getLocale());
     }
 
     /**
@@ -0,0 +1,189 @@
+package dev.ehutson.template.service.search;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.SearchCheckpointModel;
+import dev.ehutson.template.repository.SearchCheckpointRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Keeps the search index in sync with the users collection through a change stream.
+ * <p>
+ * Events are buffered and sent to Elasticsearch in bulk, at most {@code bulkSize} at a time and at least
+ * every {@code flushInterval}. The resume token of the last indexed event is stored after each bulk
+ * request, so after a restart the stream continues where indexing stopped. Before the first event the
+ * cluster time the stream was first opened at is stored instead, so a restart of a quiet deployment
+ * resumes from there rather than reindexing everything. A failed bulk request is retried on the next
+ * flush; the buffer is bounded, so the stream pauses while Elasticsearch is down.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.search", name = "enabled", havingValue = "true")
+public class UserChangeStreamIndexer {
+
+    static final String CHECKPOINT = "users-change-stream";
+
+    private final MessageListenerContainer container;
+    private final MongoTemplate mongoTemplate;
+    private final UserSearchIndexer indexer;
+    private final UserReindexer reindexer;
+    private final SearchCheckpointRepository checkpoints;
+    private final ApplicationProperties.Search properties;
+    private final BlockingQueue<Change> queue;
+    private final List<Change> pending = new ArrayList<>();
+    private final ScheduledExecutorService flusher;
+    private Subscription subscription;
+
+    public UserChangeStreamIndexer(MessageListenerContainer container, MongoTemplate mongoTemplate,
+                                   UserSearchIndexer indexer, UserReindexer reindexer,
+                                   SearchCheckpointRepository checkpoints, ApplicationProperties applicationProperties) {
+        this.container = container;
+        this.mongoTemplate = mongoTemplate;
+        this.indexer = indexer;
+        this.reindexer = reindexer;
+        this.checkpoints = checkpoints;
+        this.properties = applicationProperties.getSearch();
+        this.queue = new LinkedBlockingQueue<>(bulkSize() * 10);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-search-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ChangeStreamRequest.ChangeStreamRequestBuilder<Document> request = ChangeStreamRequest.builder(this::onChange)
+                .collection(UserSearchIndexer.USERS)
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+        Optional<SearchCheckpointModel> checkpoint = checkpoints.findById(CHECKPOINT);
+        boolean firstStart = checkpoint.isEmpty();
+        if (checkpoint.map(SearchCheckpointModel::getResumeToken).isPresent()) {
+            request.resumeAfter(BsonDocument.parse(checkpoint.get().getResumeToken()));
+        } else if (checkpoint.map(SearchCheckpointModel::getOpenedAt).isPresent()) {
+            request.resumeAt(checkpoint.get().getOpenedAt());
+        } else {
+            // stored before the stream is opened, so no change between the two is missed
+            checkpoints.save(SearchCheckpointModel.builder()
+                    .name(CHECKPOINT)
+                    .openedAt(clusterTime())
+                    .updatedAt(Instant.now())
+                    .build());
+        }
+        subscription = container.register(request.build(), Document.class);
+
+        long interval = Math.max(1, properties.getFlushInterval().toMillis());
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+
+        if (firstStart) {
+            // the stream has never been opened, so the existing users have to be loaded once
+            log.info("No change stream checkpoint found, starting a full user reindex");
+            reindexer.start();
+        }
+    }
+
+    /**
+     * @return the cluster time of the last operation, whole seconds, or this node's time if the server does not report it
+     */
+    private Instant clusterTime() {
+        Object operationTime = mongoTemplate.executeCommand(new Document("ping", 1)).get("operationTime");
+        return operationTime instanceof BsonTimestamp timestamp ? Instant.ofEpochSecond(timestamp.getTime()) : Instant.now();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (subscription != null) {
+            container.remove(subscription);
+        }
+        flusher.execute(this::flush);
+        flusher.shutdown();
+        if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Search indexer did not finish within 10 seconds, {} changes are replayed on restart", queue.size());
+        }
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, Document> message) {
+        ChangeStreamDocument<Document> event = message.getRaw();
+        if (event == null || event.getDocumentKey() == null) {
+            return;
+        }
+        String id = idOf(event.getDocumentKey().get("_id"));
+        // a null document means the user was deleted, possibly after an update but before the lookup
+        Document user = event.getOperationType() == OperationType.DELETE ? null : event.getFullDocument();
+        try {
+            queue.put(new Change(id, user, event.getResumeToken()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void flush() {
+        try {
+            while (true) {
+                if (pending.isEmpty()) {
+                    queue.drainTo(pending, bulkSize());
+                    if (pending.isEmpty()) {
+                        return;
+                    }
+                }
+
+                // only the last change per user matters
+                Map<String, Change> latest = new LinkedHashMap<>();
+                pending.forEach(change -> latest.put(change.id(), change));
+                List<Document> users = new ArrayList<>();
+                List<String> deletedIds = new ArrayList<>();
+                for (Change change : latest.values()) {
+                    if (change.user() != null) {
+                        users.add(change.user());
+                    } else {
+                        deletedIds.add(change.id());
+                    }
+                }
+
+                indexer.apply(users, deletedIds);
+                checkpoints.save(SearchCheckpointModel.builder()
+                        .name(CHECKPOINT)
+                        .resumeToken(pending.getLast().resumeToken().toJson())
+                        .updatedAt(Instant.now())
+                        .build());
+                pending.clear();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to index {} user changes, retrying on the next flush: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    private int bulkSize() {
+        return Math.max(1, properties.getBulkSize());
+    }
+
+    private static String idOf(BsonValue id) {
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private record Change(String id, Document user, BsonDocument resumeToken) {
+    }
+}
@@ -0,0 +1,149 @@
+package dev.ehutson.template.service.search;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.SearchCheckpointModel;
+import dev.ehutson.template.repository.SearchCheckpointRepository;
+import dev.ehutson.template.service.maintenance.SchedulerLock;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Copies every user into the search index in id order. The last indexed id is checkpointed after each
+ * batch, so an interrupted reindex continues from there, either when it is started again or when the
+ * application restarts. Changes made while it runs are picked up by the change stream.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.search", name = "enabled", havingValue = "true")
+public class UserReindexer {
+
+    static final String CHECKPOINT = "users-reindex";
+    private static final Duration LOCK_LEASE = Duration.ofHours(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final UserSearchIndexer indexer;
+    private final SearchCheckpointRepository checkpoints;
+    private final SchedulerLock schedulerLock;
+    private final ApplicationProperties.Search properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-reindex");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserReindexer(MongoTemplate mongoTemplate, UserSearchIndexer indexer, SearchCheckpointRepository checkpoints,
+                         SchedulerLock schedulerLock, ApplicationProperties applicationProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexer = indexer;
+        this.checkpoints = checkpoints;
+        this.schedulerLock = schedulerLock;
+        this.properties = applicationProperties.getSearch();
+    }
+
+    /**
+     * Starts a reindex in the background, or continues the interrupted one.
+     *
+     * @return false if a reindex is already running on this node
+     */
+    public boolean start() {
+        boolean interrupted = checkpoints.findById(CHECKPOINT).map(SearchCheckpointModel::isRunning).orElse(false);
+        if (!interrupted) {
+            checkpoints.save(SearchCheckpointModel.builder()
+                    .name(CHECKPOINT)
+                    .running(true)
+                    .updatedAt(Instant.now())
+                    .build());
+        }
+        return submit();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        checkpoints.findById(CHECKPOINT)
+                .filter(SearchCheckpointModel::isRunning)
+                .ifPresent(checkpoint -> {
+                    log.info("Resuming user reindex after '{}'", checkpoint.getLastId());
+                    submit();
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean submit() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                run();
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    void run() {
+        if (!schedulerLock.tryAcquire(CHECKPOINT, LOCK_LEASE)) {
+            log.info("User reindex is running on another node");
+            return;
+        }
+        long indexed = 0;
+        try {
+            SearchCheckpointModel checkpoint = checkpoints.findById(CHECKPOINT).orElse(null);
+            if (checkpoint == null || !checkpoint.isRunning()) {
+                return;
+            }
+
+            int batchSize = Math.max(1, properties.getReindexBatchSize());
+            while (!Thread.currentThread().isInterrupted()) {
+                Criteria criteria = checkpoint.getLastId() == null
+                        ? new Criteria()
+                        : where("_id").gt(new ObjectId(checkpoint.getLastId()));
+                Query query = Query.query(criteria).with(Sort.by("_id")).limit(batchSize);
+                List<Document> batch = mongoTemplate.find(query, Document.class, UserSearchIndexer.USERS);
+                if (batch.isEmpty()) {
+                    checkpoint.setRunning(false);
+                    checkpoint.setUpdatedAt(Instant.now());
+                    checkpoints.save(checkpoint);
+                    log.info("User reindex finished, {} users indexed", indexed);
+                    return;
+                }
+
+                indexer.apply(batch, List.of());
+                indexed += batch.size();
+                checkpoint.setLastId(batch.getLast().getObjectId("_id").toHexString());
+                checkpoint.setUpdatedAt(Instant.now());
+                checkpoints.save(checkpoint);
+            }
+        } catch (RuntimeException e) {
+            log.warn("User reindex stopped after {} users, it continues from its checkpoint when started again: {}",
+                    indexed, e.getMessage());
+        } finally {
+            schedulerLock.release(CHECKPOINT, Duration.ZERO);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package dev.ehutson.template.service.search;
+
+import com.mongodb.DBRef;
+import dev.ehutson.template.domain.RoleModel;
+import dev.ehutson.template.domain.search.UserSearchDocument;
+import dev.ehutson.template.repository.RoleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.query.DeleteQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Writes users to the search index. Users are read as raw Mongo documents so role references can be
+ * turned into names from one role lookup per batch instead of resolving every lazy reference.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.search", name = "enabled", havingValue = "true")
+public class UserSearchIndexer {
+
+    /**
+     * The Mongo collection users are stored in.
+     */
+    public static final String USERS = "users";
+
+    private static final int VERSION_CONFLICT = 409;
+
+    private final ElasticsearchOperations operations;
+    private final RoleRepository roleRepository;
+    private volatile boolean indexChecked;
+
+    public UserSearchIndexer(ElasticsearchOperations operations, RoleRepository roleRepository) {
+        this.operations = operations;
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Creates the index with its mapping if it does not exist yet.
+     */
+    public void ensureIndex() {
+        if (indexChecked) {
+            return;
+        }
+        IndexOperations index = operations.indexOps(UserSearchDocument.class);
+        if (!index.exists()) {
+            index.createWithMapping();
+            log.info("Created search index '{}'", UserSearchDocument.INDEX);
+        }
+        indexChecked = true;
+    }
+
+    /**
+     * Indexes and deletes users in bulk requests. Users the index already holds a newer version of are skipped.
+     *
+     * @param users raw user documents to (re)index
+     * @param deletedIds ids of users to remove from the index
+     */
+    public void apply(Collection<Document> users, Collection<String> deletedIds) {
+        ensureIndex();
+        if (!users.isEmpty()) {
+            Map<String, String> roleNames = roleRepository.findAll().stream()
+                    .collect(Collectors.toMap(RoleModel::getId, RoleModel::getName));
+            List<IndexQuery> queries = users.stream()
+                    .map(user -> toIndexQuery(user, roleNames))
+                    .toList();
+            bulkIndex(queries);
+        }
+        if (!deletedIds.isEmpty()) {
+            operations.delete(DeleteQuery.builder(NativeQuery.builder().withIds(deletedIds).build()).build(),
+                    UserSearchDocument.class);
+        }
+        log.debug("Indexed {} and deleted {} users", users.size(), deletedIds.size());
+    }
+
+    private void bulkIndex(List<IndexQuery> queries) {
+        try {
+            operations.bulkIndex(queries, UserSearchDocument.class);
+        } catch (BulkFailureException e) {
+            boolean onlyConflicts = e.getFailedDocuments().values().stream()
+                    .allMatch(failure -> failure.status() != null && failure.status() == VERSION_CONFLICT);
+            if (!onlyConflicts) {
+                throw e;
+            }
+            log.debug("Skipped {} users the index holds newer versions of", e.getFailedDocuments().size());
+        }
+    }
+
+    static IndexQuery toIndexQuery(Document user, Map<String, String> roleNames) {
+        UserSearchDocument document = toSearchDocument(user, roleNames);
+        IndexQueryBuilder query = new IndexQueryBuilder().withId(document.getId()).withObject(document);
+        if (user.get("version") instanceof Number version) {
+            query.withVersion(version.longValue());
+        }
+        return query.build();
+    }
+
+    static UserSearchDocument toSearchDocument(Document user, Map<String, String> roleNames) {
+        List<String> roles = new ArrayList<>();
+        for (Object role : user.getList("roles", Object.class, List.of())) {
+            if (role instanceof DBRef ref && roleNames.containsKey(ref.getId().toString())) {
+                roles.add(roleNames.get(ref.getId().toString()));
+            }
+        }
+        Date createdAt = user.getDate("created_at");
+        return UserSearchDocument.builder()
+                .id(user.get("_id").toString())
+                .username(user.getString("username"))
+                .email(user.getString("email"))
+                .firstName(user.getString("first_name"))
+                .lastName(user.getString("last_name"))
+                .roles(roles)
+                .activated(user.getBoolean("activated", false))
+                .createdAt(createdAt != null ? createdAt.toInstant() : null)
+                .build();
+    }
+}
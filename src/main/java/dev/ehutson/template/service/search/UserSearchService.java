@@ -0,0 +1,119 @@
+package dev.ehutson.template.service.search;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ehutson.template.domain.search.UserSearchDocument;
+import dev.ehutson.template.exception.ApplicationException;
+import dev.ehutson.template.exception.ErrorCode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Searches users by prefix and fuzzy matches on username, email and names. Results are ordered by
+ * relevance with the id as tie-breaker and paged with {@code search_after}, so deep pages cost the same as
+ * the first one.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.search", name = "enabled", havingValue = "true")
+public class UserSearchService {
+
+    private static final List<String> SEARCH_FIELDS = List.of(
+            "username", "username._2gram", "username._3gram",
+            "email", "email._2gram", "email._3gram",
+            "firstName", "firstName._2gram", "firstName._3gram",
+            "lastName", "lastName._2gram", "lastName._3gram");
+    private static final TypeReference<List<Object>> SORT_VALUES = new TypeReference<>() {
+    };
+
+    private final ElasticsearchOperations operations;
+    private final ObjectMapper objectMapper;
+
+    public UserSearchService(ElasticsearchOperations operations, ObjectMapper objectMapper) {
+        this.operations = operations;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param text      the search input, or null to match every user
+     * @param roles     role names of which a user must have at least one, or null
+     * @param activated the required activation state, or null
+     * @param size      the page size
+     * @param after     the cursor of the last hit of the previous page, or null
+     */
+    public SearchPage search(String text, List<String> roles, Boolean activated, int size, String after) {
+        NativeQueryBuilder query = NativeQuery.builder()
+                .withQuery(query(text, roles, activated))
+                .withSort(sort -> sort.score(score -> score.order(SortOrder.Desc)))
+                .withSort(sort -> sort.field(field -> field.field("id").order(SortOrder.Asc)))
+                // one extra hit tells whether there is a next page
+                .withPageable(PageRequest.of(0, size + 1))
+                .withTrackTotalHits(true);
+        if (after != null && !after.isBlank()) {
+            query.withSearchAfter(decodeCursor(after));
+        }
+
+        SearchHits<UserSearchDocument> hits = operations.search(query.build(), UserSearchDocument.class);
+        List<Hit> page = hits.getSearchHits().stream()
+                .limit(size)
+                .map(hit -> new Hit(hit.getId(), encodeCursor(hit)))
+                .toList();
+        return new SearchPage(page, hits.getSearchHits().size() > size, hits.getTotalHits());
+    }
+
+    static Query query(String text, List<String> roles, Boolean activated) {
+        return Query.of(query -> query.bool(bool -> {
+            if (text != null && !text.isBlank()) {
+                bool.must(must -> must.multiMatch(match -> match
+                        .query(text)
+                        .type(TextQueryType.BoolPrefix)
+                        .fields(SEARCH_FIELDS)
+                        .fuzziness("AUTO")));
+            }
+            if (roles != null && !roles.isEmpty()) {
+                List<FieldValue> values = roles.stream().map(FieldValue::of).toList();
+                bool.filter(filter -> filter.terms(terms -> terms.field("roles").terms(t -> t.value(values))));
+            }
+            if (activated != null) {
+                bool.filter(filter -> filter.term(term -> term.field("activated").value(activated)));
+            }
+            return bool;
+        }));
+    }
+
+    private String encodeCursor(SearchHit<UserSearchDocument> hit) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(hit.getSortValues()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode search cursor", e);
+        }
+    }
+
+    List<Object> decodeCursor(String cursor) {
+        try {
+            return objectMapper.readValue(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8), SORT_VALUES);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw ApplicationException.of(ErrorCode.VALIDATION_FAILED, "Invalid search cursor", e, ": invalid cursor");
+        }
+    }
+
+    public record Hit(String id, String cursor) {
+    }
+
+    public record SearchPage(List<Hit> hits, boolean hasNextPage, long totalCount) {
+    }
+}
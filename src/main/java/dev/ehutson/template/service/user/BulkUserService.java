@@ -0,0 +1,481 @@
+package dev.ehutson.template.service.user;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
+import dev.ehutson.template.codegen.types.CreateUserInput;
+import dev.ehutson.template.codegen.types.UpdateUserInput;
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.RoleModel;
+import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.exception.ApplicationException;
+import dev.ehutson.template.exception.ErrorCode;
+import dev.ehutson.template.mapper.UserMapper;
+import dev.ehutson.template.repository.RoleRepository;
+import dev.ehutson.template.repository.UserRepository;
+import dev.ehutson.template.security.service.AccessTokenRevocationService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Creates and updates users in batches. Uniqueness is checked with one {@code $in} query per batch, roles
+ * are resolved once, passwords are hashed in parallel on a bounded pool and the writes go out as a single
+ * unordered bulk operation. A failing item is reported by its index and does not stop the others.
+ */
+@Slf4j
+@Service
+public class BulkUserService {
+
+    private static final String DEFAULT_ROLE = "ROLE_USER";
+    private static final String ROLES = "roles";
+    private static final String VERSION = "version";
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final UserMapper userMapper;
+    private final UserCacheService userCacheService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+    private final ApplicationProperties.Users properties;
+    private final ExecutorService hashExecutor;
+
+    public BulkUserService(MongoTemplate mongoTemplate, UserRepository userRepository, RoleRepository roleRepository,
+                           PasswordEncoder passwordEncoder, UserMapper userMapper, UserCacheService userCacheService,
+                           AccessTokenRevocationService accessTokenRevocationService,
+                           ApplicationProperties applicationProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.userMapper = userMapper;
+        this.userCacheService = userCacheService;
+        this.accessTokenRevocationService = accessTokenRevocationService;
+        this.properties = applicationProperties.getUsers();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashExecutor = Executors.newFixedThreadPool(Math.max(1, properties.getPasswordHashConcurrency()), runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashExecutor.shutdown();
+    }
+
+    public BulkOutcome createUsers(List<CreateUserInput> inputs) {
+        requireWithinLimit(inputs.size());
+        Map<Integer, ItemError> errors = new TreeMap<>();
+
+        markDuplicatesInBatch(inputs, CreateUserInput::getUsername, "username", errors);
+        markDuplicatesInBatch(inputs, CreateUserInput::getEmail, "email", errors);
+
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        findTaken(inputs.stream().map(CreateUserInput::getUsername).toList(),
+                inputs.stream().map(CreateUserInput::getEmail).toList())
+                .forEach(existing -> {
+                    takenUsernames.add(existing.getUsername());
+                    takenEmails.add(existing.getEmail());
+                });
+
+        Set<String> roleNames = new HashSet<>();
+        for (CreateUserInput input : inputs) {
+            roleNames.addAll(roleNamesOf(input));
+        }
+        Map<String, RoleModel> roles = roleRepository.findByNameIn(roleNames).stream()
+                .collect(Collectors.toMap(RoleModel::getName, Function.identity()));
+
+        List<Integer> positions = new ArrayList<>();
+        List<UserModel> users = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            CreateUserInput input = inputs.get(i);
+            if (errors.containsKey(i)) {
+                continue;
+            }
+            if (takenUsernames.contains(input.getUsername())) {
+                errors.put(i, ItemError.alreadyExists(i, "username", input.getUsername()));
+                continue;
+            }
+            if (takenEmails.contains(input.getEmail())) {
+                errors.put(i, ItemError.alreadyExists(i, "email", input.getEmail()));
+                continue;
+            }
+
+            List<RoleModel> userRoles = new ArrayList<>();
+            String missingRole = null;
+            for (String roleName : roleNamesOf(input)) {
+                RoleModel role = roles.get(roleName);
+                if (role == null) {
+                    missingRole = roleName;
+                    break;
+                }
+                userRoles.add(role);
+            }
+            if (missingRole != null) {
+                errors.put(i, new ItemError(i, ErrorCode.RESOURCE_NOT_FOUND, new Object[]{"Role", missingRole}));
+                continue;
+            }
+
+            UserModel user = userMapper.toUserModel(input);
+            // assigned up front so the inserted documents can be matched back to their inputs
+            user.setId(new ObjectId().toHexString());
+            user.setVersion(0L);
+            user.setRoles(userRoles);
+            positions.add(i);
+            users.add(user);
+        }
+
+        List<String> hashes = hashAll(positions.stream().map(i -> inputs.get(i).getPassword()).toList());
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setPassword(hashes.get(i));
+        }
+
+        Set<Integer> failed = executeBulk(users.isEmpty() ? null : bulk -> bulk.insert(users), positions, errors,
+                (i, field) -> uniqueValue(field, inputs.get(i).getUsername(), inputs.get(i).getEmail()));
+
+        List<UserModel> created = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            UserModel user = users.get(i);
+            userCacheService.evict(user.getUsername(), user.getEmail());
+            if (!failed.contains(positions.get(i))) {
+                created.add(user);
+            }
+        }
+        log.debug("Bulk created {} of {} users", created.size(), inputs.size());
+        return new BulkOutcome(created, List.copyOf(errors.values()));
+    }
+
+    public BulkOutcome updateUsers(List<BulkUpdate> updates) {
+        requireWithinLimit(updates.size());
+        Map<Integer, ItemError> errors = new TreeMap<>();
+
+        Map<String, UserModel> existing = new HashMap<>();
+        userRepository.findAllById(updates.stream().map(BulkUpdate::id).toList())
+                .forEach(user -> existing.put(user.getId(), user));
+
+        List<UpdateUserInput> inputs = updates.stream().map(BulkUpdate::input).toList();
+        markDuplicatesInBatch(inputs, UpdateUserInput::getUsername, "username", errors);
+        markDuplicatesInBatch(inputs, UpdateUserInput::getEmail, "email", errors);
+
+        Map<String, String> usernameOwners = new HashMap<>();
+        Map<String, String> emailOwners = new HashMap<>();
+        findTaken(inputs.stream().map(UpdateUserInput::getUsername).toList(),
+                inputs.stream().map(UpdateUserInput::getEmail).toList())
+                .forEach(user -> {
+                    usernameOwners.put(user.getUsername(), user.getId());
+                    emailOwners.put(user.getEmail(), user.getId());
+                });
+
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < updates.size(); i++) {
+            BulkUpdate update = updates.get(i);
+            UpdateUserInput input = update.input();
+            if (errors.containsKey(i)) {
+                continue;
+            }
+            if (!existing.containsKey(update.id())) {
+                errors.put(i, new ItemError(i, ErrorCode.RESOURCE_NOT_FOUND, new Object[]{"User", update.id()}));
+                continue;
+            }
+            if (isTakenByOther(usernameOwners, input.getUsername(), update.id())) {
+                errors.put(i, ItemError.alreadyExists(i, "username", input.getUsername()));
+                continue;
+            }
+            if (isTakenByOther(emailOwners, input.getEmail(), update.id())) {
+                errors.put(i, ItemError.alreadyExists(i, "email", input.getEmail()));
+                continue;
+            }
+            positions.add(i);
+        }
+
+        List<String> hashes = hashAll(positions.stream().map(i -> inputs.get(i).getPassword()).toList());
+        List<Query> queries = new ArrayList<>();
+        List<Update> changes = new ArrayList<>();
+        List<Integer> written = new ArrayList<>();
+        for (int p = 0; p < positions.size(); p++) {
+            int i = positions.get(p);
+            Update change = toUpdate(inputs.get(i), hashes.get(p));
+            if (!change.getUpdateObject().isEmpty()) {
+                queries.add(Query.query(where("id").is(updates.get(i).id())));
+                changes.add(change);
+                written.add(i);
+            }
+        }
+
+        Set<Integer> failed = executeBulk(queries.isEmpty() ? null : bulk -> {
+            for (int w = 0; w < queries.size(); w++) {
+                bulk.updateOne(queries.get(w), changes.get(w));
+            }
+        }, written, errors, (i, field) -> uniqueValue(field, inputs.get(i).getUsername(), inputs.get(i).getEmail()));
+
+        for (int i : written) {
+            UserModel before = existing.get(updates.get(i).id());
+            UpdateUserInput input = inputs.get(i);
+            userCacheService.evict(before.getUsername(), before.getEmail());
+            userCacheService.evict(input.getUsername(), input.getEmail());
+        }
+
+        List<String> updatedIds = positions.stream()
+                .filter(i -> !failed.contains(i))
+                .map(i -> updates.get(i).id())
+                .toList();
+        Map<String, UserModel> reloaded = new HashMap<>();
+        userRepository.findAllById(updatedIds).forEach(user -> reloaded.put(user.getId(), user));
+        List<UserModel> updated = updatedIds.stream().map(reloaded::get).filter(Objects::nonNull).toList();
+
+        log.debug("Bulk updated {} of {} users", updated.size(), updates.size());
+        return new BulkOutcome(updated, List.copyOf(errors.values()));
+    }
+
+    /**
+     * Adds the role to every listed user with a single {@code updateMany} and {@code $addToSet}, so users
+     * that already hold it are left unchanged.
+     */
+    public RoleOutcome assignRoleToUsers(List<String> userIds, String roleId) {
+        return updateRoles(userIds, roleId, role -> where(ROLES).ne(role),
+                role -> new Update().addToSet(ROLES, role).inc(VERSION, 1), false);
+    }
+
+    /**
+     * Removes the role from every listed user with a single {@code updateMany} and {@code $pull}, and revokes
+     * their access tokens, which still name it.
+     */
+    public RoleOutcome removeRoleFromUsers(List<String> userIds, String roleId) {
+        return updateRoles(userIds, roleId, role -> where(ROLES).is(role),
+                role -> new Update().pull(ROLES, role).inc(VERSION, 1), true);
+    }
+
+    private RoleOutcome updateRoles(List<String> userIds, String roleId, Function<RoleModel, Criteria> needsChange,
+                                    Function<RoleModel, Update> update, boolean revokesAccess) {
+        requireWithinLimit(userIds.size());
+        RoleModel role = roleRepository.findById(roleId)
+                .orElseThrow(() -> ApplicationException.of(ErrorCode.RESOURCE_NOT_FOUND, "Role not found", "Role", roleId));
+
+        Query existingQuery = Query.query(where("id").in(userIds));
+        existingQuery.fields().include("username", "email");
+        List<UserModel> users = mongoTemplate.find(existingQuery, UserModel.class);
+        Set<String> found = users.stream().map(UserModel::getId).collect(Collectors.toSet());
+
+        List<ItemError> errors = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            if (!found.contains(userIds.get(i))) {
+                errors.add(new ItemError(i, ErrorCode.RESOURCE_NOT_FOUND, new Object[]{"User", userIds.get(i)}));
+            }
+        }
+        if (found.isEmpty()) {
+            return new RoleOutcome(0, 0, errors);
+        }
+
+        // users that already have the requested state are left out, so their version stays unchanged
+        Query query = Query.query(new Criteria().andOperator(where("id").in(found), needsChange.apply(role)));
+        UpdateResult result = mongoTemplate.updateMulti(query, update.apply(role), UserModel.class);
+        users.forEach(user -> userCacheService.evict(user.getUsername(), user.getEmail()));
+        if (revokesAccess && result.getModifiedCount() > 0) {
+            // the update does not say which users it changed, so every listed user refreshes
+            found.forEach(accessTokenRevocationService::revokeAccessTokens);
+        }
+        return new RoleOutcome(found.size(), result.getModifiedCount(), errors);
+    }
+
+    /**
+     * Runs one unordered bulk operation and records its write errors against the input indexes in
+     * {@code positions}. A duplicate key is reported against the field of the violated unique index, with the
+     * value the input item gave it.
+     *
+     * @param valueOf the value an input item gives a unique field, or null if it gives none
+     * @return the input indexes whose writes failed
+     */
+    private Set<Integer> executeBulk(Consumer<BulkOperations> operations, List<Integer> positions,
+                                     Map<Integer, ItemError> errors, BiFunction<Integer, String, String> valueOf) {
+        if (operations == null) {
+            return Set.of();
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserModel.class);
+        operations.accept(bulk);
+        try {
+            bulk.execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            Set<Integer> failed = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                int index = positions.get(error.getIndex());
+                failed.add(index);
+                errors.put(index, error.getCode() == DUPLICATE_KEY
+                        ? duplicateKey(index, error, valueOf)
+                        : new ItemError(index, ErrorCode.SERVICE_ERROR, new Object[0]));
+                log.debug("Bulk write failed for item {}: {}", index, error.getMessage());
+            }
+            return failed;
+        }
+    }
+
+    private static ItemError duplicateKey(int index, BulkWriteError error, BiFunction<Integer, String, String> valueOf) {
+        DuplicateKey key = DuplicateKey.of(error);
+        String value = key.field() != null ? valueOf.apply(index, key.field()) : null;
+        return ItemError.alreadyExists(index, key.field() != null ? key.field() : "key",
+                value != null ? value : key.value());
+    }
+
+    private static String uniqueValue(String field, String username, String email) {
+        return switch (field) {
+            case "username" -> username;
+            case "email" -> email;
+            default -> null;
+        };
+    }
+
+    private List<UserModel> findTaken(List<String> usernames, List<String> emails) {
+        List<String> wantedUsernames = usernames.stream().filter(Objects::nonNull).distinct().toList();
+        List<String> wantedEmails = emails.stream().filter(Objects::nonNull).distinct().toList();
+        if (wantedUsernames.isEmpty() && wantedEmails.isEmpty()) {
+            return List.of();
+        }
+
+        Query query = Query.query(new Criteria().orOperator(
+                where("username").in(wantedUsernames), where("email").in(wantedEmails)));
+        query.fields().include("username", "email");
+        return mongoTemplate.find(query, UserModel.class);
+    }
+
+    private static <T> void markDuplicatesInBatch(List<T> inputs, Function<T, String> value, String field,
+                                                  Map<Integer, ItemError> errors) {
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            String candidate = value.apply(inputs.get(i));
+            if (candidate != null && !seen.add(candidate)) {
+                errors.putIfAbsent(i, ItemError.alreadyExists(i, field, candidate));
+            }
+        }
+    }
+
+    private static boolean isTakenByOther(Map<String, String> owners, String value, String id) {
+        return value != null && owners.containsKey(value) && !owners.get(value).equals(id);
+    }
+
+    private static List<String> roleNamesOf(CreateUserInput input) {
+        return input.getRoles() == null || input.getRoles().isEmpty() ? List.of(DEFAULT_ROLE) : input.getRoles();
+    }
+
+    private static Update toUpdate(UpdateUserInput input, String passwordHash) {
+        Update update = new Update();
+        setIfPresent(update, "username", input.getUsername());
+        setIfPresent(update, "email", input.getEmail());
+        setIfPresent(update, "password", passwordHash);
+        setIfPresent(update, "firstName", input.getFirstName());
+        setIfPresent(update, "lastName", input.getLastName());
+        setIfPresent(update, "langKey", input.getLangKey());
+        setIfPresent(update, "timezone", input.getTimezone());
+        if (!update.getUpdateObject().isEmpty()) {
+            update.inc(VERSION, 1);
+        }
+        return update;
+    }
+
+    private static void setIfPresent(Update update, String property, String value) {
+        if (value != null) {
+            update.set(property, value);
+        }
+    }
+
+    /**
+     * BCrypt is deliberately slow, so a batch is hashed on the bounded pool rather than one by one on the
+     * request thread. Null passwords stay null.
+     */
+    private List<String> hashAll(List<String> passwords) {
+        List<CompletableFuture<String>> hashes = passwords.stream()
+                .map(password -> password == null
+                        ? CompletableFuture.<String>completedFuture(null)
+                        : CompletableFuture.supplyAsync(() -> passwordEncoder.encode(password), hashExecutor))
+                .toList();
+        return hashes.stream().map(CompletableFuture::join).toList();
+    }
+
+    private void requireWithinLimit(int size) {
+        if (size > properties.getBulkMaxBatchSize()) {
+            throw ApplicationException.of(ErrorCode.VALIDATION_FAILED, "Too many users in one request",
+                    ": at most " + properties.getBulkMaxBatchSize() + " users per request");
+        }
+    }
+
+    public record BulkUpdate(String id, UpdateUserInput input) {
+    }
+
+    /**
+     * The field and value of a duplicate key error, read from {@code keyPattern}/{@code keyValue} in the error
+     * details when the server sends them, otherwise from the {@code index: <name> dup key: { <field>: <value> }}
+     * part of the message. Either is null if it cannot be determined.
+     */
+    record DuplicateKey(String field, String value) {
+
+        private static final Pattern MESSAGE = Pattern.compile(
+                "index: (\\S+) dup key: \\{ ?([^:]*): (?:\"((?:[^\"\\\\]|\\\\.)*)\"|([^ }]*))");
+        // "email_1", or "db.users.$email_1" on old servers
+        private static final Pattern INDEX_NAME = Pattern.compile("^(?:.*\\$)?(.*?)(?:_-?1)?$");
+
+        static DuplicateKey of(BulkWriteError error) {
+            BsonDocument details = error.getDetails();
+            if (details != null && details.isDocument("keyValue")) {
+                BsonDocument keyValue = details.getDocument("keyValue");
+                if (keyValue.size() == 1) {
+                    String field = keyValue.getFirstKey();
+                    BsonValue value = keyValue.get(field);
+                    return new DuplicateKey(field, value.isString() ? value.asString().getValue() : value.toString());
+                }
+            }
+
+            Matcher matcher = error.getMessage() != null ? MESSAGE.matcher(error.getMessage()) : null;
+            if (matcher == null || !matcher.find()) {
+                return new DuplicateKey(null, null);
+            }
+            // older servers leave the field out of the key, so fall back to the index name
+            String field = matcher.group(2).trim();
+            if (field.isEmpty()) {
+                Matcher index = INDEX_NAME.matcher(matcher.group(1));
+                field = index.matches() ? index.group(1) : matcher.group(1);
+            }
+            return new DuplicateKey(field, matcher.group(3) != null ? matcher.group(3) : matcher.group(4));
+        }
+    }
+
+    public record BulkOutcome(List<UserModel> users, List<ItemError> errors) {
+    }
+
+    public record RoleOutcome(long matched, long modified, List<ItemError> errors) {
+    }
+
+    public record ItemError(int index, ErrorCode code, Object[] args) {
+
+        static ItemError alreadyExists(int index, String field, String value) {
+            return new ItemError(index, ErrorCode.RESOURCE_ALREADY_EXISTS, new Object[]{"User", field, value});
+        }
+    }
+}
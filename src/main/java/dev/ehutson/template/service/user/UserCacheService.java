@@ -0,0 +1,34 @@
+package dev.ehutson.template.service.user;
+
+import dev.ehutson.template.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * Evicts the user lookup caches for writes that bypass {@link UserRepository#save}, such as bulk inserts
+ * and {@code updateMany} calls.
+ */
+@Service
+public class UserCacheService {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public UserCacheService(ObjectProvider<CacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public void evict(String username, String email) {
+        cacheManager.ifAvailable(manager -> {
+            evict(manager.getCache(UserRepository.USERS_BY_USERNAME_CACHE), username);
+            evict(manager.getCache(UserRepository.USERS_BY_EMAIL_CACHE), email);
+        });
+    }
+
+    private static void evict(Cache cache, String key) {
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+}
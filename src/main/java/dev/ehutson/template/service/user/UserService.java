@@ -8,7 +8,7 @@ import dev.ehutson.template.exception.ErrorCode;
 import dev.ehutson.template.repository.RoleRepository;
 import dev.ehutson.template.repository.UserRepository;
 import dev.ehutson.template.security.service.AuthenticationService;
-import dev.ehutson.template.service.mail.MailService;
+import dev.ehutson.template.service.mail.outbox.MailOutboxService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -31,7 +31,8 @@ public class UserService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationService authenticationService;
-    private final MailService mailService;
+    private final MailOutboxService mailOutboxService;
+    private final UserCacheService userCacheService;
 
     public UserModel registerUser(RegisterInput input, HttpServletRequest request, HttpServletResponse response) {
         if (userRepository.existsByUsername(input.getUsername())) {
@@ -60,11 +61,11 @@ public class UserService {
         user.setActivationKey(UUID.randomUUID().toString());
 
         UserModel savedUser = userRepository.save(user);
+        // queued before anything else can fail; ActivationMailRepairJob covers a crash between the two writes
+        mailOutboxService.enqueueActivationEmail(savedUser);
 
         authenticationService.authenticate(input.getUsername(), input.getPassword(), request, response);
 
-        mailService.sendActivationEmail(savedUser);
-
         return savedUser;
     }
 
@@ -89,13 +90,12 @@ public class UserService {
     }
 
     public Boolean requestPasswordReset(String email) {
-        Optional<UserModel> user = userRepository.findOneByEmailIgnoreCase(email);
+        // a targeted update rather than a save of the cached user, which lacks its password and version
+        Optional<UserModel> user = userRepository.startPasswordReset(email, UUID.randomUUID().toString(), Instant.now());
         if (user.isPresent()) {
             UserModel userModel = user.get();
-            userModel.setResetKey(UUID.randomUUID().toString());
-            userModel.setResetDate(Instant.now());
-            userRepository.save(userModel);
-            mailService.sendPasswordResetMail(userModel);
+            userCacheService.evict(userModel.getUsername(), userModel.getEmail());
+            mailOutboxService.enqueuePasswordResetMail(userModel);
             log.debug("Password reset email activated: {}", email);
             return true;
         }
@@ -0,0 +1,44 @@
+package dev.ehutson.template.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CRLFLogConverterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final CRLFLogConverter converter = new CRLFLogConverter();
+
+    @Test
+    void sanitize_shouldReturnCleanInputUnchanged() {
+        String clean = "Nothing to see here";
+
+        assertSame(clean, CRLFLogConverter.sanitize(clean, "_"));
+    }
+
+    @Test
+    void sanitize_shouldReplaceEveryControlCharacter() {
+        assertEquals("forged_ INFO_user=admin_", CRLFLogConverter.sanitize("forged\n INFO\tuser=admin\r", "_"));
+    }
+
+    @Test
+    void transform_shouldSanitizeApplicationLoggers() {
+        String message = "user\nadmin";
+
+        assertEquals("user_admin", converter.transform(event("dev.ehutson.template.Foo", message), message));
+    }
+
+    @Test
+    void transform_shouldLeaveSafeLoggersAlone() {
+        String message = "multi\nline";
+
+        assertSame(message, converter.transform(event("org.springframework.boot.diagnostics.Reporter", message), message));
+    }
+
+    private LoggingEvent event(String loggerName, String message) {
+        return new LoggingEvent(CRLFLogConverterTest.class.getName(), context.getLogger(loggerName), Level.INFO, message, null, null);
+    }
+}
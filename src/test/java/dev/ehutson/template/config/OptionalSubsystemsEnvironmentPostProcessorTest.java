@@ -0,0 +1,37 @@
+package dev.ehutson.template.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptionalSubsystemsEnvironmentPostProcessorTest {
+
+    private static final String KAFKA = "org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration";
+
+    private final OptionalSubsystemsEnvironmentPostProcessor postProcessor = new OptionalSubsystemsEnvironmentPostProcessor();
+
+    @Test
+    void postProcessEnvironment_shouldExcludeElasticsearchWhenSearchIsDisabled() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.autoconfigure.exclude[0]", KAFKA);
+
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        List<String> excludes = List.of(environment.getRequiredProperty("spring.autoconfigure.exclude", String[].class));
+        assertEquals(KAFKA, excludes.get(0));
+        assertTrue(excludes.containsAll(OptionalSubsystemsEnvironmentPostProcessor.ELASTICSEARCH_AUTO_CONFIGURATIONS));
+    }
+
+    @Test
+    void postProcessEnvironment_shouldKeepElasticsearchWhenSearchIsEnabled() {
+        MockEnvironment environment = new MockEnvironment().withProperty("app.search.enabled", "true");
+
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertFalse(environment.getPropertySources().contains(OptionalSubsystemsEnvironmentPostProcessor.PROPERTY_SOURCE_NAME));
+    }
+}
@@ -0,0 +1,132 @@
+package dev.ehutson.template.exception.graphql.handler.strategy;
+
+import dev.ehutson.template.exception.ApplicationException;
+import dev.ehutson.template.exception.ErrorCode;
+import dev.ehutson.template.exception.graphql.handler.GlobalExceptionHandlerConfig;
+import dev.ehutson.template.exception.graphql.handler.GlobalExceptionHandlerProperties;
+import dev.ehutson.template.service.message.MessageService;
+import graphql.GraphQLError;
+import graphql.execution.DataFetcherExceptionHandlerParameters;
+import graphql.execution.ResultPath;
+import graphql.language.SourceLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExceptionStrategyResolverTest {
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private DataFetcherExceptionHandlerParameters parameters;
+
+    private ApplicationExceptionStrategy applicationStrategy;
+    private FallbackExceptionStrategy fallbackStrategy;
+
+    @BeforeEach
+    void setUp() {
+        applicationStrategy = spy(new ApplicationExceptionStrategy());
+        fallbackStrategy = spy(new FallbackExceptionStrategy());
+        lenient().when(parameters.getPath()).thenReturn(ResultPath.rootPath());
+        lenient().when(parameters.getSourceLocation()).thenReturn(new SourceLocation(1, 1));
+        lenient().when(messageService.getMessage(any(ErrorCode.class))).thenReturn("localized");
+        lenient().when(messageService.getMessage(any(ApplicationException.class))).thenReturn("localized");
+    }
+
+    @Test
+    void resolve_shouldLookUpStrategyOncePerExceptionClass() {
+        ExceptionStrategyResolver resolver = resolver(new GlobalExceptionHandlerProperties());
+
+        for (int i = 0; i < 3; i++) {
+            resolver.resolve(new IllegalArgumentException("bad"), parameters);
+            resolver.resolve(ApplicationException.of(ErrorCode.RESOURCE_NOT_FOUND), parameters);
+        }
+
+        verify(applicationStrategy, times(2)).canHandle(any());
+        verify(fallbackStrategy, times(1)).canHandle(any());
+    }
+
+    @Test
+    void resolve_shouldUseFallbackForUnhandledExceptions() {
+        ExceptionStrategyResolver resolver = resolver(new GlobalExceptionHandlerProperties());
+
+        GraphQLError error = resolver.resolve(new IllegalStateException("boom"), parameters);
+
+        assertEquals("localized", error.getMessage());
+        assertEquals(ErrorCode.SYSTEM_ERROR.toString(), error.getExtensions().get("code"));
+        assertFalse(error.getExtensions().containsKey("stackTrace"));
+    }
+
+    @Test
+    void resolve_shouldCapFramesPerThrowable() {
+        ExceptionStrategyResolver resolver = resolver(new GlobalExceptionHandlerProperties(true, 2, 5));
+        RuntimeException exception = new RuntimeException("boom");
+        exception.setStackTrace(frames(5));
+
+        String trace = stackTrace(resolver.resolve(exception, parameters));
+
+        assertEquals(2, count(trace, "\tat "));
+        assertTrue(trace.contains("\t... 3 more\n"), trace);
+    }
+
+    @Test
+    void resolve_shouldCapCauses() {
+        ExceptionStrategyResolver resolver = resolver(new GlobalExceptionHandlerProperties(true, 20, 1));
+        RuntimeException exception = new RuntimeException("outer",
+                new RuntimeException("middle cause", new RuntimeException("inner cause")));
+
+        String trace = stackTrace(resolver.resolve(exception, parameters));
+
+        assertEquals(1, count(trace, "Caused by: "));
+        assertTrue(trace.contains("middle cause"), trace);
+        assertFalse(trace.contains("inner cause"), trace);
+    }
+
+    @Test
+    void resolve_shouldStopAtCauseCycle() {
+        ExceptionStrategyResolver resolver = resolver(new GlobalExceptionHandlerProperties(true, 20, 10));
+        RuntimeException first = new RuntimeException("first");
+        RuntimeException second = new RuntimeException("second", first);
+        first.initCause(second);
+
+        String trace = stackTrace(resolver.resolve(first, parameters));
+
+        assertEquals(1, count(trace, "Caused by: "));
+        assertEquals(1, count(trace, "second"));
+    }
+
+    private ExceptionStrategyResolver resolver(GlobalExceptionHandlerProperties properties) {
+        return new ExceptionStrategyResolver(List.of(fallbackStrategy, applicationStrategy), messageService,
+                new GlobalExceptionHandlerConfig(properties));
+    }
+
+    private static StackTraceElement[] frames(int count) {
+        StackTraceElement[] frames = new StackTraceElement[count];
+        for (int i = 0; i < count; i++) {
+            frames[i] = new StackTraceElement("Example", "method" + i, "Example.java", i + 1);
+        }
+        return frames;
+    }
+
+    private static String stackTrace(GraphQLError error) {
+        return (String) error.getExtensions().get("stackTrace");
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + part.length())) {
+            count++;
+        }
+        return count;
+    }
+}
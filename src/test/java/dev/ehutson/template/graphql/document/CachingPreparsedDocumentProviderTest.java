@@ -0,0 +1,127 @@
+package dev.ehutson.template.graphql.document;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.GraphQLError;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.parser.Parser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CachingPreparsedDocumentProviderTest {
+
+    private static final String QUERY = "{ me { id } }";
+    private static final Duration TTL = Duration.ofDays(7);
+
+    private final AtomicInteger parses = new AtomicInteger();
+    private final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate = input -> {
+        parses.incrementAndGet();
+        return new PreparsedDocumentEntry(Parser.parse(input.getQuery()));
+    };
+
+    private ValueOperations<String, String> valueOperations;
+    private CachingPreparsedDocumentProvider provider;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        Cache<String, PreparsedDocumentEntry> documents = Caffeine.newBuilder().maximumSize(10).build();
+        provider = new CachingPreparsedDocumentProvider(documents,
+                new ApolloPersistedQuerySupport(new RedisPersistedQueryCache(redisTemplate, documents, TTL)));
+    }
+
+    @Test
+    void getDocument_shouldParseEachDistinctQueryOnce() {
+        PreparsedDocumentEntry first = provider.getDocumentAsync(input(QUERY, Map.of()), parseAndValidate).join();
+        PreparsedDocumentEntry second = provider.getDocumentAsync(input(QUERY, Map.of()), parseAndValidate).join();
+
+        assertSame(first, second);
+        assertEquals(1, parses.get());
+    }
+
+    @Test
+    void getDocument_shouldNotCacheInvalidDocuments() {
+        Function<ExecutionInput, PreparsedDocumentEntry> failing = input -> {
+            parses.incrementAndGet();
+            return new PreparsedDocumentEntry(List.of(GraphQLError.newError().message("invalid").build()));
+        };
+
+        provider.getDocumentAsync(input(QUERY, Map.of()), failing).join();
+        provider.getDocumentAsync(input(QUERY, Map.of()), failing).join();
+
+        assertEquals(2, parses.get());
+    }
+
+    @Test
+    void getDocument_shouldReportUnknownPersistedQuery() {
+        PreparsedDocumentEntry entry = provider.getDocumentAsync(input(null, persistedQuery(DocumentHash.of(QUERY))), parseAndValidate).join();
+
+        assertTrue(entry.hasErrors());
+        assertEquals("PersistedQueryNotFound", entry.getErrors().get(0).getMessage());
+        assertEquals(0, parses.get());
+    }
+
+    @Test
+    void getDocument_shouldRegisterPersistedQueryInRedis() {
+        String hash = DocumentHash.of(QUERY);
+
+        PreparsedDocumentEntry registered = provider.getDocumentAsync(input(QUERY, persistedQuery(hash)), parseAndValidate).join();
+        PreparsedDocumentEntry byHash = provider.getDocumentAsync(input(null, persistedQuery(hash)), parseAndValidate).join();
+
+        assertFalse(registered.hasErrors());
+        assertSame(registered, byHash);
+        assertEquals(1, parses.get());
+        verify(valueOperations).set(RedisPersistedQueryCache.KEY_PREFIX + hash, QUERY, TTL);
+    }
+
+    @Test
+    void getDocument_shouldResolvePersistedQueryRegisteredElsewhere() {
+        String hash = DocumentHash.of(QUERY);
+        when(valueOperations.get(RedisPersistedQueryCache.KEY_PREFIX + hash)).thenReturn(QUERY);
+
+        PreparsedDocumentEntry entry = provider.getDocumentAsync(input(null, persistedQuery(hash)), parseAndValidate).join();
+
+        assertFalse(entry.hasErrors());
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void getDocument_shouldRejectMismatchedHash() {
+        String hash = DocumentHash.of("{ other }");
+
+        PreparsedDocumentEntry entry = provider.getDocumentAsync(input(QUERY, persistedQuery(hash)), parseAndValidate).join();
+
+        assertTrue(entry.hasErrors());
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    private static ExecutionInput input(String query, Map<String, Object> extensions) {
+        return ExecutionInput.newExecutionInput()
+                .query(query == null ? ApolloPersistedQuerySupport.PERSISTED_QUERY_MARKER : query)
+                .extensions(extensions)
+                .build();
+    }
+
+    private static Map<String, Object> persistedQuery(String hash) {
+        return Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash));
+    }
+}
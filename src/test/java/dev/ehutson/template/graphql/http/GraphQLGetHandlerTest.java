@@ -0,0 +1,254 @@
+package dev.ehutson.template.graphql.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.graphql.document.CachingPreparsedDocumentProvider;
+import dev.ehutson.template.graphql.document.DocumentHash;
+import dev.ehutson.template.graphql.document.RedisPersistedQueryCache;
+import dev.ehutson.template.graphql.instrumentation.CacheControlInstrumentation;
+import dev.ehutson.template.graphql.instrumentation.CachePolicyAnalyzer;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.graphql.execution.DefaultExecutionGraphQlService;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.function.AsyncServerResponse;
+import org.springframework.web.servlet.function.EntityResponse;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GraphQLGetHandlerTest {
+
+    private static final String SCHEMA = """
+            directive @cacheControl(maxAge: Int, scope: CacheControlScope) on OBJECT | FIELD_DEFINITION
+            enum CacheControlScope { PUBLIC PRIVATE }
+            type Query {
+                greeting: String @cacheControl(maxAge: 60)
+                failing: String @cacheControl(maxAge: 60)
+            }
+            type Mutation {
+                touch: Boolean
+            }
+            """;
+    private static final String GREETING = "{ greeting }";
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private final AtomicInteger mutations = new AtomicInteger();
+    private final TestClock clock = new TestClock();
+    private GraphQLGetHandler handler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type
+                        .dataFetcher("greeting", env -> {
+                            executions.incrementAndGet();
+                            return "hello";
+                        })
+                        .dataFetcher("failing", env -> {
+                            throw new IllegalStateException("boom");
+                        }))
+                .type("Mutation", type -> type.dataFetcher("touch", env -> mutations.incrementAndGet() > 0))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SCHEMA), wiring);
+
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+        Cache<String, PreparsedDocumentEntry> documents = Caffeine.newBuilder().maximumSize(10).build();
+        CachingPreparsedDocumentProvider documentProvider = new CachingPreparsedDocumentProvider(documents,
+                new ApolloPersistedQuerySupport(new RedisPersistedQueryCache(redisTemplate, documents, Duration.ofDays(1))));
+
+        GraphQlSource graphQlSource = GraphQlSource.builder(schema)
+                .instrumentation(List.of(new CacheControlInstrumentation(new CachePolicyAnalyzer())))
+                .configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentProvider))
+                .build();
+        WebGraphQlHandler graphQlHandler = WebGraphQlHandler.builder(new DefaultExecutionGraphQlService(graphQlSource)).build();
+
+        handler = new GraphQLGetHandler(graphQlHandler, new ObjectMapper(), new ApplicationProperties(), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void handle_shouldServeCacheableQueryWithStrongEtag() {
+        ServerResponse response = get(Map.of("query", GREETING), Locale.ENGLISH, null);
+
+        assertEquals(HttpStatus.OK, response.statusCode());
+        assertTrue(response.headers().getETag().matches("\"[0-9a-f]{64}\""));
+        assertEquals("max-age=60, public", response.headers().getCacheControl());
+        assertTrue(body(response).contains("\"greeting\":\"hello\""));
+    }
+
+    @Test
+    void handle_shouldRevalidateWithinMaxAgeWithoutExecuting() {
+        String etag = get(Map.of("query", GREETING), Locale.ENGLISH, null).headers().getETag();
+
+        ServerResponse response = get(Map.of("query", GREETING), Locale.ENGLISH, etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.statusCode());
+        assertEquals(etag, response.headers().getETag());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void handle_shouldExecuteAgainOnceMaxAgeHasPassed() {
+        String etag = get(Map.of("query", GREETING), Locale.ENGLISH, null).headers().getETag();
+        clock.advance(Duration.ofSeconds(61));
+
+        ServerResponse response = get(Map.of("query", GREETING), Locale.ENGLISH, etag);
+
+        // the result is unchanged, so it is still a 304, but only after running the query again
+        assertEquals(HttpStatus.NOT_MODIFIED, response.statusCode());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void handle_shouldNotStoreResponsesWithErrors() {
+        ServerResponse response = get(Map.of("query", "{ failing }"), Locale.ENGLISH, null);
+
+        assertEquals(HttpStatus.OK, response.statusCode());
+        assertEquals("no-store", response.headers().getCacheControl());
+        assertNull(response.headers().getETag());
+    }
+
+    @Test
+    void handle_shouldNotShareValidatorsAcrossPrincipals() {
+        authenticate("alice");
+        ServerResponse alice = get(Map.of("query", GREETING), Locale.ENGLISH, null);
+        authenticate("bob");
+
+        ServerResponse bob = get(Map.of("query", GREETING), Locale.ENGLISH, alice.headers().getETag());
+
+        assertEquals("max-age=60, private", alice.headers().getCacheControl());
+        assertEquals(HttpStatus.NOT_MODIFIED, bob.statusCode());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void handle_shouldNotShareValidatorsAcrossLocales() {
+        String etag = get(Map.of("query", GREETING), Locale.ENGLISH, null).headers().getETag();
+
+        get(Map.of("query", GREETING), Locale.GERMAN, etag);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void handle_shouldRejectMutations() {
+        ServerResponse response = get(Map.of("query", "mutation { touch }"), Locale.ENGLISH, null);
+
+        assertEquals("no-store", response.headers().getCacheControl());
+        assertTrue(body(response).contains("Only queries can be sent with HTTP GET"));
+        assertEquals(0, mutations.get());
+    }
+
+    @Test
+    void handle_shouldRoundTripPersistedQueryNotFound() {
+        String extensions = "{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\"" + DocumentHash.of(GREETING) + "\"}}";
+
+        ServerResponse unknown = get(Map.of("extensions", extensions), Locale.ENGLISH, null);
+        ServerResponse registered = get(Map.of("query", GREETING, "extensions", extensions), Locale.ENGLISH, null);
+        ServerResponse byHash = get(Map.of("extensions", extensions), Locale.ENGLISH, null);
+
+        assertTrue(body(unknown).contains("PersistedQueryNotFound"));
+        assertEquals("no-store", unknown.headers().getCacheControl());
+        assertEquals(HttpStatus.OK, registered.statusCode());
+        assertTrue(body(byHash).contains("\"greeting\":\"hello\""));
+        assertEquals(registered.headers().getETag(), byHash.headers().getETag());
+    }
+
+    @Test
+    void handle_shouldRejectMalformedVariables() {
+        ServerResponse response = get(Map.of("query", GREETING, "variables", "{not json"), Locale.ENGLISH, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.statusCode());
+        assertEquals(0, executions.get());
+    }
+
+    private ServerResponse get(Map<String, String> params, Locale locale, String ifNoneMatch) {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/graphql");
+        // sorted, so equal parameters always make the same query string
+        Map<String, String> sorted = new LinkedHashMap<>();
+        params.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        sorted.forEach(servletRequest::addParameter);
+        servletRequest.setQueryString(sorted.entrySet().stream()
+                .map(e -> e.getKey() + "=" + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&")));
+        servletRequest.addPreferredLocale(locale);
+        if (ifNoneMatch != null) {
+            servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+
+        ServerResponse response = handler.handle(ServerRequest.create(servletRequest, List.of()));
+        return response instanceof AsyncServerResponse async ? async.block() : response;
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+    }
+
+    private static String body(ServerResponse response) {
+        return new String((byte[]) ((EntityResponse<?>) response).entity(), StandardCharsets.UTF_8);
+    }
+
+    private static final class TestClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
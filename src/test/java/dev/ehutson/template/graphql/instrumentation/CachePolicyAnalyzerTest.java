@@ -0,0 +1,68 @@
+package dev.ehutson.template.graphql.instrumentation;
+
+import graphql.execution.CoercedVariables;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachePolicyAnalyzerTest {
+
+    private static GraphQLSchema schema;
+    private static CachePolicyAnalyzer analyzer;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        try (Reader reader = new InputStreamReader(
+                Objects.requireNonNull(CachePolicyAnalyzerTest.class.getResourceAsStream("/schema/schema.graphqls")),
+                StandardCharsets.UTF_8)) {
+            schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(reader), RuntimeWiring.MOCKED_WIRING);
+        }
+        analyzer = new CachePolicyAnalyzer();
+    }
+
+    @Test
+    void analyze_shouldUseRoleHintForRolesQuery() {
+        CachePolicyAnalyzer.CachePolicy policy = analyze("{ roles { id name } }");
+
+        assertEquals(300, policy.maxAge());
+        assertFalse(policy.isPrivate());
+    }
+
+    @Test
+    void analyze_shouldTakeLowestMaxAgeAndPrivateScope() {
+        CachePolicyAnalyzer.CachePolicy policy = analyze("{ me { id roles { name } } }");
+
+        assertEquals(30, policy.maxAge());
+        assertTrue(policy.isPrivate());
+    }
+
+    @Test
+    void analyze_shouldNotCacheUnhintedRootFields() {
+        CachePolicyAnalyzer.CachePolicy policy = analyze("{ roles { id } activeSessions { id } }");
+
+        assertEquals(0, policy.maxAge());
+    }
+
+    @Test
+    void analyze_shouldNotCacheUnhintedConnections() {
+        CachePolicyAnalyzer.CachePolicy policy = analyze("{ users { edges { node { id } } } }");
+
+        // users returns an unhinted connection, so the whole response is uncacheable
+        assertEquals(0, policy.maxAge());
+    }
+
+    private static CachePolicyAnalyzer.CachePolicy analyze(String query) {
+        return analyzer.analyze(schema, Parser.parse(query), null, CoercedVariables.emptyVariables());
+    }
+}
@@ -0,0 +1,82 @@
+package dev.ehutson.template.graphql.instrumentation;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldMetricsInstrumentationTest {
+
+    private static final String SDL = """
+            type Query { user: User, broken: String }
+            type User { id: ID!, name: String }
+            """;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ApplicationProperties properties;
+    private GraphQL graphQL;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ApplicationProperties();
+
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", builder -> builder
+                        .dataFetcher("user", env -> Map.of("id", "1", "name", "Ada"))
+                        .dataFetcher("broken", env -> {
+                            throw new IllegalStateException("boom");
+                        }))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SDL), wiring);
+        graphQL = GraphQL.newGraphQL(schema)
+                .instrumentation(new FieldMetricsInstrumentation(properties, meterRegistry))
+                .build();
+    }
+
+    @Test
+    void fieldFetch_shouldBeTimedPerParentTypeFieldAndOutcome() {
+        graphQL.execute("{ user { id } broken }");
+
+        assertEquals(1, meterRegistry.get(FieldMetricsInstrumentation.FIELD_TIMER)
+                .tags("parentType", "Query", "field", "user", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(FieldMetricsInstrumentation.FIELD_TIMER)
+                .tags("parentType", "Query", "field", "broken", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void fieldFetch_shouldSkipTrivialFieldsWhenSamplingIsOff() {
+        properties.getGraphql().getMetrics().setTrivialFieldSampleRate(0);
+
+        graphQL.execute("{ user { id name } }");
+
+        assertNull(meterRegistry.find(FieldMetricsInstrumentation.FIELD_TIMER).tags("parentType", "User").timer());
+    }
+
+    @Test
+    void fieldFetch_shouldTimeAllTrivialFieldsWhenFullySampled() {
+        properties.getGraphql().getMetrics().setTrivialFieldSampleRate(1);
+
+        graphQL.execute("{ user { id name } }");
+
+        assertEquals(1, meterRegistry.get(FieldMetricsInstrumentation.FIELD_TIMER)
+                .tags("parentType", "User", "field", "name").timer().count());
+    }
+
+    @Test
+    void sanitizeOperationName_shouldKeepOnlyGraphQLNameCharacters() {
+        assertEquals("anonymous", FieldMetricsInstrumentation.sanitizeOperationName(null));
+        assertEquals("GetUser", FieldMetricsInstrumentation.sanitizeOperationName("GetUser"));
+        assertEquals("Get?User??", FieldMetricsInstrumentation.sanitizeOperationName("Get\nUser\r\n"));
+        assertTrue(FieldMetricsInstrumentation.sanitizeOperationName("a".repeat(100)).endsWith("..."));
+    }
+}
@@ -0,0 +1,89 @@
+package dev.ehutson.template.graphql.instrumentation;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import graphql.execution.CoercedVariables;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryCostAnalyzerTest {
+
+    private static GraphQLSchema schema;
+    private static ApplicationProperties properties;
+    private static QueryCostAnalyzer analyzer;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        try (Reader reader = new InputStreamReader(
+                Objects.requireNonNull(QueryCostAnalyzerTest.class.getResourceAsStream("/schema/schema.graphqls")),
+                StandardCharsets.UTF_8)) {
+            schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(reader), RuntimeWiring.MOCKED_WIRING);
+        }
+        properties = new ApplicationProperties();
+        analyzer = new QueryCostAnalyzer(properties);
+    }
+
+    @Test
+    void analyze_shouldMultiplyConnectionSelectionByPageSize() {
+        QueryCostAnalyzer.QueryCost cost = analyze(
+                "{ users(input: {first: 50}) { totalCount edges { node { id username roles { name } } } } }");
+
+        // users(1) + 50 * (edges(1) + node(1) + roles(1))
+        assertEquals(151, cost.cost());
+        assertEquals(5, cost.depth());
+    }
+
+    @Test
+    void analyze_shouldCapPageSizeAndReadVariables() {
+        QueryCostAnalyzer.QueryCost cost = analyze(
+                "query Users($first: Int) { users(input: {first: $first}) { edges { node { roles { name } } } } }",
+                Map.of("first", 5_000));
+
+        assertEquals(1 + properties.getPagination().getMaxPageSize() * 3L, cost.cost());
+    }
+
+    @Test
+    void analyze_shouldUseDefaultPageSizeWithoutPaginationInput() {
+        QueryCostAnalyzer.QueryCost cost = analyze("{ users { edges { node { id } } } }");
+
+        assertEquals(1 + properties.getPagination().getPageSize() * 2L, cost.cost());
+    }
+
+    @Test
+    void analyze_shouldApplyFieldCostOverrides() {
+        properties.getGraphql().getCost().getFieldCosts().put("Query.roles", 25);
+        try {
+            assertEquals(25, analyze("{ roles { name } }").cost());
+        } finally {
+            properties.getGraphql().getCost().getFieldCosts().clear();
+        }
+    }
+
+    @Test
+    void analyze_shouldIgnoreIntrospection() {
+        QueryCostAnalyzer.QueryCost cost = analyze("{ __schema { types { name fields { name type { name } } } } }");
+
+        assertEquals(0, cost.cost());
+        assertEquals(0, cost.depth());
+    }
+
+    private static QueryCostAnalyzer.QueryCost analyze(String query) {
+        return analyze(query, Map.of());
+    }
+
+    private static QueryCostAnalyzer.QueryCost analyze(String query, Map<String, Object> variables) {
+        return analyzer.analyze(schema, Parser.parse(query), null, CoercedVariables.of(variables));
+    }
+}
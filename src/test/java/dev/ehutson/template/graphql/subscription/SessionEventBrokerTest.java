@@ -0,0 +1,102 @@
+package dev.ehutson.template.graphql.subscription;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.security.service.refreshtoken.SessionChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SessionEventBrokerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SessionEventBroker broker;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getGraphql().setSubscriptionBufferSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        broker = new SessionEventBroker(properties, meterRegistry);
+    }
+
+    @Test
+    void subscribe_shouldOnlyReceiveOwnEvents() {
+        StepVerifier.create(broker.subscribe("user-1"))
+                .then(() -> {
+                    broker.dispatch(event("user-2", "s-1"));
+                    broker.dispatch(event("user-1", "s-2"));
+                })
+                .expectNextMatches(event -> event.sessionId().equals("s-2"))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void subscribe_shouldDropOldestEventsForSlowSubscriber() {
+        StepVerifier.create(broker.subscribe("user-1"), 0)
+                .then(() -> {
+                    broker.dispatch(event("user-1", "s-1"));
+                    broker.dispatch(event("user-1", "s-2"));
+                    broker.dispatch(event("user-1", "s-3"));
+                })
+                .thenRequest(2)
+                .expectNextMatches(event -> event.sessionId().equals("s-2"))
+                .expectNextMatches(event -> event.sessionId().equals("s-3"))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void subscribe_shouldReleaseChannelWhenLastSubscriberLeaves() {
+        StepVerifier.create(broker.subscribe("user-1"))
+                .then(() -> assertEquals(1.0, usersGauge()))
+                .thenCancel()
+                .verify();
+
+        assertEquals(0.0, usersGauge());
+    }
+
+    @Test
+    void subscribe_shouldCompleteAfterRevocationOfSubscribingSession() {
+        StepVerifier.create(broker.subscribe("user-1", "s-1", Instant.now().plus(Duration.ofHours(1))))
+                .then(() -> {
+                    broker.dispatch(event("user-1", "s-2"));
+                    broker.dispatch(event("user-1", "s-1"));
+                    broker.dispatch(event("user-1", "s-3"));
+                })
+                .expectNextMatches(event -> event.sessionId().equals("s-2"))
+                .expectNextMatches(event -> event.sessionId().equals("s-1"))
+                .verifyComplete();
+
+        assertEquals(0.0, usersGauge());
+    }
+
+    @Test
+    void subscribe_shouldCompleteWhenAccessTokenExpires() {
+        StepVerifier.withVirtualTime(() -> broker.subscribe("user-1", "s-1", Instant.now().plus(Duration.ofMinutes(15))))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMinutes(14))
+                .thenAwait(Duration.ofMinutes(1))
+                .verifyComplete();
+    }
+
+    @Test
+    void subscribe_shouldCompleteImmediatelyForExpiredAccessToken() {
+        StepVerifier.create(broker.subscribe("user-1", "s-1", Instant.now().minusSeconds(1)))
+                .verifyComplete();
+    }
+
+    private double usersGauge() {
+        return meterRegistry.get("graphql.subscriptions.users").gauge().value();
+    }
+
+    private static SessionChangedEvent event(String userId, String sessionId) {
+        return new SessionChangedEvent(userId, sessionId, SessionChangedEvent.Type.REVOKED, "agent", "127.0.0.1", Instant.now());
+    }
+}
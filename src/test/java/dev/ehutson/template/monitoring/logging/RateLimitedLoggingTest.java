@@ -0,0 +1,112 @@
+package dev.ehutson.template.monitoring.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitedLoggingTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private ApplicationProperties properties;
+    private ListAppender<ILoggingEvent> appender;
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ApplicationProperties();
+        properties.getLogging().setBurst(2);
+        properties.getLogging().setPermitsPerSecond(1);
+
+        logger = (Logger) LoggerFactory.getLogger(RateLimitedLoggingTest.class);
+        logger.setLevel(Level.DEBUG);
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(null);
+    }
+
+    @Test
+    void logger_shouldSuppressMessagesBeyondTheBurst() {
+        RateLimitedLogger log = logger("test.burst");
+
+        for (int i = 0; i < 5; i++) {
+            log.warn("Attempt {}", i);
+        }
+
+        assertEquals(2, appender.list.size());
+        assertEquals(3, suppressed("test.burst"));
+    }
+
+    @Test
+    void logger_shouldReportSuppressedCountOnceRefilled() {
+        RateLimitedLogger log = logger("test.refill");
+        for (int i = 0; i < 4; i++) {
+            log.warn("Attempt {}", i);
+        }
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        log.warn("Attempt {}", 4);
+
+        assertEquals("Attempt 4 (2 similar messages suppressed)", appender.list.get(2).getFormattedMessage());
+    }
+
+    @Test
+    void logger_shouldKeepTrailingThrowableAsCause() {
+        RateLimitedLogger log = logger("test.cause");
+
+        log.error("Failed at {}", "path", new IllegalStateException("boom"));
+
+        ILoggingEvent event = appender.list.get(0);
+        assertEquals("Failed at path", event.getFormattedMessage());
+        assertEquals("boom", event.getThrowableProxy().getMessage());
+    }
+
+    @Test
+    void logger_shouldDropEverythingWhenSampledAtZero() {
+        properties.getLogging().getSampleRates().put("test.sampled", 0.0);
+        RateLimitedLogger log = logger("test.sampled");
+
+        log.warn("Never written");
+
+        assertTrue(appender.list.isEmpty());
+        assertEquals(1, suppressed("test.sampled"));
+    }
+
+    @Test
+    void logger_shouldNotCountDisabledLevels() {
+        logger.setLevel(Level.INFO);
+        RateLimitedLogger log = logger("test.disabled");
+
+        log.debug("Not enabled");
+
+        assertTrue(appender.list.isEmpty());
+        assertEquals(0, suppressed("test.disabled"));
+    }
+
+    private RateLimitedLogger logger(String site) {
+        return new RateLimitedLogging(properties, meterRegistry, nanoTime::get).logger(RateLimitedLoggingTest.class, site);
+    }
+
+    private double suppressed(String site) {
+        return meterRegistry.get(RateLimitedLogging.SUPPRESSED_COUNTER).tag("site", site).counter().count();
+    }
+}
@@ -2,6 +2,7 @@ package dev.ehutson.template.security;
 
 import dev.ehutson.template.security.config.properties.JwtProperties;
 import dev.ehutson.template.security.service.UserDetailsImpl;
+import dev.ehutson.template.security.service.refreshtoken.RefreshTokenCodec;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -35,8 +36,7 @@ import static org.mockito.Mockito.*;
  * 1. Generation of access tokens with correct claims (subject, userId, scope, expiration)
  * 2. Correct handling of multiple user authorities in token claims
  * 3. Edge case of generating tokens with no authorities
- * 4. Generation of refresh tokens with correct UUID format
- * 5. Verification that refresh tokens are unique across calls
+ * 4. Delegation of refresh token generation to the RefreshTokenCodec
  * <p>
  * These unit tests ensure that the JWT token provider creates tokens with the
  * correct structure and content, mocking external dependencies like JwtEncoder.
@@ -51,6 +51,9 @@ class JwtTokenProviderTest {
     @Mock
     private JwtProperties jwtProperties;
 
+    @Mock
+    private RefreshTokenCodec refreshTokenCodec;
+
     @InjectMocks
     private JwtTokenProvider jwtTokenProvider;
 
@@ -65,7 +68,7 @@ class JwtTokenProviderTest {
      * <p>
      * This test verifies that:
      * 1. The token is successfully generated with the expected value
-     * 2. The token contains the correct claims (subject, scope, userId, issuer)
+     * 2. The token contains the correct claims (subject, role mask, userId, issuer)
      * 3. The token has the correct issue and expiration times
      * 4. The expiration time is set to the configured value (3600 seconds)
      */
@@ -90,7 +93,7 @@ class JwtTokenProviderTest {
                 userDetails, null, userDetails.getAuthorities());
 
         // Act
-        String token = jwtTokenProvider.generateAccessToken(authentication);
+        String token = jwtTokenProvider.generateAccessToken(authentication, "session-1");
 
         // Assert
         assertEquals(testTokenValue, token);
@@ -101,10 +104,11 @@ class JwtTokenProviderTest {
 
         // Verify claims exist and have expected values
         assertEquals("testuser", claims.get("sub"));
-        assertEquals(1, ((List<String>) claims.get("scope")).size());
-        assertEquals("ROLE_USER", ((List<String>) claims.get("scope")).getFirst());
+        assertEquals(1L, claims.get("rl"));
         assertEquals("user123", claims.get("userId"));
         assertEquals("self", claims.get("iss"));
+        assertEquals("session-1", claims.get("jti"));
+        assertEquals(((Instant) claims.get("iat")).toEpochMilli(), claims.get("iam"));
 
         // Verify times
         Instant now = Instant.now();
@@ -128,7 +132,7 @@ class JwtTokenProviderTest {
      * Tests the generation of JWT access tokens with multiple authorities.
      * <p>
      * This test verifies that when a user has multiple roles, all of those roles
-     * are correctly included in the token's scope claim.
+     * are correctly included in the token's role mask.
      */
     @Test
     void testGenerateAccessToken_WithMultipleAuthorities() {
@@ -154,23 +158,22 @@ class JwtTokenProviderTest {
                 userDetails, null, userDetails.getAuthorities());
 
         // Act
-        jwtTokenProvider.generateAccessToken(authWithMultipleRoles);
+        jwtTokenProvider.generateAccessToken(authWithMultipleRoles, "session-1");
 
         // Assert
         verify(jwtEncoder).encode(parametersCaptor.capture());
         Map<String, Object> claims = parametersCaptor.getValue().getClaims().getClaims();
 
-        // Verify the scope contains both roles
-        List<String> scope = (List<String>) claims.get("scope");
-        assertTrue(scope.contains("ROLE_USER"));
-        assertTrue(scope.contains("ROLE_ADMIN"));
+        // Verify the role mask contains both roles
+        assertEquals(0b11L, claims.get("rl"));
+        assertNull(claims.get("rx"));
     }
 
     /**
      * Tests the generation of JWT access tokens with no authorities.
      * <p>
-     * This test verifies that when a user has no roles, the token's scope claim
-     * is set to an empty string rather than null or omitted entirely.
+     * This test verifies that when a user has no roles, the token's role mask
+     * is set to zero rather than omitted entirely.
      */
     @Test
     void testGenerateAccessToken_WithNoAuthorities() {
@@ -194,56 +197,36 @@ class JwtTokenProviderTest {
                 userDetails, null, userDetails.getAuthorities());
 
         // Act
-        jwtTokenProvider.generateAccessToken(authWithNoRoles);
+        jwtTokenProvider.generateAccessToken(authWithNoRoles, "session-1");
 
         // Assert
         verify(jwtEncoder).encode(parametersCaptor.capture());
         Map<String, Object> claims = parametersCaptor.getValue().getClaims().getClaims();
 
-        // Verify the scope is an empty string
-        assertEquals(0, ((List<String>) claims.get("scope")).size());
+        // Verify the role mask is empty
+        assertEquals(0L, claims.get("rl"));
     }
 
     /**
      * Tests the generation of refresh tokens.
      * <p>
      * This test verifies that:
-     * 1. The refresh token is successfully generated and not empty
-     * 2. The token has the correct UUID format
-     * 3. The JwtEncoder is not used for refresh tokens (which are plain UUIDs)
+     * 1. The refresh token is encoded by the RefreshTokenCodec for the given session and expiry
+     * 2. The JwtEncoder is not used for refresh tokens (which are HMAC-authenticated, not JWTs)
      */
     @Test
     void testGenerateRefreshToken() {
-        // Act
-        String refreshToken = jwtTokenProvider.generateRefreshToken();
-
-        // Assert
-        assertNotNull(refreshToken);
-        assertFalse(refreshToken.isEmpty());
-
-        // Check that it's a valid UUID
-        assertTrue(refreshToken.matches("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$"));
-
-        // Verify that no interactions with the encoder (refresh tokens are plain UUIDs)
-        verifyNoInteractions(jwtEncoder);
-    }
+        // Arrange
+        Instant expiresAt = Instant.now().plusSeconds(86400);
+        when(refreshTokenCodec.encode("65f1c0ffee0123456789abcd", expiresAt)).thenReturn("refresh-token");
 
-    /**
-     * Tests that refresh tokens are unique across multiple calls.
-     * <p>
-     * This test verifies that consecutive calls to generateRefreshToken()
-     * return different token values, ensuring uniqueness of refresh tokens.
-     */
-    @Test
-    void testGenerateRefreshToken_ReturnsDifferentTokens() {
         // Act
-        String refreshToken1 = jwtTokenProvider.generateRefreshToken();
-        String refreshToken2 = jwtTokenProvider.generateRefreshToken();
+        String refreshToken = jwtTokenProvider.generateRefreshToken("65f1c0ffee0123456789abcd", expiresAt);
 
         // Assert
-        assertNotEquals(refreshToken1, refreshToken2, "Refresh tokens should be unique");
+        assertEquals("refresh-token", refreshToken);
 
-        // Verify that no interactions with the encoder
+        // Verify that no interactions with the encoder or properties
         verifyNoInteractions(jwtEncoder, jwtProperties);
     }
-}
\ No newline at end of file
+}
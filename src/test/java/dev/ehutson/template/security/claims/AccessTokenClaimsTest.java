@@ -0,0 +1,95 @@
+package dev.ehutson.template.security.claims;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessTokenClaimsTest {
+
+    private static final String OBJECT_ID = "65f1c0ffee0123456789abcd";
+
+    @Test
+    void write_shouldEncodeKnownRolesAsMaskAndObjectIdCompactly() {
+        Map<String, Object> claims = write(OBJECT_ID, "ROLE_ADMIN", "ROLE_USER");
+
+        assertEquals(0b11L, claims.get(AccessTokenClaims.ROLES));
+        assertEquals(RoleCode.VERSION, claims.get(AccessTokenClaims.ROLE_TABLE_VERSION));
+        assertEquals(16, ((String) claims.get(AccessTokenClaims.USER_ID)).length());
+        assertNull(claims.get(AccessTokenClaims.EXTRA_ROLES));
+    }
+
+    @Test
+    void read_shouldRoundTripIdAndAuthorities() {
+        Jwt jwt = jwt(write(OBJECT_ID, "ROLE_USER", "ROLE_AUDITOR"));
+
+        assertEquals(OBJECT_ID, AccessTokenClaims.userId(jwt));
+        assertEquals(List.of(authority("ROLE_USER"), authority("ROLE_AUDITOR")), List.copyOf(AccessTokenClaims.authorities(jwt)));
+    }
+
+    @Test
+    void authorities_shouldShareListsForKnownRoleCombinations() {
+        Jwt first = jwt(write(OBJECT_ID, "ROLE_ADMIN"));
+        Jwt second = jwt(write(OBJECT_ID, "ROLE_ADMIN"));
+
+        assertSame(AccessTokenClaims.authorities(first), AccessTokenClaims.authorities(second));
+    }
+
+    @Test
+    void authorities_shouldIgnoreBitsFromNewerRoleTables() {
+        Jwt jwt = jwt(Map.of(AccessTokenClaims.ROLES, 1L | 1L << 40, AccessTokenClaims.ROLE_TABLE_VERSION, 41));
+
+        assertEquals(List.of(authority("ROLE_USER")), List.copyOf(AccessTokenClaims.authorities(jwt)));
+    }
+
+    @Test
+    void read_shouldKeepNonObjectIdsAndLegacyScope() {
+        Jwt jwt = jwt(Map.of("userId", "user123", "scope", List.of("ROLE_ADMIN")));
+
+        assertEquals("user123", AccessTokenClaims.userId(jwt));
+        assertEquals(List.of(authority("ROLE_ADMIN")), List.copyOf(AccessTokenClaims.authorities(jwt)));
+        assertEquals("user123", write("user123").get("userId"));
+    }
+
+    @Test
+    void hasKnownRoleTable_shouldRejectTokensFromNewerRoleTables() {
+        assertTrue(AccessTokenClaims.hasKnownRoleTable(jwt(write(OBJECT_ID, "ROLE_USER"))));
+        assertTrue(AccessTokenClaims.hasKnownRoleTable(jwt(Map.of("scope", List.of("ROLE_ADMIN")))));
+        assertFalse(AccessTokenClaims.hasKnownRoleTable(jwt(Map.of(AccessTokenClaims.ROLES, 1L,
+                AccessTokenClaims.ROLE_TABLE_VERSION, RoleCode.VERSION + 1))));
+    }
+
+    @Test
+    void langKey_shouldReadLanguageClaim() {
+        assertEquals("de", AccessTokenClaims.langKey(jwt(Map.of(AccessTokenClaims.LANG_KEY, "de"))));
+        assertNull(AccessTokenClaims.langKey(jwt(write(OBJECT_ID, "ROLE_USER"))));
+    }
+
+    @Test
+    void issuedAtMillis_shouldPreferMillisecondClaimAndFallBackToIssuedAt() {
+        assertEquals(1_700_000_000_123L, AccessTokenClaims.issuedAtMillis(jwt(Map.of(
+                AccessTokenClaims.ISSUED_AT_MILLIS, 1_700_000_000_123L, "iat", Instant.ofEpochSecond(1_700_000_000L)))));
+        assertEquals(1_700_000_000_000L, AccessTokenClaims.issuedAtMillis(jwt(Map.of("iat", Instant.ofEpochSecond(1_700_000_000L)))));
+        assertEquals(0L, AccessTokenClaims.issuedAtMillis(jwt(write(OBJECT_ID, "ROLE_USER"))));
+    }
+
+    private static Map<String, Object> write(String userId, String... roles) {
+        List<GrantedAuthority> authorities = List.of(roles).stream().map(AccessTokenClaimsTest::authority).toList();
+        return AccessTokenClaims.write(JwtClaimsSet.builder().subject("jane"), userId, authorities).build().getClaims();
+    }
+
+    private static Jwt jwt(Map<String, Object> claims) {
+        return Jwt.withTokenValue("token").header("alg", "ES256").claims(map -> map.putAll(claims)).build();
+    }
+
+    private static GrantedAuthority authority(String name) {
+        return new SimpleGrantedAuthority(name);
+    }
+}
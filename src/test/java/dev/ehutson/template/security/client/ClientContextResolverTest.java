@@ -0,0 +1,87 @@
+package dev.ehutson.template.security.client;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientContextResolverTest {
+
+    private ClientContextResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new ClientContextResolver(new ApplicationProperties());
+    }
+
+    @Test
+    void resolve_shouldIgnoreForwardingHeadersFromUntrustedPeers() {
+        MockHttpServletRequest request = request("203.0.113.9");
+        request.addHeader("X-Forwarded-For", "198.51.100.1");
+        request.addHeader("X-Real-IP", "198.51.100.2");
+
+        ClientContext client = resolver.resolve(request);
+
+        assertEquals("203.0.113.9", client.ipAddress());
+        assertEquals(List.of(), client.forwardedFor());
+    }
+
+    @Test
+    void resolve_shouldTakeRightmostUntrustedHopBehindTrustedProxies() {
+        MockHttpServletRequest request = request("10.0.0.5");
+        request.addHeader("X-Forwarded-For", "1.1.1.1, 198.51.100.7");
+        request.addHeader("X-Forwarded-For", "192.168.1.20");
+
+        ClientContext client = resolver.resolve(request);
+
+        // 1.1.1.1 was supplied by the client and cannot be believed
+        assertEquals("198.51.100.7", client.ipAddress());
+        assertEquals(List.of("1.1.1.1", "198.51.100.7", "192.168.1.20"), client.forwardedFor());
+        assertEquals("Mozilla/5.0", client.userAgent());
+    }
+
+    @Test
+    void resolve_shouldStopAtGarbledHop() {
+        MockHttpServletRequest request = request("127.0.0.1");
+        request.addHeader("X-Forwarded-For", "198.51.100.7, unknown, 10.1.2.3");
+
+        assertEquals("10.1.2.3", resolver.resolve(request).ipAddress());
+    }
+
+    @Test
+    void resolve_shouldFallBackToRealIpWithoutChain() {
+        MockHttpServletRequest request = request("::1");
+        request.addHeader("X-Real-IP", "2001:db8::7");
+
+        assertEquals("2001:db8::7", resolver.resolve(request).ipAddress());
+    }
+
+    @Test
+    void resolve_shouldExtractOncePerRequest() {
+        MockHttpServletRequest request = request("203.0.113.9");
+
+        ClientContext first = resolver.resolve(request);
+        request.setRemoteAddr("203.0.113.10");
+
+        assertSame(first, resolver.resolve(request));
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidTrustedProxies() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getClient().setTrustedProxies(List.of("10.0.0.0/33"));
+
+        assertThrows(IllegalArgumentException.class, () -> new ClientContextResolver(properties));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader("User-Agent", "Mozilla/5.0");
+        return request;
+    }
+}
@@ -0,0 +1,119 @@
+package dev.ehutson.template.security.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import dev.ehutson.template.security.config.properties.JwtProperties;
+import dev.ehutson.template.security.jwk.JwtKeys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.*;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtConfigTest {
+
+    private final JwtConfig config = new JwtConfig(new JwtProperties());
+
+    @Test
+    void encoder_shouldSignWithEveryKeyTypeAndDecoderVerifyByKid() throws Exception {
+        List<JWK> keys = List.of(
+                new RSAKeyGenerator(2048).keyID("rsa").generate(),
+                new ECKeyGenerator(Curve.P_256).keyID("ec").generate(),
+                new OctetKeyPairGenerator(Curve.Ed25519).keyID("ed").generate());
+
+        for (String keyId : List.of("rsa", "ec", "ed")) {
+            JwtKeys jwtKeys = JwtKeys.of(keys, keyId);
+            String token = encode(jwtKeys);
+
+            Jwt jwt = config.jwtDecoder(jwtKeys).decode(token);
+            assertEquals("jane", jwt.getSubject());
+            assertEquals(keyId, jwt.getHeaders().get("kid"));
+        }
+        assertEquals("ES256", JwtKeys.of(keys, "ec").signingAlgorithm().getName());
+        assertEquals("EdDSA", JwtKeys.of(keys, "ed").signingAlgorithm().getName());
+    }
+
+    @Test
+    void decoder_shouldAcceptTokensOfRetiredKeysDuringRotation() throws Exception {
+        RSAKey oldKey = new RSAKeyGenerator(2048).keyID("2024").generate();
+        JWK newKey = new ECKeyGenerator(Curve.P_256).keyID("2025").generate();
+        String oldToken = encode(JwtKeys.of(List.of(oldKey), "2024"));
+
+        // the old key is down to its public half and no longer signs
+        JwtKeys rotated = JwtKeys.of(List.of(oldKey.toPublicJWK(), newKey), "2025");
+
+        assertEquals("jane", config.jwtDecoder(rotated).decode(oldToken).getSubject());
+        assertEquals("2025", config.jwtDecoder(rotated).decode(encode(rotated)).getHeaders().get("kid"));
+        assertThrows(IllegalStateException.class, () -> JwtKeys.of(List.of(oldKey.toPublicJWK()), "2024"));
+    }
+
+    @Test
+    void decoder_shouldRejectUnknownKidsAndAlgorithmSwaps() throws Exception {
+        RSAKey known = new RSAKeyGenerator(2048).keyID("known").generate();
+        JwtKeys jwtKeys = JwtKeys.of(List.of(known), "known");
+        JwtDecoder decoder = config.jwtDecoder(jwtKeys);
+
+        String unknownKid = sign(new RSAKeyGenerator(2048).keyID("other").generate(), JWSAlgorithm.RS256, "other");
+        String otherAlgorithm = sign(known, JWSAlgorithm.RS512, "known");
+
+        assertThrows(BadJwtException.class, () -> decoder.decode(unknownKid));
+        assertThrows(BadJwtException.class, () -> decoder.decode(otherAlgorithm));
+    }
+
+    @Test
+    void decoder_shouldVerifyTokensWithoutKidWithLegacyRsaKey() throws Exception {
+        RSAKey legacy = new RSAKeyGenerator(2048).generate();
+        JwtProperties properties = new JwtProperties();
+        properties.setPublicKey(legacy.toRSAPublicKey());
+        properties.setPrivateKey(legacy.toRSAPrivateKey());
+        JwtKeys jwtKeys = JwtKeys.load(properties);
+
+        String token = sign(legacy, JWSAlgorithm.RS256, null);
+
+        assertEquals("jane", config.jwtDecoder(jwtKeys).decode(token).getSubject());
+        assertEquals("RS256", jwtKeys.signingAlgorithm().getName());
+    }
+
+    @Test
+    void publicJwkSet_shouldNotExposePrivateKeys() throws Exception {
+        JwtKeys jwtKeys = JwtKeys.of(List.of(new ECKeyGenerator(Curve.P_256).keyID("ec").generate()), "ec");
+
+        JWKSet published = JWKSet.parse(jwtKeys.publicJwkSetJson());
+
+        assertEquals("ec", published.getKeys().getFirst().getKeyID());
+        assertFalse(published.getKeys().getFirst().isPrivate());
+    }
+
+    private String encode(JwtKeys jwtKeys) {
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject("jane")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+        return config.jwtEncoder(jwtKeys).encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+
+    private static String sign(RSAKey key, JWSAlgorithm algorithm, String keyId) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("jane")
+                .expirationTime(Date.from(Instant.now().plusSeconds(60)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(algorithm).keyID(keyId).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
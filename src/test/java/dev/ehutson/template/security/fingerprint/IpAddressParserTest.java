@@ -0,0 +1,52 @@
+package dev.ehutson.template.security.fingerprint;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IpAddressParserTest {
+
+    private final byte[] out = new byte[IpAddressParser.IPV6_LENGTH];
+
+    @Test
+    void parse_shouldReadIpv4() {
+        assertEquals(4, IpAddressParser.parse("192.0.2.255", out));
+        assertArrayEquals(new byte[]{(byte) 192, 0, 2, (byte) 255}, slice(4));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2001:db8::1", "::1", "::", "fe80::1:2:3:4", "2001:db8:0:0:1:0:0:1", "1:2:3:4:5:6:7::"})
+    void parse_shouldReadIpv6LikeInetAddress(String address) throws Exception {
+        assertEquals(16, IpAddressParser.parse(address, out));
+        assertArrayEquals(InetAddress.getByName(address).getAddress(), slice(16));
+    }
+
+    @Test
+    void parse_shouldStripBracketsAndZone() throws Exception {
+        assertEquals(16, IpAddressParser.parse("[fe80::1%eth0]", out));
+        assertArrayEquals(InetAddress.getByName("fe80::1").getAddress(), slice(16));
+    }
+
+    @Test
+    void parse_shouldReturnMappedAddressesAsIpv4() {
+        assertEquals(4, IpAddressParser.parse("::ffff:192.0.2.1", out));
+        assertArrayEquals(new byte[]{(byte) 192, 0, 2, 1}, slice(4));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "localhost", "example.com", "256.0.0.1", "1.2.3", "1.2.3.4.5", "01.2.3.4",
+            "1::2::3", "1:2:3:4:5:6:7:8:9", "12345::1", "::g", "[::1"})
+    void parse_shouldRejectNonLiterals(String address) {
+        assertEquals(-1, IpAddressParser.parse(address, out));
+    }
+
+    private byte[] slice(int length) {
+        byte[] bytes = new byte[length];
+        System.arraycopy(out, 0, bytes, 0, length);
+        return bytes;
+    }
+}
@@ -0,0 +1,64 @@
+package dev.ehutson.template.security.fingerprint;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionFingerprintTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/122.0.6261.94 Safari/537.36",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_3_1 like Mac OS X)  Mobile/15E148\t\tVersion/17.3",
+            "curl/8.4.0",
+            "agent 1.2.3.4 build 42",
+            "trailing dot 1. and 2.x",
+            ""
+    })
+    void userAgentHash_shouldMatchRegexNormalization(String userAgent) {
+        String normalized = userAgent
+                .replaceAll("\\d+\\.\\d+(\\.\\d+)?", "X.X")
+                .replaceAll("\\s+", " ")
+                .toLowerCase();
+
+        assertEquals(SessionFingerprint.userAgentHash(normalized), SessionFingerprint.userAgentHash(userAgent));
+    }
+
+    @Test
+    void userAgentHash_shouldIgnoreVersionChanges() {
+        assertEquals(SessionFingerprint.userAgentHash("Firefox/123.0"), SessionFingerprint.userAgentHash("Firefox/124.0.1"));
+        assertNotEquals(SessionFingerprint.userAgentHash("Firefox/123.0"), SessionFingerprint.userAgentHash("Chrome/123.0"));
+    }
+
+    @Test
+    void ipPrefix_shouldMaskToConfiguredLength() {
+        assertEquals("c0000200/24", SessionFingerprint.ipPrefix("192.0.2.77", 24, 64));
+        assertEquals("c0000240/26", SessionFingerprint.ipPrefix("192.0.2.77", 26, 64));
+        assertEquals("20010db8000000010000000000000000/64", SessionFingerprint.ipPrefix("2001:db8:0:1:a:b:c:d", 24, 64));
+        assertNull(SessionFingerprint.ipPrefix("not-an-ip", 24, 64));
+    }
+
+    @Test
+    void matchesPrefix_shouldCompareWithinSubnet() {
+        String v4 = SessionFingerprint.ipPrefix("192.0.2.77", 24, 64);
+        assertTrue(SessionFingerprint.matchesPrefix(v4, "192.0.2.200"));
+        assertTrue(SessionFingerprint.matchesPrefix(v4, "::ffff:192.0.2.1"));
+        assertFalse(SessionFingerprint.matchesPrefix(v4, "192.0.3.77"));
+        assertFalse(SessionFingerprint.matchesPrefix(v4, "2001:db8::1"));
+
+        String v6 = SessionFingerprint.ipPrefix("2001:db8:0:1::1", 24, 64);
+        assertTrue(SessionFingerprint.matchesPrefix(v6, "2001:db8:0:1:ffff::"));
+        assertFalse(SessionFingerprint.matchesPrefix(v6, "2001:db8:0:2::1"));
+    }
+
+    @Test
+    void matchesPrefix_shouldHonourPartialBytes() {
+        String prefix = SessionFingerprint.ipPrefix("10.0.0.77", 26, 64);
+
+        assertTrue(SessionFingerprint.matchesPrefix(prefix, "10.0.0.127"));
+        assertFalse(SessionFingerprint.matchesPrefix(prefix, "10.0.0.128"));
+        assertFalse(SessionFingerprint.matchesPrefix(prefix, "localhost"));
+    }
+}
@@ -0,0 +1,67 @@
+package dev.ehutson.template.security.service;
+
+import dev.ehutson.template.security.config.properties.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AccessTokenRevocationServiceTest {
+
+    private static final String KEY = AccessTokenRevocationService.KEY_PREFIX + "user1";
+
+    private ValueOperations<String, String> values;
+    private AccessTokenRevocationService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+
+        JwtProperties properties = new JwtProperties();
+        properties.setAccessTokenExpirationSeconds(900);
+        service = new AccessTokenRevocationService(redisTemplate, properties);
+    }
+
+    @Test
+    void revokeAccessTokens_shouldRecordCutOffForOneTokenLifetime() {
+        long before = System.currentTimeMillis();
+
+        service.revokeAccessTokens("user1");
+
+        ArgumentCaptor<String> cutOff = ArgumentCaptor.forClass(String.class);
+        verify(values).set(eq(KEY), cutOff.capture(), eq(Duration.ofSeconds(900)));
+        assertTrue(Long.parseLong(cutOff.getValue()) >= before);
+    }
+
+    @Test
+    void revokeAccessTokens_shouldNotThrowWhenRedisIsUnavailable() {
+        doThrow(new RedisConnectionFailureException("down")).when(values).set(anyString(), anyString(), any(Duration.class));
+
+        assertDoesNotThrow(() -> service.revokeAccessTokens("user1"));
+    }
+
+    @Test
+    void isRevoked_shouldRefuseTokensIssuedUpToTheCutOff() {
+        when(values.get(KEY)).thenReturn("1700000000500");
+
+        assertTrue(service.isRevoked("user1", 1_700_000_000_000L));
+        assertTrue(service.isRevoked("user1", 1_700_000_000_500L));
+        assertFalse(service.isRevoked("user1", 1_700_000_000_501L));
+    }
+
+    @Test
+    void isRevoked_shouldAcceptTokensOfUsersWithoutCutOff() {
+        assertFalse(service.isRevoked("user1", 0));
+    }
+}
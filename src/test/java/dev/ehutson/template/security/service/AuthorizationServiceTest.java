@@ -2,13 +2,20 @@ package dev.ehutson.template.security.service;
 
 import dev.ehutson.template.domain.RoleModel;
 import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.exception.ApplicationException;
 import dev.ehutson.template.repository.RoleRepository;
 import dev.ehutson.template.repository.UserRepository;
+import dev.ehutson.template.service.user.UserCacheService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,6 +34,15 @@ class AuthorizationServiceTest {
     @Mock
     private RoleRepository roleRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UserCacheService userCacheService;
+
+    @Mock
+    private AccessTokenRevocationService accessTokenRevocationService;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -49,18 +65,26 @@ class AuthorizationServiceTest {
     void testAssignRoleToUser() {
         UserModel user = new UserModel();
         user.setId("user1");
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
         RoleModel role = new RoleModel();
         role.setId("role1");
+        user.getRoles().add(role);
 
-        when(userRepository.findById("user1")).thenReturn(Optional.of(user));
         when(roleRepository.findById("role1")).thenReturn(Optional.of(role));
-        when(userRepository.save(user)).thenReturn(user);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(UserModel.class)))
+                .thenReturn(user);
 
         UserModel result = authorizationService.assignRoleToUser("user1", "role1");
 
-        assertNotNull(result);
-        assertTrue(result.getRoles().contains(role));
-        verify(userRepository, times(1)).save(user);
+        assertSame(user, result);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(UserModel.class));
+        assertTrue(update.getValue().getUpdateObject().containsKey("$addToSet"));
+        assertTrue(update.getValue().getUpdateObject().containsKey("$inc"));
+        verify(userRepository, never()).save(any());
+        verify(userCacheService).evict("alice", "alice@example.com");
+        verifyNoInteractions(accessTokenRevocationService);
     }
 
     @Test
@@ -69,17 +93,46 @@ class AuthorizationServiceTest {
         user.setId("user1");
         RoleModel role = new RoleModel();
         role.setId("role1");
-        user.getRoles().add(role);
 
-        when(userRepository.findById("user1")).thenReturn(Optional.of(user));
         when(roleRepository.findById("role1")).thenReturn(Optional.of(role));
-        when(userRepository.save(user)).thenReturn(user);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(UserModel.class)))
+                .thenReturn(user);
 
         UserModel result = authorizationService.removeRoleFromUser("user1", "role1");
 
-        assertNotNull(result);
-        assertFalse(result.getRoles().contains(role));
-        verify(userRepository, times(1)).save(user);
+        assertSame(user, result);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(UserModel.class));
+        assertTrue(update.getValue().getUpdateObject().containsKey("$pull"));
+        verify(userRepository, never()).save(any());
+        verify(accessTokenRevocationService).revokeAccessTokens("user1");
+    }
+
+    @Test
+    void testAssignRoleAlreadyHeldLeavesUserUnchanged() {
+        UserModel user = new UserModel();
+        user.setId("user1");
+        RoleModel role = new RoleModel();
+        role.setId("role1");
+
+        when(roleRepository.findById("role1")).thenReturn(Optional.of(role));
+        when(userRepository.findById("user1")).thenReturn(Optional.of(user));
+
+        UserModel result = authorizationService.assignRoleToUser("user1", "role1");
+
+        assertSame(user, result);
+        verifyNoInteractions(userCacheService, accessTokenRevocationService);
+    }
+
+    @Test
+    void testAssignRoleToMissingUser() {
+        RoleModel role = new RoleModel();
+        role.setId("role1");
+
+        when(roleRepository.findById("role1")).thenReturn(Optional.of(role));
+        when(userRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThrows(ApplicationException.class, () -> authorizationService.assignRoleToUser("missing", "role1"));
     }
 
     @Test
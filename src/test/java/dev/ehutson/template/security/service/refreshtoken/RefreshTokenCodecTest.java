@@ -0,0 +1,105 @@
+package dev.ehutson.template.security.service.refreshtoken;
+
+import dev.ehutson.template.security.config.properties.JwtProperties;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshTokenCodecTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-01T12:00:00Z");
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private JwtProperties properties;
+    private RefreshTokenCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        properties = new JwtProperties();
+        properties.setRefreshTokenSecret(SECRET);
+        codec = new RefreshTokenCodec(properties, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void decode_shouldReturnSessionOfValidToken() {
+        String sessionId = new ObjectId().toHexString();
+        Instant expiresAt = NOW.plusSeconds(3600);
+
+        RefreshTokenCodec.Session session = codec.decode(codec.encode(sessionId, expiresAt)).orElseThrow();
+
+        assertEquals(sessionId, session.id());
+        assertEquals(expiresAt, session.expiresAt());
+    }
+
+    @Test
+    void decode_shouldRejectExpiredToken() {
+        String token = codec.encode(new ObjectId().toHexString(), NOW);
+
+        assertTrue(codec.decode(token).isEmpty());
+    }
+
+    @Test
+    void decode_shouldRejectTamperedToken() {
+        String token = codec.encode(new ObjectId().toHexString(), NOW.plusSeconds(3600));
+        char[] chars = token.toCharArray();
+        chars[5] = chars[5] == 'A' ? 'B' : 'A';
+
+        assertTrue(codec.decode(new String(chars)).isEmpty());
+    }
+
+    @Test
+    void decode_shouldRejectTokenSignedWithAnotherSecret() {
+        properties.setRefreshTokenSecret(Base64.getEncoder().encodeToString(
+                "a different secret of at least 32 bytes".getBytes(StandardCharsets.UTF_8)));
+        String token = new RefreshTokenCodec(properties).encode(new ObjectId().toHexString(), NOW.plusSeconds(3600));
+
+        assertTrue(codec.decode(token).isEmpty());
+    }
+
+    @Test
+    void decode_shouldRejectMalformedTokens() {
+        assertTrue(codec.decode(null).isEmpty());
+        assertTrue(codec.decode("").isEmpty());
+        assertTrue(codec.decode("8a3d5c1e-0b4f-4a3e-9a5e-2f1c7d6b9e01").isEmpty());
+        assertTrue(codec.decode("!".repeat(71)).isEmpty());
+    }
+
+    @Test
+    void constructor_shouldRejectShortSecret() {
+        properties.setRefreshTokenSecret(Base64.getEncoder().encodeToString(new byte[16]));
+
+        assertThrows(IllegalArgumentException.class, () -> new RefreshTokenCodec(properties));
+    }
+
+    @Test
+    void constructor_shouldRejectSecretThatIsNotBase64() {
+        properties.setRefreshTokenSecret("${JWT_REFRESH_TOKEN_SECRET}");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new RefreshTokenCodec(properties));
+        assertEquals("jwt.refresh-token-secret must be base64 encoded", e.getMessage());
+    }
+
+    @Test
+    void constructor_shouldRequireSecretWhenConfiguredTo() {
+        properties.setRefreshTokenSecret("");
+        properties.setRefreshTokenSecretRequired(true);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new RefreshTokenCodec(properties));
+        assertTrue(e.getMessage().startsWith("jwt.refresh-token-secret is required"));
+    }
+
+    @Test
+    void constructor_shouldFallBackToRandomSecretWhenNotRequired() {
+        properties.setRefreshTokenSecret("");
+
+        assertDoesNotThrow(() -> new RefreshTokenCodec(properties));
+    }
+}
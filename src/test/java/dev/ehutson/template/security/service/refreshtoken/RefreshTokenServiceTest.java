@@ -0,0 +1,143 @@
+package dev.ehutson.template.security.service.refreshtoken;
+
+import dev.ehutson.template.domain.RefreshTokenModel;
+import dev.ehutson.template.exception.ApplicationException;
+import dev.ehutson.template.exception.ErrorCode;
+import dev.ehutson.template.security.config.properties.JwtProperties;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenValidator validator;
+
+    @Mock
+    private RefreshTokenManager manager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RotatedTokenIndex rotatedTokenIndex;
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private JwtProperties properties;
+    private RefreshTokenCodec codec;
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new JwtProperties();
+        properties.setRefreshTokenSecret(Base64.getEncoder().encodeToString(new byte[32]));
+        codec = new RefreshTokenCodec(properties);
+        service = new RefreshTokenService(validator, manager, properties, eventPublisher, codec, rotatedTokenIndex);
+    }
+
+    @Test
+    void rotateRefreshToken_shouldKeepFamilyAndRecordRotation() {
+        RefreshTokenModel existing = session("family-1");
+        String oldToken = codec.encode(existing.getId(), existing.getExpiresAt());
+        RefreshTokenModel replacement = session("family-1");
+        when(validator.validateRefreshToken(oldToken, request, properties)).thenReturn(existing);
+        when(manager.newRefreshToken("user-1", "family-1", request, properties)).thenReturn(replacement);
+        when(manager.claimForRotation(existing, replacement.getToken())).thenReturn(true);
+        when(manager.saveRefreshToken(replacement)).thenReturn(replacement);
+
+        assertSame(replacement, service.rotateRefreshToken(oldToken, request));
+
+        verify(rotatedTokenIndex).recordRotation(existing.getId(), "family-1");
+        verify(eventPublisher).publishEvent(any(SessionChangedEvent.class));
+    }
+
+    @Test
+    void rotateRefreshToken_shouldRevokeFamilyWhenLosingConcurrentRotation() {
+        RefreshTokenModel existing = session("family-1");
+        String oldToken = codec.encode(existing.getId(), existing.getExpiresAt());
+        RefreshTokenModel winner = session("family-1");
+        RefreshTokenModel loser = session("family-1");
+        when(validator.validateRefreshToken(oldToken, request, properties)).thenReturn(existing);
+        when(manager.newRefreshToken("user-1", "family-1", request, properties)).thenReturn(winner, loser);
+        when(manager.claimForRotation(existing, winner.getToken())).thenReturn(true);
+        when(manager.claimForRotation(existing, loser.getToken())).thenReturn(false);
+        when(manager.saveRefreshToken(winner)).thenReturn(winner);
+
+        // both requests passed validation before either claimed the session
+        assertSame(winner, service.rotateRefreshToken(oldToken, request));
+        ApplicationException e = assertThrows(ApplicationException.class, () -> service.rotateRefreshToken(oldToken, request));
+
+        assertEquals(ErrorCode.INVALID_TOKEN, e.getCode());
+        verify(manager, never()).saveRefreshToken(loser);
+        verify(manager).revokeTokenFamily("family-1");
+        verify(eventPublisher, times(1)).publishEvent(any(SessionChangedEvent.class));
+    }
+
+    @Test
+    void handleSuspiciousActivity_shouldRevokeFamilyOfReplayedToken() {
+        String sessionId = new ObjectId().toHexString();
+        when(rotatedTokenIndex.familyOf(sessionId)).thenReturn("family-1");
+
+        service.handleSuspiciousActivity(codec.encode(sessionId, Instant.now().plusSeconds(60)), request);
+
+        verify(manager).revokeTokenFamily("family-1");
+        verifyNoInteractions(validator);
+    }
+
+    @Test
+    void handleSuspiciousActivity_shouldRevokeFamilyOfLiveSessionFailingValidation() {
+        RefreshTokenModel existing = session("family-1");
+        String token = codec.encode(existing.getId(), existing.getExpiresAt());
+        when(validator.findActive(token)).thenReturn(Optional.of(existing));
+
+        service.handleSuspiciousActivity(token, request);
+
+        verify(manager).revokeTokenFamily("family-1");
+        verify(manager, never()).revokeAllUserTokens(any());
+    }
+
+    @Test
+    void handleSuspiciousActivity_shouldIgnoreMalformedToken() {
+        when(validator.isMalformedOrExpired("garbage")).thenReturn(true);
+
+        service.handleSuspiciousActivity("garbage", request);
+
+        verifyNoInteractions(manager, rotatedTokenIndex);
+        verify(validator, never()).findActive(any());
+    }
+
+    @Test
+    void handleSuspiciousActivity_shouldSkipIndexWhenReuseDetectionIsDisabled() {
+        properties.getSecurity().setEnableTokenReuseDetection(false);
+        String token = codec.encode(new ObjectId().toHexString(), Instant.now().plusSeconds(60));
+
+        service.handleSuspiciousActivity(token, request);
+
+        verifyNoInteractions(rotatedTokenIndex, manager);
+    }
+
+    private static RefreshTokenModel session(String familyId) {
+        String id = new ObjectId().toHexString();
+        return RefreshTokenModel.builder()
+                .id(id)
+                .token("token-" + id)
+                .userId("user-1")
+                .familyId(familyId)
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+    }
+}
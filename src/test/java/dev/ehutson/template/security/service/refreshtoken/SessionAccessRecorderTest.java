@@ -0,0 +1,50 @@
+package dev.ehutson.template.security.service.refreshtoken;
+
+import dev.ehutson.template.security.config.properties.JwtProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.*;
+
+class SessionAccessRecorderTest {
+
+    private static final Duration INTERVAL = Duration.ofSeconds(300);
+
+    private RefreshTokenManager manager;
+    private SessionAccessRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        manager = mock(RefreshTokenManager.class);
+        JwtProperties properties = new JwtProperties();
+        properties.getSecurity().setSessionTouchIntervalSeconds(INTERVAL.toSeconds());
+        recorder = new SessionAccessRecorder(manager, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recorder.shutdown();
+    }
+
+    @Test
+    void recordAccess_shouldTouchEachSessionOncePerInterval() {
+        for (int i = 0; i < 10; i++) {
+            recorder.recordAccess("session-1");
+        }
+        recorder.recordAccess("session-2");
+
+        verify(manager, timeout(1_000)).updateLastAccessed("session-1", INTERVAL);
+        verify(manager, timeout(1_000)).updateLastAccessed("session-2", INTERVAL);
+        verifyNoMoreInteractions(manager);
+    }
+
+    @Test
+    void recordAccess_shouldIgnoreTokensWithoutSession() {
+        recorder.recordAccess(null);
+
+        verifyNoInteractions(manager);
+    }
+}
@@ -4,6 +4,7 @@ import dev.ehutson.template.config.properties.ApplicationProperties;
 import dev.ehutson.template.domain.UserModel;
 import dev.ehutson.template.exception.EmailSendFailedException;
 import dev.ehutson.template.service.mail.MailService;
+import dev.ehutson.template.service.mail.MailTemplateRenderer;
 import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,11 +12,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.context.MessageSource;
 import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
 
 import java.util.Locale;
 
@@ -33,10 +31,7 @@ class MailServiceTest {
     private ApplicationProperties properties;
 
     @Mock
-    private MessageSource messageSource;
-
-    @Mock
-    private SpringTemplateEngine templateEngine;
+    private MailTemplateRenderer templateRenderer;
 
     @Mock
     private MimeMessage mimeMessage;
@@ -98,8 +93,8 @@ class MailServiceTest {
         String templateName = "mail/testTemplate";
         String titleKey = "email.test.title";
 
-        when(templateEngine.process(eq(templateName), any(Context.class))).thenReturn("Test Content");
-        when(messageSource.getMessage(eq(titleKey), any(), any(Locale.class))).thenReturn("Test Subject");
+        when(templateRenderer.render(eq(templateName), any(Locale.class), eq(user), any())).thenReturn("Test Content");
+        when(templateRenderer.subject(eq(titleKey), any(Locale.class))).thenReturn("Test Subject");
 
         // Act
         mailService.sendEmailFromTemplate(user, templateName, titleKey);
@@ -131,8 +126,8 @@ class MailServiceTest {
         user.setEmail("test@example.com");
         user.setLangKey("en");
 
-        when(templateEngine.process(eq("mail/activationEmail"), any(Context.class))).thenReturn("Test Content");
-        when(messageSource.getMessage(eq("email.activation.title"), any(), any(Locale.class))).thenReturn("Activation Email");
+        when(templateRenderer.render(eq("mail/activationEmail"), any(Locale.class), eq(user), any())).thenReturn("Test Content");
+        when(templateRenderer.subject(eq("email.activation.title"), any(Locale.class))).thenReturn("Activation Email");
 
         // Act
         mailService.sendActivationEmail(user);
@@ -148,8 +143,8 @@ class MailServiceTest {
         user.setEmail("test@example.com");
         user.setLangKey("en");
 
-        when(templateEngine.process(eq("mail/creationEmail"), any(Context.class))).thenReturn("Test Content");
-        when(messageSource.getMessage(eq("email.activation.title"), any(), any(Locale.class))).thenReturn("Creation Email");
+        when(templateRenderer.render(eq("mail/creationEmail"), any(Locale.class), eq(user), any())).thenReturn("Test Content");
+        when(templateRenderer.subject(eq("email.activation.title"), any(Locale.class))).thenReturn("Creation Email");
 
         // Act
         mailService.sendCreationEmail(user);
@@ -165,8 +160,8 @@ class MailServiceTest {
         user.setEmail("test@example.com");
         user.setLangKey("en");
 
-        when(templateEngine.process(eq("mail/passwordResetEmail"), any(Context.class))).thenReturn("Test Content");
-        when(messageSource.getMessage(eq("email.reset.title"), any(), any(Locale.class))).thenReturn("Password Reset Email");
+        when(templateRenderer.render(eq("mail/passwordResetEmail"), any(Locale.class), eq(user), any())).thenReturn("Test Content");
+        when(templateRenderer.subject(eq("email.reset.title"), any(Locale.class))).thenReturn("Password Reset Email");
 
         // Act
         mailService.sendPasswordResetMail(user);
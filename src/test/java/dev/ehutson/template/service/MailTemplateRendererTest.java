@@ -0,0 +1,72 @@
+package dev.ehutson.template.service;
+
+import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.service.mail.MailTemplateRenderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.io.Writer;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MailTemplateRendererTest {
+
+    @Mock
+    private SpringTemplateEngine templateEngine;
+
+    @Mock
+    private MessageSource messageSource;
+
+    @InjectMocks
+    private MailTemplateRenderer renderer;
+
+    @Test
+    void subject_shouldBeResolvedOncePerSupportedLocale() {
+        when(messageSource.getMessage("email.activation.title", null, Locale.GERMAN)).thenReturn("Aktivieren Sie Ihr Konto");
+
+        assertEquals("Aktivieren Sie Ihr Konto", renderer.subject("email.activation.title", Locale.GERMAN));
+        assertEquals("Aktivieren Sie Ihr Konto", renderer.subject("email.activation.title", Locale.forLanguageTag("de")));
+
+        verify(messageSource, times(1)).getMessage("email.activation.title", null, Locale.GERMAN);
+    }
+
+    @Test
+    void subject_shouldNotCacheUnsupportedLocales() {
+        Locale japanese = Locale.JAPANESE;
+        when(messageSource.getMessage("email.activation.title", null, japanese)).thenReturn("Activate your account");
+
+        renderer.subject("email.activation.title", japanese);
+        renderer.subject("email.activation.title", japanese);
+
+        verify(messageSource, times(2)).getMessage("email.activation.title", null, japanese);
+    }
+
+    @Test
+    void render_shouldNotLeakContentBetweenCalls() {
+        doAnswer(invocation -> {
+            Context context = invocation.getArgument(1);
+            Writer writer = invocation.getArgument(2);
+            writer.write("Hello, " + ((UserModel) context.getVariable("user")).getFirstName());
+            return null;
+        }).when(templateEngine).process(eq("mail/activationEmail"), any(Context.class), any(Writer.class));
+
+        assertEquals("Hello, Alice", renderer.render("mail/activationEmail", Locale.ENGLISH, user("Alice"), "http://localhost"));
+        assertEquals("Hello, Bob", renderer.render("mail/activationEmail", Locale.ENGLISH, user("Bob"), "http://localhost"));
+    }
+
+    private static UserModel user(String firstName) {
+        UserModel user = new UserModel();
+        user.setFirstName(firstName);
+        return user;
+    }
+}
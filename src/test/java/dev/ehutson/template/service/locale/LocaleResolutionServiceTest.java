@@ -0,0 +1,96 @@
+package dev.ehutson.template.service.locale;
+
+import dev.ehutson.template.security.service.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocaleResolutionServiceTest {
+
+    private final AtomicInteger headerCalls = new AtomicInteger();
+
+    private LocaleResolutionService service;
+
+    @BeforeEach
+    void setUp() {
+        LocaleResolverStrategy header = new LocaleResolverStrategy() {
+            @Override
+            public Optional<Locale> resolveLocale() {
+                headerCalls.incrementAndGet();
+                return Optional.of(Locale.FRENCH);
+            }
+
+            @Override
+            public int getPriority() {
+                return 20;
+            }
+        };
+        service = new LocaleResolutionService(List.of(new DefaultLocaleResolverStrategy(), header, new UserLocaleResolverStrategy()));
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void resolveLocale_shouldUseStrategiesInPriorityOrder() {
+        authenticate("de");
+
+        assertEquals(Locale.GERMAN, service.resolveLocale());
+        assertEquals(0, headerCalls.get());
+    }
+
+    @Test
+    void resolveLocale_shouldResolveOncePerRequest() {
+        for (int i = 0; i < 50; i++) {
+            assertEquals(Locale.FRENCH, service.resolveLocale());
+        }
+
+        assertEquals(1, headerCalls.get());
+    }
+
+    @Test
+    void resolveLocale_shouldResolveAgainWhenAuthenticationChanges() {
+        assertEquals(Locale.FRENCH, service.resolveLocale());
+
+        authenticate("pl");
+
+        assertEquals(Locale.forLanguageTag("pl"), service.resolveLocale());
+    }
+
+    @Test
+    void resolveLocale_shouldNotMemoizeOutsideRequest() {
+        RequestContextHolder.resetRequestAttributes();
+
+        service.resolveLocale();
+        service.resolveLocale();
+
+        assertEquals(2, headerCalls.get());
+    }
+
+    private static void authenticate(String langKey) {
+        UserDetailsImpl principal = UserDetailsImpl.builder()
+                .username("user")
+                .langKey(langKey)
+                .authorities(List.of())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,217 @@
+package dev.ehutson.template.service.mail.bulk;
+
+import com.mongodb.client.result.UpdateResult;
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.BulkMailRunModel;
+import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.repository.BulkMailRunRepository;
+import dev.ehutson.template.service.mail.MailService;
+import dev.ehutson.template.service.maintenance.SchedulerLock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkMailSenderTest {
+
+    private static final String RUN_ID = "run-1";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkMailRunRepository runRepository;
+
+    @Mock
+    private MailService mailService;
+
+    @Mock
+    private SchedulerLock schedulerLock;
+
+    private BulkMailSender sender;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getMail().getBulk().setConcurrency(1);
+        properties.getMail().getBulk().setRateLimit(0);
+        properties.getMail().getBulk().setCheckpointInterval(2);
+        sender = new BulkMailSender(mongoTemplate, runRepository, mailService, schedulerLock, properties,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void run_shouldSkipRunLeasedByAnotherNode() {
+        when(schedulerLock.tryAcquire(eq(BulkMailSender.lockName(RUN_ID)), any(Duration.class))).thenReturn(false);
+
+        sender.run(RUN_ID);
+
+        verifyNoInteractions(runRepository, mongoTemplate, mailService);
+        verify(schedulerLock, never()).release(anyString(), any(Duration.class));
+    }
+
+    @Test
+    void run_shouldCheckpointEveryWindowAndComplete() {
+        leaseHeld(true);
+        when(runRepository.findById(RUN_ID)).thenReturn(Optional.of(run(null)));
+        when(mongoTemplate.stream(any(Query.class), eq(UserModel.class))).thenReturn(users("u1", "u2", "u3"));
+        when(mailService.prepareTemplateMessage(any(UserModel.class), anyString(), anyString()))
+                .thenAnswer(invocation -> Optional.of(mock(MimeMessage.class)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(BulkMailRunModel.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        sender.run(RUN_ID);
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), updates.capture(), eq(BulkMailRunModel.class));
+        List<Update> values = updates.getAllValues();
+        assertEquals("u2", set(values.get(0)).get("lastUserId"));
+        assertEquals("u3", set(values.get(1)).get("lastUserId"));
+        assertEquals(BulkMailRunModel.Status.COMPLETED, set(values.get(2)).get("status"));
+        verify(mailService, times(2)).sendAll(any(MimeMessage[].class));
+        verify(schedulerLock, times(2)).renew(eq(BulkMailSender.lockName(RUN_ID)), any(Duration.class));
+        verify(schedulerLock).release(BulkMailSender.lockName(RUN_ID), Duration.ZERO);
+    }
+
+    @Test
+    void run_shouldResumeAfterCheckpoint() {
+        when(schedulerLock.tryAcquire(eq(BulkMailSender.lockName(RUN_ID)), any(Duration.class))).thenReturn(true);
+        when(runRepository.findById(RUN_ID)).thenReturn(Optional.of(run("u5")));
+        when(mongoTemplate.stream(any(Query.class), eq(UserModel.class))).thenReturn(Stream.empty());
+
+        sender.run(RUN_ID);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(UserModel.class));
+        assertEquals(new Document("$gt", "u5"), query.getValue().getQueryObject().get("id"));
+        verify(mailService, never()).sendAll(any(MimeMessage[].class));
+    }
+
+    @Test
+    void run_shouldStopAfterLosingTheLease() {
+        leaseHeld(false);
+        when(runRepository.findById(RUN_ID)).thenReturn(Optional.of(run(null)));
+        when(mongoTemplate.stream(any(Query.class), eq(UserModel.class))).thenReturn(users("u1", "u2", "u3"));
+        when(mailService.prepareTemplateMessage(any(UserModel.class), anyString(), anyString()))
+                .thenAnswer(invocation -> Optional.of(mock(MimeMessage.class)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(BulkMailRunModel.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        sender.run(RUN_ID);
+
+        // the first window is checkpointed, then the node that took the run over sends the rest
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(BulkMailRunModel.class));
+        verify(mailService, times(1)).sendAll(any(MimeMessage[].class));
+    }
+
+    @Test
+    void run_shouldStopWhenCancelledAtCheckpoint() {
+        when(schedulerLock.tryAcquire(eq(BulkMailSender.lockName(RUN_ID)), any(Duration.class))).thenReturn(true);
+        when(runRepository.findById(RUN_ID)).thenReturn(Optional.of(run(null)));
+        when(mongoTemplate.stream(any(Query.class), eq(UserModel.class))).thenReturn(users("u1", "u2", "u3"));
+        when(mailService.prepareTemplateMessage(any(UserModel.class), anyString(), anyString()))
+                .thenAnswer(invocation -> Optional.of(mock(MimeMessage.class)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(BulkMailRunModel.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        sender.run(RUN_ID);
+
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(BulkMailRunModel.class));
+        verify(mailService, times(1)).sendAll(any(MimeMessage[].class));
+        verify(schedulerLock).release(BulkMailSender.lockName(RUN_ID), Duration.ZERO);
+    }
+
+    @Test
+    void run_shouldPaceSendsInBatches() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getMail().getBulk().setConcurrency(1);
+        properties.getMail().getBulk().setRateLimit(2);
+        properties.getMail().getBulk().setCheckpointInterval(3);
+        sender = new BulkMailSender(mongoTemplate, runRepository, mailService, schedulerLock, properties,
+                new SimpleMeterRegistry());
+        leaseHeld(true);
+        when(runRepository.findById(RUN_ID)).thenReturn(Optional.of(run(null)));
+        when(mongoTemplate.stream(any(Query.class), eq(UserModel.class))).thenReturn(users("u1", "u2", "u3"));
+        when(mailService.prepareTemplateMessage(any(UserModel.class), anyString(), anyString()))
+                .thenAnswer(invocation -> Optional.of(mock(MimeMessage.class)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(BulkMailRunModel.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        sender.run(RUN_ID);
+
+        // one second of the rate per batch, rather than the whole window at once
+        ArgumentCaptor<MimeMessage[]> batches = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(mailService, times(2)).sendAll(batches.capture());
+        assertEquals(2, batches.getAllValues().get(0).length);
+        assertEquals(1, batches.getAllValues().get(1).length);
+    }
+
+    @Test
+    void run_shouldStopWhenTheLeaseIsLostMidWindow() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getMail().getBulk().setConcurrency(1);
+        properties.getMail().getBulk().setRateLimit(0);
+        properties.getMail().getBulk().setCheckpointInterval(2);
+        properties.getMail().getBulk().setLease(Duration.ofMillis(30));
+        sender = new BulkMailSender(mongoTemplate, runRepository, mailService, schedulerLock, properties,
+                new SimpleMeterRegistry());
+        leaseHeld(false);
+        when(runRepository.findById(RUN_ID)).thenReturn(Optional.of(run(null)));
+        when(mongoTemplate.stream(any(Query.class), eq(UserModel.class))).thenReturn(users("u1", "u2", "u3"));
+        when(mailService.prepareTemplateMessage(any(UserModel.class), anyString(), anyString()))
+                .thenAnswer(invocation -> Optional.of(mock(MimeMessage.class)));
+        // a slow SMTP server, outlasting the lease
+        doAnswer(invocation -> {
+            Thread.sleep(500);
+            return null;
+        }).when(mailService).sendAll(any(MimeMessage[].class));
+
+        sender.run(RUN_ID);
+
+        // neither checkpointed nor finished: the node that took the run over owns it now
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(BulkMailRunModel.class));
+        verify(schedulerLock).release(BulkMailSender.lockName(RUN_ID), Duration.ZERO);
+    }
+
+    private void leaseHeld(boolean renewed) {
+        when(schedulerLock.tryAcquire(eq(BulkMailSender.lockName(RUN_ID)), any(Duration.class))).thenReturn(true);
+        when(schedulerLock.renew(eq(BulkMailSender.lockName(RUN_ID)), any(Duration.class))).thenReturn(renewed);
+    }
+
+    private static BulkMailRunModel run(String lastUserId) {
+        return BulkMailRunModel.builder()
+                .id(RUN_ID)
+                .segment(BulkMailRunModel.Segment.UNACTIVATED)
+                .template(BulkMailRunModel.Template.ACTIVATION)
+                .createdBefore(Instant.now())
+                .lastUserId(lastUserId)
+                .build();
+    }
+
+    private static Stream<UserModel> users(String... ids) {
+        return Stream.of(ids).map(id -> UserModel.builder().id(id).username(id).build());
+    }
+
+    private static Document set(Update update) {
+        return update.getUpdateObject().get("$set", Document.class);
+    }
+}
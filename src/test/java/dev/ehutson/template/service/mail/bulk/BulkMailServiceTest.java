@@ -0,0 +1,120 @@
+package dev.ehutson.template.service.mail.bulk;
+
+import dev.ehutson.template.domain.BulkMailRunModel;
+import dev.ehutson.template.exception.ApplicationException;
+import dev.ehutson.template.exception.ErrorCode;
+import dev.ehutson.template.repository.BulkMailRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkMailServiceTest {
+
+    @Mock
+    private BulkMailRunRepository runRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private Scheduler scheduler;
+
+    private BulkMailService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BulkMailService(runRepository, mongoTemplate, scheduler);
+    }
+
+    @Test
+    void start_shouldRejectTemplateTheSegmentHasNoKeyFor() {
+        ApplicationException e = assertThrows(ApplicationException.class, () -> service.start(
+                BulkMailRunModel.Segment.ACTIVE, BulkMailRunModel.Template.ACTIVATION, null, "admin"));
+
+        assertEquals(ErrorCode.VALIDATION_FAILED, e.getCode());
+        verifyNoInteractions(runRepository, scheduler);
+    }
+
+    @Test
+    void start_shouldScheduleCompatibleRun() throws SchedulerException {
+        when(runRepository.save(any(BulkMailRunModel.class))).thenAnswer(invocation -> {
+            BulkMailRunModel run = invocation.getArgument(0);
+            run.setId("run-1");
+            return run;
+        });
+
+        BulkMailRunModel run = service.start(
+                BulkMailRunModel.Segment.UNACTIVATED, BulkMailRunModel.Template.ACTIVATION, null, "admin");
+
+        assertEquals(BulkMailRunModel.Status.RUNNING, run.getStatus());
+        assertNotNull(run.getCreatedBefore());
+        verify(scheduler).scheduleJob(any(JobDetail.class), any(Trigger.class));
+    }
+
+    @Test
+    void isCompatible_shouldOnlyAllowSegmentsWithTheLinkedKey() {
+        assertTrue(BulkMailService.isCompatible(BulkMailRunModel.Segment.UNACTIVATED, BulkMailRunModel.Template.ACTIVATION));
+        assertTrue(BulkMailService.isCompatible(BulkMailRunModel.Segment.UNACTIVATED, BulkMailRunModel.Template.CREATION));
+        assertTrue(BulkMailService.isCompatible(BulkMailRunModel.Segment.ACTIVE, BulkMailRunModel.Template.PASSWORD_RESET));
+        assertFalse(BulkMailService.isCompatible(BulkMailRunModel.Segment.ACTIVE, BulkMailRunModel.Template.ACTIVATION));
+        assertFalse(BulkMailService.isCompatible(BulkMailRunModel.Segment.ACTIVE, BulkMailRunModel.Template.CREATION));
+        assertFalse(BulkMailService.isCompatible(BulkMailRunModel.Segment.UNACTIVATED, BulkMailRunModel.Template.PASSWORD_RESET));
+    }
+
+    @Test
+    void cancel_shouldOnlyUpdateRunningRunConditionally() {
+        BulkMailRunModel cancelled = BulkMailRunModel.builder()
+                .id("run-1")
+                .status(BulkMailRunModel.Status.CANCELLED)
+                .sent(1000)
+                .build();
+        when(runRepository.findById("run-1")).thenReturn(Optional.of(cancelled));
+
+        BulkMailRunModel result = service.cancel("run-1");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(BulkMailRunModel.class));
+        assertEquals(BulkMailRunModel.Status.RUNNING, query.getValue().getQueryObject().get("status"));
+        assertTrue(update.getValue().modifies("status"));
+        assertFalse(update.getValue().modifies("sent"));
+        assertFalse(update.getValue().modifies("lastUserId"));
+        assertSame(cancelled, result);
+        verify(runRepository, never()).save(any());
+    }
+
+    @Test
+    void resumeInterruptedRuns_shouldScheduleRunsNotScheduledOnThisNode() throws SchedulerException {
+        BulkMailRunModel idle = BulkMailRunModel.builder().id("idle").build();
+        BulkMailRunModel local = BulkMailRunModel.builder().id("local").build();
+        when(runRepository.findAllByStatus(BulkMailRunModel.Status.RUNNING)).thenReturn(List.of(idle, local));
+        when(scheduler.checkExists(JobKey.jobKey("idle", BulkMailService.JOB_GROUP))).thenReturn(false);
+        when(scheduler.checkExists(JobKey.jobKey("local", BulkMailService.JOB_GROUP))).thenReturn(true);
+
+        service.resumeInterruptedRuns();
+
+        ArgumentCaptor<JobDetail> job = ArgumentCaptor.forClass(JobDetail.class);
+        verify(scheduler).scheduleJob(job.capture(), any(Trigger.class));
+        assertEquals("idle", job.getValue().getKey().getName());
+    }
+}
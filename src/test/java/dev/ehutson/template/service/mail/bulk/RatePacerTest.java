@@ -0,0 +1,48 @@
+package dev.ehutson.template.service.mail.bulk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RatePacerTest {
+
+    @Test
+    void acquire_shouldSpacePermitsToTheConfiguredRate() {
+        BulkMailSender.RatePacer pacer = new BulkMailSender.RatePacer(100);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 21; i++) {
+            pacer.acquire();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 21 permits at 100/s: the first is immediate, the remaining 20 take ~200ms
+        assertTrue(elapsedMillis >= 180, "expected pacing, took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void acquire_shouldWaitForTheLastSlotOfABatch() {
+        BulkMailSender.RatePacer pacer = new BulkMailSender.RatePacer(100);
+
+        long start = System.nanoTime();
+        pacer.acquire(21);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // the batch may only go out once its 21st message would have
+        assertTrue(elapsedMillis >= 180, "expected pacing, took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void acquire_shouldNotBlockWhenUnlimited() {
+        BulkMailSender.RatePacer pacer = new BulkMailSender.RatePacer(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            pacer.acquire();
+        }
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+    }
+}
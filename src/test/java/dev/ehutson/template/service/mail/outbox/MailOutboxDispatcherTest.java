@@ -0,0 +1,29 @@
+package dev.ehutson.template.service.mail.outbox;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MailOutboxDispatcherTest {
+
+    private static final Duration INITIAL = Duration.ofSeconds(30);
+    private static final Duration MAX = Duration.ofHours(1);
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 30",
+            "1, 30",
+            "2, 60",
+            "3, 120",
+            "7, 1920",
+            "8, 3600",
+            "50, 3600",
+            "2147483647, 3600"
+    })
+    void backoff_shouldDoubleUntilCapped(int attempt, long expectedSeconds) {
+        assertEquals(Duration.ofSeconds(expectedSeconds), MailOutboxDispatcher.backoff(attempt, INITIAL, MAX));
+    }
+}
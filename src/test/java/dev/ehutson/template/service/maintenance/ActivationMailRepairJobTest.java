@@ -0,0 +1,60 @@
+package dev.ehutson.template.service.maintenance;
+
+import dev.ehutson.template.config.properties.ApplicationProperties;
+import dev.ehutson.template.domain.UserModel;
+import dev.ehutson.template.repository.MailOutboxRepository;
+import dev.ehutson.template.service.mail.outbox.MailOutboxService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivationMailRepairJobTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MailOutboxRepository outboxRepository;
+
+    @Mock
+    private MailOutboxService outboxService;
+
+    @Mock
+    private SchedulerLock schedulerLock;
+
+    private ActivationMailRepairJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new ActivationMailRepairJob(mongoTemplate, outboxRepository, outboxService, schedulerLock,
+                new ApplicationProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void runMaintenance_shouldOnlyQueueUsersWithoutActivationMail() {
+        UserModel missed = UserModel.builder().id("u1").username("missed").email("missed@example.com").build();
+        UserModel queued = UserModel.builder().id("u2").username("queued").email("queued@example.com").build();
+        when(mongoTemplate.find(any(Query.class), eq(UserModel.class))).thenReturn(List.of(missed, queued));
+        when(outboxRepository.existsByUserIdAndTemplateNameIn(eq("u1"), anyCollection())).thenReturn(false);
+        when(outboxRepository.existsByUserIdAndTemplateNameIn(eq("u2"), anyCollection())).thenReturn(true);
+
+        assertEquals(1, job.runMaintenance());
+
+        verify(outboxService).enqueueActivationEmail(missed);
+        verify(outboxService, never()).enqueueActivationEmail(queued);
+    }
+}
@@ -0,0 +1,57 @@
+package dev.ehutson.template.service.message;
+
+import dev.ehutson.template.config.MessageConfig;
+import dev.ehutson.template.exception.ErrorCode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageCatalogTest {
+
+    private static MessageCatalog catalog;
+
+    @BeforeAll
+    static void setUp() {
+        catalog = new MessageCatalog();
+    }
+
+    @Test
+    void getMessage_shouldCoverEveryErrorCodeInEveryLocale() {
+        for (ErrorCode code : ErrorCode.values()) {
+            for (Locale locale : MessageConfig.SUPPORTED_LOCALES) {
+                assertNotEquals(code.toString(), catalog.getMessage(code, null, locale),
+                        () -> "Missing " + code.getMessageKey() + " for '" + locale + "'");
+            }
+        }
+    }
+
+    @Test
+    void getMessage_shouldFormatArguments() {
+        assertEquals("User not found with identifier: 42",
+                catalog.getMessage(ErrorCode.RESOURCE_NOT_FOUND, new Object[]{"User", "42"}, Locale.ENGLISH));
+        assertEquals("User with username 'bob' already exists",
+                catalog.getMessage(ErrorCode.RESOURCE_ALREADY_EXISTS, new Object[]{"User", "username", "bob"}, Locale.ENGLISH));
+    }
+
+    @Test
+    void getMessage_shouldReturnPatternUnchangedWithoutArguments() {
+        assertEquals("{0} not found with identifier: {1}",
+                catalog.getMessage(ErrorCode.RESOURCE_NOT_FOUND, null, Locale.ENGLISH));
+    }
+
+    @Test
+    void getMessage_shouldUseLanguageBundle() {
+        assertEquals("Systemfehler", catalog.getMessage(ErrorCode.SYSTEM_ERROR, null, Locale.GERMANY));
+    }
+
+    @Test
+    void getMessage_shouldFallBackToDefaultBundleForUnknownLocales() {
+        assertEquals(catalog.getMessage(ErrorCode.SYSTEM_ERROR, null, Locale.ROOT),
+                catalog.getMessage(ErrorCode.SYSTEM_ERROR, null, Locale.JAPANESE));
+        assertEquals(catalog.getMessage(ErrorCode.SYSTEM_ERROR, null, Locale.ROOT),
+                catalog.getMessage(ErrorCode.SYSTEM_ERROR, null, null));
+    }
+}
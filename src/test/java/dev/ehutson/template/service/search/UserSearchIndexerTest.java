@@ -0,0 +1,62 @@
+package dev.ehutson.template.service.search;
+
+import com.mongodb.DBRef;
+import dev.ehutson.template.domain.search.UserSearchDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSearchIndexerTest {
+
+    @Test
+    void toSearchDocument_shouldMapStoredFieldsAndResolveRoleNames() {
+        ObjectId id = new ObjectId();
+        ObjectId adminRole = new ObjectId();
+        ObjectId deletedRole = new ObjectId();
+        Instant createdAt = Instant.parse("2024-01-01T00:00:00Z");
+        Document user = new Document("_id", id)
+                .append("username", "ada")
+                .append("email", "ada@example.com")
+                .append("first_name", "Ada")
+                .append("last_name", "Lovelace")
+                .append("activated", true)
+                .append("created_at", Date.from(createdAt))
+                .append("roles", List.of(new DBRef("roles", adminRole), new DBRef("roles", deletedRole)));
+
+        UserSearchDocument document = UserSearchIndexer.toSearchDocument(user, Map.of(adminRole.toHexString(), "ROLE_ADMIN"));
+
+        assertEquals(id.toHexString(), document.getId());
+        assertEquals("ada", document.getUsername());
+        assertEquals("Ada", document.getFirstName());
+        assertEquals("Lovelace", document.getLastName());
+        assertTrue(document.isActivated());
+        assertEquals(createdAt, document.getCreatedAt());
+        assertEquals(List.of("ROLE_ADMIN"), document.getRoles());
+    }
+
+    @Test
+    void toIndexQuery_shouldUseUserVersionAsExternalVersion() {
+        Document user = new Document("_id", new ObjectId()).append("username", "ada").append("version", 3L);
+
+        assertEquals(3L, UserSearchIndexer.toIndexQuery(user, Map.of()).getVersion());
+        assertNull(UserSearchIndexer.toIndexQuery(new Document("_id", new ObjectId()), Map.of()).getVersion());
+    }
+
+    @Test
+    void toSearchDocument_shouldTolerateMissingOptionalFields() {
+        Document user = new Document("_id", new ObjectId()).append("username", "bob");
+
+        UserSearchDocument document = UserSearchIndexer.toSearchDocument(user, Map.of());
+
+        assertFalse(document.isActivated());
+        assertNull(document.getCreatedAt());
+        assertTrue(document.getRoles().isEmpty());
+    }
+}
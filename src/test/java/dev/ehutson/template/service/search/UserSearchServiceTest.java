@@ -0,0 +1,39 @@
+package dev.ehutson.template.service.search;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ehutson.template.exception.ApplicationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSearchServiceTest {
+
+    @Test
+    void query_shouldCombineFuzzyPrefixMatchWithFilters() {
+        BoolQuery query = UserSearchService.query("ada lov", List.of("ROLE_ADMIN"), true).bool();
+
+        assertEquals(1, query.must().size());
+        assertEquals(TextQueryType.BoolPrefix, query.must().getFirst().multiMatch().type());
+        assertEquals("AUTO", query.must().getFirst().multiMatch().fuzziness());
+        assertEquals(2, query.filter().size());
+    }
+
+    @Test
+    void query_shouldMatchEverythingWithoutInput() {
+        BoolQuery query = UserSearchService.query(" ", null, null).bool();
+
+        assertTrue(query.must().isEmpty());
+        assertTrue(query.filter().isEmpty());
+    }
+
+    @Test
+    void decodeCursor_shouldRejectGarbage() {
+        UserSearchService service = new UserSearchService(null, new ObjectMapper());
+
+        assertThrows(ApplicationException.class, () -> service.decodeCursor("not a cursor!"));
+    }
+}
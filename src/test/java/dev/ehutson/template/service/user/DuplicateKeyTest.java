@@ -0,0 +1,49 @@
+package dev.ehutson.template.service.user;
+
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DuplicateKeyTest {
+
+    @Test
+    void of_shouldReadFieldAndValueFromMessage() {
+        BulkUserService.DuplicateKey key = BulkUserService.DuplicateKey.of(error(
+                "E11000 duplicate key error collection: template.users index: email dup key: { email: \"taken@example.com\" }",
+                new BsonDocument()));
+
+        assertEquals(new BulkUserService.DuplicateKey("email", "taken@example.com"), key);
+    }
+
+    @Test
+    void of_shouldFallBackToIndexNameWhenKeyHasNoField() {
+        BulkUserService.DuplicateKey key = BulkUserService.DuplicateKey.of(error(
+                "E11000 duplicate key error index: template.users.$username_1 dup key: { : \"taken\" }",
+                new BsonDocument()));
+
+        assertEquals(new BulkUserService.DuplicateKey("username", "taken"), key);
+    }
+
+    @Test
+    void of_shouldPreferKeyValueFromDetails() {
+        BsonDocument details = new BsonDocument("keyValue", new BsonDocument("username", new BsonString("taken")));
+
+        BulkUserService.DuplicateKey key = BulkUserService.DuplicateKey.of(error("E11000 duplicate key error", details));
+
+        assertEquals(new BulkUserService.DuplicateKey("username", "taken"), key);
+    }
+
+    @Test
+    void of_shouldReturnUnknownKeyForUnparsableMessage() {
+        BulkUserService.DuplicateKey key = BulkUserService.DuplicateKey.of(error("E11000 duplicate key error", new BsonDocument()));
+
+        assertEquals(new BulkUserService.DuplicateKey(null, null), key);
+    }
+
+    private static BulkWriteError error(String message, BsonDocument details) {
+        return new BulkWriteError(11000, message, details, 0);
+    }
+}